@@ -1,8 +1,11 @@
+DROP TABLE IF EXISTS EMAIL_OUTBOX;
 DROP TABLE IF EXISTS EMPLOYEE;
 DROP TABLE IF EXISTS CONTRACT_FULL_TIME;
 DROP TABLE IF EXISTS CONTRACT_PART_TIME;
 DROP TABLE IF EXISTS CONTRACT;
 DROP TABLE IF EXISTS PAYROLL_HISTORY;
+DROP TABLE IF EXISTS PAYROLL_RUN;
+DROP TABLE IF EXISTS SCHEMA_VERSION;
 
 CREATE TABLE CONTRACT (
     ID BIGINT AUTO_INCREMENT PRIMARY KEY,
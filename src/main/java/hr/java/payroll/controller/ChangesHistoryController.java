@@ -1,34 +1,39 @@
 package hr.java.payroll.controller;
 
+import hr.java.payroll.database.ChangeLogDatabaseManager;
 import hr.java.payroll.entities.serializer.ChangeLog;
+import hr.java.payroll.entities.serializer.ChangeLogFilter;
+import hr.java.payroll.entities.serializer.ChangeLogPage;
 import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeLogStore;
 import hr.java.payroll.enums.Role;
 import hr.java.payroll.exception.InvalidInputException;
 import hr.java.payroll.utils.InputCheck;
+import hr.java.payroll.utils.LazyTablePager;
 import hr.java.payroll.utils.Message;
 import hr.java.payroll.utils.Var;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 /**
  * Controller class for managing and displaying the changes history in the Payroll Management System.
  * This class allows users to search and filter through changes logs by different criteria such as
  * field changed, role, old value, and new value. It also provides functionality to clear search fields.
+ * The history is searched in the change log store defined in {@link Var}.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class ChangesHistoryController {
     private static final Logger log = LoggerFactory.getLogger(ChangesHistoryController.class);
+    private LazyTablePager<ChangeLog, ChangeLogPage> changeLogPager;
 
     @FXML private TableView<ChangeLog> changesHistoryTableView;
+    @FXML private TableColumn<ChangeLog, String> cheangesHistoryChangeSetTableColumn;
     @FXML private TableColumn<ChangeLog, String> cheangesHistoryFieldChangedTableColumn;
     @FXML private TableColumn<ChangeLog, String> cheangesHistoryOldValueTableColumn;
     @FXML private TableColumn<ChangeLog, String> cheangesHistoryNewValueTableColumn;
@@ -43,19 +48,24 @@ public class ChangesHistoryController {
     /**
      * Initializes the changes history view by setting up the table columns and loading available roles
      * in the combo box. It also triggers the search function to populate the table with existing change logs.
+     * Changes made by one edit share the number in the edit column. Older change logs are loaded as the table
+     * is scrolled down.
      */
     public void initialize() {
         cheangesHistoryRoleComboBox.setItems(FXCollections.observableArrayList(Role.values()));
+        cheangesHistoryChangeSetTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getChangeSetId())));
         cheangesHistoryFieldChangedTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFieldChanged()));
         cheangesHistoryOldValueTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getOldValue()));
         cheangesHistoryNewValueTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getNewValue()));
         cheangesHistoryRoleTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getRole()));
         cheangesHistoryChangeDateTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFormattedDateTime()));
+        changeLogPager = new LazyTablePager<>(changesHistoryTableView, "changes-history-page-loader", "Changes history could not be loaded.");
         search();
     }
 
     /**
-     * Searches through the change logs based on the input criteria (field changed, role, old value, new value).
+     * Searches through the change logs based on the input criteria (field changed, role, old value, new value)
+     * and displays the newest matching change logs first; older ones are loaded as the table is scrolled down.
      * If any input is invalid, it displays a warning alert and logs the issue.
      */
     public void search(){
@@ -72,15 +82,21 @@ public class ChangesHistoryController {
         String oldValue = cheangesHistoryOldValueTextField.getText().trim().toLowerCase();
         String newValue = cheangesHistoryNewValueTextField.getText().trim().toLowerCase();
 
-        List<ChangeLog> changeLogList = ChangeLogSerializer.deserializeChanges().stream()
-                .filter(changeLog -> fieldChanged.isEmpty() || changeLog.getFieldChanged().toLowerCase().contains(fieldChanged))
-                .filter(changeLog -> role == null || changeLog.getRole().equals(role.name()))
-                .filter(changeLog -> oldValue.isEmpty() || changeLog.getOldValue().toLowerCase().contains(oldValue))
-                .filter(changeLog -> newValue.isEmpty() || changeLog.getNewValue().toLowerCase().contains(newValue))
-                .toList();
-
-        ObservableList<ChangeLog> observableList = FXCollections.observableArrayList(changeLogList.reversed());
-        changesHistoryTableView.setItems(observableList);
+        ChangeLogFilter filter = new ChangeLogFilter(
+                fieldChanged.isEmpty() ? null : fieldChanged,
+                role == null ? null : role.name(),
+                oldValue.isEmpty() ? null : oldValue,
+                newValue.isEmpty() ? null : newValue,
+                null,
+                null,
+                null,
+                null);
+        changeLogPager.load(after -> {
+            ChangeLogPage page = Var.CHANGE_LOG_STORE == ChangeLogStore.DATABASE
+                    ? new ChangeLogDatabaseManager().getChangePage(filter, after, Var.CHANGES_HISTORY_PAGE_SIZE)
+                    : ChangeLogSerializer.getChangePage(filter, after, Var.CHANGES_HISTORY_PAGE_SIZE);
+            return new LazyTablePager.Page<>(page.changes(), page, page.hasMore());
+        });
     }
 
     /**
@@ -2,6 +2,8 @@ package hr.java.payroll.controller;
 
 import hr.java.payroll.database.ContractFullTimeDatabaseManager;
 import hr.java.payroll.entities.ContractFullTime;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeEntityType;
 import hr.java.payroll.enums.Position;
 import hr.java.payroll.exception.InvalidInputException;
 import hr.java.payroll.exception.MissingRequiredFieldException;
@@ -145,12 +147,14 @@ public class ContractFullTimeEditController {
         BigDecimal oldBonus = new BigDecimal(contractFullTime.getBonus().toString());
         BigDecimal newBonus = new BigDecimal(contractFullTimeEditBonusTextField.getText());
 
-        Validator.isDataEdited("Full Time Contract Name", oldName, newName);
-        Validator.isDataEdited("Full Time Contract Position", oldPosition, newPosition);
-        Validator.isDataEdited("Full Time Contract Base Salary", oldBaseSalary, newBaseSalary);
-        Validator.isDataEdited("Full Time Contract Bonus", oldBonus, newBonus);
-        Validator.isDataEdited("Full Time Contract Start Date", oldStartDate, newStartDate);
-        Validator.isDataEdited("Full Time Contract End Date", oldEndDate, newEndDate);
+        ChangeLogSerializer.serializeChangeSet(Validator.startChangeSet(ChangeEntityType.FULL_TIME_CONTRACT, contractFullTime.getId())
+                .addIfEdited("Full Time Contract Name", oldName, newName)
+                .addIfEdited("Full Time Contract Position", oldPosition, newPosition)
+                .addIfEdited("Full Time Contract Base Salary", oldBaseSalary, newBaseSalary)
+                .addIfEdited("Full Time Contract Bonus", oldBonus, newBonus)
+                .addIfEdited("Full Time Contract Start Date", oldStartDate, newStartDate)
+                .addIfEdited("Full Time Contract End Date", oldEndDate, newEndDate)
+                .build());
 
         contractFullTimeDatabaseManager.editFullTimeContract(new ContractFullTime.ContractFullTimeBuilder().setId(contractFullTime.getId()).setName(newName).setPosition(newPosition).setBaseSalary(newBaseSalary).setStartDate(newStartDate).setEndDate(newEndDate).setBonus(newBonus).build());
         Message.showAlert(Alert.AlertType.INFORMATION,Var.INFO_TITLE,"", "Contract was updated successfully.");
@@ -2,6 +2,8 @@ package hr.java.payroll.controller;
 
 import hr.java.payroll.database.ContractPartTimeDatabaseManager;
 import hr.java.payroll.entities.ContractPartTime;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeEntityType;
 import hr.java.payroll.enums.Position;
 import hr.java.payroll.exception.InvalidInputException;
 import hr.java.payroll.exception.MissingRequiredFieldException;
@@ -147,12 +149,14 @@ public class ContractPartTimeEditController {
         BigDecimal oldHourlyRate = contractPartTime.getHourlyRate();
         BigDecimal newHourlyRate = new BigDecimal(contractPartTimeEditHourlyRateTextField.getText());
 
-        Validator.isDataEdited("Part Time Contract Name", oldName, newName);
-        Validator.isDataEdited("Part Time Contract Position", oldPosition, newPosition);
-        Validator.isDataEdited("Part Time Contract Start Date", oldStartDate, newStartDate);
-        Validator.isDataEdited("Part Time Contract End Date", oldEndDate, newEndDate);
-        Validator.isDataEdited("Part Time Contract Hours Worked", oldHoursWorked, newHoursWorked);
-        Validator.isDataEdited("Part Time Contract Hourly Rate", oldHourlyRate, newHourlyRate);
+        ChangeLogSerializer.serializeChangeSet(Validator.startChangeSet(ChangeEntityType.PART_TIME_CONTRACT, contractPartTime.getId())
+                .addIfEdited("Part Time Contract Name", oldName, newName)
+                .addIfEdited("Part Time Contract Position", oldPosition, newPosition)
+                .addIfEdited("Part Time Contract Start Date", oldStartDate, newStartDate)
+                .addIfEdited("Part Time Contract End Date", oldEndDate, newEndDate)
+                .addIfEdited("Part Time Contract Hours Worked", oldHoursWorked, newHoursWorked)
+                .addIfEdited("Part Time Contract Hourly Rate", oldHourlyRate, newHourlyRate)
+                .build());
 
         contractPartTimeDatabaseManager.editPartTimeContract(new ContractPartTime.ContractPartTimeBuilder().setId(contractPartTime.getId()).setName(newName).setPosition(newPosition).setBaseSalary(newHoursWorked, newHourlyRate).setStartDate(newStartDate).setEndDate(newEndDate).setHoursWorked(newHoursWorked).setHourlyRate(newHourlyRate).build());
         Message.showAlert(Alert.AlertType.INFORMATION, Var.INFO_TITLE,"", "Employee was updated successfully.");
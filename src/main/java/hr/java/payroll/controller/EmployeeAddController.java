@@ -1,7 +1,6 @@
 package hr.java.payroll.controller;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
+import hr.java.payroll.database.ContractDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
 import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.ContractFullTime;
@@ -24,10 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
 
 /**
  * Controller for adding a new employee.
@@ -38,8 +34,7 @@ import java.util.stream.Stream;
  */
 public class EmployeeAddController {
     private static final Logger log = LoggerFactory.getLogger(EmployeeAddController.class);
-    ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
-    ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
+    ContractDatabaseManager contractDatabaseManager = new ContractDatabaseManager();
     EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
 
     @FXML private TextField employeeAddFirstNameTextField;
@@ -57,10 +52,7 @@ public class EmployeeAddController {
      */
     public void initialize() {
         employeeAddGenderComboBox.setItems(FXCollections.observableArrayList(Gender.values()));
-        List<? extends Contract> contracts = Stream.concat(
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream(),
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream()
-        ).toList();
+        List<Contract> contracts = contractDatabaseManager.getAllContracts();
         employeeAddContractComboBox.setItems(FXCollections.observableArrayList(contracts.stream().map(Contract::getName).toList()));
         employeeAddRoleComboBox.setItems(FXCollections.observableArrayList(Role.values()));
     }
@@ -70,13 +62,11 @@ public class EmployeeAddController {
      * Validates the inputs and handles any errors. If validation is successful, the employee is saved in the database.
      */
     public void create(){
-        List<Contract> contracts = new ArrayList<>();
-        Optional.ofNullable(contractFullTimeDatabaseManager.getAllFullTimeContracts()).ifPresent(contracts::addAll);
-        Optional.ofNullable(contractPartTimeDatabaseManager.getAllPartTimeContracts()).ifPresent(contracts::addAll);
+        List<Contract> contracts = contractDatabaseManager.getAllContracts();
         try {
             Validator.stringInput(employeeAddFirstNameTextField.getText(), "Invalid first name input.");
             Validator.stringInput(employeeAddLastNameTextField.getText(), "Invalid last name input.");
-            Validator.emailValidator(employeeAddEmailTextField.getText(), employeeDatabaseManager.getEmployees(contracts), "Invalid email input");
+            Validator.emailValidator(employeeAddEmailTextField.getText(), employeeDatabaseManager.getAllEmployees(), "Invalid email input");
             Validator.passwordValidator(employeeAddPasswordTextField.getText(), "Invalid password input");
             Validator.dateOfBirthValidator(employeeAddDateOfBirthDatePicker.getValue(), "Employee must be older than 16.");
             Validator.nullInput(employeeAddGenderComboBox.getValue());
@@ -1,10 +1,16 @@
 package hr.java.payroll.controller;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
+import hr.java.payroll.database.ChangeLogDatabaseManager;
+import hr.java.payroll.database.ContractDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
 import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.serializer.ChangeLog;
+import hr.java.payroll.entities.serializer.ChangeLogFilter;
+import hr.java.payroll.entities.serializer.ChangeLogPage;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeEntityType;
+import hr.java.payroll.enums.ChangeLogStore;
 import hr.java.payroll.enums.Gender;
 import hr.java.payroll.enums.Role;
 import hr.java.payroll.exception.InvalidEmailException;
@@ -12,6 +18,7 @@ import hr.java.payroll.exception.InvalidInputException;
 import hr.java.payroll.exception.InvalidPasswordException;
 import hr.java.payroll.exception.MissingRequiredFieldException;
 import hr.java.payroll.utils.*;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -22,21 +29,21 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * Controller for the employee editing functionality in the Payroll Management System.
  * This class allows for the editing of employee details, including their first name, last name,
  * email, password, date of birth, gender, contract, and role.
+ * The changes history of the selected employee is shown below the form.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class EmployeeEditController {
     private static final Logger log = LoggerFactory.getLogger(EmployeeEditController.class);
-    ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
-    ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
+    ContractDatabaseManager contractDatabaseManager = new ContractDatabaseManager();
     EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
+    private LazyTablePager<ChangeLog, ChangeLogPage> historyPager;
 
     @FXML private ComboBox<String> employeeEditAllEmployeesComboBox;
     @FXML private TextField employeeEditFirstNameTextField;
@@ -47,22 +54,36 @@ public class EmployeeEditController {
     @FXML private ComboBox<Gender> employeeEditGenderComboBox;
     @FXML private ComboBox<String> employeeEditContractComboBox;
     @FXML private ComboBox<Role> employeeEditRoleComboBox;
+    @FXML private TableView<ChangeLog> employeeEditHistoryTableView;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryChangeSetTableColumn;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryFieldChangedTableColumn;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryOldValueTableColumn;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryNewValueTableColumn;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryRoleTableColumn;
+    @FXML private TableColumn<ChangeLog, String> employeeEditHistoryChangeDateTableColumn;
 
     /**
-     * Initializes the employee editing form, populating the combo boxes with available employees, contracts, roles, and genders.
+     * Initializes the employee editing form, populating the combo boxes with available employees, contracts, roles, and genders,
+     * and setting up the changes history table.
      */
     public void initialize() {
+        employeeEditHistoryChangeSetTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getChangeSetId())));
+        employeeEditHistoryFieldChangedTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFieldChanged()));
+        employeeEditHistoryOldValueTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getOldValue()));
+        employeeEditHistoryNewValueTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getNewValue()));
+        employeeEditHistoryRoleTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getRole()));
+        employeeEditHistoryChangeDateTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFormattedDateTime()));
+        historyPager = new LazyTablePager<>(employeeEditHistoryTableView, "employee-history-page-loader",
+                "Changes history of the employee could not be loaded.");
+
         employeeEditDateOfBirthDatePicker.setDisable(true);
         employeeEditGenderComboBox.setItems(FXCollections.observableArrayList(Gender.values()));
-        List<? extends Contract> contracts = Stream.concat(
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream(),
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream()
-        ).toList();
+        List<Contract> contracts = contractDatabaseManager.getAllContracts();
         employeeEditContractComboBox.setItems(FXCollections.observableArrayList(contracts.stream().map(Contract::getName).toList()));
         employeeEditRoleComboBox.setItems(FXCollections.observableArrayList(Role.values()));
         employeeEditAllEmployeesComboBox.setItems(
                 FXCollections.observableArrayList(
-                        employeeDatabaseManager.getEmployees((List<Contract>) contracts)
+                        employeeDatabaseManager.getAllEmployees()
                                 .stream()
                                 .map(Employee::getEmail)
                                 .toList()
@@ -85,16 +106,9 @@ public class EmployeeEditController {
      */
     private void loadEmployeeDetails() {
         employeeEditGenderComboBox.setItems(FXCollections.observableArrayList(Gender.values()));
-        List<? extends Contract> contracts = Stream.concat(
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream(),
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream()
-        ).toList();
         Employee employee;
         try{
-            employee = employeeDatabaseManager.getEmployees((List<Contract>) contracts)
-                    .stream()
-                    .filter(c -> c.getEmail().equals(employeeEditAllEmployeesComboBox.getValue()))
-                    .findFirst()
+            employee = employeeDatabaseManager.findEmployeeByEmail(employeeEditAllEmployeesComboBox.getValue())
                     .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
         } catch (IllegalArgumentException e) {
             Message.showAlert(Alert.AlertType.ERROR, Var.ERROR_TITLE, "", e.getMessage());
@@ -109,6 +123,24 @@ public class EmployeeEditController {
         employeeEditGenderComboBox.setValue(employee.getGender());
         employeeEditContractComboBox.setValue(employee.getContract().getName());
         employeeEditRoleComboBox.setValue(employee.getRole());
+        loadEmployeeHistory(employee.getId());
+    }
+
+    /**
+     * Loads the changes history of an employee in the background, newest first, one page at a time as the table is
+     * scrolled down. Only the changes made to the employee are read, through the entity index of the change log or
+     * the change log table.
+     *
+     * @param employeeId the ID of the employee.
+     */
+    private void loadEmployeeHistory(Long employeeId) {
+        ChangeLogFilter filter = ChangeLogFilter.forEntity(ChangeEntityType.EMPLOYEE.name(), employeeId);
+        historyPager.load(after -> {
+            ChangeLogPage page = Var.CHANGE_LOG_STORE == ChangeLogStore.DATABASE
+                    ? new ChangeLogDatabaseManager().getChangePage(filter, after, Var.CHANGES_HISTORY_PAGE_SIZE)
+                    : ChangeLogSerializer.getChangePage(filter, after, Var.CHANGES_HISTORY_PAGE_SIZE);
+            return new LazyTablePager.Page<>(page.changes(), page, page.hasMore());
+        });
     }
 
     /**
@@ -122,11 +154,8 @@ public class EmployeeEditController {
         }
         if (!confirmEditAction()) return;
 
-        List<? extends Contract> contracts = Stream.concat(
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream(),
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream()
-        ).toList();
-        Set<Employee> employees = employeeDatabaseManager.getEmployees((List<Contract>) contracts);
+        List<Contract> contracts = contractDatabaseManager.getAllContracts();
+        Set<Employee> employees = employeeDatabaseManager.getAllEmployees();
         try{
             Validator.stringInput(employeeEditFirstNameTextField.getText(), "Invalid first name input.");
             Validator.stringInput(employeeEditLastNameTextField.getText(), "Invalid last name input.");
@@ -186,14 +215,16 @@ public class EmployeeEditController {
             return;
         }
 
-        Validator.isDataEdited("Employee First Name", oldFirstName, newFirstName);
-        Validator.isDataEdited("Employee Last Name", oldLastName, newLastName);
-        Validator.isDataEdited("Employee Email", oldEmail, newEmail);
-        Validator.isDataEdited("Employee Password", oldPassword, newPassword);
-        Validator.isDataEdited("Employee Date of Birth", oldDateOfBirth, newDateOfBirth);
-        Validator.isDataEdited("Employee Contract", oldContract.getName(), newContract.getName());
-        Validator.isDataEdited("Employee Gender", oldGender, newGender);
-        Validator.isDataEdited("Employee Role", oldRole, newRole);
+        ChangeLogSerializer.serializeChangeSet(Validator.startChangeSet(ChangeEntityType.EMPLOYEE, employee.getId())
+                .addIfEdited("Employee First Name", oldFirstName, newFirstName)
+                .addIfEdited("Employee Last Name", oldLastName, newLastName)
+                .addIfEdited("Employee Email", oldEmail, newEmail)
+                .addIfEdited("Employee Password", oldPassword, newPassword)
+                .addIfEdited("Employee Date of Birth", oldDateOfBirth, newDateOfBirth)
+                .addIfEdited("Employee Contract", oldContract.getName(), newContract.getName())
+                .addIfEdited("Employee Gender", oldGender, newGender)
+                .addIfEdited("Employee Role", oldRole, newRole)
+                .build());
         Employee editedEmployee = new Employee.EmployeeBuilder().setId(employee.getId()).setFirstName(newFirstName).setLastName(newLastName).setEmail(newEmail).setPassword(newPassword).setContract(newContract).setDateOfBirth(newDateOfBirth).setGender(newGender).setRole(newRole).build();
 
         employeeDatabaseManager.editEmployee(editedEmployee);
@@ -217,9 +248,10 @@ public class EmployeeEditController {
     }
 
     /**
-     * Clears all input fields in the employee edit form.
+     * Clears all input fields and the changes history in the employee edit form.
      */
     private void clear(){
+        historyPager.clear();
         employeeEditFirstNameTextField.clear();
         employeeEditLastNameTextField.clear();
         employeeEditEmailTextField.clear();
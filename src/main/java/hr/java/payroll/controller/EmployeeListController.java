@@ -1,9 +1,6 @@
 package hr.java.payroll.controller;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
-import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.Employee;
 import hr.java.payroll.enums.Gender;
 import hr.java.payroll.enums.Role;
@@ -24,20 +21,17 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 /**
  * Controller class for managing employee records in the payroll system.
  * It allows users to search, clear, and delete employee entries from the employee list.
- * It interacts with the database managers for full-time and part-time contracts, as well as employee data.
+ * It interacts with the employee database manager, which loads employees together with their contracts.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class EmployeeListController {
     private static final Logger log = LoggerFactory.getLogger(EmployeeListController.class);
-    ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
-    ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
     EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
     EmployeeRepository<Employee> employeeRepository = new EmployeeRepository<>();
 
@@ -87,11 +81,6 @@ public class EmployeeListController {
      * Validates the input values and applies the search filters.
      */
     public void search() {
-        List<? extends Contract> contracts = Stream.concat(
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream(),
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream()
-        ).toList();
-
         try {
             InputCheck.stringCheck(employeeListFirstNameTextField.getText(), "Invalid first name input.");
             InputCheck.stringCheck(employeeListLastNameTextField.getText(), "Invalid last name input.");
@@ -110,7 +99,7 @@ public class EmployeeListController {
         Long contractID = employeeListContractIDTextField.getText().isEmpty() ? null : Long.valueOf(employeeListContractIDTextField.getText().trim());
         Role role = employeeListRoleComboBox.getValue();
 
-        List<Employee> employees = employeeDatabaseManager.getEmployees((List<Contract>) contracts).stream()
+        List<Employee> employees = employeeDatabaseManager.getAllEmployees().stream()
                 .filter(employee -> firstName.isEmpty() || employee.getFirstName().toLowerCase().contains(firstName))
                 .filter(employee -> lastName.isEmpty() || employee.getLastName().toLowerCase().contains(lastName))
                 .filter(employee -> age == null || age.equals(employee.getAge()))
@@ -122,7 +111,7 @@ public class EmployeeListController {
         ObservableList<Employee> observableList = FXCollections.observableArrayList(employees);
 
         employeListTableView.setItems(observableList);
-        employeeRepository.save(employeeDatabaseManager.getEmployees((List<Contract>) contracts));
+        employeeRepository.save(employeeDatabaseManager.getAllEmployees());
         if(EmployeeSession.getInstance().getLoggedInEmployee().getRole().equals(Role.USER)){
             EmployeeSession.getInstance().logout();
             SceneController.switchToScene("/hr/java/payroll/main/login.fxml");
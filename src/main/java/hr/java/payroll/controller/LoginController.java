@@ -1,9 +1,6 @@
 package hr.java.payroll.controller;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
-import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.Employee;
 import hr.java.payroll.exception.InvalidEmailException;
 import hr.java.payroll.exception.MissingRequiredFieldException;
@@ -18,7 +15,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * Controller class for handling the login functionality in the Payroll Management System.
@@ -32,8 +28,6 @@ public class LoginController {
     private static final Logger log = LoggerFactory.getLogger(LoginController.class);
     private final EmployeeRepository<Employee> employeeRepository = new EmployeeRepository<>();
     private final EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
-    private final ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
-    private  final ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
 
     @FXML private TextField emailTextField;
     @FXML private PasswordField passwordPasswordField;
@@ -47,12 +41,8 @@ public class LoginController {
         String password = passwordPasswordField.getText().trim();
 
         try {
-            List<? extends Contract> contracts = Stream.concat(
-                    contractFullTimeDatabaseManager.getAllFullTimeContracts().stream(),
-                    contractPartTimeDatabaseManager.getAllPartTimeContracts().stream()
-            ).toList();
-            Set<Employee> employeesFromDatabase = employeeDatabaseManager.getEmployees((List<Contract>) contracts);
-            employeeRepository.save(employeeDatabaseManager.getEmployees((List<Contract>) contracts));
+            Set<Employee> employeesFromDatabase = employeeDatabaseManager.getAllEmployees();
+            employeeRepository.save(employeesFromDatabase);
             List<String> employeesFromTxtFile = employeeRepository.acquire();
 
             InputCheck.emailCheck(email, employeesFromDatabase, "Email is required!");
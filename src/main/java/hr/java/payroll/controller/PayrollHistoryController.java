@@ -2,13 +2,13 @@ package hr.java.payroll.controller;
 
 import hr.java.payroll.database.PayrollDatabaseManager;
 import hr.java.payroll.entities.Payslip;
+import hr.java.payroll.entities.PayslipFilter;
 import hr.java.payroll.exception.InvalidInputException;
 import hr.java.payroll.utils.InputCheck;
+import hr.java.payroll.utils.LazyTablePager;
 import hr.java.payroll.utils.Message;
 import hr.java.payroll.utils.Var;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import org.slf4j.Logger;
@@ -29,6 +29,7 @@ import java.util.List;
 public class PayrollHistoryController {
     private static final Logger log = LoggerFactory.getLogger(PayrollHistoryController.class);
     PayrollDatabaseManager payrollDatabaseManager = new PayrollDatabaseManager();
+    private LazyTablePager<Payslip, Payslip> payslipPager;
 
     @FXML private TableView<Payslip> payrollHistoryTableView;
     @FXML private TableColumn<Payslip, String> payrollHistoryIDTableColumn;
@@ -49,7 +50,8 @@ public class PayrollHistoryController {
 
     /**
      * Initializes the payroll history table with column mappings and calls the search method.
-     * Sets up the columns to display specific attributes of each payslip.
+     * Sets up the columns to display specific attributes of each payslip, and loads further pages
+     * as the table is scrolled down.
      */
     public void initialize() {
         payrollHistoryIDTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().id().toString()));
@@ -60,12 +62,14 @@ public class PayrollHistoryController {
         payrollHistoryHoursWorkedTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().hoursWorked().toString()));
         payrollHistorPayrollPeriodTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFormattedPayrollPeriod()));
         payrollHistoryPaymentDateTableColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getFormattedPaymentDate()));
+        payslipPager = new LazyTablePager<>(payrollHistoryTableView, "payroll-history-page-loader", "Payroll history could not be loaded.");
         search();
     }
 
     /**
-     * Searches for payroll history based on the input criteria and displays the results in the table.
-     * Validates the input fields and filters the results based on employee ID, salary, bonus, hours worked, and payment date.
+     * Searches for payroll history based on the input criteria and displays the first page of results in the table.
+     * Validates the input fields and filters the results in the database based on employee ID, salary, bonus,
+     * hours worked, and payment date; further pages are loaded as the table is scrolled down.
      */
     public void search() {
         try {
@@ -87,17 +91,11 @@ public class PayrollHistoryController {
         BigDecimal bonus = payrollHistoryBonusTextField.getText().isEmpty() ? null : new BigDecimal(payrollHistoryBonusTextField.getText());
         BigDecimal hoursWorked = payrollHistoryHoursWorkedTextField.getText().isEmpty() ? null : new BigDecimal(payrollHistoryHoursWorkedTextField.getText());
 
-        List<Payslip> payslips = payrollDatabaseManager.getPayrollHistory().stream()
-                .filter(payslip  -> employeeId == null || payslip.employeeId().compareTo(employeeId) == 0)
-                .filter(payslip -> paymentDate == null || payslip.paymentDate().isEqual(paymentDate))
-                .filter(payslip -> grossSalary == null || payslip.grossSalary().compareTo(grossSalary) == 0)
-                .filter(payslip -> netSalary == null || payslip.netSalary().compareTo(netSalary) == 0)
-                .filter(payslip -> bonus == null || payslip.bonus().compareTo(bonus) == 0)
-                .filter(payslip -> hoursWorked == null || payslip.hoursWorked().compareTo(hoursWorked) == 0)
-                .toList();
-
-        ObservableList<Payslip> observableList = FXCollections.observableArrayList(payslips);
-        payrollHistoryTableView.setItems(observableList);
+        PayslipFilter filter = new PayslipFilter(employeeId, paymentDate, grossSalary, netSalary, bonus, hoursWorked);
+        payslipPager.load(after -> {
+            List<Payslip> page = payrollDatabaseManager.getPayslipPage(filter, after, Var.PAYROLL_HISTORY_PAGE_SIZE);
+            return new LazyTablePager.Page<>(page, page.isEmpty() ? after : page.getLast(), page.size() == Var.PAYROLL_HISTORY_PAGE_SIZE);
+        });
     }
 
     /**
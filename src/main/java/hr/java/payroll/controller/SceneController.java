@@ -10,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -21,6 +23,7 @@ import java.util.Objects;
  */
 public class SceneController {
     private static Stage stage;
+    private static final List<Runnable> sceneExitHandlers = new ArrayList<>();
     private static final Logger log = LoggerFactory.getLogger(SceneController.class);
 
     /**
@@ -38,6 +41,16 @@ public class SceneController {
         stage = primaryStage;
     }
 
+    /**
+     * Registers a handler that runs once when the application leaves the current scene.
+     * Controllers use it to stop timers and background work tied to their scene.
+     *
+     * @param handler The handler to run before the next scene is loaded.
+     */
+    public static void onSceneExit(Runnable handler) {
+        sceneExitHandlers.add(handler);
+    }
+
     /**
      * Switches to the specified scene by loading the corresponding FXML file.
      * This method also applies a fade-in transition to the new scene.
@@ -49,6 +62,7 @@ public class SceneController {
             log.error("Stage has not been set before switching scenes. Cannot switch to scene '{}'.", fxmlFile);
             return;
         }
+        runSceneExitHandlers();
         try {
             Parent root = FXMLLoader.load(Objects.requireNonNull(SceneController.class.getResource(fxmlFile)));
             Scene scene = new Scene(root, 1400, 700);
@@ -64,4 +78,19 @@ public class SceneController {
             log.error("Error occurred while loading the scene '{}'. Exception: {}", fxmlFile, e.getClass().getSimpleName(), e);
         }
     }
+
+    /**
+     * Runs and clears the handlers registered for the scene that is being left.
+     */
+    private static void runSceneExitHandlers() {
+        List<Runnable> handlers = new ArrayList<>(sceneExitHandlers);
+        sceneExitHandlers.clear();
+        for (Runnable handler : handlers) {
+            try {
+                handler.run();
+            } catch (RuntimeException e) {
+                log.error("Error occurred while leaving the current scene.", e);
+            }
+        }
+    }
 }
@@ -1,10 +1,9 @@
 package hr.java.payroll.controller;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
-import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeEntityType;
 import hr.java.payroll.enums.Gender;
 import hr.java.payroll.exception.InvalidEmailException;
 import hr.java.payroll.exception.InvalidInputException;
@@ -17,10 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * Controller class responsible for handling the editing of user information (employee details).
@@ -32,8 +29,6 @@ import java.util.stream.Stream;
  */
 public class UserEditController {
     private static final Logger log = LoggerFactory.getLogger(UserEditController.class);
-    ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
-    ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
     EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
 
     @FXML private TextField userEditFirstNameTextField;
@@ -67,11 +62,7 @@ public class UserEditController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            List<? extends Contract> contracts = Stream.concat(
-                    contractFullTimeDatabaseManager.getAllFullTimeContracts().stream(),
-                    contractPartTimeDatabaseManager.getAllPartTimeContracts().stream()
-            ).toList();
-            Set<Employee> employees = employeeDatabaseManager.getEmployees((List<Contract>) contracts);
+            Set<Employee> employees = employeeDatabaseManager.getAllEmployees();
             try{
                 Validator.stringInput(userEditFirstNameTextField.getText(), "Invalid first name input.");
                 Validator.stringInput(userEditLastNameTextField.getText(), "Invalid last name input.");
@@ -106,12 +97,14 @@ public class UserEditController {
             Gender oldGender = EmployeeSession.getInstance().getLoggedInEmployee().getGender();
             Gender newGender = userEditGenderComboBox.getValue();
 
-            Validator.isDataEdited("Employee First Name", oldFirstName, newFirstName);
-            Validator.isDataEdited("Employee Last Name", oldLastName, newLastName);
-            Validator.isDataEdited("Employee Email", oldEmail, newEmail);
-            Validator.isDataEdited("Employee Password", oldPassword, newPassword);
-            Validator.isDataEdited("Employee Date of Birth", oldDateOfBirth, newDateOfBirth);
-            Validator.isDataEdited("Employee Gender", oldGender, newGender);
+            ChangeLogSerializer.serializeChangeSet(Validator.startChangeSet(ChangeEntityType.EMPLOYEE, EmployeeSession.getInstance().getLoggedInEmployee().getId())
+                    .addIfEdited("Employee First Name", oldFirstName, newFirstName)
+                    .addIfEdited("Employee Last Name", oldLastName, newLastName)
+                    .addIfEdited("Employee Email", oldEmail, newEmail)
+                    .addIfEdited("Employee Password", oldPassword, newPassword)
+                    .addIfEdited("Employee Date of Birth", oldDateOfBirth, newDateOfBirth)
+                    .addIfEdited("Employee Gender", oldGender, newGender)
+                    .build());
             Employee editedEmployee = new Employee.EmployeeBuilder().setId(EmployeeSession.getInstance().getLoggedInEmployee().getId()).setFirstName(newFirstName).setLastName(newLastName).setEmail(newEmail).setPassword(newPassword).setContract(EmployeeSession.getInstance().getLoggedInEmployee().getContract()).setDateOfBirth(newDateOfBirth).setGender(newGender).setRole(EmployeeSession.getInstance().getLoggedInEmployee().getRole()).build();
             employeeDatabaseManager.editEmployee(editedEmployee);
             Message.showAlert(Alert.AlertType.INFORMATION, Var.INFO_TITLE,"", "Employee was updated successfully.");
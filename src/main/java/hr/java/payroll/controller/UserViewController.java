@@ -7,7 +7,6 @@ import hr.java.payroll.utils.Var;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
-import java.util.Comparator;
 import java.util.Optional;
 
 /**
@@ -40,10 +39,7 @@ public class UserViewController {
 
         Long loggedInEmployeeId = EmployeeSession.getInstance().getLoggedInEmployee().getId();
 
-        Optional<Payslip> lastPayslip = payrollDatabaseManager.getPayrollHistory().stream()
-                .filter(payslip -> payslip.employeeId().equals(loggedInEmployeeId))
-                .max(Comparator.comparing(Payslip::id));
-
+        Optional<Payslip> lastPayslip = payrollDatabaseManager.findLatestPayslip(loggedInEmployeeId);
 
         userViewSalary.setText(lastPayslip.map(p -> "Last salary: €" + p.netSalary())
                 .orElse("Last salary: /"));
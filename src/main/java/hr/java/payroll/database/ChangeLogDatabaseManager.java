@@ -0,0 +1,217 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.entities.serializer.ChangeLog;
+import hr.java.payroll.entities.serializer.ChangeLogFilter;
+import hr.java.payroll.entities.serializer.ChangeLogPage;
+import hr.java.payroll.entities.serializer.ChangeSet;
+import hr.java.payroll.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Manages the copy of the change log in the {@code CHANGE_LOG} table: saving recorded change sets, and searching
+ * the changes history with filtered, paginated and time-range queries run by the database.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ChangeLogDatabaseManager {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogDatabaseManager.class);
+    private static final String INSERT_CHANGE_LOG_QUERY = "INSERT INTO CHANGE_LOG (CHANGE_SET_ID, CHANGE_INDEX, ENTITY_TYPE, ENTITY_ID, FIELD_CHANGED, OLD_VALUE, NEW_VALUE, ROLE, CHANGED_AT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHANGE_LOG_QUERY = "SELECT ID, CHANGE_SET_ID, ENTITY_TYPE, ENTITY_ID, FIELD_CHANGED, OLD_VALUE, NEW_VALUE, ROLE, CHANGED_AT FROM CHANGE_LOG";
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructor that initializes the database manager.
+     */
+    public ChangeLogDatabaseManager() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Saves the changes of recorded change sets in one batch and transaction.
+     *
+     * @param changeSets the recorded change sets, oldest first.
+     * @throws DatabaseException if the changes cannot be saved; none of them are.
+     */
+    public void saveChangeSets(Collection<ChangeSet> changeSets) {
+        if (changeSets.isEmpty()) {
+            return;
+        }
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement changeLogPreparedStatement = connection.prepareStatement(INSERT_CHANGE_LOG_QUERY)) {
+            connection.setAutoCommit(false);
+            try {
+                for (ChangeSet changeSet : changeSets) {
+                    for (int i = 0; i < changeSet.getChanges().size(); i++) {
+                        ChangeLog change = changeSet.getChanges().get(i);
+                        changeLogPreparedStatement.setLong(1, changeSet.getId());
+                        changeLogPreparedStatement.setInt(2, i);
+                        changeLogPreparedStatement.setString(3, changeSet.getEntityType());
+                        if (changeSet.getEntityType() == null) {
+                            changeLogPreparedStatement.setNull(4, Types.BIGINT);
+                        } else {
+                            changeLogPreparedStatement.setLong(4, changeSet.getEntityId());
+                        }
+                        changeLogPreparedStatement.setString(5, change.getFieldChanged());
+                        changeLogPreparedStatement.setString(6, change.getOldValue());
+                        changeLogPreparedStatement.setString(7, change.getNewValue());
+                        changeLogPreparedStatement.setString(8, change.getRole());
+                        changeLogPreparedStatement.setTimestamp(9, Timestamp.valueOf(change.getChangeDateTime()));
+                        changeLogPreparedStatement.addBatch();
+                    }
+                }
+                changeLogPreparedStatement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while saving " + changeSets.size() + " change sets to the change log table.", e);
+        }
+    }
+
+    /**
+     * Reads the ID of the newest change set saved in the table.
+     *
+     * @return the ID, or 0 if the table is empty.
+     * @throws DatabaseException if the table cannot be read.
+     */
+    public long getLastChangeSetId() {
+        try (Connection connection = databaseManager.connectToDatabase();
+             Statement changeLogStatement = connection.createStatement();
+             ResultSet changeLogResultSet = changeLogStatement.executeQuery("SELECT MAX(CHANGE_SET_ID) FROM CHANGE_LOG")) {
+            changeLogResultSet.next();
+            return changeLogResultSet.getLong(1);
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while reading the last change set of the change log table.", e);
+        }
+    }
+
+    /**
+     * Fetches one page of the changes matching a filter, newest first.
+     * The filter and the time range are applied by the database, and pages are read by keyset on the row ID,
+     * so every page costs the same no matter how deep it is.
+     *
+     * @param filter the search criteria.
+     * @param after the previous page, or {@code null} for the first page.
+     * @param pageSize the maximum number of changes on the page.
+     * @return the page, whose position is the ID of its last row, or 0 if it is the last page.
+     * @throws DatabaseException if the page cannot be fetched.
+     */
+    public ChangeLogPage getChangePage(ChangeLogFilter filter, ChangeLogPage after, int pageSize) {
+        StringBuilder changeLogQuery = new StringBuilder(CHANGE_LOG_QUERY).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        appendContainsCondition(changeLogQuery, parameters, "FIELD_CHANGED", filter.fieldChanged());
+        if (filter.role() != null) {
+            changeLogQuery.append(" AND ROLE = ?");
+            parameters.add(filter.role());
+        }
+        appendContainsCondition(changeLogQuery, parameters, "OLD_VALUE", filter.oldValue());
+        appendContainsCondition(changeLogQuery, parameters, "NEW_VALUE", filter.newValue());
+        if (filter.entityType() != null) {
+            changeLogQuery.append(" AND ENTITY_TYPE = ?");
+            parameters.add(filter.entityType());
+        }
+        if (filter.entityId() != null) {
+            changeLogQuery.append(" AND ENTITY_ID = ?");
+            parameters.add(filter.entityId());
+        }
+        if (filter.from() != null) {
+            changeLogQuery.append(" AND CHANGED_AT >= ?");
+            parameters.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            changeLogQuery.append(" AND CHANGED_AT <= ?");
+            parameters.add(Timestamp.valueOf(filter.to()));
+        }
+        if (after != null) {
+            changeLogQuery.append(" AND ID < ?");
+            parameters.add(after.before());
+        }
+        changeLogQuery.append(" ORDER BY ID DESC LIMIT ?");
+        parameters.add(pageSize);
+        List<ChangeLog> changes = new ArrayList<>(pageSize);
+        long lastId = 0;
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement changeLogPreparedStatement = connection.prepareStatement(changeLogQuery.toString())) {
+            for (int i = 0; i < parameters.size(); i++) {
+                changeLogPreparedStatement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet changeLogResultSet = changeLogPreparedStatement.executeQuery()) {
+                while (changeLogResultSet.next()) {
+                    changes.add(mapChangeLog(changeLogResultSet));
+                    lastId = changeLogResultSet.getLong("id");
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while fetching changes history page after " + (after == null ? "start" : after.before()) + ".", e);
+        }
+        return new ChangeLogPage(changes, changes.size() < pageSize ? 0 : lastId);
+    }
+
+    /**
+     * Deletes the changes made before a point in time, so the table keeps the same retention period
+     * as the change log.
+     *
+     * @param cutoff the date and time before which changes are deleted.
+     * @return the number of deleted changes.
+     * @throws DatabaseException if the changes cannot be deleted.
+     */
+    public int deleteChangesBefore(LocalDateTime cutoff) {
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement changeLogPreparedStatement = connection.prepareStatement("DELETE FROM CHANGE_LOG WHERE CHANGED_AT < ?")) {
+            changeLogPreparedStatement.setTimestamp(1, Timestamp.valueOf(cutoff));
+            int deleted = changeLogPreparedStatement.executeUpdate();
+            if (deleted > 0) {
+                log.info("Deleted {} changes made before {} from the change log table.", deleted, cutoff);
+            }
+            return deleted;
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while deleting changes made before " + cutoff + " from the change log table.", e);
+        }
+    }
+
+    /**
+     * Appends a case-insensitive substring condition on a column to a query if a text is given.
+     *
+     * @param query the query being built.
+     * @param parameters the parameters of the query.
+     * @param column the column to search.
+     * @param text the lower-case text the column must contain, or {@code null} for no condition.
+     */
+    private static void appendContainsCondition(StringBuilder query, List<Object> parameters, String column, String text) {
+        if (text != null) {
+            query.append(" AND LOWER(").append(column).append(") LIKE ? ESCAPE '\\'");
+            parameters.add("%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+    }
+
+    /**
+     * Builds a change log entry from the current row of a {@link #CHANGE_LOG_QUERY} result.
+     *
+     * @param changeLogResultSet the result set positioned on a change row.
+     * @return the change log entry.
+     * @throws SQLException if a column cannot be read.
+     */
+    private static ChangeLog mapChangeLog(ResultSet changeLogResultSet) throws SQLException {
+        return new ChangeLog(
+                changeLogResultSet.getString("field_changed"),
+                changeLogResultSet.getString("old_value"),
+                changeLogResultSet.getString("new_value"),
+                changeLogResultSet.getString("role"),
+                changeLogResultSet.getTimestamp("changed_at").toLocalDateTime(),
+                changeLogResultSet.getLong("change_set_id"),
+                changeLogResultSet.getString("entity_type"),
+                changeLogResultSet.getLong("entity_id"));
+    }
+}
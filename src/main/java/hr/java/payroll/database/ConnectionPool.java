@@ -0,0 +1,342 @@
+package hr.java.payroll.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections shared by all database managers.
+ * Connections are validated when borrowed, evicted after being idle for too long,
+ * and reported in the log if they are held longer than the leak detection threshold.
+ * Closing a borrowed connection returns it to the pool instead of closing the physical connection.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Duration connectionTimeout;
+    private final Duration leakDetectionThreshold;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+    private final Map<Connection, Borrow> borrowedConnections = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicLong totalCreated = new AtomicLong();
+    private final AtomicLong totalBorrowed = new AtomicLong();
+    private final AtomicLong totalClosed = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    /**
+     * Creates a connection pool from the given database properties.
+     * Besides the connection credentials, the following optional keys are read:
+     * {@code pool.maxSize}, {@code pool.idleTimeoutSeconds}, {@code pool.connectionTimeoutSeconds},
+     * {@code pool.validationTimeoutSeconds} and {@code pool.leakDetectionThresholdSeconds}.
+     *
+     * @param properties the database properties.
+     */
+    public ConnectionPool(Properties properties) {
+        this.url = properties.getProperty("databaseUrl");
+        this.username = properties.getProperty("username");
+        this.password = properties.getProperty("password");
+        this.maxSize = Integer.parseInt(properties.getProperty("pool.maxSize", "10").trim());
+        this.idleTimeout = Duration.ofSeconds(Long.parseLong(properties.getProperty("pool.idleTimeoutSeconds", "300").trim()));
+        this.connectionTimeout = Duration.ofSeconds(Long.parseLong(properties.getProperty("pool.connectionTimeoutSeconds", "30").trim()));
+        this.validationTimeoutSeconds = Integer.parseInt(properties.getProperty("pool.validationTimeoutSeconds", "2").trim());
+        this.leakDetectionThreshold = Duration.ofSeconds(Long.parseLong(properties.getProperty("pool.leakDetectionThresholdSeconds", "60").trim()));
+
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Connection pool size must be at least 1.");
+        }
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, Math.min(idleTimeout.toSeconds(), leakDetectionThreshold.toSeconds()) / 2);
+        housekeeper.scheduleAtFixedRate(this::housekeeping, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle connection is available
+     * and the pool has not reached its maximum size.
+     *
+     * @return a pooled {@link Connection}; closing it returns it to the pool.
+     * @throws SQLException if the pool is closed, the wait times out, or a new connection cannot be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + connectionTimeout.toSeconds() + "s waiting for a database connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            Connection physicalConnection = takeIdleConnection();
+            if (physicalConnection == null) {
+                physicalConnection = DriverManager.getConnection(url, username, password);
+                totalCreated.incrementAndGet();
+            }
+            totalBorrowed.incrementAndGet();
+            Throwable borrowSite = leakDetectionThreshold.isZero() ? null : new Throwable("Connection borrowed here");
+            borrowedConnections.put(physicalConnection, new Borrow(System.nanoTime(), Thread.currentThread().getName(), borrowSite));
+            return wrap(physicalConnection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the current pool statistics.
+     *
+     * @return the pool statistics.
+     */
+    public PoolStatistics getStatistics() {
+        int idle;
+        synchronized (idleConnections) {
+            idle = idleConnections.size();
+        }
+        return new PoolStatistics(maxSize, borrowedConnections.size(), idle, permits.getQueueLength(),
+                totalCreated.get(), totalBorrowed.get(), totalClosed.get(), validationFailures.get(), leaksDetected.get());
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping thread.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idleConnections) {
+            idleConnections.forEach(idleConnection -> closePhysicalConnection(idleConnection.connection()));
+            idleConnections.clear();
+        }
+        log.info("Connection pool closed. {}", getStatistics());
+    }
+
+    /**
+     * Takes the most recently used idle connection that is still within the idle timeout and passes validation.
+     *
+     * @return a valid physical connection, or {@code null} if none is available.
+     */
+    private Connection takeIdleConnection() {
+        while (true) {
+            IdleConnection idleConnection;
+            synchronized (idleConnections) {
+                idleConnection = idleConnections.pollFirst();
+            }
+            if (idleConnection == null) {
+                return null;
+            }
+            if (isExpired(idleConnection)) {
+                closePhysicalConnection(idleConnection.connection());
+                continue;
+            }
+            try {
+                if (idleConnection.connection().isValid(validationTimeoutSeconds)) {
+                    return idleConnection.connection();
+                }
+            } catch (SQLException e) {
+                log.warn("Error occurred while validating pooled connection.", e);
+            }
+            validationFailures.incrementAndGet();
+            closePhysicalConnection(idleConnection.connection());
+        }
+    }
+
+    /**
+     * Returns a physical connection to the pool, resetting its transactional state.
+     *
+     * @param physicalConnection the physical connection being returned.
+     */
+    private void release(Connection physicalConnection) {
+        borrowedConnections.remove(physicalConnection);
+        try {
+            if (closed || physicalConnection.isClosed()) {
+                closePhysicalConnection(physicalConnection);
+                return;
+            }
+            if (!physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            synchronized (idleConnections) {
+                idleConnections.addFirst(new IdleConnection(physicalConnection, System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that could not be reset.", e);
+            closePhysicalConnection(physicalConnection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evicts expired idle connections and reports borrowed connections held past the leak detection threshold.
+     */
+    private void housekeeping() {
+        synchronized (idleConnections) {
+            idleConnections.removeIf(idleConnection -> {
+                if (isExpired(idleConnection)) {
+                    closePhysicalConnection(idleConnection.connection());
+                    return true;
+                }
+                return false;
+            });
+        }
+        if (leakDetectionThreshold.isZero()) {
+            return;
+        }
+        long now = System.nanoTime();
+        borrowedConnections.values().forEach(borrow -> {
+            if (!borrow.reported().get() && now - borrow.borrowedAt() > leakDetectionThreshold.toNanos()
+                    && borrow.reported().compareAndSet(false, true)) {
+                leaksDetected.incrementAndGet();
+                log.warn("Possible connection leak: connection borrowed by thread '{}' has not been returned for more than {}s.",
+                        borrow.threadName(), leakDetectionThreshold.toSeconds(), borrow.borrowSite());
+            }
+        });
+    }
+
+    /**
+     * Checks whether an idle connection has been idle for longer than the idle timeout.
+     *
+     * @param idleConnection the idle connection to check.
+     * @return true if the connection should be evicted.
+     */
+    private boolean isExpired(IdleConnection idleConnection) {
+        return System.nanoTime() - idleConnection.idleSince() > idleTimeout.toNanos();
+    }
+
+    /**
+     * Closes a physical connection, logging any error.
+     *
+     * @param physicalConnection the connection to close.
+     */
+    private void closePhysicalConnection(Connection physicalConnection) {
+        try {
+            physicalConnection.close();
+        } catch (SQLException e) {
+            log.warn("Error occurred while closing pooled connection.", e);
+        } finally {
+            totalClosed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wraps a physical connection in a proxy whose {@code close()} returns the connection to the pool.
+     *
+     * @param physicalConnection the physical connection.
+     * @return the pooled connection proxy.
+     */
+    private Connection wrap(Connection physicalConnection) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (returned.compareAndSet(false, true)) {
+                                release(physicalConnection);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return returned.get() || physicalConnection.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled" + physicalConnection;
+                        }
+                        default -> {
+                            if (returned.get()) {
+                                throw new SQLException("Connection has already been returned to the pool.");
+                            }
+                            return invoke(physicalConnection, method, args);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Invokes a method on the physical connection, unwrapping reflection exceptions.
+     *
+     * @param physicalConnection the physical connection.
+     * @param method the method to invoke.
+     * @param args the method arguments.
+     * @return the method result.
+     * @throws Throwable the exception thrown by the physical connection.
+     */
+    private static Object invoke(Connection physicalConnection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(physicalConnection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * An open connection waiting in the pool.
+     *
+     * @param connection the physical connection.
+     * @param idleSince the {@link System#nanoTime()} at which the connection was returned.
+     */
+    private record IdleConnection(Connection connection, long idleSince) {}
+
+    /**
+     * Bookkeeping for a borrowed connection, used for leak detection.
+     *
+     * @param borrowedAt the {@link System#nanoTime()} at which the connection was borrowed.
+     * @param threadName the name of the borrowing thread.
+     * @param borrowSite the stack trace of the borrow, or {@code null} if leak detection is disabled.
+     * @param reported whether a leak has already been reported for this borrow.
+     */
+    private record Borrow(long borrowedAt, String threadName, Throwable borrowSite, AtomicBoolean reported) {
+        Borrow(long borrowedAt, String threadName, Throwable borrowSite) {
+            this(borrowedAt, threadName, borrowSite, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.entities.Contract;
+import hr.java.payroll.entities.ContractFullTime;
+import hr.java.payroll.entities.ContractPartTime;
+import hr.java.payroll.enums.Position;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads contracts of every type with a single query that joins the contract table with
+ * the full-time and part-time detail tables, building the matching contract subtype for each row.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ContractDatabaseManager {
+    private static final Logger log = LoggerFactory.getLogger(ContractDatabaseManager.class);
+
+    /**
+     * Columns selected for a contract and its details, aliased so they can be combined with other tables.
+     */
+    static final String CONTRACT_COLUMNS = "C.ID AS CONTRACT_ID, C.NAME AS CONTRACT_NAME, C.POSITION AS CONTRACT_POSITION, "
+            + "C.BASE_SALARY AS CONTRACT_BASE_SALARY, C.START_DATE AS CONTRACT_START_DATE, C.END_DATE AS CONTRACT_END_DATE, "
+            + "CFT.ID AS FULL_TIME_ID, CFT.BONUS AS FULL_TIME_BONUS, "
+            + "CPT.ID AS PART_TIME_ID, CPT.HOURS_WORKED AS PART_TIME_HOURS_WORKED, CPT.HOURLY_RATE AS PART_TIME_HOURLY_RATE";
+
+    /**
+     * Joins the contract table with both detail tables.
+     */
+    static final String CONTRACT_JOINS = "LEFT JOIN CONTRACT_FULL_TIME CFT ON CFT.ID = C.ID "
+            + "LEFT JOIN CONTRACT_PART_TIME CPT ON CPT.ID = C.ID";
+
+    private static final String CONTRACT_QUERY = "SELECT " + CONTRACT_COLUMNS + " FROM CONTRACT C " + CONTRACT_JOINS;
+
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Initializes a new instance of the ContractDatabaseManager.
+     */
+    public ContractDatabaseManager() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Retrieves all contracts, full-time and part-time, ordered by ID.
+     *
+     * @return a list of all contracts.
+     */
+    public List<Contract> getAllContracts() {
+        return fetchContracts(CONTRACT_QUERY + " WHERE CFT.ID IS NOT NULL OR CPT.ID IS NOT NULL ORDER BY C.ID", Contract.class);
+    }
+
+    /**
+     * Retrieves only full-time contracts, ordered by ID.
+     *
+     * @return a list of full-time contracts.
+     */
+    public List<ContractFullTime> getFullTimeContracts() {
+        return fetchContracts(CONTRACT_QUERY + " WHERE CFT.ID IS NOT NULL ORDER BY C.ID", ContractFullTime.class);
+    }
+
+    /**
+     * Retrieves only part-time contracts, ordered by ID.
+     *
+     * @return a list of part-time contracts.
+     */
+    public List<ContractPartTime> getPartTimeContracts() {
+        return fetchContracts(CONTRACT_QUERY + " WHERE CPT.ID IS NOT NULL ORDER BY C.ID", ContractPartTime.class);
+    }
+
+    /**
+     * Runs a contract query and maps every row to its contract subtype.
+     *
+     * @param contractQuery the query selecting {@link #CONTRACT_COLUMNS}.
+     * @param type the expected contract type.
+     * @param <T> the contract type.
+     * @return a list of contracts.
+     */
+    private <T extends Contract> List<T> fetchContracts(String contractQuery, Class<T> type) {
+        List<T> contracts = new ArrayList<>();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             Statement contractStatement = connection.createStatement();
+             ResultSet contractResultSet = contractStatement.executeQuery(contractQuery)) {
+
+            while (contractResultSet.next()) {
+                Contract contract = mapContract(contractResultSet);
+                if (contract != null) {
+                    contracts.add(type.cast(contract));
+                }
+            }
+            return contracts;
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while fetching contracts.", e);
+        }
+        return contracts;
+    }
+
+    /**
+     * Builds the contract subtype described by the current row.
+     * The row must contain the columns listed in {@link #CONTRACT_COLUMNS}.
+     *
+     * @param resultSet the result set positioned on a contract row.
+     * @return the full-time or part-time contract, or {@code null} if the contract has no details.
+     * @throws SQLException if a column cannot be read.
+     */
+    static Contract mapContract(ResultSet resultSet) throws SQLException {
+        Long id = resultSet.getLong("contract_id");
+        String name = resultSet.getString("contract_name");
+        Position position = Position.valueOf(resultSet.getString("contract_position").toUpperCase());
+        LocalDate startDate = resultSet.getDate("contract_start_date").toLocalDate();
+        LocalDate endDate = resultSet.getDate("contract_end_date").toLocalDate();
+
+        if (resultSet.getObject("full_time_id") != null) {
+            return new ContractFullTime.ContractFullTimeBuilder()
+                    .setId(id)
+                    .setName(name)
+                    .setPosition(position)
+                    .setBaseSalary(resultSet.getBigDecimal("contract_base_salary"))
+                    .setStartDate(startDate)
+                    .setEndDate(endDate)
+                    .setBonus(resultSet.getBigDecimal("full_time_bonus"))
+                    .build();
+        }
+        if (resultSet.getObject("part_time_id") != null) {
+            BigDecimal hoursWorked = resultSet.getBigDecimal("part_time_hours_worked");
+            BigDecimal hourlyRate = resultSet.getBigDecimal("part_time_hourly_rate");
+            return new ContractPartTime.ContractPartTimeBuilder()
+                    .setId(id)
+                    .setName(name)
+                    .setPosition(position)
+                    .setStartDate(startDate)
+                    .setEndDate(endDate)
+                    .setBaseSalary(hoursWorked, hourlyRate)
+                    .setHoursWorked(hoursWorked)
+                    .setHourlyRate(hourlyRate)
+                    .build();
+        }
+        log.warn("Contract with ID {} has neither full-time nor part-time details.", id);
+        return null;
+    }
+}
@@ -1,16 +1,12 @@
 package hr.java.payroll.database;
 
 import hr.java.payroll.entities.ContractFullTime;
-import hr.java.payroll.enums.Position;
 import hr.java.payroll.exception.DatabaseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.sql.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,12 +19,14 @@ import java.util.List;
 public class ContractFullTimeDatabaseManager {
     private static final Logger log = LoggerFactory.getLogger(ContractFullTimeDatabaseManager.class);
     private final DatabaseManager databaseManager;
+    private final ContractDatabaseManager contractDatabaseManager;
 
     /**
      * Initializes a new instance of the ContractFullTimeDatabaseManager.
      */
     public ContractFullTimeDatabaseManager() {
         this.databaseManager = new DatabaseManager();
+        this.contractDatabaseManager = new ContractDatabaseManager();
     }
 
     /**
@@ -37,60 +35,7 @@ public class ContractFullTimeDatabaseManager {
      * @return A list of ContractFullTime objects representing all full-time contracts in the database.
      */
     public List<ContractFullTime> getAllFullTimeContracts() {
-        String contractQuery = "SELECT ID, NAME, POSITION, BASE_SALARY, START_DATE, END_DATE FROM CONTRACT";
-        List<ContractFullTime> fullTimeContracts = new ArrayList<>();
-
-        try (Connection connection = databaseManager.connectToDatabase();
-             Statement contractStatement = connection.createStatement()) {
-            ResultSet contractResultSet = contractStatement.executeQuery(contractQuery);
-
-            while (contractResultSet.next()) {
-                Long id = contractResultSet.getLong("id");
-                String name = contractResultSet.getString("name");
-                Position position = Position.valueOf(contractResultSet.getString("position").toUpperCase());
-                BigDecimal baseSalary = contractResultSet.getBigDecimal("base_salary");
-                LocalDate startDate = contractResultSet.getDate("start_date").toLocalDate();
-                LocalDate endDate = contractResultSet.getDate("end_date").toLocalDate();
-
-                BigDecimal bonus = getBonusForContract(connection, id);
-
-                fullTimeContracts.add(new ContractFullTime.ContractFullTimeBuilder()
-                        .setId(id)
-                        .setName(name)
-                        .setPosition(position)
-                        .setBaseSalary(baseSalary)
-                        .setStartDate(startDate)
-                        .setEndDate(endDate)
-                        .setBonus(bonus)
-                        .build());
-            }
-            return fullTimeContracts;
-        } catch (SQLException | IOException e) {
-            log.error("Error occurred while fetching full-time contracts.", e);
-        }
-        return fullTimeContracts;
-    }
-
-    /**
-     * Retrieves the bonus for a given contract from the database.
-     *
-     * @param connection The database connection.
-     * @param contractId The ID of the contract.
-     * @return The bonus amount for the contract.
-     */
-    private BigDecimal getBonusForContract(Connection connection, Long contractId) {
-        String contractFullTimeQuery = "SELECT BONUS FROM CONTRACT_FULL_TIME WHERE ID = ?";
-        try (PreparedStatement restaurantChefStmt = connection.prepareStatement(contractFullTimeQuery)) {
-            restaurantChefStmt.setLong(1, contractId);
-            try (ResultSet restaurantChefResultSet = restaurantChefStmt.executeQuery()) {
-                if (restaurantChefResultSet.next()) {
-                    return restaurantChefResultSet.getBigDecimal("bonus");
-                }
-            }
-        } catch (SQLException e) {
-            log.error("Error while fetching bonus for contract ID: {}", contractId, e);
-        }
-        return BigDecimal.ZERO;
+        return contractDatabaseManager.getFullTimeContracts();
     }
 
     /**
@@ -1,16 +1,12 @@
 package hr.java.payroll.database;
 
 import hr.java.payroll.entities.ContractPartTime;
-import hr.java.payroll.enums.Position;
 import hr.java.payroll.exception.DatabaseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.sql.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -22,12 +18,14 @@ import java.util.List;
 public class ContractPartTimeDatabaseManager {
     private static final Logger log = LoggerFactory.getLogger(ContractPartTimeDatabaseManager.class);
     private final DatabaseManager databaseManager;
+    private final ContractDatabaseManager contractDatabaseManager;
 
     /**
      * Initializes the database manager.
      */
     public ContractPartTimeDatabaseManager() {
         this.databaseManager = new DatabaseManager();
+        this.contractDatabaseManager = new ContractDatabaseManager();
     }
 
     /**
@@ -36,67 +34,7 @@ public class ContractPartTimeDatabaseManager {
      * @return a list of part-time contracts.
      */
     public List<ContractPartTime> getAllPartTimeContracts() {
-        String contractQuery = "SELECT ID, NAME, POSITION, START_DATE, END_DATE FROM CONTRACT";
-        List<ContractPartTime> partTimeContracts = new ArrayList<>();
-
-        try (Connection connection = databaseManager.connectToDatabase();
-             Statement contractStatement = connection.createStatement()) {
-            ResultSet contractResultSet = contractStatement.executeQuery(contractQuery);
-
-            while (contractResultSet.next()) {
-                Long id = contractResultSet.getLong("id");
-                String name = contractResultSet.getString("name");
-                Position position = Position.valueOf(contractResultSet.getString("position").toUpperCase());
-                LocalDate startDate = contractResultSet.getDate("start_date").toLocalDate();
-                LocalDate endDate = contractResultSet.getDate("end_date").toLocalDate();
-
-                ContractPartTime contractPartTime = getPartTimeContractDetails(connection, id);
-
-                if (contractPartTime != null) {
-                    partTimeContracts.add(new ContractPartTime.ContractPartTimeBuilder()
-                            .setId(id)
-                            .setName(name)
-                            .setPosition(position)
-                            .setStartDate(startDate)
-                            .setEndDate(endDate)
-                            .setBaseSalary(contractPartTime.getHoursWorked(), contractPartTime.getHourlyRate())
-                            .setHoursWorked(contractPartTime.getHoursWorked())
-                            .setHourlyRate(contractPartTime.getHourlyRate())
-                            .build());
-                }
-            }
-            return partTimeContracts;
-        } catch (SQLException | IOException e) {
-            log.error("Error occurred while fetching part-time contracts.", e);
-        }
-        return partTimeContracts;
-    }
-
-    /**
-     * Retrieves part-time contract details for a specific contract.
-     *
-     * @param connection the database connection.
-     * @param contractId the ID of the contract.
-     * @return the part-time contract details or null if not found.
-     */
-    private ContractPartTime getPartTimeContractDetails(Connection connection, Long contractId) {
-        String contractPartTimeQuery = "SELECT HOURS_WORKED, HOURLY_RATE FROM CONTRACT_PART_TIME WHERE ID = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(contractPartTimeQuery)) {
-            stmt.setLong(1, contractId);
-            try (ResultSet resultSet = stmt.executeQuery()) {
-                if (resultSet.next()) {
-                    BigDecimal hoursWorked = resultSet.getBigDecimal("hours_worked");
-                    BigDecimal hourlyRate = resultSet.getBigDecimal("hourly_rate");
-                    return new ContractPartTime.ContractPartTimeBuilder()
-                            .setHoursWorked(hoursWorked)
-                            .setHourlyRate(hourlyRate)
-                            .build();
-                }
-            }
-        } catch (SQLException e) {
-            log.error("Error while fetching part-time contract details for ID: {}", contractId, e);
-        }
-        return null;
+        return contractDatabaseManager.getPartTimeContracts();
     }
 
     /**
@@ -1,30 +1,75 @@
 package hr.java.payroll.database;
 
+import hr.java.payroll.utils.Var;
+
 import java.io.FileReader;
 import java.io.IOException;
 import java.sql.*;
 import java.util.Properties;
 
 /**
- * Manages database connections by reading connection details from a properties file.
+ * Manages database connections through a connection pool shared by all database managers.
+ * The connection details are read from a properties file once, when the first connection is requested.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class DatabaseManager {
+    private static volatile ConnectionPool connectionPool;
+
     /**
-     * Establishes a connection to the database using credentials from a properties file.
+     * Borrows a connection to the database from the shared connection pool.
+     * Closing the returned connection gives it back to the pool.
      *
      * @return a {@link Connection} object representing the database connection.
      * @throws IOException if there is an issue reading the properties file.
      * @throws SQLException if there is an issue with the database connection.
      */
     public Connection connectToDatabase() throws IOException, SQLException {
-        Properties properties = new Properties();
-        try (FileReader reader = new FileReader("database.properties")) {
-            properties.load(reader);
+        return getConnectionPool().getConnection();
+    }
+
+    /**
+     * Returns the statistics of the shared connection pool.
+     *
+     * @return the pool statistics, or {@code null} if the pool has not been created yet.
+     */
+    public static PoolStatistics getPoolStatistics() {
+        ConnectionPool pool = connectionPool;
+        return pool == null ? null : pool.getStatistics();
+    }
+
+    /**
+     * Closes the shared connection pool and all of its idle connections.
+     */
+    public static synchronized void shutdown() {
+        if (connectionPool != null) {
+            connectionPool.close();
+            connectionPool = null;
+        }
+    }
+
+    /**
+     * Returns the shared connection pool, creating it from the properties file on first use.
+     *
+     * @return the shared connection pool.
+     * @throws IOException if there is an issue reading the properties file.
+     */
+    private static ConnectionPool getConnectionPool() throws IOException {
+        ConnectionPool pool = connectionPool;
+        if (pool == null) {
+            synchronized (DatabaseManager.class) {
+                pool = connectionPool;
+                if (pool == null) {
+                    Properties properties = new Properties();
+                    try (FileReader reader = new FileReader(Var.DATABASE_PROPERTIES_FILE_PATH)) {
+                        properties.load(reader);
+                    }
+                    pool = new ConnectionPool(properties);
+                    connectionPool = pool;
+                }
+            }
         }
-        return DriverManager.getConnection(properties.getProperty("databaseUrl"),
-                properties.getProperty("username"), properties.getProperty("password"));
+        return pool;
     }
 }
@@ -10,9 +10,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.*;
-import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Manages employee data in the database, including fetching, saving, deleting, and editing employee records.
@@ -22,6 +25,9 @@ import java.util.stream.Collectors;
  */
 public class EmployeeDatabaseManager {
     private static final Logger log = LoggerFactory.getLogger(EmployeeDatabaseManager.class);
+    private static final String EMPLOYEE_QUERY = "SELECT E.ID, E.FIRST_NAME, E.LAST_NAME, E.EMAIL, E.PASSWORD, E.DATE_OF_BIRTH, E.GENDER, E.ROLE, "
+            + ContractDatabaseManager.CONTRACT_COLUMNS
+            + " FROM EMPLOYEE E LEFT JOIN CONTRACT C ON C.ID = E.CONTRACT_ID " + ContractDatabaseManager.CONTRACT_JOINS;
     private final DatabaseManager databaseManager;
 
     /**
@@ -32,57 +38,115 @@ public class EmployeeDatabaseManager {
     }
 
     /**
-     * Fetches all employees from the database and associates them with their contracts.
+     * Fetches all employees together with their contracts in a single query, ordered by ID.
      *
-     * @param allContracts a list of all contracts to match employees with.
-     * @return a set of all employees.
+     * @return a set of all employees, in ascending ID order.
      */
-    public Set<Employee> getEmployees(List<Contract> allContracts) {
-        String employeeQuery = "SELECT ID, FIRST_NAME, LAST_NAME, EMAIL, PASSWORD, DATE_OF_BIRTH, GENDER, CONTRACT_ID, ROLE FROM EMPLOYEE";
-        Set<Employee> employees = new HashSet<>();
+    public Set<Employee> getAllEmployees() {
+        String employeeQuery = EMPLOYEE_QUERY + " ORDER BY E.ID";
+        Set<Employee> employees = new LinkedHashSet<>();
 
         try (Connection connection = databaseManager.connectToDatabase();
              Statement employeeStatement = connection.createStatement();
              ResultSet employeeResultSet = employeeStatement.executeQuery(employeeQuery)) {
 
             while (employeeResultSet.next()) {
-                Long id = employeeResultSet.getLong("id");
-                String firstName = employeeResultSet.getString("first_name");
-                String lastName = employeeResultSet.getString("last_name");
-                String email = employeeResultSet.getString("email");
-                String password = employeeResultSet.getString("password");
-                LocalDate dateOfBirth = employeeResultSet.getDate("date_of_birth").toLocalDate();
-                Gender gender = Gender.valueOf(employeeResultSet.getString("gender"));
-                Long contractId = employeeResultSet.getLong("contract_id");
-                Role role = Role.valueOf(employeeResultSet.getString("role"));
-
-                Optional<Contract> contract = allContracts.stream()
-                        .filter(c -> c.getId().equals(contractId))
-                        .findFirst();
-
-                if (contract.isPresent()) {
-                    employees.add(new Employee.EmployeeBuilder()
-                            .setId(id)
-                            .setFirstName(firstName)
-                            .setLastName(lastName)
-                            .setEmail(email)
-                            .setPassword(password)
-                            .setDateOfBirth(dateOfBirth)
-                            .setGender(gender)
-                            .setContract(contract.get())
-                            .setRole(role)
-                            .build());
-                } else {
-                    log.error("Contract id for employee not found.");
-                }
+                mapEmployee(employeeResultSet).ifPresent(employees::add);
             }
-            return employees.stream().sorted(Comparator.comparing(Employee::getId)).collect(Collectors.toCollection(LinkedHashSet::new));
+            return employees;
         } catch (SQLException | IOException e) {
             log.error("Error occurred while fetching employees", e);
         }
         return employees;
     }
 
+    /**
+     * Fetches a single employee together with their contract by email address.
+     *
+     * @param email the email address of the employee.
+     * @return the employee, or an empty optional if no employee has that email.
+     */
+    public Optional<Employee> findEmployeeByEmail(String email) {
+        String employeeQuery = EMPLOYEE_QUERY + " WHERE E.EMAIL = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement employeePreparedStatement = connection.prepareStatement(employeeQuery)) {
+            employeePreparedStatement.setString(1, email);
+            try (ResultSet employeeResultSet = employeePreparedStatement.executeQuery()) {
+                if (employeeResultSet.next()) {
+                    return mapEmployee(employeeResultSet);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while fetching employee by email.", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Fetches the next employees after a given ID who have not been paid for a payroll period yet.
+     * Employees are read in ID order, so passing the ID of the last employee of one page returns the next page.
+     *
+     * @param afterId the ID after which to start, or 0 to start from the first employee.
+     * @param limit the maximum number of employees to fetch.
+     * @param payrollPeriod the payroll period.
+     * @return the unpaid employees, in ascending ID order.
+     * @throws DatabaseException if the employees cannot be fetched.
+     */
+    public List<Employee> getUnpaidEmployeesAfter(long afterId, int limit, YearMonth payrollPeriod) {
+        String employeeQuery = EMPLOYEE_QUERY + " WHERE E.ID > ? AND (CFT.ID IS NOT NULL OR CPT.ID IS NOT NULL) "
+                + "AND NOT EXISTS (SELECT 1 FROM PAYROLL_HISTORY PH "
+                + "WHERE PH.EMPLOYEE_ID = E.ID AND PH.PAYROLL_PERIOD = ?) ORDER BY E.ID LIMIT ?";
+        List<Employee> employees = new ArrayList<>();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement employeePreparedStatement = connection.prepareStatement(employeeQuery)) {
+            employeePreparedStatement.setLong(1, afterId);
+            employeePreparedStatement.setDate(2, java.sql.Date.valueOf(payrollPeriod.atDay(1)));
+            employeePreparedStatement.setInt(3, limit);
+            try (ResultSet employeeResultSet = employeePreparedStatement.executeQuery()) {
+                while (employeeResultSet.next()) {
+                    mapEmployee(employeeResultSet).ifPresent(employees::add);
+                }
+            }
+            return employees;
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while fetching unpaid employees.", e);
+        }
+    }
+
+    /**
+     * Builds an employee and their contract from the current row of an {@link #EMPLOYEE_QUERY} result.
+     * An employee whose contract is missing or has no details is logged and skipped.
+     *
+     * @param employeeResultSet the result set positioned on an employee row.
+     * @return the employee, or an empty optional if the contract is missing or has no details.
+     * @throws SQLException if a column cannot be read.
+     */
+    private Optional<Employee> mapEmployee(ResultSet employeeResultSet) throws SQLException {
+        Long id = employeeResultSet.getLong("id");
+        if (employeeResultSet.getObject("contract_id") == null) {
+            log.error("Contract for employee with ID {} not found.", id);
+            return Optional.empty();
+        }
+        Contract contract = ContractDatabaseManager.mapContract(employeeResultSet);
+        if (contract == null) {
+            log.error("Contract details for employee with ID {} not found.", id);
+            return Optional.empty();
+        }
+        return Optional.of(new Employee.EmployeeBuilder()
+                .setId(id)
+                .setFirstName(employeeResultSet.getString("first_name"))
+                .setLastName(employeeResultSet.getString("last_name"))
+                .setEmail(employeeResultSet.getString("email"))
+                .setPassword(employeeResultSet.getString("password"))
+                .setDateOfBirth(employeeResultSet.getDate("date_of_birth").toLocalDate())
+                .setGender(Gender.valueOf(employeeResultSet.getString("gender")))
+                .setContract(contract)
+                .setRole(Role.valueOf(employeeResultSet.getString("role")))
+                .build());
+    }
+
     /**
      * Saves a new employee to the database.
      *
@@ -97,7 +161,7 @@ public class EmployeeDatabaseManager {
             employeePreparedStatement.setString(2, employee.getLastName());
             employeePreparedStatement.setString(3, employee.getEmail());
             employeePreparedStatement.setString(4, employee.getPassword());
-            employeePreparedStatement.setString(5, employee.getDateOfBirth().toString());
+            employeePreparedStatement.setDate(5, java.sql.Date.valueOf(employee.getDateOfBirth()));
             employeePreparedStatement.setString(6, employee.getGender().toString());
             employeePreparedStatement.setLong(7, employee.getContract().getId());
             employeePreparedStatement.setString(8, employee.getRole().toString());
@@ -0,0 +1,77 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.entities.Payslip;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A small least-recently-used cache of the latest payslip of each employee, shared by all payroll database managers.
+ * Every write to the payroll history invalidates the employees it covers. A value read from the database is only
+ * stored if no invalidation happened while it was being read, so a slow read never overwrites a newer payslip.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+final class LatestPayslipCache {
+    private final Map<Long, Optional<Payslip>> latestPayslips;
+    private long generation;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of employees kept in the cache.
+     */
+    LatestPayslipCache(int capacity) {
+        this.latestPayslips = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Optional<Payslip>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached latest payslip of an employee.
+     *
+     * @param employeeId the ID of the employee.
+     * @return the latest payslip, an empty optional if the employee has none, or {@code null} if it is not cached.
+     */
+    synchronized Optional<Payslip> get(Long employeeId) {
+        return latestPayslips.get(employeeId);
+    }
+
+    /**
+     * Returns the current generation, to be passed to {@link #put} after reading the database.
+     *
+     * @return the number of invalidations so far.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches the latest payslip of an employee, unless the cache was invalidated since the given generation.
+     *
+     * @param employeeId the ID of the employee.
+     * @param latestPayslip the latest payslip, or an empty optional if the employee has none.
+     * @param readGeneration the generation returned by {@link #generation()} before the payslip was read.
+     */
+    synchronized void put(Long employeeId, Optional<Payslip> latestPayslip, long readGeneration) {
+        if (readGeneration == generation) {
+            latestPayslips.put(employeeId, latestPayslip);
+        }
+    }
+
+    /**
+     * Removes the cached payslips of employees whose payroll history changed.
+     *
+     * @param employeeIds the IDs of the employees.
+     */
+    synchronized void invalidate(Collection<Long> employeeIds) {
+        generation++;
+        employeeIds.forEach(latestPayslips::remove);
+    }
+}
@@ -0,0 +1,200 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.entities.OutboxEmail;
+import hr.java.payroll.enums.OutboxStatus;
+import hr.java.payroll.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manages the email outbox in the database: reading the emails that are due, and recording deliveries,
+ * retries and dead emails.
+ * Payslip emails are written by {@link PayrollDatabaseManager#savePayrollRunChunk} together with the payslips they carry.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class OutboxDatabaseManager {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDatabaseManager.class);
+    private static final String INSERT_OUTBOX_QUERY = "INSERT INTO EMAIL_OUTBOX (PAYROLL_HISTORY_ID, RECIPIENT, SUBJECT, BODY, STATUS, ATTEMPTS) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructor that initializes the database manager.
+     */
+    public OutboxDatabaseManager() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Fetches the pending emails whose next attempt is due, oldest first.
+     *
+     * @param limit the maximum number of emails to fetch.
+     * @return the due emails.
+     * @throws DatabaseException if the emails cannot be read.
+     */
+    public List<OutboxEmail> getDueEmails(int limit) {
+        String outboxQuery = "SELECT ID, PAYROLL_HISTORY_ID, RECIPIENT, SUBJECT, BODY, STATUS, ATTEMPTS FROM EMAIL_OUTBOX "
+                + "WHERE STATUS = ? AND NEXT_ATTEMPT_AT <= CURRENT_TIMESTAMP ORDER BY NEXT_ATTEMPT_AT, ID LIMIT ?";
+        List<OutboxEmail> emails = new ArrayList<>(limit);
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement outboxPreparedStatement = connection.prepareStatement(outboxQuery)) {
+            outboxPreparedStatement.setString(1, OutboxStatus.PENDING.name());
+            outboxPreparedStatement.setInt(2, limit);
+            try (ResultSet outboxResultSet = outboxPreparedStatement.executeQuery()) {
+                while (outboxResultSet.next()) {
+                    long payrollHistoryId = outboxResultSet.getLong("payroll_history_id");
+                    emails.add(new OutboxEmail(
+                            outboxResultSet.getLong("id"),
+                            outboxResultSet.wasNull() ? null : payrollHistoryId,
+                            outboxResultSet.getString("recipient"),
+                            outboxResultSet.getString("subject"),
+                            outboxResultSet.getString("body"),
+                            OutboxStatus.valueOf(outboxResultSet.getString("status")),
+                            outboxResultSet.getInt("attempts")));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while fetching due emails from the outbox.", e);
+        }
+        return emails;
+    }
+
+    /**
+     * Marks emails as sent in a single batch.
+     *
+     * @param ids the IDs of the sent emails.
+     * @throws DatabaseException if the emails cannot be updated.
+     */
+    public void markSent(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String outboxQuery = "UPDATE EMAIL_OUTBOX SET STATUS = ?, SENT_AT = CURRENT_TIMESTAMP, LAST_ERROR = NULL WHERE ID = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement outboxPreparedStatement = connection.prepareStatement(outboxQuery)) {
+            for (Long id : ids) {
+                outboxPreparedStatement.setString(1, OutboxStatus.SENT.name());
+                outboxPreparedStatement.setLong(2, id);
+                outboxPreparedStatement.addBatch();
+            }
+            outboxPreparedStatement.executeBatch();
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while marking " + ids.size() + " outbox emails as sent.", e);
+        }
+    }
+
+    /**
+     * Records a failed delivery attempt and schedules the next one.
+     *
+     * @param id the ID of the email.
+     * @param attempts the number of failed attempts so far.
+     * @param nextAttemptAt the time of the next attempt.
+     * @param error the reason the attempt failed.
+     * @throws DatabaseException if the email cannot be updated.
+     */
+    public void scheduleRetry(Long id, int attempts, Instant nextAttemptAt, String error) {
+        updateFailedEmail(id, OutboxStatus.PENDING, attempts, nextAttemptAt, error);
+    }
+
+    /**
+     * Records a failed delivery attempt and stops retrying the email.
+     *
+     * @param id the ID of the email.
+     * @param attempts the number of failed attempts so far.
+     * @param error the reason the last attempt failed.
+     * @throws DatabaseException if the email cannot be updated.
+     */
+    public void markDead(Long id, int attempts, String error) {
+        updateFailedEmail(id, OutboxStatus.DEAD, attempts, Instant.now(), error);
+    }
+
+    /**
+     * Counts the emails in the outbox by status.
+     *
+     * @return the number of emails of each status.
+     */
+    public Map<OutboxStatus, Long> countByStatus() {
+        Map<OutboxStatus, Long> counts = new EnumMap<>(OutboxStatus.class);
+        for (OutboxStatus status : OutboxStatus.values()) {
+            counts.put(status, 0L);
+        }
+        try (Connection connection = databaseManager.connectToDatabase();
+             Statement outboxStatement = connection.createStatement();
+             ResultSet outboxResultSet = outboxStatement.executeQuery("SELECT STATUS, COUNT(*) FROM EMAIL_OUTBOX GROUP BY STATUS")) {
+            while (outboxResultSet.next()) {
+                counts.put(OutboxStatus.valueOf(outboxResultSet.getString(1)), outboxResultSet.getLong(2));
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while counting outbox emails.", e);
+        }
+        return counts;
+    }
+
+    /**
+     * Inserts emails into the outbox on the connection of an open transaction.
+     *
+     * @param connection the database connection.
+     * @param emails the emails to insert.
+     * @throws SQLException if the emails cannot be inserted.
+     */
+    static void insertEmails(Connection connection, Collection<OutboxEmail> emails) throws SQLException {
+        if (emails.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement outboxPreparedStatement = connection.prepareStatement(INSERT_OUTBOX_QUERY)) {
+            for (OutboxEmail email : emails) {
+                if (email.payrollHistoryId() == null) {
+                    outboxPreparedStatement.setNull(1, Types.BIGINT);
+                } else {
+                    outboxPreparedStatement.setLong(1, email.payrollHistoryId());
+                }
+                outboxPreparedStatement.setString(2, email.recipient());
+                outboxPreparedStatement.setString(3, email.subject());
+                outboxPreparedStatement.setString(4, email.body());
+                outboxPreparedStatement.setString(5, email.status().name());
+                outboxPreparedStatement.setInt(6, email.attempts());
+                outboxPreparedStatement.addBatch();
+            }
+            outboxPreparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Updates the status, attempt count, next attempt and last error of an email.
+     *
+     * @param id the ID of the email.
+     * @param status the new status.
+     * @param attempts the number of failed attempts so far.
+     * @param nextAttemptAt the time of the next attempt.
+     * @param error the reason the last attempt failed.
+     * @throws DatabaseException if the email cannot be updated.
+     */
+    private void updateFailedEmail(Long id, OutboxStatus status, int attempts, Instant nextAttemptAt, String error) {
+        String outboxQuery = "UPDATE EMAIL_OUTBOX SET STATUS = ?, ATTEMPTS = ?, NEXT_ATTEMPT_AT = ?, LAST_ERROR = ? WHERE ID = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement outboxPreparedStatement = connection.prepareStatement(outboxQuery)) {
+            outboxPreparedStatement.setString(1, status.name());
+            outboxPreparedStatement.setInt(2, attempts);
+            outboxPreparedStatement.setTimestamp(3, Timestamp.from(nextAttemptAt));
+            outboxPreparedStatement.setString(4, error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+            outboxPreparedStatement.setLong(5, id);
+            outboxPreparedStatement.executeUpdate();
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while recording failed delivery of outbox email " + id + ".", e);
+        }
+    }
+}
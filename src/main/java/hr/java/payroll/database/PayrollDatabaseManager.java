@@ -1,6 +1,12 @@
 package hr.java.payroll.database;
 
+import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.OutboxEmail;
 import hr.java.payroll.entities.Payslip;
+import hr.java.payroll.entities.PayslipFilter;
+import hr.java.payroll.entities.generics.Pair;
+import hr.java.payroll.exception.DatabaseException;
+import hr.java.payroll.utils.Var;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,7 +16,10 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Manages payroll history data in the database, including fetching and saving payslips.
@@ -20,6 +29,9 @@ import java.util.List;
  */
 public class PayrollDatabaseManager {
     private static final Logger log = LoggerFactory.getLogger(PayrollDatabaseManager.class);
+    private static final String PAYROLL_QUERY = "SELECT ID, EMPLOYEE_ID, GROSS_SALARY, NET_SALARY, BONUS, HOURS_WORKED, PAYROLL_PERIOD, PAYMENT_DATE FROM PAYROLL_HISTORY";
+    private static final LatestPayslipCache LATEST_PAYSLIP_CACHE = new LatestPayslipCache(Var.LATEST_PAYSLIP_CACHE_SIZE);
+    private static final String INSERT_PAYROLL_QUERY = "INSERT INTO PAYROLL_HISTORY (EMPLOYEE_ID, GROSS_SALARY, NET_SALARY, BONUS, HOURS_WORKED, PAYROLL_PERIOD, PAYMENT_DATE) VALUES(?, ?, ?, ?, ?, ?, ?)";
     private final DatabaseManager databaseManager;
 
     /**
@@ -35,23 +47,14 @@ public class PayrollDatabaseManager {
      * @return a list of payslips.
      */
     public List<Payslip> getPayrollHistory(){
-        String payrollQuery = "SELECT ID, EMPLOYEE_ID, GROSS_SALARY, NET_SALARY, BONUS, HOURS_WORKED, PAYROLL_PERIOD, PAYMENT_DATE FROM PAYROLL_HISTORY";
         List<Payslip> payslips = new ArrayList<>();
 
         try (Connection connection = databaseManager.connectToDatabase();
              Statement payrollStatement = connection.createStatement();
-             ResultSet payrollResultSet = payrollStatement.executeQuery(payrollQuery)) {
+             ResultSet payrollResultSet = payrollStatement.executeQuery(PAYROLL_QUERY)) {
 
             while (payrollResultSet.next()) {
-                Long id = payrollResultSet.getLong("id");
-                Long employeeId = payrollResultSet.getLong("employee_id");
-                BigDecimal grossSalary = payrollResultSet.getBigDecimal("gross_salary");
-                BigDecimal netSalary = payrollResultSet.getBigDecimal("net_salary");
-                BigDecimal bonus = payrollResultSet.getBigDecimal("bonus");
-                BigDecimal hoursWorked = payrollResultSet.getBigDecimal("hours_worked");
-                YearMonth payrollPeriod = YearMonth.parse(payrollResultSet.getString("payroll_period"));
-                LocalDate paymentDate = LocalDate.parse(payrollResultSet.getString("payment_date"));
-                payslips.add(new Payslip(id, employeeId, grossSalary, netSalary, bonus, hoursWorked, payrollPeriod, paymentDate));
+                payslips.add(mapPayslip(payrollResultSet));
             }
             return payslips;
         } catch (SQLException | IOException e) {
@@ -60,26 +63,325 @@ public class PayrollDatabaseManager {
         return payslips;
     }
 
+    /**
+     * Fetches the latest payslip of an employee, which is the payslip saved last, as the user view has always shown.
+     * The lookup is served by the index on {@code EMPLOYEE_ID} and its result is cached until a new payslip of the
+     * employee is saved.
+     *
+     * @param employeeId the ID of the employee.
+     * @return the latest payslip, or an empty optional if the employee has none or it could not be fetched.
+     */
+    public Optional<Payslip> findLatestPayslip(Long employeeId) {
+        Optional<Payslip> cachedPayslip = LATEST_PAYSLIP_CACHE.get(employeeId);
+        if (cachedPayslip != null) {
+            return cachedPayslip;
+        }
+        String payrollQuery = PAYROLL_QUERY + " WHERE EMPLOYEE_ID = ? ORDER BY ID DESC LIMIT 1";
+        long generation = LATEST_PAYSLIP_CACHE.generation();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(payrollQuery)) {
+            payrollPreparedStatement.setLong(1, employeeId);
+            try (ResultSet payrollResultSet = payrollPreparedStatement.executeQuery()) {
+                Optional<Payslip> latestPayslip = payrollResultSet.next() ? Optional.of(mapPayslip(payrollResultSet)) : Optional.empty();
+                LATEST_PAYSLIP_CACHE.put(employeeId, latestPayslip, generation);
+                return latestPayslip;
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while fetching latest payslip of employee {}.", employeeId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Fetches the payslips of an employee for the payroll periods in a range, served by the unique index on
+     * {@code (EMPLOYEE_ID, PAYROLL_PERIOD)}.
+     *
+     * @param employeeId the ID of the employee.
+     * @param fromPeriod the first payroll period, inclusive.
+     * @param toPeriod the last payroll period, inclusive.
+     * @return the payslips ordered by payroll period, or an empty list if they could not be fetched.
+     */
+    public List<Payslip> getPayslipsForEmployee(Long employeeId, YearMonth fromPeriod, YearMonth toPeriod) {
+        String payrollQuery = PAYROLL_QUERY + " WHERE EMPLOYEE_ID = ? AND PAYROLL_PERIOD BETWEEN ? AND ? ORDER BY PAYROLL_PERIOD, ID";
+        List<Payslip> payslips = new ArrayList<>();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(payrollQuery)) {
+            payrollPreparedStatement.setLong(1, employeeId);
+            payrollPreparedStatement.setDate(2, java.sql.Date.valueOf(fromPeriod.atDay(1)));
+            payrollPreparedStatement.setDate(3, java.sql.Date.valueOf(toPeriod.atDay(1)));
+            try (ResultSet payrollResultSet = payrollPreparedStatement.executeQuery()) {
+                while (payrollResultSet.next()) {
+                    payslips.add(mapPayslip(payrollResultSet));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while fetching payslips of employee {} from {} to {}.", employeeId, fromPeriod, toPeriod, e);
+        }
+        return payslips;
+    }
+
+    /**
+     * Fetches one page of the payroll history matching a filter, newest payment date first.
+     * The filter is applied by the database, and pages are read by keyset on {@code (PAYMENT_DATE, ID)}
+     * from the index on those columns, so every page costs the same no matter how deep it is.
+     *
+     * @param filter the search criteria.
+     * @param after the last payslip of the previous page, or {@code null} for the first page.
+     * @param pageSize the maximum number of payslips on the page.
+     * @return the payslips of the page; fewer than the page size if it is the last page.
+     * @throws DatabaseException if the page cannot be fetched.
+     */
+    public List<Payslip> getPayslipPage(PayslipFilter filter, Payslip after, int pageSize) {
+        StringBuilder payrollQuery = new StringBuilder(PAYROLL_QUERY).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        appendCondition(payrollQuery, parameters, "EMPLOYEE_ID", filter.employeeId());
+        appendCondition(payrollQuery, parameters, "PAYMENT_DATE", filter.paymentDate());
+        appendCondition(payrollQuery, parameters, "GROSS_SALARY", filter.grossSalary());
+        appendCondition(payrollQuery, parameters, "NET_SALARY", filter.netSalary());
+        appendCondition(payrollQuery, parameters, "BONUS", filter.bonus());
+        appendCondition(payrollQuery, parameters, "HOURS_WORKED", filter.hoursWorked());
+        if (after != null) {
+            payrollQuery.append(" AND (PAYMENT_DATE, ID) < (?, ?)");
+            parameters.add(after.paymentDate());
+            parameters.add(after.id());
+        }
+        payrollQuery.append(" ORDER BY PAYMENT_DATE DESC, ID DESC LIMIT ?");
+        parameters.add(pageSize);
+        List<Payslip> payslips = new ArrayList<>(pageSize);
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(payrollQuery.toString())) {
+            for (int i = 0; i < parameters.size(); i++) {
+                payrollPreparedStatement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet payrollResultSet = payrollPreparedStatement.executeQuery()) {
+                while (payrollResultSet.next()) {
+                    payslips.add(mapPayslip(payrollResultSet));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while fetching payroll history page after " + (after == null ? "start" : after.id()) + ".", e);
+        }
+        return payslips;
+    }
+
+    /**
+     * Counts the payslips in the payroll history without loading them.
+     *
+     * @return the number of payslips in the payroll history.
+     * @throws DatabaseException if the payslips cannot be counted.
+     */
+    public long countPayslips() {
+        try (Connection connection = databaseManager.connectToDatabase();
+             Statement countStatement = connection.createStatement();
+             ResultSet countResultSet = countStatement.executeQuery("SELECT COUNT(*) FROM PAYROLL_HISTORY")) {
+            countResultSet.next();
+            return countResultSet.getLong(1);
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while counting payslips in payroll history.", e);
+        }
+    }
+
     /**
      * Saves a new payslip to the payroll history in the database.
      *
      * @param payslip the payslip to be saved.
      */
     public void savePayrollHistory(Payslip payslip) {
-        String payrollQuery = "INSERT INTO PAYROLL_HISTORY (EMPLOYEE_ID, GROSS_SALARY, NET_SALARY, BONUS, HOURS_WORKED, PAYROLL_PERIOD, PAYMENT_DATE) VALUES(?, ?, ?, ?, ?, ?, ?)";
-
         try (Connection connection = databaseManager.connectToDatabase();
-             PreparedStatement payrollPreparedStatement = connection.prepareStatement(payrollQuery)) {
-            payrollPreparedStatement.setLong(1, payslip.employeeId());
-            payrollPreparedStatement.setBigDecimal(2, payslip.grossSalary());
-            payrollPreparedStatement.setBigDecimal(3, payslip.netSalary());
-            payrollPreparedStatement.setBigDecimal(4, payslip.bonus());
-            payrollPreparedStatement.setBigDecimal(5, payslip.hoursWorked());
-            payrollPreparedStatement.setString(6, payslip.payrollPeriod().toString());
-            payrollPreparedStatement.setString(7, payslip.paymentDate().toString());
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(INSERT_PAYROLL_QUERY)) {
+            bindPayslip(payrollPreparedStatement, payslip);
             payrollPreparedStatement.executeUpdate();
         } catch (SQLException | IOException e) {
             log.error("Error occurred while saving payslip to payroll history", e);
+        } finally {
+            LATEST_PAYSLIP_CACHE.invalidate(List.of(payslip.employeeId()));
         }
     }
+
+    /**
+     * Saves payslips to the payroll history using JDBC batches of {@link Var#PAYROLL_BATCH_SIZE} payslips.
+     *
+     * @param payslips the payslips to be saved.
+     * @return the generated payroll history IDs, in the iteration order of the payslips.
+     * @throws DatabaseException if a chunk cannot be saved; chunks saved before it stay committed.
+     */
+    public List<Long> savePayrollHistoryBatch(Collection<Payslip> payslips) {
+        return savePayrollHistoryBatch(payslips, Var.PAYROLL_BATCH_SIZE);
+    }
+
+    /**
+     * Saves payslips to the payroll history using JDBC batches.
+     * Each chunk of payslips is inserted with a single batch and committed in its own transaction.
+     *
+     * @param payslips the payslips to be saved.
+     * @param chunkSize the maximum number of payslips per batch and transaction.
+     * @return the generated payroll history IDs, in the iteration order of the payslips.
+     * @throws DatabaseException if a chunk cannot be saved; chunks saved before it stay committed.
+     */
+    public List<Long> savePayrollHistoryBatch(Collection<Payslip> payslips, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        List<Long> generatedIds = new ArrayList<>(payslips.size());
+        if (payslips.isEmpty()) {
+            return generatedIds;
+        }
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(INSERT_PAYROLL_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+            connection.setAutoCommit(false);
+            Iterator<Payslip> iterator = payslips.iterator();
+            int chunkNumber = 0;
+
+            while (iterator.hasNext()) {
+                long chunkStart = System.nanoTime();
+                int chunkCount = 0;
+                while (iterator.hasNext() && chunkCount < chunkSize) {
+                    bindPayslip(payrollPreparedStatement, iterator.next());
+                    payrollPreparedStatement.addBatch();
+                    chunkCount++;
+                }
+                try {
+                    executeBatch(payrollPreparedStatement, generatedIds);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+                chunkNumber++;
+                log.info("Saved payroll history chunk {} ({} payslips) in {} ms.", chunkNumber, chunkCount,
+                        (System.nanoTime() - chunkStart) / 1_000_000);
+            }
+            return generatedIds;
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while saving payslips to payroll history. Saved "
+                    + generatedIds.size() + " of " + payslips.size() + " payslips.", e);
+        } finally {
+            LATEST_PAYSLIP_CACHE.invalidate(payslips.stream().map(Payslip::employeeId).toList());
+        }
+    }
+
+    /**
+     * Saves a chunk of payslips of a payroll run, queues an email with each payslip in the outbox and moves
+     * the checkpoint of the run in the same transaction, so the checkpoint never points past payslips that
+     * were not saved and every saved payslip is eventually emailed.
+     *
+     * @param payslips the payslips to be saved, each paired with the employee it belongs to.
+     * @param runId the ID of the payroll run.
+     * @param lastEmployeeId the ID of the last employee covered by the chunk.
+     * @return the generated payroll history IDs, in the order of the payslips.
+     * @throws DatabaseException if the chunk cannot be saved, for example because an employee has already been paid for the period.
+     */
+    public List<Long> savePayrollRunChunk(List<Pair<Employee, Payslip>> payslips, Long runId, Long lastEmployeeId) {
+        String checkpointQuery = "UPDATE PAYROLL_RUN SET LAST_EMPLOYEE_ID = ?, UPDATED_AT = CURRENT_TIMESTAMP WHERE ID = ?";
+        List<Long> generatedIds = new ArrayList<>(payslips.size());
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollPreparedStatement = connection.prepareStatement(INSERT_PAYROLL_QUERY, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement checkpointPreparedStatement = connection.prepareStatement(checkpointQuery)) {
+            connection.setAutoCommit(false);
+            try {
+                for (Pair<Employee, Payslip> payslip : payslips) {
+                    bindPayslip(payrollPreparedStatement, payslip.getSecond());
+                    payrollPreparedStatement.addBatch();
+                }
+                executeBatch(payrollPreparedStatement, generatedIds);
+
+                List<OutboxEmail> emails = new ArrayList<>(payslips.size());
+                for (int i = 0; i < payslips.size(); i++) {
+                    String recipient = payslips.get(i).getFirst().getEmail();
+                    if (recipient != null && !recipient.isBlank()) {
+                        Payslip payslip = payslips.get(i).getSecond();
+                        emails.add(OutboxEmail.forPayslip(recipient, new Payslip(generatedIds.get(i), payslip.employeeId(),
+                                payslip.grossSalary(), payslip.netSalary(), payslip.bonus(), payslip.hoursWorked(),
+                                payslip.payrollPeriod(), payslip.paymentDate())));
+                    }
+                }
+                OutboxDatabaseManager.insertEmails(connection, emails);
+
+                checkpointPreparedStatement.setLong(1, lastEmployeeId);
+                checkpointPreparedStatement.setLong(2, runId);
+                checkpointPreparedStatement.executeUpdate();
+                connection.commit();
+                return generatedIds;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while saving payslips of payroll run " + runId + ".", e);
+        } finally {
+            LATEST_PAYSLIP_CACHE.invalidate(payslips.stream().map(payslip -> payslip.getSecond().employeeId()).toList());
+        }
+    }
+
+    /**
+     * Executes the pending batch of a {@link #INSERT_PAYROLL_QUERY} statement and collects the generated IDs.
+     *
+     * @param payrollPreparedStatement the insert statement, prepared to return generated keys.
+     * @param generatedIds the list receiving the generated IDs.
+     * @throws SQLException if the batch fails.
+     */
+    private void executeBatch(PreparedStatement payrollPreparedStatement, List<Long> generatedIds) throws SQLException {
+        payrollPreparedStatement.executeBatch();
+        try (ResultSet generatedKeys = payrollPreparedStatement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                generatedIds.add(generatedKeys.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Appends an equality condition on a column to a query if the value is set.
+     *
+     * @param query the query being built.
+     * @param parameters the parameters of the query.
+     * @param column the column to compare.
+     * @param value the value to compare with, or {@code null} for no condition.
+     */
+    private static void appendCondition(StringBuilder query, List<Object> parameters, String column, Object value) {
+        if (value != null) {
+            query.append(" AND ").append(column).append(" = ?");
+            parameters.add(value);
+        }
+    }
+
+    /**
+     * Builds a payslip from the current row of a {@link #PAYROLL_QUERY} result.
+     *
+     * @param payrollResultSet the result set positioned on a payslip row.
+     * @return the payslip.
+     * @throws SQLException if a column cannot be read.
+     */
+    private Payslip mapPayslip(ResultSet payrollResultSet) throws SQLException {
+        Long id = payrollResultSet.getLong("id");
+        Long employeeId = payrollResultSet.getLong("employee_id");
+        BigDecimal grossSalary = payrollResultSet.getBigDecimal("gross_salary");
+        BigDecimal netSalary = payrollResultSet.getBigDecimal("net_salary");
+        BigDecimal bonus = payrollResultSet.getBigDecimal("bonus");
+        BigDecimal hoursWorked = payrollResultSet.getBigDecimal("hours_worked");
+        YearMonth payrollPeriod = YearMonth.from(payrollResultSet.getDate("payroll_period").toLocalDate());
+        LocalDate paymentDate = payrollResultSet.getDate("payment_date").toLocalDate();
+        return new Payslip(id, employeeId, grossSalary, netSalary, bonus, hoursWorked, payrollPeriod, paymentDate);
+    }
+
+    /**
+     * Binds the columns of a payslip to a {@link #INSERT_PAYROLL_QUERY} statement.
+     *
+     * @param payrollPreparedStatement the insert statement.
+     * @param payslip the payslip to bind.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    private void bindPayslip(PreparedStatement payrollPreparedStatement, Payslip payslip) throws SQLException {
+        payrollPreparedStatement.setLong(1, payslip.employeeId());
+        payrollPreparedStatement.setBigDecimal(2, payslip.grossSalary());
+        payrollPreparedStatement.setBigDecimal(3, payslip.netSalary());
+        payrollPreparedStatement.setBigDecimal(4, payslip.bonus());
+        payrollPreparedStatement.setBigDecimal(5, payslip.hoursWorked());
+        payrollPreparedStatement.setDate(6, java.sql.Date.valueOf(payslip.payrollPeriod().atDay(1)));
+        payrollPreparedStatement.setDate(7, java.sql.Date.valueOf(payslip.paymentDate()));
+    }
 }
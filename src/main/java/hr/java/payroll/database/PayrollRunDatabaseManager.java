@@ -0,0 +1,193 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.entities.PayrollRun;
+import hr.java.payroll.enums.PayrollRunStatus;
+import hr.java.payroll.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Manages payroll runs in the database: starting or resuming the run of a period,
+ * reading unfinished runs and recording their final status.
+ * Checkpoints are written by {@link PayrollDatabaseManager#savePayrollRunChunk} together with the payslips they cover.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class PayrollRunDatabaseManager {
+    private static final Logger log = LoggerFactory.getLogger(PayrollRunDatabaseManager.class);
+    private static final String PAYROLL_RUN_QUERY = "SELECT ID, PAYROLL_PERIOD, PAYMENT_DATE, STATUS, LAST_EMPLOYEE_ID FROM PAYROLL_RUN";
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructor that initializes the database manager.
+     */
+    public PayrollRunDatabaseManager() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Starts the payroll run of a period, or resumes it if it was interrupted.
+     * An interrupted run keeps its payment date and checkpoint. A completed run is restarted from the
+     * first employee with the new payment date, so only employees that have not been paid yet are processed.
+     *
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date used if the run is new or was completed.
+     * @return the run in the {@link PayrollRunStatus#RUNNING} status.
+     * @throws DatabaseException if the run cannot be started.
+     */
+    public PayrollRun startRun(YearMonth payrollPeriod, LocalDate paymentDate) {
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            connection.setAutoCommit(false);
+            try {
+                Optional<PayrollRun> existingRun = findRun(connection, payrollPeriod);
+                PayrollRun run;
+                if (existingRun.isEmpty()) {
+                    run = insertRun(connection, payrollPeriod, paymentDate);
+                } else if (existingRun.get().status() == PayrollRunStatus.COMPLETED) {
+                    run = new PayrollRun(existingRun.get().id(), payrollPeriod, paymentDate, PayrollRunStatus.RUNNING, 0L);
+                    updateRun(connection, run);
+                } else {
+                    PayrollRun interruptedRun = existingRun.get();
+                    run = new PayrollRun(interruptedRun.id(), payrollPeriod, interruptedRun.paymentDate(),
+                            PayrollRunStatus.RUNNING, interruptedRun.lastEmployeeId());
+                    updateRun(connection, run);
+                    log.info("Resuming payroll run for {} after employee {}.", payrollPeriod, run.lastEmployeeId());
+                }
+                connection.commit();
+                return run;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while starting payroll run for " + payrollPeriod + ".", e);
+        }
+    }
+
+    /**
+     * Fetches the runs that were interrupted before they completed.
+     *
+     * @return the unfinished runs, ordered by payroll period.
+     */
+    public List<PayrollRun> getUnfinishedRuns() {
+        String payrollRunQuery = PAYROLL_RUN_QUERY + " WHERE STATUS <> ? ORDER BY PAYROLL_PERIOD";
+        List<PayrollRun> runs = new ArrayList<>();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollRunPreparedStatement = connection.prepareStatement(payrollRunQuery)) {
+            payrollRunPreparedStatement.setString(1, PayrollRunStatus.COMPLETED.name());
+            try (ResultSet payrollRunResultSet = payrollRunPreparedStatement.executeQuery()) {
+                while (payrollRunResultSet.next()) {
+                    runs.add(mapRun(payrollRunResultSet));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while fetching unfinished payroll runs.", e);
+        }
+        return runs;
+    }
+
+    /**
+     * Records the final status of a run.
+     *
+     * @param runId the ID of the run.
+     * @param status the final status.
+     */
+    public void finishRun(Long runId, PayrollRunStatus status) {
+        String payrollRunQuery = "UPDATE PAYROLL_RUN SET STATUS = ?, UPDATED_AT = CURRENT_TIMESTAMP WHERE ID = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement payrollRunPreparedStatement = connection.prepareStatement(payrollRunQuery)) {
+            payrollRunPreparedStatement.setString(1, status.name());
+            payrollRunPreparedStatement.setLong(2, runId);
+            payrollRunPreparedStatement.executeUpdate();
+        } catch (SQLException | IOException e) {
+            log.error("Error occurred while finishing payroll run {}.", runId, e);
+        }
+    }
+
+    /**
+     * Finds the run of a period and locks its row for the current transaction.
+     *
+     * @param connection the database connection.
+     * @param payrollPeriod the payroll period.
+     * @return the run, or an empty optional if the period has no run yet.
+     * @throws SQLException if the run cannot be read.
+     */
+    private Optional<PayrollRun> findRun(Connection connection, YearMonth payrollPeriod) throws SQLException {
+        try (PreparedStatement payrollRunPreparedStatement = connection.prepareStatement(PAYROLL_RUN_QUERY + " WHERE PAYROLL_PERIOD = ? FOR UPDATE")) {
+            payrollRunPreparedStatement.setDate(1, Date.valueOf(payrollPeriod.atDay(1)));
+            try (ResultSet payrollRunResultSet = payrollRunPreparedStatement.executeQuery()) {
+                return payrollRunResultSet.next() ? Optional.of(mapRun(payrollRunResultSet)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Inserts a new run in the {@link PayrollRunStatus#RUNNING} status.
+     *
+     * @param connection the database connection.
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date.
+     * @return the new run.
+     * @throws SQLException if the run cannot be inserted.
+     */
+    private PayrollRun insertRun(Connection connection, YearMonth payrollPeriod, LocalDate paymentDate) throws SQLException {
+        String payrollRunQuery = "INSERT INTO PAYROLL_RUN (PAYROLL_PERIOD, PAYMENT_DATE, STATUS, LAST_EMPLOYEE_ID) VALUES (?, ?, ?, 0)";
+
+        try (PreparedStatement payrollRunPreparedStatement = connection.prepareStatement(payrollRunQuery, Statement.RETURN_GENERATED_KEYS)) {
+            payrollRunPreparedStatement.setDate(1, Date.valueOf(payrollPeriod.atDay(1)));
+            payrollRunPreparedStatement.setDate(2, Date.valueOf(paymentDate));
+            payrollRunPreparedStatement.setString(3, PayrollRunStatus.RUNNING.name());
+            payrollRunPreparedStatement.executeUpdate();
+            try (ResultSet generatedKeys = payrollRunPreparedStatement.getGeneratedKeys()) {
+                generatedKeys.next();
+                return new PayrollRun(generatedKeys.getLong(1), payrollPeriod, paymentDate, PayrollRunStatus.RUNNING, 0L);
+            }
+        }
+    }
+
+    /**
+     * Updates the payment date, status and checkpoint of a run.
+     *
+     * @param connection the database connection.
+     * @param run the run to update.
+     * @throws SQLException if the run cannot be updated.
+     */
+    private void updateRun(Connection connection, PayrollRun run) throws SQLException {
+        String payrollRunQuery = "UPDATE PAYROLL_RUN SET PAYMENT_DATE = ?, STATUS = ?, LAST_EMPLOYEE_ID = ?, UPDATED_AT = CURRENT_TIMESTAMP WHERE ID = ?";
+
+        try (PreparedStatement payrollRunPreparedStatement = connection.prepareStatement(payrollRunQuery)) {
+            payrollRunPreparedStatement.setDate(1, Date.valueOf(run.paymentDate()));
+            payrollRunPreparedStatement.setString(2, run.status().name());
+            payrollRunPreparedStatement.setLong(3, run.lastEmployeeId());
+            payrollRunPreparedStatement.setLong(4, run.id());
+            payrollRunPreparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Builds a run from the current row of a {@link #PAYROLL_RUN_QUERY} result.
+     *
+     * @param payrollRunResultSet the result set positioned on a run row.
+     * @return the run.
+     * @throws SQLException if a column cannot be read.
+     */
+    private PayrollRun mapRun(ResultSet payrollRunResultSet) throws SQLException {
+        return new PayrollRun(
+                payrollRunResultSet.getLong("id"),
+                YearMonth.from(payrollRunResultSet.getDate("payroll_period").toLocalDate()),
+                payrollRunResultSet.getDate("payment_date").toLocalDate(),
+                PayrollRunStatus.valueOf(payrollRunResultSet.getString("status")),
+                payrollRunResultSet.getLong("last_employee_id"));
+    }
+}
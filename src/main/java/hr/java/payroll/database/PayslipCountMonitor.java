@@ -0,0 +1,93 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Watches the number of payslips in the payroll history and notifies its listeners when the number changes.
+ * The count is polled on a background thread with {@link PayrollDatabaseManager#countPayslips()},
+ * so listeners that touch the user interface must hand the update over to the JavaFX application thread.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class PayslipCountMonitor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PayslipCountMonitor.class);
+
+    private final PayrollDatabaseManager payrollDatabaseManager;
+    private final Duration pollInterval;
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService poller;
+    private long lastCount = -1;
+
+    /**
+     * Creates a monitor that polls the payslip count at the given interval.
+     *
+     * @param payrollDatabaseManager the manager used to count the payslips.
+     * @param pollInterval the time between two polls.
+     */
+    public PayslipCountMonitor(PayrollDatabaseManager payrollDatabaseManager, Duration pollInterval) {
+        this.payrollDatabaseManager = payrollDatabaseManager;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Registers a listener that receives the new payslip count whenever it changes.
+     * The first successful poll always notifies the listeners.
+     *
+     * @param listener the listener to register.
+     */
+    public void addListener(LongConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts polling the payslip count. Calling this method on a running monitor has no effect.
+     */
+    public synchronized void start() {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payslip-count-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling the payslip count.
+     */
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Reads the current payslip count and notifies the listeners if it differs from the previous one.
+     */
+    private void poll() {
+        try {
+            long count = payrollDatabaseManager.countPayslips();
+            if (count != lastCount) {
+                lastCount = count;
+                listeners.forEach(listener -> listener.accept(count));
+            }
+        } catch (DatabaseException e) {
+            log.error("Error occurred while polling the payslip count.", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package hr.java.payroll.database;
+
+/**
+ * Represents a point-in-time snapshot of the connection pool state.
+ *
+ * @param maxSize The maximum number of physical connections the pool may hold.
+ * @param active The number of connections currently borrowed.
+ * @param idle The number of open connections waiting in the pool.
+ * @param waiting The number of threads waiting for a connection.
+ * @param totalCreated The number of physical connections opened since startup.
+ * @param totalBorrowed The number of successful borrows since startup.
+ * @param totalClosed The number of physical connections closed since startup.
+ * @param validationFailures The number of idle connections discarded because validation failed.
+ * @param leaksDetected The number of borrows that exceeded the leak detection threshold.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PoolStatistics(
+        int maxSize,
+        int active,
+        int idle,
+        int waiting,
+        long totalCreated,
+        long totalBorrowed,
+        long totalClosed,
+        long validationFailures,
+        long leaksDetected
+) {
+}
@@ -0,0 +1,156 @@
+package hr.java.payroll.database;
+
+import hr.java.payroll.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Applies versioned schema migrations shipped with the application.
+ * Each migration is an SQL script named {@code V<version>__<description>.sql}; the applied versions
+ * are recorded in the {@code SCHEMA_VERSION} table so every migration runs exactly once.
+ * <p>
+ * H2 commits every DDL statement on its own, so a failed migration is not undone: only its data changes
+ * are rolled back. Its version is not recorded and it runs again on the next start, so every migration
+ * script must be written to be run again on a partially migrated schema.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class SchemaMigrator {
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final String MIGRATION_PATH = "/hr/java/payroll/db/migration/";
+
+    /**
+     * Migration scripts in the order they must be applied.
+     */
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__add_secondary_indexes.sql",
+            "V2__typed_payroll_period.sql",
+            "V3__payroll_runs.sql",
+            "V4__email_outbox.sql",
+            "V5__payroll_history_keyset_index.sql",
+            "V6__change_log.sql",
+            "V7__drop_change_log_field_index.sql"
+    );
+
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructor that initializes the database manager.
+     */
+    public SchemaMigrator() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Applies every migration newer than the current schema version.
+     *
+     * @throws DatabaseException if a migration cannot be read or applied.
+     */
+    public void migrate() {
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (VERSION INT PRIMARY KEY, DESCRIPTION VARCHAR NOT NULL, "
+                        + "INSTALLED_ON TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+            }
+            int currentVersion = getCurrentVersion(connection);
+
+            for (String migration : MIGRATIONS) {
+                int version = Integer.parseInt(migration.substring(1, migration.indexOf("__")));
+                if (version > currentVersion) {
+                    applyMigration(connection, version, migration);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new DatabaseException("Error occurred while migrating the database schema.", e);
+        }
+    }
+
+    /**
+     * Reads the highest applied schema version.
+     *
+     * @param connection the database connection.
+     * @return the current schema version, or 0 if no migration has been applied.
+     * @throws SQLException if the version table cannot be read.
+     */
+    private int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(VERSION), 0) FROM SCHEMA_VERSION")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * Runs the statements of a single migration script and records its version, logging every statement that
+     * changed rows.
+     * The data changes and the version are committed together, while each DDL statement is committed by
+     * the database as soon as it runs and stays applied if a later statement fails.
+     *
+     * @param connection the database connection.
+     * @param version the migration version.
+     * @param migration the migration script name.
+     * @throws SQLException if a statement fails.
+     * @throws IOException if the script cannot be read.
+     */
+    private void applyMigration(Connection connection, int version, String migration) throws SQLException, IOException {
+        List<String> statements = readStatements(migration);
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+             PreparedStatement versionStatement = connection.prepareStatement("INSERT INTO SCHEMA_VERSION (VERSION, DESCRIPTION) VALUES (?, ?)")) {
+            for (String sql : statements) {
+                if (!statement.execute(sql) && statement.getUpdateCount() > 0) {
+                    log.info("Schema migration {} changed {} rows with: {}", migration, statement.getUpdateCount(), sql.lines().findFirst().orElse(sql));
+                }
+            }
+            versionStatement.setInt(1, version);
+            versionStatement.setString(2, migration.substring(migration.indexOf("__") + 2, migration.lastIndexOf('.')).replace('_', ' '));
+            versionStatement.executeUpdate();
+            connection.commit();
+            log.info("Applied schema migration {}.", migration);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Reads a migration script and splits it into statements, skipping comment lines.
+     *
+     * @param migration the migration script name.
+     * @return the statements of the script.
+     * @throws IOException if the script cannot be found or read.
+     */
+    private List<String> readStatements(String migration) throws IOException {
+        try (InputStream inputStream = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + migration)) {
+            if (inputStream == null) {
+                throw new IOException("Migration script not found: " + migration);
+            }
+            String script;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                script = reader.lines()
+                        .filter(line -> !line.trim().startsWith("--"))
+                        .collect(Collectors.joining("\n"));
+            }
+            List<String> statements = new ArrayList<>();
+            for (String sql : script.split(";")) {
+                if (!sql.isBlank()) {
+                    statements.add(sql.trim());
+                }
+            }
+            return statements;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package hr.java.payroll.entities;
 
 import hr.java.payroll.enums.Position;
 import hr.java.payroll.interfaces.Payable;
+import hr.java.payroll.utils.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,6 +18,7 @@ public abstract class Contract extends Entity implements Payable{
     private String name;
     private Position position;
     private BigDecimal baseSalary;
+    private long baseSalaryCents;
     private LocalDate startDate;
     private LocalDate endDate;
 
@@ -35,6 +37,7 @@ public abstract class Contract extends Entity implements Payable{
         this.name = name;
         this.position = position;
         this.baseSalary = baseSalary;
+        this.baseSalaryCents = Money.toCents(baseSalary);
         this.startDate = startDate;
         this.endDate = endDate;
     }
@@ -91,6 +94,16 @@ public abstract class Contract extends Entity implements Payable{
      */
     public void setBaseSalary(BigDecimal baseSalary) {
         this.baseSalary = baseSalary;
+        this.baseSalaryCents = Money.toCents(baseSalary);
+    }
+
+    /**
+     * Gets the base salary of the employee under this contract in cents, rounded half-up.
+     *
+     * @return the base salary in cents
+     */
+    public long getBaseSalaryCents() {
+        return baseSalaryCents;
     }
 
     /**
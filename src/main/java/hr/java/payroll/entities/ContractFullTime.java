@@ -2,6 +2,7 @@ package hr.java.payroll.entities;
 
 import hr.java.payroll.enums.Position;
 import hr.java.payroll.interfaces.ContractType;
+import hr.java.payroll.utils.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,6 +17,7 @@ import java.time.LocalDate;
  */
 public final class ContractFullTime extends Contract implements ContractType {
     private BigDecimal bonus;
+    private final long bonusCents;
 
     /**
      * Private constructor for {@link ContractFullTime} using the builder pattern.
@@ -25,6 +27,7 @@ public final class ContractFullTime extends Contract implements ContractType {
     private ContractFullTime(ContractFullTimeBuilder builder) {
        super(builder.id, builder.name, builder.position, builder.baseSalary, builder.startDate, builder.endDate);
        this.bonus = builder.bonus;
+       this.bonusCents = Money.toCents(builder.bonus);
     }
 
     /**
@@ -135,6 +138,15 @@ public final class ContractFullTime extends Contract implements ContractType {
         return bonus;
     }
 
+    /**
+     * Gets the bonus associated with this full-time contract in cents, rounded half-up.
+     *
+     * @return the bonus in cents
+     */
+    public long getBonusCents() {
+        return bonusCents;
+    }
+
     /**
      * Returns the type of contract, which is "Full Time".
      *
@@ -165,8 +177,29 @@ public final class ContractFullTime extends Contract implements ContractType {
     @Override
     public BigDecimal calculateNetSalary() {
         BigDecimal grossSalary = calculateGrossSalary();
-        BigDecimal taxRate = TaxCalculator.calculateTaxRate(grossSalary);
-        BigDecimal tax = TaxCalculator.calculateTax(grossSalary, taxRate);
-        return calculateGrossSalary().subtract(tax);
+        return grossSalary.subtract(TaxCalculator.calculateTax(grossSalary));
+    }
+
+    /**
+     * Calculates the gross salary for this full-time contract in cents.
+     * The gross salary is the sum of the base salary and the bonus, each rounded half-up to cents.
+     *
+     * @return the calculated gross salary in cents
+     */
+    @Override
+    public long calculateGrossSalaryCents() {
+        return getBaseSalaryCents() + bonusCents;
+    }
+
+    /**
+     * Calculates the net salary for this full-time contract in cents.
+     * The net salary is the gross salary minus the tax rounded half-up to cents.
+     *
+     * @return the calculated net salary in cents
+     */
+    @Override
+    public long calculateNetSalaryCents() {
+        long grossSalaryCents = calculateGrossSalaryCents();
+        return grossSalaryCents - TaxCalculator.calculateTaxCents(grossSalaryCents);
     }
 }
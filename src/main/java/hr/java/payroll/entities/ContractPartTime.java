@@ -2,6 +2,7 @@ package hr.java.payroll.entities;
 
 import hr.java.payroll.enums.Position;
 import hr.java.payroll.interfaces.ContractType;
+import hr.java.payroll.utils.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,6 +18,7 @@ import java.time.LocalDate;
 public final class ContractPartTime extends Contract implements ContractType{
     private BigDecimal hoursWorked;
     private BigDecimal hourlyRate;
+    private final long grossSalaryCents;
 
     /**
      * Private constructor for {@link ContractPartTime} using the builder pattern.
@@ -27,6 +29,7 @@ public final class ContractPartTime extends Contract implements ContractType{
         super(builder.id, builder.name, builder.position, builder.baseSalary, builder.startDate, builder.endDate);
         this.hoursWorked = builder.hoursWorked;
         this.hourlyRate = builder.hourlyRate;
+        this.grossSalaryCents = Money.toCents(builder.hourlyRate.multiply(builder.hoursWorked));
     }
 
     /**
@@ -190,8 +193,28 @@ public final class ContractPartTime extends Contract implements ContractType{
     @Override
     public BigDecimal calculateNetSalary() {
         BigDecimal grossSalary = calculateGrossSalary();
-        BigDecimal taxRate = TaxCalculator.calculateTaxRate(grossSalary);
-        BigDecimal tax = TaxCalculator.calculateTax(grossSalary, taxRate);
-        return calculateGrossSalary().subtract(tax);
+        return grossSalary.subtract(TaxCalculator.calculateTax(grossSalary));
+    }
+
+    /**
+     * Calculates the gross salary for this part-time contract in cents.
+     * The product of the hours worked and the hourly rate is rounded half-up to cents once, when the contract is built.
+     *
+     * @return the calculated gross salary in cents
+     */
+    @Override
+    public long calculateGrossSalaryCents() {
+        return grossSalaryCents;
+    }
+
+    /**
+     * Calculates the net salary for this part-time contract in cents.
+     * The net salary is the gross salary minus the tax rounded half-up to cents.
+     *
+     * @return the calculated net salary in cents
+     */
+    @Override
+    public long calculateNetSalaryCents() {
+        return grossSalaryCents - TaxCalculator.calculateTaxCents(grossSalaryCents);
     }
 }
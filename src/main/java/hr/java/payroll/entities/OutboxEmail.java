@@ -0,0 +1,39 @@
+package hr.java.payroll.entities;
+
+import hr.java.payroll.enums.OutboxStatus;
+
+/**
+ * Represents an email in the outbox, waiting to be sent or already delivered.
+ *
+ * @param id The ID of the email, or {@code null} if it has not been saved yet.
+ * @param payrollHistoryId The ID of the payslip carried by the email, or {@code null} if it carries none.
+ * @param recipient The recipient's email address.
+ * @param subject The subject of the email.
+ * @param body The body of the email.
+ * @param status The delivery status of the email.
+ * @param attempts The number of failed delivery attempts.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record OutboxEmail(
+        Long id,
+        Long payrollHistoryId,
+        String recipient,
+        String subject,
+        String body,
+        OutboxStatus status,
+        int attempts
+) {
+    /**
+     * Creates the pending email that sends a saved payslip to its employee.
+     *
+     * @param recipient The employee's email address.
+     * @param payslip The saved payslip.
+     * @return the pending email.
+     */
+    public static OutboxEmail forPayslip(String recipient, Payslip payslip) {
+        return new OutboxEmail(null, payslip.id(), recipient, "Payslip for " + payslip.payrollPeriod(), payslip.toString(),
+                OutboxStatus.PENDING, 0);
+    }
+}
@@ -0,0 +1,27 @@
+package hr.java.payroll.entities;
+
+import hr.java.payroll.enums.PayrollRunStatus;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Represents a payroll run for a single payroll period.
+ * The run records the last employee whose payslip was saved, so an interrupted run can resume after it.
+ *
+ * @param id The ID of the run.
+ * @param payrollPeriod The payroll period of the run.
+ * @param paymentDate The payment date printed on the payslips of the run.
+ * @param status The status of the run.
+ * @param lastEmployeeId The ID of the last employee processed by the run, or 0 if none has been processed yet.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PayrollRun(
+        Long id,
+        YearMonth payrollPeriod,
+        LocalDate paymentDate,
+        PayrollRunStatus status,
+        Long lastEmployeeId
+) {}
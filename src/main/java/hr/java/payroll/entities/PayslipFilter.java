@@ -0,0 +1,35 @@
+package hr.java.payroll.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents the search criteria of the payroll history. A {@code null} criterion matches every payslip.
+ *
+ * @param employeeId The ID of the employee.
+ * @param paymentDate The payment date.
+ * @param grossSalary The gross salary.
+ * @param netSalary The net salary.
+ * @param bonus The bonus.
+ * @param hoursWorked The number of hours worked.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PayslipFilter(
+        Long employeeId,
+        LocalDate paymentDate,
+        BigDecimal grossSalary,
+        BigDecimal netSalary,
+        BigDecimal bonus,
+        BigDecimal hoursWorked
+) {
+    /**
+     * Creates a filter that matches every payslip.
+     *
+     * @return the empty filter.
+     */
+    public static PayslipFilter none() {
+        return new PayslipFilter(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,188 @@
+package hr.java.payroll.entities;
+
+import hr.java.payroll.utils.Money;
+import hr.java.payroll.utils.Var;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * An immutable table of progressive tax brackets.
+ * Each bracket starts at a threshold and taxes the part of the taxable income above it at its marginal rate,
+ * up to the threshold of the next bracket. The taxable income is the gross salary minus a tax-free allowance.
+ * <p>
+ * The table is compiled into sorted arrays of thresholds in cents, marginal rates in basis points and the
+ * tax accumulated below each threshold, so a lookup is a binary search and never allocates.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public final class TaxBracketTable {
+    private final long allowanceCents;
+    private final long[] thresholdsCents;
+    private final long[] ratesBasisPoints;
+
+    /**
+     * Tax accumulated in all brackets below each threshold, in cents multiplied by basis points,
+     * so it is rounded only once per lookup.
+     */
+    private final long[] cumulativeTax;
+
+    /**
+     * Compiles a bracket table.
+     *
+     * @param allowanceCents the tax-free allowance in cents.
+     * @param thresholdsCents the strictly ascending bracket thresholds in cents; the first must be 0.
+     * @param ratesBasisPoints the marginal rate of each bracket in basis points, between 0 and 10000.
+     * @throws IllegalArgumentException if the table is not valid.
+     */
+    public TaxBracketTable(long allowanceCents, long[] thresholdsCents, long[] ratesBasisPoints) {
+        if (allowanceCents < 0) {
+            throw new IllegalArgumentException("Tax allowance cannot be negative.");
+        }
+        if (thresholdsCents.length == 0 || thresholdsCents.length != ratesBasisPoints.length) {
+            throw new IllegalArgumentException("Every tax bracket needs exactly one threshold and one rate.");
+        }
+        if (thresholdsCents[0] != 0) {
+            throw new IllegalArgumentException("The first tax bracket must start at 0.");
+        }
+        this.allowanceCents = allowanceCents;
+        this.thresholdsCents = thresholdsCents.clone();
+        this.ratesBasisPoints = ratesBasisPoints.clone();
+        this.cumulativeTax = new long[thresholdsCents.length];
+
+        for (int i = 0; i < this.thresholdsCents.length; i++) {
+            if (this.ratesBasisPoints[i] < 0 || this.ratesBasisPoints[i] > Money.BASIS_POINTS_PER_UNIT) {
+                throw new IllegalArgumentException("Tax rate of bracket " + (i + 1) + " must be between 0 and 1.");
+            }
+            if (i > 0) {
+                if (this.thresholdsCents[i] <= this.thresholdsCents[i - 1]) {
+                    throw new IllegalArgumentException("Tax bracket thresholds must be strictly ascending.");
+                }
+                cumulativeTax[i] = cumulativeTax[i - 1]
+                        + (this.thresholdsCents[i] - this.thresholdsCents[i - 1]) * this.ratesBasisPoints[i - 1];
+            }
+        }
+    }
+
+    /**
+     * Builds the table equivalent to the tax constants in {@link Var}: income up to {@link Var#MINIMAL_SALARY}
+     * is not taxed, income up to {@link Var#TAX_THRESHOLD} is taxed at {@link Var#LOWER_TAX_RATE}
+     * and income above it at {@link Var#HIGHER_TAX_RATE}.
+     *
+     * @return the default bracket table.
+     */
+    public static TaxBracketTable defaultTable() {
+        return new TaxBracketTable(0,
+                new long[]{0, Money.toCents(Var.MINIMAL_SALARY), Money.toCents(Var.TAX_THRESHOLD)},
+                new long[]{0, Money.toBasisPoints(Var.LOWER_TAX_RATE), Money.toBasisPoints(Var.HIGHER_TAX_RATE)});
+    }
+
+    /**
+     * Parses a bracket table from properties.
+     * The {@code brackets} key lists {@code threshold:rate} pairs separated by commas,
+     * for example {@code 0:0, 970:0.20, 5000:0.30}; the optional {@code allowance} key sets the tax-free allowance.
+     *
+     * @param properties the properties to parse.
+     * @return the bracket table.
+     * @throws IllegalArgumentException if the properties do not describe a valid table.
+     */
+    public static TaxBracketTable fromProperties(Properties properties) {
+        String brackets = properties.getProperty("brackets");
+        if (brackets == null || brackets.isBlank()) {
+            throw new IllegalArgumentException("Missing 'brackets' property.");
+        }
+        String[] entries = brackets.split(",");
+        long[] thresholdsCents = new long[entries.length];
+        long[] ratesBasisPoints = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Tax bracket '" + entries[i].trim() + "' must be written as threshold:rate.");
+            }
+            thresholdsCents[i] = Money.toCents(new BigDecimal(parts[0].trim()));
+            ratesBasisPoints[i] = Money.toBasisPoints(new BigDecimal(parts[1].trim()));
+        }
+        long allowanceCents = Money.toCents(new BigDecimal(properties.getProperty("allowance", "0").trim()));
+        return new TaxBracketTable(allowanceCents, thresholdsCents, ratesBasisPoints);
+    }
+
+    /**
+     * Returns a copy of this table with the marginal rate of one bracket replaced.
+     *
+     * @param bracket the zero-based index of the bracket.
+     * @param rateBasisPoints the new marginal rate in basis points.
+     * @return the new table.
+     */
+    public TaxBracketTable withRate(int bracket, long rateBasisPoints) {
+        long[] rates = ratesBasisPoints.clone();
+        rates[bracket] = rateBasisPoints;
+        return new TaxBracketTable(allowanceCents, thresholdsCents, rates);
+    }
+
+    /**
+     * Calculates the tax on a gross salary in cents, rounded half-up to the nearest cent.
+     *
+     * @param grossSalaryCents the gross salary in cents.
+     * @return the tax in cents.
+     */
+    public long taxCents(long grossSalaryCents) {
+        long taxableCents = grossSalaryCents - allowanceCents;
+        if (taxableCents <= 0) {
+            return 0;
+        }
+        int bracket = bracketIndex(taxableCents);
+        long tax = cumulativeTax[bracket] + (taxableCents - thresholdsCents[bracket]) * ratesBasisPoints[bracket];
+        return (tax + Money.BASIS_POINTS_PER_UNIT / 2) / Money.BASIS_POINTS_PER_UNIT;
+    }
+
+    /**
+     * Returns the marginal rate applied to the last cent of a gross salary.
+     *
+     * @param grossSalaryCents the gross salary in cents.
+     * @return the marginal rate in basis points.
+     */
+    public long marginalRateBasisPoints(long grossSalaryCents) {
+        long taxableCents = grossSalaryCents - allowanceCents;
+        return taxableCents <= 0 ? 0 : ratesBasisPoints[bracketIndex(taxableCents)];
+    }
+
+    /**
+     * Gets the number of brackets in the table.
+     *
+     * @return the number of brackets.
+     */
+    public int getBracketCount() {
+        return thresholdsCents.length;
+    }
+
+    /**
+     * Finds the bracket containing a positive taxable income.
+     *
+     * @param taxableCents the taxable income in cents.
+     * @return the index of the bracket with the highest threshold below the income.
+     */
+    private int bracketIndex(long taxableCents) {
+        int index = Arrays.binarySearch(thresholdsCents, taxableCents);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Returns the table in the {@link #fromProperties(Properties)} format.
+     *
+     * @return the table as a string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder brackets = new StringBuilder();
+        for (int i = 0; i < thresholdsCents.length; i++) {
+            if (i > 0) {
+                brackets.append(", ");
+            }
+            brackets.append(Money.fromCents(thresholdsCents[i])).append(':')
+                    .append(BigDecimal.valueOf(ratesBasisPoints[i], 4).stripTrailingZeros().toPlainString());
+        }
+        return "allowance=" + Money.fromCents(allowanceCents) + ", brackets=" + brackets;
+    }
+}
@@ -1,16 +1,20 @@
 package hr.java.payroll.entities;
 
-import hr.java.payroll.utils.Var;
+import hr.java.payroll.utils.Money;
 
 import java.math.BigDecimal;
 
 /**
  * Utility class for tax calculations based on salary.
+ * Taxes are calculated with the progressive bracket table held here, which starts as the
+ * {@link TaxBracketTable#defaultTable() default table} and is replaced whenever the tax brackets change.
+ * Reading the table is a single volatile read, so lookups during a payroll run never lock.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class TaxCalculator {
+    private static volatile TaxBracketTable table = TaxBracketTable.defaultTable();
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -18,26 +22,60 @@ public class TaxCalculator {
     private TaxCalculator() {}
 
     /**
-     * Calculates the tax rate based on the given gross salary.
+     * Returns the current tax bracket table.
+     *
+     * @return the current table.
+     */
+    public static TaxBracketTable getTable() {
+        return table;
+    }
+
+    /**
+     * Replaces the current tax bracket table atomically.
+     *
+     * @param newTable the new table.
+     */
+    public static void setTable(TaxBracketTable newTable) {
+        table = newTable;
+    }
+
+    /**
+     * Calculates the marginal tax rate applied to the last cent of the given gross salary.
      *
      * @param grossSalary the gross salary amount
-     * @return the applicable tax rate
+     * @return the applicable marginal tax rate
      */
     public static BigDecimal calculateTaxRate(BigDecimal grossSalary) {
-        if(grossSalary.compareTo(Var.MINIMAL_SALARY) < 0) {
-            return BigDecimal.ZERO;
-        }
-        return grossSalary.compareTo(Var.TAX_THRESHOLD) <= 0 ?  Var.LOWER_TAX_RATE : Var.HIGHER_TAX_RATE;
+        return BigDecimal.valueOf(calculateTaxRateBasisPoints(Money.toCents(grossSalary)), 4);
     }
 
     /**
-     * Calculates the tax amount based on the given gross salary and tax rate.
+     * Calculates the tax amount on the given gross salary, rounded half-up to the nearest cent.
      *
      * @param grossSalary the gross salary amount
-     * @param taxRate the applicable tax rate
      * @return the calculated tax amount
      */
-    public static BigDecimal calculateTax(BigDecimal grossSalary, BigDecimal taxRate) {
-        return grossSalary.multiply(taxRate);
+    public static BigDecimal calculateTax(BigDecimal grossSalary) {
+        return Money.fromCents(calculateTaxCents(Money.toCents(grossSalary)));
+    }
+
+    /**
+     * Calculates the marginal tax rate in basis points applied to the last cent of the given gross salary in cents.
+     *
+     * @param grossSalaryCents the gross salary in cents
+     * @return the applicable marginal tax rate in basis points
+     */
+    public static long calculateTaxRateBasisPoints(long grossSalaryCents) {
+        return table.marginalRateBasisPoints(grossSalaryCents);
+    }
+
+    /**
+     * Calculates the tax in cents for the given gross salary in cents, rounded half-up to the nearest cent.
+     *
+     * @param grossSalaryCents the gross salary in cents
+     * @return the tax in cents
+     */
+    public static long calculateTaxCents(long grossSalaryCents) {
+        return table.taxCents(grossSalaryCents);
     }
 }
@@ -1,9 +1,6 @@
 package hr.java.payroll.entities.generics.repository;
 
-import hr.java.payroll.database.ContractFullTimeDatabaseManager;
-import hr.java.payroll.database.ContractPartTimeDatabaseManager;
 import hr.java.payroll.database.EmployeeDatabaseManager;
-import hr.java.payroll.entities.Contract;
 import hr.java.payroll.entities.Employee;
 import hr.java.payroll.utils.Var;
 import org.slf4j.Logger;
@@ -28,8 +25,6 @@ import java.util.stream.Stream;
  */
 public class EmployeeRepository<T extends Employee> extends AbstractRepository<T> {
     private static final Logger log = LoggerFactory.getLogger(EmployeeRepository.class);
-    private static final ContractPartTimeDatabaseManager contractPartTimeDatabaseManager = new ContractPartTimeDatabaseManager();
-    private static final ContractFullTimeDatabaseManager contractFullTimeDatabaseManager = new ContractFullTimeDatabaseManager();
     private static final EmployeeDatabaseManager employeeDatabaseManager = new EmployeeDatabaseManager();
 
     /**
@@ -82,11 +77,7 @@ public class EmployeeRepository<T extends Employee> extends AbstractRepository<T
      */
     private void ensureFileExists() {
         File file = new File(Var.EMPLOYEE_LOGIN_FILE_PATH);
-        List<? extends Contract> contracts = Stream.concat(
-                contractFullTimeDatabaseManager.getAllFullTimeContracts().stream(),
-                contractPartTimeDatabaseManager.getAllPartTimeContracts().stream()
-        ).toList();
-        Set<Employee> employeesFromDatabase = employeeDatabaseManager.getEmployees((List<Contract>) contracts);
+        Set<Employee> employeesFromDatabase = employeeDatabaseManager.getAllEmployees();
         if (!file.exists() || file.length() == 0) {
             try (PrintWriter writer = new PrintWriter(Var.EMPLOYEE_LOGIN_FILE_PATH)) {
                 for(Employee employee : employeesFromDatabase) {
@@ -8,12 +8,17 @@ import java.time.LocalDateTime;
 /**
  * A class representing a change log entry.
  * It stores information about a specific field change, including the old and new values, the role of the user making the change,
- * and the date and time of the change.
+ * the date and time of the change, and the record that was changed.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class ChangeLog implements Serializable {
+    /**
+     * The serial version of the class as it was written to the legacy change list, kept so that list can still be imported.
+     */
+    private static final long serialVersionUID = 2603799760016398519L;
+
     /**
      * The name of the field that was changed.
      */
@@ -39,6 +44,21 @@ public class ChangeLog implements Serializable {
      */
     private LocalDateTime changeDateTime;
 
+    /**
+     * The ID of the change set the change was recorded in, or 0 if it has not been recorded yet.
+     */
+    private long changeSetId;
+
+    /**
+     * The kind of record that was changed, or {@code null} if it is not known.
+     */
+    private String entityType;
+
+    /**
+     * The ID of the record that was changed, or 0 if it is not known.
+     */
+    private long entityId;
+
     /**
      * Constructs a new ChangeLog entry with the specified details.
      *
@@ -49,11 +69,45 @@ public class ChangeLog implements Serializable {
      * @param changeDateTime the date and time the change occurred.
      */
     public ChangeLog(String fieldChanged, String oldValue, String newValue, String role, LocalDateTime changeDateTime) {
+        this(fieldChanged, oldValue, newValue, role, changeDateTime, 0);
+    }
+
+    /**
+     * Constructs a ChangeLog entry recorded in a change set.
+     *
+     * @param fieldChanged the name of the field that was changed.
+     * @param oldValue the previous value of the field.
+     * @param newValue the new value of the field.
+     * @param role the role of the user who made the change.
+     * @param changeDateTime the date and time the change occurred.
+     * @param changeSetId the ID of the change set the change was recorded in.
+     */
+    public ChangeLog(String fieldChanged, String oldValue, String newValue, String role, LocalDateTime changeDateTime, long changeSetId) {
+        this(fieldChanged, oldValue, newValue, role, changeDateTime, changeSetId, null, 0);
+    }
+
+    /**
+     * Constructs a ChangeLog entry of a known record, recorded in a change set.
+     *
+     * @param fieldChanged the name of the field that was changed.
+     * @param oldValue the previous value of the field.
+     * @param newValue the new value of the field.
+     * @param role the role of the user who made the change.
+     * @param changeDateTime the date and time the change occurred.
+     * @param changeSetId the ID of the change set the change was recorded in.
+     * @param entityType the kind of record that was changed, or {@code null} if it is not known.
+     * @param entityId the ID of the record that was changed, or 0 if it is not known.
+     */
+    public ChangeLog(String fieldChanged, String oldValue, String newValue, String role, LocalDateTime changeDateTime,
+                     long changeSetId, String entityType, long entityId) {
         this.fieldChanged = fieldChanged;
         this.oldValue = oldValue;
         this.newValue = newValue;
         this.role = role;
         this.changeDateTime = changeDateTime;
+        this.changeSetId = changeSetId;
+        this.entityType = entityType;
+        this.entityId = entityId;
     }
 
     /**
@@ -101,6 +155,34 @@ public class ChangeLog implements Serializable {
         return changeDateTime;
     }
 
+    /**
+     * Returns the ID of the change set the change was recorded in. Changes made by one edit share a change set.
+     *
+     * @return the ID of the change set, or 0 if the change has not been recorded yet.
+     */
+    public long getChangeSetId() {
+        return changeSetId;
+    }
+
+    /**
+     * Returns the kind of record that was changed, such as {@code EMPLOYEE}.
+     * Changes recorded before records were tracked have none.
+     *
+     * @return the kind of record, or {@code null} if it is not known.
+     */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns the ID of the record that was changed.
+     *
+     * @return the ID of the record, or 0 if it is not known.
+     */
+    public long getEntityId() {
+        return entityId;
+    }
+
     /**
      * Returns the formatted date and time of the change, according to a predefined format.
      *
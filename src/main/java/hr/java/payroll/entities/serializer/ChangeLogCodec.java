@@ -0,0 +1,345 @@
+package hr.java.payroll.entities.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes change sets as the payloads of {@link ChangeLogJournal} records, and decodes the payloads of every
+ * format version the journal has had.
+ * <p>
+ * The current format is compact: numbers and lengths are variable-length integers, strings are UTF-8,
+ * the time is stored in UTC epoch seconds, and field names, roles and entity types are stored as their index in a
+ * fixed dictionary, with any other name written out in full. Every payload can be decoded on its own.
+ * Since the entity version, a change set also records the type and ID of the record it changed.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+final class ChangeLogCodec {
+    static final int SINGLE_CHANGE_VERSION = 1;
+    static final int CHANGE_SET_VERSION = 2;
+    static final int COMPACT_VERSION = 3;
+    static final int ENTITY_VERSION = 4;
+    static final int CURRENT_VERSION = ENTITY_VERSION;
+
+    /**
+     * The field names stored by their index. Entries may only be appended, since the index of an entry is part of
+     * the file format.
+     */
+    private static final List<String> FIELD_NAMES = List.of(
+            "Employee First Name", "Employee Last Name", "Employee Email", "Employee Password",
+            "Employee Date of Birth", "Employee Contract", "Employee Gender", "Employee Role",
+            "Full Time Contract Name", "Full Time Contract Position", "Full Time Contract Base Salary",
+            "Full Time Contract Bonus", "Full Time Contract Start Date", "Full Time Contract End Date",
+            "Part Time Contract Name", "Part Time Contract Position", "Part Time Contract Start Date",
+            "Part Time Contract End Date", "Part Time Contract Hours Worked", "Part Time Contract Hourly Rate"
+    );
+
+    /**
+     * The roles stored by their index. Entries may only be appended, since the index of an entry is part of
+     * the file format.
+     */
+    private static final List<String> ROLES = List.of("ADMIN", "USER");
+
+    /**
+     * The entity types stored by their index. Entries may only be appended, since the index of an entry is part of
+     * the file format.
+     */
+    private static final List<String> ENTITY_TYPES = List.of("EMPLOYEE", "FULL_TIME_CONTRACT", "PART_TIME_CONTRACT");
+
+    private static final Map<String, Integer> FIELD_NAME_CODES = codes(FIELD_NAMES);
+    private static final Map<String, Integer> ROLE_CODES = codes(ROLES);
+    private static final Map<String, Integer> ENTITY_TYPE_CODES = codes(ENTITY_TYPES);
+    private static final int LITERAL = 0;
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ChangeLogCodec() {}
+
+    /**
+     * Encodes a change set in the current format.
+     *
+     * @param changeSet the change set.
+     * @return the payload.
+     */
+    static byte[] encode(ChangeSet changeSet) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(64);
+        writeVarLong(output, changeSet.getId());
+        writeDictionaryString(output, changeSet.getRole(), ROLE_CODES);
+        writeVarLong(output, zigZag(changeSet.getChangeDateTime().toEpochSecond(ZoneOffset.UTC)));
+        writeDictionaryString(output, changeSet.getEntityType(), ENTITY_TYPE_CODES);
+        writeVarLong(output, changeSet.getEntityId());
+        writeVarLong(output, changeSet.getChanges().size());
+        for (ChangeLog change : changeSet.getChanges()) {
+            writeDictionaryString(output, change.getFieldChanged(), FIELD_NAME_CODES);
+            writeString(output, change.getOldValue());
+            writeString(output, change.getNewValue());
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes a payload.
+     *
+     * @param payload the payload.
+     * @param version the format version of the journal the payload was read from.
+     * @param position the position of the record in the journal, starting at 1, which is the ID of a change set
+     *                 of the single change version.
+     * @return the change set.
+     * @throws IOException if the payload is malformed.
+     */
+    static ChangeSet decode(byte[] payload, int version, long position) throws IOException {
+        try {
+            return switch (version) {
+                case SINGLE_CHANGE_VERSION -> decodeSingleChange(payload, position);
+                case CHANGE_SET_VERSION -> decodeChangeSet(payload);
+                case COMPACT_VERSION -> decodeCompact(ByteBuffer.wrap(payload), false);
+                case ENTITY_VERSION -> decodeCompact(ByteBuffer.wrap(payload), true);
+                default -> throw new IOException("Unsupported change log format version " + version + ".");
+            };
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed change log record.", e);
+        }
+    }
+
+    /**
+     * Decodes a payload of the compact format, with or without the changed record.
+     *
+     * @param input the payload.
+     * @param hasEntity whether the payload holds the type and ID of the changed record.
+     * @return the change set.
+     * @throws IOException if the payload is malformed.
+     */
+    private static ChangeSet decodeCompact(ByteBuffer input, boolean hasEntity) throws IOException {
+        long id = readVarLong(input);
+        String role = readDictionaryString(input, ROLES);
+        LocalDateTime changeDateTime = LocalDateTime.ofEpochSecond(unZigZag(readVarLong(input)), 0, ZoneOffset.UTC);
+        String entityType = hasEntity ? readDictionaryString(input, ENTITY_TYPES) : null;
+        long entityId = hasEntity ? readVarLong(input) : 0;
+        long changeCount = readVarLong(input);
+        if (changeCount < 0 || changeCount > input.remaining()) {
+            throw new IOException("Change log record has invalid change count " + changeCount + ".");
+        }
+        List<ChangeLog> changes = new ArrayList<>((int) changeCount);
+        for (long i = 0; i < changeCount; i++) {
+            changes.add(new ChangeLog(readDictionaryString(input, FIELD_NAMES), readString(input), readString(input), role,
+                    changeDateTime, id, entityType, entityId));
+        }
+        return new ChangeSet(id, role, changeDateTime, entityType, entityId, changes);
+    }
+
+    /**
+     * Decodes a payload of the change set version, with fixed-width numbers and lengths.
+     *
+     * @param payload the payload.
+     * @return the change set.
+     * @throws IOException if the payload is malformed.
+     */
+    private static ChangeSet decodeChangeSet(byte[] payload) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        long id = input.readLong();
+        String role = readFixedString(input);
+        LocalDateTime changeDateTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+        int changeCount = input.readInt();
+        if (changeCount < 0 || changeCount > input.available()) {
+            throw new IOException("Change log record has invalid change count " + changeCount + ".");
+        }
+        List<ChangeLog> changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            changes.add(new ChangeLog(readFixedString(input), readFixedString(input), readFixedString(input), role, changeDateTime, id));
+        }
+        return new ChangeSet(id, role, changeDateTime, null, 0, changes);
+    }
+
+    /**
+     * Decodes a payload of the single change version, with fixed-width numbers and lengths.
+     *
+     * @param payload the payload.
+     * @param position the position of the record in the journal, used as the ID of the change set.
+     * @return the change set.
+     * @throws IOException if the payload is malformed.
+     */
+    private static ChangeSet decodeSingleChange(byte[] payload, long position) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        String fieldChanged = readFixedString(input);
+        String oldValue = readFixedString(input);
+        String newValue = readFixedString(input);
+        String role = readFixedString(input);
+        LocalDateTime changeDateTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+        return new ChangeSet(position, role, changeDateTime, null, 0,
+                List.of(new ChangeLog(fieldChanged, oldValue, newValue, role, changeDateTime, position)));
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, seven bits per byte with the high bit set on all but the last byte.
+     *
+     * @param output the stream to write to.
+     * @param value the value.
+     */
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #writeVarLong}.
+     *
+     * @param input the buffer to read from.
+     * @return the value.
+     * @throws IOException if the integer is longer than ten bytes.
+     */
+    private static long readVarLong(ByteBuffer input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = input.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer in change log record.");
+    }
+
+    /**
+     * Maps a signed value to an unsigned one so that small negative values stay short.
+     *
+     * @param value the signed value.
+     * @return the unsigned value.
+     */
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigZag}.
+     *
+     * @param value the unsigned value.
+     * @return the signed value.
+     */
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length plus one and its bytes, with a length of 0 for {@code null}.
+     *
+     * @param output the stream to write to.
+     * @param value the string, or {@code null}.
+     */
+    private static void writeString(ByteArrayOutputStream output, String value) {
+        if (value == null) {
+            writeVarLong(output, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length + 1L);
+        output.writeBytes(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param input the buffer to read from.
+     * @return the string, or {@code null}.
+     * @throws IOException if the string is longer than the rest of the record.
+     */
+    private static String readString(ByteBuffer input) throws IOException {
+        long encodedLength = readVarLong(input);
+        if (encodedLength == 0) {
+            return null;
+        }
+        long length = encodedLength - 1;
+        if (length < 0 || length > input.remaining()) {
+            throw new IOException("Change log record has invalid string length " + length + ".");
+        }
+        String value = new String(input.array(), input.arrayOffset() + input.position(), (int) length, StandardCharsets.UTF_8);
+        input.position(input.position() + (int) length);
+        return value;
+    }
+
+    /**
+     * Writes a string as its index in a dictionary plus one, or as 0 followed by the string if it is not in it.
+     *
+     * @param output the stream to write to.
+     * @param value the string, or {@code null}.
+     * @param codes the indexes of the dictionary entries.
+     */
+    private static void writeDictionaryString(ByteArrayOutputStream output, String value, Map<String, Integer> codes) {
+        Integer code = value == null ? null : codes.get(value);
+        if (code == null) {
+            writeVarLong(output, LITERAL);
+            writeString(output, value);
+        } else {
+            writeVarLong(output, code + 1L);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeDictionaryString}.
+     *
+     * @param input the buffer to read from.
+     * @param dictionary the dictionary.
+     * @return the string, or {@code null}.
+     * @throws IOException if the index is not in the dictionary.
+     */
+    private static String readDictionaryString(ByteBuffer input, List<String> dictionary) throws IOException {
+        long code = readVarLong(input);
+        if (code == LITERAL) {
+            return readString(input);
+        }
+        if (code < 0 || code > dictionary.size()) {
+            throw new IOException("Change log record has unknown dictionary index " + code + ".");
+        }
+        return dictionary.get((int) code - 1);
+    }
+
+    /**
+     * Reads a string written by earlier format versions as a fixed-width UTF-8 length and its bytes.
+     *
+     * @param input the stream to read from.
+     * @return the string, or {@code null}.
+     * @throws IOException if the string cannot be read or is longer than the rest of the record.
+     */
+    private static String readFixedString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > input.available()) {
+            throw new IOException("Change log record has invalid string length " + length + ".");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps every dictionary entry to its index.
+     *
+     * @param dictionary the dictionary.
+     * @return the indexes by entry.
+     */
+    private static Map<String, Integer> codes(List<String> dictionary) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < dictionary.size(); i++) {
+            codes.put(dictionary.get(i), i);
+        }
+        return Map.copyOf(codes);
+    }
+}
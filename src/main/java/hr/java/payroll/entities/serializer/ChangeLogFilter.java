@@ -0,0 +1,79 @@
+package hr.java.payroll.entities.serializer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the search criteria of the changes history. A {@code null} criterion matches every change.
+ * The field, old value and new value match a change that contains them, ignoring case. The entity criteria match
+ * only changes made to that record.
+ *
+ * @param fieldChanged The text contained in the name of the changed field, in lower case.
+ * @param role The role of the user who made the change.
+ * @param oldValue The text contained in the old value, in lower case.
+ * @param newValue The text contained in the new value, in lower case.
+ * @param entityType The type of the changed record.
+ * @param entityId The ID of the changed record.
+ * @param from The earliest date and time of the change.
+ * @param to The latest date and time of the change.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record ChangeLogFilter(
+        String fieldChanged,
+        String role,
+        String oldValue,
+        String newValue,
+        String entityType,
+        Long entityId,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+    /**
+     * Creates a filter that matches every change.
+     *
+     * @return the empty filter.
+     */
+    public static ChangeLogFilter none() {
+        return new ChangeLogFilter(null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Creates a filter that matches every change made to one record.
+     *
+     * @param entityType the type of the record.
+     * @param entityId the ID of the record.
+     * @return the filter.
+     */
+    public static ChangeLogFilter forEntity(String entityType, long entityId) {
+        return new ChangeLogFilter(null, null, null, null, entityType, entityId, null, null);
+    }
+
+    /**
+     * Checks whether a change meets all criteria.
+     *
+     * @param changeLog the change.
+     * @return true if the change matches the filter.
+     */
+    public boolean matches(ChangeLog changeLog) {
+        return contains(changeLog.getFieldChanged(), fieldChanged)
+                && (role == null || role.equals(changeLog.getRole()))
+                && contains(changeLog.getOldValue(), oldValue)
+                && contains(changeLog.getNewValue(), newValue)
+                && (entityType == null || entityType.equals(changeLog.getEntityType()))
+                && (entityId == null || entityId == changeLog.getEntityId())
+                && (from == null || !changeLog.getChangeDateTime().isBefore(from))
+                && (to == null || !changeLog.getChangeDateTime().isAfter(to));
+    }
+
+    /**
+     * Checks whether a value contains a lower-case text, ignoring case.
+     *
+     * @param value the value, or {@code null}.
+     * @param text the text, or {@code null} to match every value.
+     * @return true if the value contains the text.
+     */
+    private static boolean contains(String value, String text) {
+        return text == null || value != null && value.toLowerCase().contains(text);
+    }
+}
@@ -0,0 +1,912 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of change sets.
+ * The file starts with a header holding a magic number and the format version, followed by one record per change set,
+ * encoded by the {@link ChangeLogCodec}.
+ * Every record is framed by its length and the CRC32 checksum of its payload, so appending a change set writes only
+ * that change set, all changes of a change set are kept or lost together, and a record torn by a crash is detected
+ * and cut off when the journal is opened again.
+ * <p>
+ * Appended records are forced to disk according to the {@link JournalSyncPolicy} of the journal. Readers see the
+ * records appended before they were opened. A journal written in an older format version is rewritten in the
+ * current version when it is opened.
+ * <p>
+ * Next to the journal, an offset index file holds the position of every record as an 8-byte number, so the records
+ * can be read newest first by a {@link TailReader} without scanning the journal. The index is derived from the
+ * journal: it is not forced to disk, and it is checked against the journal when the journal is opened and rebuilt
+ * if it does not match.
+ * <p>
+ * A {@link ChangeLogSearchIndex} of the texts and changed entities of the records is loaded or built when the journal
+ * is first searched, kept up to date as records are appended, and saved next to the journal every
+ * {@value #SEARCH_INDEX_SAVE_RECORDS} appended records and when the journal is closed, so substring searches and the
+ * history of one entity only read the records that may match. A saved index that misses the newest records, such as
+ * after a crash, is brought up to date by indexing only the missing records.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ChangeLogJournal implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogJournal.class);
+    private static final int MAGIC = 0x50424A4C;
+    private static final int VERSION = ChangeLogCodec.CURRENT_VERSION;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES;
+    private static final int SEARCH_INDEX_SAVE_RECORDS = 4096;
+    private static final String INDEX_FILE_SUFFIX = ".idx";
+    private static final String SEARCH_INDEX_FILE_SUFFIX = ".sidx";
+    private static final String LEGACY_SEARCH_INDEX_FILE_SUFFIX = ".tri";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileChannel indexChannel;
+    private final JournalSyncPolicy syncPolicy;
+    private final long syncIntervalNanos;
+    private long size;
+    private long recordCount;
+    private long lastChangeSetId;
+    private long lastSyncNanos;
+    private ChangeLogSearchIndex searchIndex;
+    private boolean unsynced;
+
+    /**
+     * Creates a journal over an open and recovered file.
+     *
+     * @param path the path of the journal file.
+     * @param channel the open channel of the journal file.
+     * @param indexChannel the open channel of the offset index file, holding the offsets of all valid records.
+     * @param end the end of the last valid record, the number of records and the ID of the last change set.
+     * @param syncPolicy when appended records are forced to disk.
+     * @param syncInterval the minimum time between two forces under {@link JournalSyncPolicy#INTERVAL}.
+     */
+    private ChangeLogJournal(Path path, FileChannel channel, FileChannel indexChannel, JournalEnd end,
+                             JournalSyncPolicy syncPolicy, Duration syncInterval) {
+        this.path = path;
+        this.channel = channel;
+        this.indexChannel = indexChannel;
+        this.size = end.size();
+        this.recordCount = end.recordCount();
+        this.lastChangeSetId = end.lastChangeSetId();
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Opens a journal, creating it if it does not exist.
+     * The records are checked from the start of the file, and anything after the last complete record with a valid
+     * checksum is truncated, which removes a record that was being appended when the application crashed.
+     * The offset index is then cut back to the valid records, or rebuilt if it does not match them.
+     *
+     * @param path the path of the journal file.
+     * @param syncPolicy when appended records are forced to disk.
+     * @param syncInterval the minimum time between two forces under {@link JournalSyncPolicy#INTERVAL}.
+     * @return the open journal.
+     * @throws IOException if the file cannot be opened or is not a change log journal.
+     */
+    public static ChangeLogJournal open(Path path, JournalSyncPolicy syncPolicy, Duration syncInterval) throws IOException {
+        return open(path, syncPolicy, syncInterval, 0);
+    }
+
+    /**
+     * Opens a journal that continues the change set IDs of an earlier one, creating it if it does not exist.
+     *
+     * @param path the path of the journal file.
+     * @param syncPolicy when appended records are forced to disk.
+     * @param syncInterval the minimum time between two forces under {@link JournalSyncPolicy#INTERVAL}.
+     * @param previousChangeSetId the ID of the last change set recorded before this journal; the first change set
+     *                            appended to an empty journal gets the next ID.
+     * @return the open journal.
+     * @throws IOException if the file cannot be opened or is not a change log journal.
+     * @see #open(Path, JournalSyncPolicy, Duration)
+     */
+    public static ChangeLogJournal open(Path path, JournalSyncPolicy syncPolicy, Duration syncInterval, long previousChangeSetId) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            JournalEnd end;
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(channel);
+                end = new JournalEnd(HEADER_SIZE, 0, 0, 0);
+            } else {
+                int version = readVersion(channel, path);
+                end = recover(channel, version);
+                if (end.size() < channel.size()) {
+                    log.warn("Truncating {} bytes of incomplete or corrupt records from the end of change log journal '{}'.",
+                            channel.size() - end.size(), path);
+                    channel.truncate(end.size());
+                    channel.force(true);
+                }
+                if (version != VERSION) {
+                    channel.close();
+                    upgrade(path, version, end.size());
+                    return open(path, syncPolicy, syncInterval, previousChangeSetId);
+                }
+            }
+            if (end.lastChangeSetId() < previousChangeSetId) {
+                end = new JournalEnd(end.size(), end.recordCount(), end.lastRecordOffset(), previousChangeSetId);
+            }
+            FileChannel indexChannel = openIndex(path, channel, end);
+            return new ChangeLogJournal(path, channel, indexChannel, end, syncPolicy, syncInterval);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces a journal with a complete journal written to another file, and removes the indexes of both,
+     * including a search index left in the legacy trigram index file, so that the indexes are rebuilt for the new journal.
+     *
+     * @param source the path of the new journal file, which must be closed.
+     * @param target the path of the journal file to replace.
+     * @throws IOException if the journal cannot be replaced.
+     */
+    public static void replace(Path source, Path target) throws IOException {
+        Files.deleteIfExists(indexPath(source));
+        Files.deleteIfExists(indexPath(target));
+        Files.deleteIfExists(searchIndexPath(source));
+        Files.deleteIfExists(searchIndexPath(target));
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + LEGACY_SEARCH_INDEX_FILE_SUFFIX));
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes a journal and its indexes.
+     *
+     * @param path the path of the journal file, which must be closed.
+     * @throws IOException if the files cannot be deleted.
+     */
+    public static void delete(Path path) throws IOException {
+        Files.deleteIfExists(indexPath(path));
+        Files.deleteIfExists(searchIndexPath(path));
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Appends a change set to the end of the journal.
+     *
+     * @param changeSet the change set to append.
+     * @return the change set with the ID it was recorded under.
+     * @throws IOException if the change set cannot be written.
+     */
+    public ChangeSet append(ChangeSet changeSet) throws IOException {
+        return appendAll(List.of(changeSet)).getFirst();
+    }
+
+    /**
+     * Appends change sets to the end of the journal with a single write, giving each the next change set ID.
+     * If the write fails, the journal is cut back to its previous end, so none of the change sets is kept.
+     *
+     * @param changeSets the change sets to append.
+     * @return the change sets with the IDs they were recorded under, in the same order.
+     * @throws IOException if the change sets cannot be written.
+     */
+    public synchronized List<ChangeSet> appendAll(Collection<ChangeSet> changeSets) throws IOException {
+        List<ChangeSet> recordedChangeSets = new ArrayList<>(changeSets.size());
+        long changeSetId = lastChangeSetId;
+        for (ChangeSet changeSet : changeSets) {
+            recordedChangeSets.add(changeSet.withId(++changeSetId));
+        }
+        appendRecorded(recordedChangeSets);
+        return recordedChangeSets;
+    }
+
+    /**
+     * Appends change sets that keep the IDs they were already recorded under, such as when a journal is rewritten.
+     *
+     * @param changeSets the recorded change sets, in increasing order of their IDs.
+     * @throws IOException if the change sets cannot be written, or an ID is not greater than the previous one.
+     */
+    synchronized void appendRecorded(Collection<ChangeSet> changeSets) throws IOException {
+        ensureOpen();
+        if (changeSets.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        ByteBuffer offsets = ByteBuffer.allocate(changeSets.size() * INDEX_ENTRY_SIZE);
+        long changeSetId = lastChangeSetId;
+        for (ChangeSet changeSet : changeSets) {
+            if (changeSet.getId() <= changeSetId) {
+                throw new IOException("Change set " + changeSet.getId() + " is not newer than change set " + changeSetId + ".");
+            }
+            changeSetId = changeSet.getId();
+            offsets.putLong(size + records.size());
+            writeRecord(records, ChangeLogCodec.encode(changeSet));
+        }
+        try {
+            write(channel, ByteBuffer.wrap(records.toByteArray()), size);
+            write(indexChannel, offsets.flip(), recordCount * INDEX_ENTRY_SIZE);
+        } catch (IOException e) {
+            channel.truncate(size);
+            indexChannel.truncate(recordCount * INDEX_ENTRY_SIZE);
+            throw e;
+        }
+        size += records.size();
+        recordCount += changeSets.size();
+        lastChangeSetId = changeSetId;
+        if (searchIndex != null) {
+            changeSets.forEach(searchIndex::add);
+            if (searchIndex.getUnsavedRecordCount() >= SEARCH_INDEX_SAVE_RECORDS) {
+                searchIndex.write(searchIndexPath(path));
+            }
+        }
+        unsynced = true;
+        if (syncPolicy == JournalSyncPolicy.ALWAYS || isSyncDue()) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the appended records to disk if the journal syncs at an interval and the interval has elapsed since
+     * the last force, so that the last records before a pause in appends do not wait for the next append.
+     *
+     * @throws IOException if the records cannot be forced.
+     */
+    public synchronized void syncIfDue() throws IOException {
+        if (channel.isOpen() && unsynced && isSyncDue()) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the appended records to disk.
+     *
+     * @throws IOException if the records cannot be forced.
+     */
+    public synchronized void sync() throws IOException {
+        if (unsynced) {
+            channel.force(false);
+            unsynced = false;
+            lastSyncNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Opens a reader over the records appended so far.
+     *
+     * @return the reader.
+     * @throws IOException if the journal file cannot be read.
+     */
+    public synchronized Reader openReader() throws IOException {
+        ensureOpen();
+        return new Reader(path, size, VERSION, HEADER_SIZE, 0);
+    }
+
+    /**
+     * Opens a reader over the records appended so far, starting with the oldest change set whose ID is higher
+     * than the given one. The starting record is found by a binary search over the offset index.
+     *
+     * @param afterChangeSetId the ID to start after; 0 starts with the oldest change set.
+     * @return the reader.
+     * @throws IOException if the journal or its offset index cannot be mapped or read.
+     */
+    public synchronized Reader openReader(long afterChangeSetId) throws IOException {
+        ensureOpen();
+        if (afterChangeSetId <= 0) {
+            return new Reader(path, size, VERSION, HEADER_SIZE, 0);
+        }
+        if (afterChangeSetId >= lastChangeSetId) {
+            return new Reader(path, size, VERSION, size, recordCount);
+        }
+        TailReader tailReader = new TailReader(path, size, recordCount);
+        tailReader.seek(afterChangeSetId + 1);
+        return new Reader(path, size, VERSION, tailReader.offset(), tailReader.position);
+    }
+
+    /**
+     * Opens a reader that reads the records appended so far newest first, starting with the newest change set
+     * whose ID is lower than the given one. The starting record is found by a binary search over the offset index.
+     *
+     * @param beforeChangeSetId the ID to start before; {@link Long#MAX_VALUE} starts with the newest change set.
+     * @return the reader.
+     * @throws IOException if the journal or its offset index cannot be mapped or read.
+     */
+    public synchronized TailReader openTailReader(long beforeChangeSetId) throws IOException {
+        ensureOpen();
+        TailReader reader = new TailReader(path, size, recordCount);
+        if (beforeChangeSetId <= lastChangeSetId) {
+            reader.seek(beforeChangeSetId);
+        }
+        return reader;
+    }
+
+    /**
+     * Opens a reader that reads newest first, like {@link #openTailReader(long)}, only the records whose change sets
+     * contain all texts of a filter and were made to its entity, as found by the search index. The change sets read
+     * must still be checked against the filter. A filter without texts or entity the index can search for reads all
+     * records.
+     *
+     * @param beforeChangeSetId the ID to start before; {@link Long#MAX_VALUE} starts with the newest change set.
+     * @param filter the search criteria.
+     * @return the reader.
+     * @throws IOException if the journal or its indexes cannot be read.
+     */
+    public synchronized TailReader openTailReader(long beforeChangeSetId, ChangeLogFilter filter) throws IOException {
+        TailReader reader = openTailReader(beforeChangeSetId);
+        int[] candidates = getSearchIndex().findCandidates(filter);
+        if (candidates != null) {
+            reader.restrict(candidates);
+        }
+        return reader;
+    }
+
+    /**
+     * Gets the end of the last record appended so far, which is the size of the journal file.
+     *
+     * @return the size of the journal in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the ID of the last change set appended so far.
+     *
+     * @return the ID, or the ID the journal continues from if it holds no change sets.
+     */
+    public synchronized long getLastChangeSetId() {
+        return lastChangeSetId;
+    }
+
+    /**
+     * Reads all change sets appended so far, oldest first.
+     *
+     * @return the change sets.
+     * @throws IOException if the journal cannot be read.
+     */
+    public List<ChangeSet> readAll() throws IOException {
+        try (Reader reader = openReader()) {
+            return reader.readAll();
+        }
+    }
+
+    /**
+     * Forces the appended records and the offset index to disk, saves the search index if records were added to it,
+     * and closes the journal.
+     *
+     * @throws IOException if the records cannot be forced or the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+            indexChannel.force(false);
+            if (searchIndex != null && searchIndex.isDirty()) {
+                searchIndex.write(searchIndexPath(path));
+            }
+        } finally {
+            channel.close();
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Checks whether the journal syncs at an interval and the interval has elapsed since the last force.
+     *
+     * @return {@code true} if the appended records are due to be forced.
+     */
+    private boolean isSyncDue() {
+        return syncPolicy == JournalSyncPolicy.INTERVAL && System.nanoTime() - lastSyncNanos >= syncIntervalNanos;
+    }
+
+    /**
+     * Checks that the journal has not been closed.
+     *
+     * @throws IOException if the journal is closed.
+     */
+    private void ensureOpen() throws IOException {
+        if (!channel.isOpen()) {
+            throw new IOException("Change log journal '" + path + "' is closed.");
+        }
+    }
+
+    /**
+     * Writes the header of a new journal, replacing anything left by an interrupted creation.
+     *
+     * @param channel the channel of the journal file.
+     * @throws IOException if the header cannot be written.
+     */
+    private static void writeHeader(FileChannel channel) throws IOException {
+        channel.truncate(0);
+        write(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip(), 0);
+        channel.force(true);
+    }
+
+    /**
+     * Writes a buffer at a position of a file.
+     *
+     * @param channel the channel of the file.
+     * @param buffer the bytes to write.
+     * @param position the position to write at.
+     * @throws IOException if the bytes cannot be written.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Gets the path of the offset index file of a journal.
+     *
+     * @param path the path of the journal file.
+     * @return the path of the offset index file.
+     */
+    private static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Gets the path of the search index file of a journal.
+     *
+     * @param path the path of the journal file.
+     * @return the path of the search index file.
+     */
+    private static Path searchIndexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + SEARCH_INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Gets the search index of the journal, reading it on first use and indexing the records appended after it was
+     * saved, or building and saving it from all records if it is missing or cannot be brought up to date.
+     *
+     * @return the search index.
+     * @throws IOException if the records cannot be read or the index cannot be saved.
+     */
+    private ChangeLogSearchIndex getSearchIndex() throws IOException {
+        if (searchIndex == null) {
+            Path searchIndexPath = searchIndexPath(path);
+            ChangeLogSearchIndex savedIndex = ChangeLogSearchIndex.read(searchIndexPath, recordCount);
+            if (savedIndex != null && savedIndex.getRecordCount() < recordCount) {
+                int savedRecordCount = savedIndex.getRecordCount();
+                try (Reader reader = openReader(savedIndex.getLastChangeSetId())) {
+                    savedIndex.addAll(reader);
+                }
+                if (savedIndex.getRecordCount() == recordCount) {
+                    savedIndex.write(searchIndexPath);
+                    log.info("Added {} change sets to search index '{}' of change log journal '{}'.",
+                            recordCount - savedRecordCount, searchIndexPath, path);
+                } else {
+                    log.warn("Search index '{}' does not match change log journal '{}' and will be rebuilt.", searchIndexPath, path);
+                    savedIndex = null;
+                }
+            }
+            if (savedIndex == null) {
+                try (Reader reader = openReader()) {
+                    savedIndex = ChangeLogSearchIndex.build(reader);
+                }
+                savedIndex.write(searchIndexPath);
+                log.info("Built search index '{}' of change log journal '{}' with {} change sets.", searchIndexPath, path, recordCount);
+            }
+            searchIndex = savedIndex;
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Opens the offset index of a journal, creating it if it does not exist.
+     * An index that holds the offsets of all valid records is cut back to them; any other index is rebuilt
+     * from the record headers of the journal.
+     *
+     * @param path the path of the journal file.
+     * @param channel the channel of the journal file.
+     * @param end the end of the valid records of the journal.
+     * @return the open channel of the offset index file.
+     * @throws IOException if the index cannot be opened or rebuilt.
+     */
+    private static FileChannel openIndex(Path path, FileChannel channel, JournalEnd end) throws IOException {
+        Path indexPath = indexPath(path);
+        FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long indexSize = end.recordCount() * INDEX_ENTRY_SIZE;
+            if (indexChannel.size() >= indexSize && (end.recordCount() == 0 || readOffset(indexChannel, end.recordCount() - 1) == end.lastRecordOffset())) {
+                indexChannel.truncate(indexSize);
+            } else {
+                log.info("Rebuilding offset index '{}' of change log journal '{}'.", indexPath, path);
+                rebuildIndex(channel, indexChannel, end.size());
+            }
+            return indexChannel;
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads an entry of an offset index.
+     *
+     * @param indexChannel the channel of the offset index file.
+     * @param record the number of the record, counting from 0.
+     * @return the offset of the record.
+     * @throws IOException if the entry cannot be read.
+     */
+    private static long readOffset(FileChannel indexChannel, long record) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        long position = record * INDEX_ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            if (indexChannel.read(entry, position + entry.position()) < 0) {
+                throw new EOFException("Offset index ends before record " + record + ".");
+            }
+        }
+        return entry.getLong(0);
+    }
+
+    /**
+     * Rewrites an offset index from the record headers of a journal, skipping over the payloads.
+     *
+     * @param channel the channel of the journal file.
+     * @param indexChannel the channel of the offset index file.
+     * @param size the end of the last valid record of the journal.
+     * @throws IOException if the journal cannot be read or the index cannot be written.
+     */
+    private static void rebuildIndex(FileChannel channel, FileChannel indexChannel, long size) throws IOException {
+        indexChannel.truncate(0);
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        ByteBuffer offsets = ByteBuffer.allocate(1024 * INDEX_ENTRY_SIZE);
+        long indexSize = 0;
+        for (long offset = HEADER_SIZE; offset < size; offset += RECORD_HEADER_SIZE + recordHeader.getInt(0)) {
+            recordHeader.clear();
+            while (recordHeader.hasRemaining()) {
+                if (channel.read(recordHeader, offset + recordHeader.position()) < 0) {
+                    throw new EOFException("Change log journal ends inside the record at " + offset + ".");
+                }
+            }
+            if (!offsets.hasRemaining()) {
+                write(indexChannel, offsets.flip(), indexSize);
+                indexSize += offsets.limit();
+                offsets.clear();
+            }
+            offsets.putLong(offset);
+        }
+        write(indexChannel, offsets.flip(), indexSize);
+    }
+
+    /**
+     * Checks the magic number in the header of a journal and reads its format version.
+     *
+     * @param channel the channel of the journal file.
+     * @param path the path of the journal file.
+     * @return the format version.
+     * @throws IOException if the file is not a change log journal of a supported version.
+     */
+    private static int readVersion(FileChannel channel, Path path) throws IOException {
+        DataInputStream input = new DataInputStream(Channels.newInputStream(channel.position(0)));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("File '" + path + "' is not a change log journal.");
+        }
+        int version = input.readInt();
+        if (version < ChangeLogCodec.SINGLE_CHANGE_VERSION || version > VERSION) {
+            throw new IOException("Change log journal '" + path + "' has unsupported version " + version + ".");
+        }
+        return version;
+    }
+
+    /**
+     * Scans the records of a journal and finds the end of the last complete record with a valid checksum,
+     * the number of valid records, and the offset and change set ID of the last one.
+     *
+     * @param channel the channel of the journal file.
+     * @param version the format version of the journal.
+     * @return the end of the valid records.
+     * @throws IOException if the file cannot be read.
+     */
+    private static JournalEnd recover(FileChannel channel, int version) throws IOException {
+        long fileSize = channel.size();
+        long validSize = HEADER_SIZE;
+        long recordCount = 0;
+        long lastRecordOffset = 0;
+        byte[] lastPayload = null;
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_SIZE))));
+        while (fileSize - validSize >= RECORD_HEADER_SIZE) {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length < 0 || length > MAX_RECORD_SIZE || fileSize - validSize - RECORD_HEADER_SIZE < length) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+            if (checksum(payload) != checksum) {
+                break;
+            }
+            lastRecordOffset = validSize;
+            validSize += RECORD_HEADER_SIZE + length;
+            recordCount++;
+            lastPayload = payload;
+        }
+        long lastChangeSetId = lastPayload == null ? 0 : ChangeLogCodec.decode(lastPayload, version, recordCount).getId();
+        return new JournalEnd(validSize, recordCount, lastRecordOffset, lastChangeSetId);
+    }
+
+    /**
+     * Rewrites a journal written in an older format version in the current version.
+     * The new journal is written to a temporary file that replaces the old one only when complete.
+     *
+     * @param path the path of the journal file.
+     * @param version the format version of the journal.
+     * @param size the end of the last valid record.
+     * @throws IOException if the journal cannot be read or rewritten.
+     */
+    private static void upgrade(Path path, int version, long size) throws IOException {
+        List<ChangeSet> changeSets;
+        try (Reader reader = new Reader(path, size, version, HEADER_SIZE, 0)) {
+            changeSets = reader.readAll();
+        }
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".upgrade");
+        Files.deleteIfExists(temporaryPath);
+        try (ChangeLogJournal upgradedJournal = open(temporaryPath, JournalSyncPolicy.NEVER, Duration.ZERO)) {
+            upgradedJournal.appendRecorded(changeSets);
+        }
+        replace(temporaryPath, path);
+        log.info("Upgraded change log journal '{}' from version {} to version {} with {} change sets.", path, version, VERSION, changeSets.size());
+    }
+
+    /**
+     * Writes a record framed by its length and checksum.
+     *
+     * @param output the stream to write to.
+     * @param payload the encoded change set.
+     * @throws IOException if the change set is too large.
+     */
+    private static void writeRecord(ByteArrayOutputStream output, byte[] payload) throws IOException {
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new IOException("Change set of " + payload.length + " bytes exceeds the maximum record size.");
+        }
+        DataOutputStream record = new DataOutputStream(output);
+        record.writeInt(payload.length);
+        record.writeInt(checksum(payload));
+        record.write(payload);
+    }
+
+    /**
+     * Calculates the CRC32 checksum of a payload.
+     *
+     * @param payload the payload.
+     * @return the checksum.
+     */
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The end of the valid records of a journal.
+     *
+     * @param size the end of the last valid record.
+     * @param recordCount the number of valid records.
+     * @param lastRecordOffset the offset of the last valid record, or 0 if there is none.
+     * @param lastChangeSetId the ID of the change set in the last valid record, or 0 if there is none.
+     */
+    private record JournalEnd(long size, long recordCount, long lastRecordOffset, long lastChangeSetId) {}
+
+    /**
+     * Reads the records of a journal sequentially, oldest first, up to the end of the journal when it was opened.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream input;
+        private final int version;
+        private long remaining;
+        private long position;
+
+        /**
+         * Opens a reader over the records of a journal file.
+         *
+         * @param path the path of the journal file.
+         * @param size the end of the last record to read.
+         * @param version the format version of the journal.
+         * @param offset the offset of the first record to read.
+         * @param record the number of the first record to read, counting from 0.
+         * @throws IOException if the file cannot be opened.
+         */
+        private Reader(Path path, long size, int version, long offset, long record) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(offset))));
+            this.version = version;
+            this.remaining = size - offset;
+            this.position = record;
+        }
+
+        /**
+         * Reads the next change set.
+         *
+         * @return the change set, or {@code null} if all records have been read.
+         * @throws IOException if a record cannot be read or its checksum does not match.
+         */
+        public ChangeSet next() throws IOException {
+            if (remaining <= 0) {
+                return null;
+            }
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length < 0 || length > remaining - RECORD_HEADER_SIZE) {
+                throw new IOException("Change log journal record has invalid length " + length + ".");
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+            if (checksum(payload) != checksum) {
+                throw new IOException("Change log journal record has an invalid checksum.");
+            }
+            remaining -= RECORD_HEADER_SIZE + length;
+            return ChangeLogCodec.decode(payload, version, ++position);
+        }
+
+        /**
+         * Reads all remaining change sets.
+         *
+         * @return the change sets.
+         * @throws IOException if a record cannot be read.
+         */
+        public List<ChangeSet> readAll() throws IOException {
+            List<ChangeSet> changeSets = new ArrayList<>();
+            ChangeSet changeSet;
+            while ((changeSet = next()) != null) {
+                changeSets.add(changeSet);
+            }
+            return changeSets;
+        }
+
+        /**
+         * Closes the journal file.
+         *
+         * @throws IOException if the file cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads the records of a journal newest first through memory mappings of the journal and its offset index,
+     * so the newest records are read without touching the older ones. Only the records appended before the reader
+     * was opened are read.
+     */
+    public static final class TailReader {
+        private final MappedByteBuffer records;
+        private final MappedByteBuffer offsets;
+        private long position;
+        private int[] candidates;
+        private int candidateCount;
+
+        /**
+         * Maps a journal file and its offset index, positioned after the last record.
+         *
+         * @param path the path of the journal file.
+         * @param size the end of the last record to read.
+         * @param recordCount the number of records to read from the index.
+         * @throws IOException if the files cannot be mapped.
+         */
+        private TailReader(Path path, long size, long recordCount) throws IOException {
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Change log journal '" + path + "' is too large to be mapped.");
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                 FileChannel indexChannel = FileChannel.open(indexPath(path), StandardOpenOption.READ)) {
+                this.records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                this.offsets = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, recordCount * INDEX_ENTRY_SIZE);
+            }
+            this.position = recordCount;
+        }
+
+        /**
+         * Reads the change set before the current position, or the candidate record before it if the reader is
+         * restricted to candidates, and moves the position back to it.
+         *
+         * @return the change set, or {@code null} if the oldest record has been read.
+         * @throws IOException if the record cannot be read or its checksum does not match.
+         */
+        public ChangeSet previous() throws IOException {
+            if (candidates != null) {
+                if (candidateCount == 0) {
+                    position = 0;
+                    return null;
+                }
+                int record = candidates[--candidateCount];
+                ChangeSet changeSet = read(record);
+                position = record;
+                return changeSet;
+            }
+            if (position == 0) {
+                return null;
+            }
+            ChangeSet changeSet = read(position - 1);
+            position--;
+            return changeSet;
+        }
+
+        /**
+         * Moves the position to the first record whose change set ID is not lower than the given one,
+         * so that reading continues with the newest change set before that ID.
+         *
+         * @param beforeChangeSetId the ID to read before.
+         * @throws IOException if a record cannot be read.
+         */
+        private void seek(long beforeChangeSetId) throws IOException {
+            long low = 0;
+            long high = position;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (read(middle).getId() < beforeChangeSetId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            position = low;
+        }
+
+        /**
+         * Restricts the records read to candidate records before the current position.
+         *
+         * @param candidates the sorted numbers of the records to read.
+         */
+        private void restrict(int[] candidates) {
+            int insertion = Arrays.binarySearch(candidates, (int) Math.min(position, Integer.MAX_VALUE));
+            this.candidates = candidates;
+            this.candidateCount = insertion >= 0 ? insertion : -insertion - 1;
+        }
+
+        /**
+         * Gets the offset of the record at the current position.
+         *
+         * @return the offset, or the end of the journal if the position is after the last record.
+         */
+        private long offset() {
+            return position * INDEX_ENTRY_SIZE < offsets.limit() ? offsets.getLong((int) (position * INDEX_ENTRY_SIZE)) : records.limit();
+        }
+
+        /**
+         * Reads the change set of a record.
+         *
+         * @param record the number of the record, counting from 0.
+         * @return the change set.
+         * @throws IOException if the record cannot be read or its checksum does not match.
+         */
+        private ChangeSet read(long record) throws IOException {
+            long offset = offsets.getLong((int) (record * INDEX_ENTRY_SIZE));
+            if (offset < HEADER_SIZE || offset > records.limit() - RECORD_HEADER_SIZE) {
+                throw new IOException("Offset index entry " + record + " points outside the change log journal.");
+            }
+            int length = records.getInt((int) offset);
+            int checksum = records.getInt((int) offset + Integer.BYTES);
+            if (length < 0 || length > records.limit() - offset - RECORD_HEADER_SIZE) {
+                throw new IOException("Change log journal record has invalid length " + length + ".");
+            }
+            byte[] payload = new byte[length];
+            records.get((int) offset + RECORD_HEADER_SIZE, payload);
+            if (checksum(payload) != checksum) {
+                throw new IOException("Change log journal record has an invalid checksum.");
+            }
+            return ChangeLogCodec.decode(payload, VERSION, record + 1);
+        }
+    }
+}
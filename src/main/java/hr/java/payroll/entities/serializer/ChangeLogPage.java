@@ -0,0 +1,25 @@
+package hr.java.payroll.entities.serializer;
+
+import java.util.List;
+
+/**
+ * A page of change log entries read newest first from the change log or the change log table.
+ *
+ * @param changes the change log entries of the page, newest first.
+ * @param before the position the next page starts before: the ID of a change set for pages read from the change log,
+ *               the ID of a row for pages read from the table; 0 if this is the last page.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record ChangeLogPage(List<ChangeLog> changes, long before) {
+
+    /**
+     * Checks whether there are older change log entries after this page.
+     *
+     * @return true if another page can be read.
+     */
+    public boolean hasMore() {
+        return before > 0;
+    }
+}
@@ -0,0 +1,465 @@
+package hr.java.payroll.entities.serializer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * An inverted index of the trigrams in the changed field, old value and new value of the change sets of a journal,
+ * and of the records the change sets were made to.
+ * Every trigram of the lower-case text of a field maps to the sorted numbers of the records whose change sets contain
+ * it, so the records that may contain a text are found by intersecting the records of its trigrams. Every changed
+ * entity maps to the records of its change sets in the same way, so the history of one entity is read through the
+ * offset index without scanning the journal. The index only narrows a search down: the candidate records must still
+ * be checked against the search criteria.
+ * <p>
+ * The saved records are held in compact sorted arrays, and the records added since in posting lists that are
+ * merged into the arrays when the index is saved. The index is persisted in a file next to the journal, holding the
+ * postings delta-encoded as variable-length numbers and protected by a checksum. Records are only ever added,
+ * so an index that holds fewer records than the journal is brought up to date by adding the records after the last
+ * change set it holds, and an index that holds more is rebuilt.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+final class ChangeLogSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogSearchIndex.class);
+    private static final int MAGIC = 0x50425449;
+    private static final int VERSION = 3;
+    private static final int GRAM_LENGTH = 3;
+    private static final int FIELD_CHANGED = 0;
+    private static final int OLD_VALUE = 1;
+    private static final int NEW_VALUE = 2;
+    private static final int ENTITY = 3;
+    private static final int ENTITY_TYPE_BITS = 8;
+    private static final int ENTITY_ID_BITS = 40;
+
+    private long[] keys;
+    private int[] starts;
+    private int[] records;
+    private final Map<Long, Postings> addedPostings = new HashMap<>();
+    private int recordCount;
+    private long lastChangeSetId;
+    private int savedRecordCount;
+    private boolean dirty;
+
+    /**
+     * Creates an index from its saved arrays.
+     *
+     * @param keys the sorted keys of the trigrams.
+     * @param starts the position in the records of the postings of each key, followed by the number of records.
+     * @param records the postings of all keys, one after another.
+     * @param recordCount the number of records indexed.
+     * @param lastChangeSetId the ID of the change set of the last record indexed, or 0 if there is none.
+     */
+    private ChangeLogSearchIndex(long[] keys, int[] starts, int[] records, int recordCount, long lastChangeSetId) {
+        this.keys = keys;
+        this.starts = starts;
+        this.records = records;
+        this.recordCount = recordCount;
+        this.lastChangeSetId = lastChangeSetId;
+        this.savedRecordCount = recordCount;
+    }
+
+    /**
+     * Builds the index of the records of a journal.
+     *
+     * @param reader the reader of the journal, positioned before its first record.
+     * @return the index.
+     * @throws IOException if a record cannot be read.
+     */
+    static ChangeLogSearchIndex build(ChangeLogJournal.Reader reader) throws IOException {
+        ChangeLogSearchIndex index = new ChangeLogSearchIndex(new long[0], new int[1], new int[0], 0, 0);
+        index.addAll(reader);
+        return index;
+    }
+
+    /**
+     * Reads a persisted index if it indexes at most the given number of records. An index of fewer records holds
+     * the oldest records of the journal and is brought up to date with {@link #addAll(ChangeLogJournal.Reader)}.
+     *
+     * @param path the path of the index file.
+     * @param maxRecordCount the number of records of the journal.
+     * @return the index, or {@code null} if the file does not exist, is damaged or indexes more records than the journal has.
+     */
+    static ChangeLogSearchIndex read(Path path, long maxRecordCount) {
+        CRC32 crc = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                log.warn("Search index '{}' has an unknown format and will be rebuilt.", path);
+                return null;
+            }
+            int recordCount = input.readInt();
+            long lastChangeSetId = input.readLong();
+            if (recordCount < 0 || recordCount > maxRecordCount) {
+                return null;
+            }
+            int keyCount = input.readInt();
+            int postingCount = input.readInt();
+            if (keyCount < 0 || postingCount < 0) {
+                throw new IOException("Search index has invalid counts.");
+            }
+            long[] keys = new long[keyCount];
+            int[] starts = new int[keyCount + 1];
+            int[] records = new int[postingCount];
+            int position = 0;
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = input.readLong();
+                int size = readVarInt(input);
+                if (i > 0 && keys[i] <= keys[i - 1] || size <= 0 || size > postingCount - position) {
+                    throw new IOException("Search index has an invalid entry " + i + ".");
+                }
+                int record = -1;
+                for (int j = 0; j < size; j++) {
+                    int delta = readVarInt(input);
+                    if (delta <= 0 || delta >= recordCount - record) {
+                        throw new IOException("Search index has an invalid posting in entry " + i + ".");
+                    }
+                    record += delta;
+                    records[position++] = record;
+                }
+                starts[i + 1] = position;
+            }
+            long checksum = crc.getValue();
+            if (position != postingCount || input.readLong() != checksum) {
+                throw new IOException("Search index has an invalid checksum.");
+            }
+            return new ChangeLogSearchIndex(keys, starts, records, recordCount, lastChangeSetId);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Search index '{}' cannot be read and will be rebuilt.", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Merges the added records into the saved arrays and writes the index to a temporary file that then replaces
+     * the index file.
+     *
+     * @param path the path of the index file.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        merge();
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            DataOutputStream checkedOutput = new DataOutputStream(new CheckedOutputStream(output, crc));
+            checkedOutput.writeInt(MAGIC);
+            checkedOutput.writeInt(VERSION);
+            checkedOutput.writeInt(recordCount);
+            checkedOutput.writeLong(lastChangeSetId);
+            checkedOutput.writeInt(keys.length);
+            checkedOutput.writeInt(records.length);
+            for (int i = 0; i < keys.length; i++) {
+                checkedOutput.writeLong(keys[i]);
+                writeVarInt(checkedOutput, starts[i + 1] - starts[i]);
+                int previous = -1;
+                for (int j = starts[i]; j < starts[i + 1]; j++) {
+                    writeVarInt(checkedOutput, records[j] - previous);
+                    previous = records[j];
+                }
+            }
+            checkedOutput.flush();
+            output.writeLong(crc.getValue());
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        savedRecordCount = recordCount;
+        dirty = false;
+    }
+
+    /**
+     * Adds the records read by a reader, which must start with the record after the last one indexed.
+     *
+     * @param reader the reader of the journal.
+     * @throws IOException if a record cannot be read.
+     */
+    void addAll(ChangeLogJournal.Reader reader) throws IOException {
+        ChangeSet changeSet;
+        while ((changeSet = reader.next()) != null) {
+            add(changeSet);
+        }
+    }
+
+    /**
+     * Adds the next record of the journal to the index.
+     *
+     * @param changeSet the change set of the record.
+     */
+    void add(ChangeSet changeSet) {
+        int record = recordCount++;
+        lastChangeSetId = changeSet.getId();
+        for (ChangeLog change : changeSet.getChanges()) {
+            addText(record, FIELD_CHANGED, change.getFieldChanged());
+            addText(record, OLD_VALUE, change.getOldValue());
+            addText(record, NEW_VALUE, change.getNewValue());
+        }
+        if (changeSet.getEntityType() != null) {
+            addedPostings.computeIfAbsent(entityKey(changeSet.getEntityType(), changeSet.getEntityId()), ignored -> new Postings()).add(record);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Finds the records whose change sets may contain all texts of a filter and were made to its entity,
+     * intersecting the postings of their keys from the shortest up. Texts shorter than a trigram do not narrow
+     * the search down.
+     *
+     * @param filter the search criteria.
+     * @return the sorted record numbers, or {@code null} if the filter has no text or entity the index can search for.
+     */
+    int[] findCandidates(ChangeLogFilter filter) {
+        Set<Long> filterKeys = keys(FIELD_CHANGED, filter.fieldChanged(), new HashSet<>());
+        keys(OLD_VALUE, filter.oldValue(), filterKeys);
+        keys(NEW_VALUE, filter.newValue(), filterKeys);
+        if (filter.entityType() != null && filter.entityId() != null) {
+            filterKeys.add(entityKey(filter.entityType(), filter.entityId()));
+        }
+        if (filterKeys.isEmpty()) {
+            return null;
+        }
+        List<int[]> lists = new ArrayList<>(filterKeys.size());
+        for (long key : filterKeys) {
+            int[] list = postings(key);
+            if (list.length == 0) {
+                return list;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] candidates = lists.getFirst();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Checks whether records have been added since the index was read or written.
+     *
+     * @return true if the index has unsaved records.
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Gets the number of records indexed.
+     *
+     * @return the number of records.
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the number of records added since the index was read or written.
+     *
+     * @return the number of unsaved records.
+     */
+    int getUnsavedRecordCount() {
+        return recordCount - savedRecordCount;
+    }
+
+    /**
+     * Gets the ID of the change set of the last record indexed.
+     *
+     * @return the ID, or 0 if no record is indexed.
+     */
+    long getLastChangeSetId() {
+        return lastChangeSetId;
+    }
+
+    /**
+     * Gets the records of a key, saved ones first.
+     *
+     * @param key the key of the trigram or entity.
+     * @return a new array of the sorted record numbers.
+     */
+    private int[] postings(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        int[] saved = index < 0 ? new int[0] : Arrays.copyOfRange(records, starts[index], starts[index + 1]);
+        Postings added = addedPostings.get(key);
+        if (added == null) {
+            return saved;
+        }
+        int[] all = Arrays.copyOf(saved, saved.length + added.size);
+        System.arraycopy(added.records, 0, all, saved.length, added.size);
+        return all;
+    }
+
+    /**
+     * Merges the postings of the added records into the saved arrays, after the saved records of each key.
+     */
+    private void merge() {
+        if (addedPostings.isEmpty()) {
+            return;
+        }
+        long[] addedKeys = addedPostings.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int addedPostingCount = addedPostings.values().stream().mapToInt(list -> list.size).sum();
+        long[] mergedKeys = new long[keys.length + addedKeys.length];
+        int[] mergedStarts = new int[mergedKeys.length + 1];
+        int[] mergedRecords = new int[records.length + addedPostingCount];
+        int keyCount = 0;
+        int position = 0;
+        int savedIndex = 0;
+        int addedIndex = 0;
+        while (savedIndex < keys.length || addedIndex < addedKeys.length) {
+            long key = addedIndex == addedKeys.length || savedIndex < keys.length && keys[savedIndex] <= addedKeys[addedIndex]
+                    ? keys[savedIndex] : addedKeys[addedIndex];
+            if (savedIndex < keys.length && keys[savedIndex] == key) {
+                int size = starts[savedIndex + 1] - starts[savedIndex];
+                System.arraycopy(records, starts[savedIndex], mergedRecords, position, size);
+                position += size;
+                savedIndex++;
+            }
+            if (addedIndex < addedKeys.length && addedKeys[addedIndex] == key) {
+                Postings added = addedPostings.get(key);
+                System.arraycopy(added.records, 0, mergedRecords, position, added.size);
+                position += added.size;
+                addedIndex++;
+            }
+            mergedKeys[keyCount++] = key;
+            mergedStarts[keyCount] = position;
+        }
+        keys = Arrays.copyOf(mergedKeys, keyCount);
+        starts = Arrays.copyOf(mergedStarts, keyCount + 1);
+        records = mergedRecords;
+        addedPostings.clear();
+    }
+
+    /**
+     * Adds the trigrams of a text to the postings of a record.
+     *
+     * @param record the number of the record.
+     * @param field the field holding the text.
+     * @param text the text, or {@code null}.
+     */
+    private void addText(int record, int field, String text) {
+        for (long key : keys(field, text == null ? null : text.toLowerCase(), new HashSet<>())) {
+            addedPostings.computeIfAbsent(key, ignored -> new Postings()).add(record);
+        }
+    }
+
+    /**
+     * Collects the keys of the distinct trigrams of a lower-case text.
+     *
+     * @param field the field holding the text.
+     * @param text the text, or {@code null}.
+     * @param keys the set to add the keys to.
+     * @return the set of keys.
+     */
+    private static Set<Long> keys(int field, String text, Set<Long> keys) {
+        if (text != null) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                keys.add((long) field << 48 | (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the key of a changed entity. Entity types are hashed and IDs are truncated to fit the key, so different
+     * entities may share a key and only widen the candidates.
+     *
+     * @param entityType the type of the entity.
+     * @param entityId the ID of the entity.
+     * @return the key.
+     */
+    private static long entityKey(String entityType, long entityId) {
+        return (long) ENTITY << 48
+                | (long) Math.floorMod(entityType.hashCode(), 1 << ENTITY_TYPE_BITS) << ENTITY_ID_BITS
+                | entityId & (1L << ENTITY_ID_BITS) - 1;
+    }
+
+    /**
+     * Keeps the candidates that are also in a posting list.
+     *
+     * @param candidates the sorted candidates, overwritten with the intersection.
+     * @param count the number of candidates.
+     * @param list the sorted posting list.
+     * @return the number of candidates left.
+     */
+    private static int intersect(int[] candidates, int count, int[] list) {
+        int kept = 0;
+        int position = 0;
+        for (int i = 0; i < count && position < list.length; i++) {
+            int candidate = candidates[i];
+            while (position < list.length && list[position] < candidate) {
+                position++;
+            }
+            if (position < list.length && list[position] == candidate) {
+                candidates[kept++] = candidate;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Writes a non-negative number in 7-bit groups, the lowest first.
+     *
+     * @param output the stream to write to.
+     * @param value the number.
+     * @throws IOException if the number cannot be written.
+     */
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads a number written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param input the stream to read from.
+     * @return the number.
+     * @throws IOException if the number cannot be read or is too long.
+     */
+    private static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Search index holds a malformed number.");
+    }
+
+    /**
+     * The sorted numbers of the added records of a key, in a growing array.
+     */
+    private static final class Postings {
+        private int[] records = new int[2];
+        private int size;
+
+        /**
+         * Adds a record number, which is not lower than the last one added, unless it was the last one added.
+         *
+         * @param record the record number.
+         */
+        private void add(int record) {
+            if (size > 0 && records[size - 1] == record) {
+                return;
+            }
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package hr.java.payroll.entities.serializer;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * An entry of the manifest of a {@link SegmentedChangeLog}, describing one segment journal.
+ *
+ * @param number the number of the segment, which names its file and is never reused.
+ * @param firstChangeSetId the ID of the first change set in the segment, or 0 if it is empty.
+ * @param lastChangeSetId the ID of the last change set in the segment, or the ID the segment continues from
+ *                        if it is empty.
+ * @param recordCount the number of change sets in the segment.
+ * @param firstChangeDateTime the earliest date and time of a change set in the segment, or {@code null} if it is empty.
+ * @param lastChangeDateTime the latest date and time of a change set in the segment, or {@code null} if it is empty.
+ * @param size the size of the segment file in bytes.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+record ChangeLogSegment(long number, long firstChangeSetId, long lastChangeSetId, long recordCount,
+                        LocalDateTime firstChangeDateTime, LocalDateTime lastChangeDateTime, long size) {
+
+    /**
+     * Creates the entry of an empty segment.
+     *
+     * @param number the number of the segment.
+     * @param previousChangeSetId the ID of the last change set recorded before the segment.
+     * @return the entry.
+     */
+    static ChangeLogSegment empty(long number, long previousChangeSetId) {
+        return new ChangeLogSegment(number, 0, previousChangeSetId, 0, null, null, 0);
+    }
+
+    /**
+     * Returns the entry of this segment after change sets have been appended to it.
+     *
+     * @param changeSet an appended change set.
+     * @param size the new size of the segment file.
+     * @return the updated entry.
+     */
+    ChangeLogSegment with(ChangeSet changeSet, long size) {
+        LocalDateTime changeDateTime = changeSet.getChangeDateTime();
+        return new ChangeLogSegment(number, isEmpty() ? changeSet.getId() : firstChangeSetId, changeSet.getId(), recordCount + 1,
+                isEmpty() || changeDateTime.isBefore(firstChangeDateTime) ? changeDateTime : firstChangeDateTime,
+                isEmpty() || changeDateTime.isAfter(lastChangeDateTime) ? changeDateTime : lastChangeDateTime,
+                size);
+    }
+
+    /**
+     * Checks whether the segment holds no change sets.
+     *
+     * @return true if the segment is empty.
+     */
+    boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    /**
+     * Checks whether the segment may hold change sets made within a time range.
+     *
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return true if the segment overlaps the range.
+     */
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return !isEmpty()
+                && (from == null || !lastChangeDateTime.isBefore(from))
+                && (to == null || !firstChangeDateTime.isAfter(to));
+    }
+
+    /**
+     * Gets the month of the first change set in the segment, which is the month the segment is rotated after.
+     *
+     * @return the month, or {@code null} if the segment is empty.
+     */
+    YearMonth month() {
+        return isEmpty() ? null : YearMonth.from(firstChangeDateTime);
+    }
+
+    /**
+     * Formats the entry as a line of the manifest, with the dates and times in UTC epoch seconds.
+     *
+     * @return the manifest line.
+     */
+    String toManifestLine() {
+        return number + " " + firstChangeSetId + " " + lastChangeSetId + " " + recordCount + " "
+                + (isEmpty() ? 0 : firstChangeDateTime.toEpochSecond(ZoneOffset.UTC)) + " "
+                + (isEmpty() ? 0 : lastChangeDateTime.toEpochSecond(ZoneOffset.UTC)) + " " + size;
+    }
+
+    /**
+     * Parses a line of the manifest.
+     *
+     * @param line the manifest line.
+     * @return the entry.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    static ChangeLogSegment fromManifestLine(String line) {
+        String[] fields = line.trim().split(" ");
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Malformed change log manifest line '" + line + "'.");
+        }
+        long recordCount = Long.parseLong(fields[3]);
+        return new ChangeLogSegment(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]), recordCount,
+                recordCount == 0 ? null : LocalDateTime.ofEpochSecond(Long.parseLong(fields[4]), 0, ZoneOffset.UTC),
+                recordCount == 0 ? null : LocalDateTime.ofEpochSecond(Long.parseLong(fields[5]), 0, ZoneOffset.UTC),
+                Long.parseLong(fields[6]));
+    }
+}
@@ -5,18 +5,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * A utility class for serializing and deserializing change log entries.
- * This class handles writing and reading the list of change logs to and from a binary file.
+ * A utility class for recording and reading change log entries.
+ * The changes of one edit are recorded together as a {@link ChangeSet}, appended to a {@link SegmentedChangeLog}
+ * by a {@link ChangeLogWriter} that group-commits concurrent edits.
+ * On first use, the changes of the serialized list kept by earlier versions are imported into the change log.
  *
  * @author Lovro Bilanović
  * @version 1.0
  */
 public class ChangeLogSerializer {
     private static final Logger log = LoggerFactory.getLogger(ChangeLogSerializer.class);
+    private static SegmentedChangeLog changeLog;
+    private static ChangeLogWriter writer;
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -24,33 +42,314 @@ public class ChangeLogSerializer {
     private ChangeLogSerializer() {}
 
     /**
-     * Serializes the given change log entry and appends it to the existing list of changes in the binary file.
+     * Records the given change log entry as a change set of its own.
      *
-     * @param change the ChangeLog entry to be serialized and added to the file.
+     * @param change the ChangeLog entry to be recorded.
      */
     public static void serializeChange(ChangeLog change) {
-        List<ChangeLog> existingChanges = deserializeChanges();
-        existingChanges.add(change);
+        serializeChangeSet(ChangeSet.of(change));
+    }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(Var.BINARY_CHANGES_FILE_PATH))) {
-            oos.writeObject(existingChanges);
+    /**
+     * Records the changes of one edit in the background. Empty change sets are not recorded.
+     *
+     * @param changeSet the changes of the edit.
+     * @return a future completed with the recorded change set once it has been written; write errors are logged
+     *         by the {@link ChangeLogWriter}.
+     */
+    public static CompletableFuture<ChangeSet> serializeChangeSet(ChangeSet changeSet) {
+        try {
+            return getWriter().submit(changeSet);
         } catch (IOException e) {
             log.error("Error occurred while serializing changes", e);
+            return CompletableFuture.failedFuture(e);
         }
     }
 
     /**
-     * Deserializes the list of change logs from the binary file.
-     * If the file does not exist or an error occurs, an empty list is returned.
+     * Reads all change log entries from the change log, oldest first.
+     * If the change log cannot be read, an empty list is returned.
      *
-     * @return the list of deserialized change logs.
+     * @return the list of change logs.
      */
     public static List<ChangeLog> deserializeChanges() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(Var.BINARY_CHANGES_FILE_PATH))) {
-            return (List<ChangeLog>) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        return deserializeChanges(null, null);
+    }
+
+    /**
+     * Reads the change log entries made within a time range, oldest first.
+     * If the change log cannot be read, an empty list is returned.
+     *
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return the list of change logs.
+     */
+    public static List<ChangeLog> deserializeChanges(LocalDateTime from, LocalDateTime to) {
+        try (Stream<ChangeLog> changes = streamChanges(from, to)) {
+            return changes.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Streams the change log entries of the change log, oldest first, decoding one record at a time,
+     * so the entries can be filtered without holding the whole history in memory.
+     * The stream must be closed. If a record cannot be read, the error is logged and the stream ends.
+     *
+     * @return the stream of change logs.
+     */
+    public static Stream<ChangeLog> streamChanges() {
+        return streamChanges(null, null);
+    }
+
+    /**
+     * Streams the change log entries made within a time range, oldest first, reading only the segments of the
+     * change log that overlap the range. The stream must be closed.
+     *
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return the stream of change logs.
+     * @see #streamChanges()
+     */
+    public static Stream<ChangeLog> streamChanges(LocalDateTime from, LocalDateTime to) {
+        try {
+            return streamChangeSets(getChangeLog().openReader(from, to))
+                    .flatMap(changeSet -> changeSet.getChanges().stream());
+        } catch (IOException e) {
+            log.error("Error occurred while deserializing changes", e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Streams the change sets recorded after a change set, oldest first, starting at that change set without
+     * reading the ones before it. The stream must be closed. If a record cannot be read, the error is logged and
+     * the stream ends.
+     *
+     * @param afterChangeSetId the ID of the change set to start after; 0 starts with the oldest change set.
+     * @return the stream of change sets.
+     */
+    public static Stream<ChangeSet> streamChangeSets(long afterChangeSetId) {
+        try {
+            return streamChangeSets(getChangeLog().openReader(afterChangeSetId, null, null));
+        } catch (IOException e) {
+            log.error("Error occurred while deserializing changes", e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Reads a page of the change log entries that match a filter, newest first, starting with the newest entry
+     * or after a previous page. The records are read backwards from the end of the change log,
+     * so the newest entries are found without reading the older ones. A page holds all matching entries of the
+     * change sets it reads, so it can hold a few more entries than the page size.
+     * If the change log cannot be read, an empty last page is returned.
+     *
+     * @param filter the condition the entries must meet.
+     * @param after the previous page, or {@code null} for the first page.
+     * @param pageSize the number of entries to read.
+     * @return the page.
+     */
+    public static ChangeLogPage getChangePage(Predicate<ChangeLog> filter, ChangeLogPage after, int pageSize) {
+        return getChangePage(null, null, filter, after, pageSize);
+    }
+
+    /**
+     * Reads a page of the change log entries made within a time range that match a filter, newest first,
+     * reading only the segments of the change log that overlap the range.
+     *
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @param filter the condition the entries must meet.
+     * @param after the previous page, or {@code null} for the first page.
+     * @param pageSize the number of entries to read.
+     * @return the page.
+     * @see #getChangePage(Predicate, ChangeLogPage, int)
+     */
+    public static ChangeLogPage getChangePage(LocalDateTime from, LocalDateTime to, Predicate<ChangeLog> filter,
+                                              ChangeLogPage after, int pageSize) {
+        return getChangePage(changeLog -> changeLog.openTailReader(after == null ? Long.MAX_VALUE : after.before(), from, to),
+                filter, pageSize);
+    }
+
+    /**
+     * Reads a page of the change log entries that match the search criteria of the changes history, newest first.
+     * The texts and the entity of the criteria are looked up in the search indexes of the change log, so only the
+     * change sets that contain them are read and checked against the criteria.
+     *
+     * @param filter the search criteria.
+     * @param after the previous page, or {@code null} for the first page.
+     * @param pageSize the number of entries to read.
+     * @return the page.
+     * @see #getChangePage(LocalDateTime, LocalDateTime, Predicate, ChangeLogPage, int)
+     */
+    public static ChangeLogPage getChangePage(ChangeLogFilter filter, ChangeLogPage after, int pageSize) {
+        return getChangePage(changeLog -> changeLog.openTailReader(after == null ? Long.MAX_VALUE : after.before(), filter),
+                filter::matches, pageSize);
+    }
+
+    /**
+     * Reads a page of the change log entries that match a filter from a tail reader.
+     *
+     * @param openReader opens the tail reader on the change log.
+     * @param filter the condition the entries must meet.
+     * @param pageSize the number of entries to read.
+     * @return the page.
+     */
+    private static ChangeLogPage getChangePage(Function<SegmentedChangeLog, SegmentedChangeLog.TailReader> openReader,
+                                               Predicate<ChangeLog> filter, int pageSize) {
+        List<ChangeLog> changes = new ArrayList<>(pageSize);
+        try {
+            SegmentedChangeLog.TailReader reader = openReader.apply(getChangeLog());
+            ChangeSet changeSet;
+            while (changes.size() < pageSize && (changeSet = reader.previous()) != null) {
+                for (ChangeLog change : changeSet.getChanges().reversed()) {
+                    if (filter.test(change)) {
+                        changes.add(change);
+                    }
+                }
+            }
+            return new ChangeLogPage(changes, reader.getBeforeChangeSetId());
+        } catch (IOException e) {
+            log.error("Error occurred while deserializing changes", e);
+            return new ChangeLogPage(changes, 0);
+        }
+    }
+
+    /**
+     * Reads all change sets from the change log, oldest first.
+     * If the change log cannot be read, an empty list is returned.
+     *
+     * @return the list of change sets.
+     */
+    public static List<ChangeSet> deserializeChangeSets() {
+        try (SegmentedChangeLog.Reader reader = getChangeLog().openReader(null, null)) {
+            List<ChangeSet> changeSets = new ArrayList<>();
+            ChangeSet changeSet;
+            while ((changeSet = reader.next()) != null) {
+                changeSets.add(changeSet);
+            }
+            return changeSets;
+        } catch (IOException e) {
             log.error("Error occurred while deserializing changes", e);
             return new ArrayList<>();
         }
     }
+
+    /**
+     * Streams the change sets of a reader, closing the reader when the stream is closed.
+     *
+     * @param reader the reader of the change log.
+     * @return the stream of change sets.
+     */
+    private static Stream<ChangeSet> streamChangeSets(SegmentedChangeLog.Reader reader) {
+        Spliterator<ChangeSet> changeSets = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ChangeSet> action) {
+                try {
+                    ChangeSet changeSet = reader.next();
+                    if (changeSet == null) {
+                        return false;
+                    }
+                    action.accept(changeSet);
+                    return true;
+                } catch (IOException e) {
+                    log.error("Error occurred while deserializing changes", e);
+                    return false;
+                }
+            }
+        };
+        return StreamSupport.stream(changeSets, false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        log.error("Error occurred while closing change log reader", e);
+                    }
+                });
+    }
+
+    /**
+     * Writes the queued changes, forces them to disk and closes the change log.
+     */
+    public static synchronized void close() {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (changeLog != null) {
+            try {
+                changeLog.close();
+            } catch (IOException e) {
+                log.error("Error occurred while closing change log", e);
+            }
+            changeLog = null;
+        }
+    }
+
+    /**
+     * Returns the writer of the change log, starting it on first use.
+     *
+     * @return the writer.
+     * @throws IOException if the change log cannot be opened.
+     */
+    private static synchronized ChangeLogWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new ChangeLogWriter(getChangeLog(), Var.CHANGE_LOG_MAX_GROUP_SIZE);
+        }
+        return writer;
+    }
+
+    /**
+     * Returns the change log, opening it and starting its compactor on first use. If the change log does not
+     * exist yet, the single journal of earlier versions becomes its first segment, or the legacy change list is
+     * imported into it.
+     *
+     * @return the open change log.
+     * @throws IOException if the change log cannot be opened or the legacy changes cannot be imported.
+     */
+    private static synchronized SegmentedChangeLog getChangeLog() throws IOException {
+        if (changeLog == null) {
+            Path directory = Path.of(Var.CHANGE_LOG_DIRECTORY_PATH);
+            Path journalPath = Path.of(Var.CHANGE_LOG_JOURNAL_FILE_PATH);
+            Path legacyPath = Path.of(Var.BINARY_CHANGES_FILE_PATH);
+            if (!SegmentedChangeLog.exists(directory) && Files.notExists(journalPath) && Files.exists(legacyPath)) {
+                importLegacyChanges(legacyPath, journalPath);
+            }
+            changeLog = SegmentedChangeLog.open(directory, journalPath, Var.CHANGE_LOG_SYNC_POLICY,
+                    Duration.ofMillis(Var.CHANGE_LOG_SYNC_INTERVAL_MILLIS), Var.CHANGE_LOG_SEGMENT_MAX_BYTES,
+                    Period.ofMonths(Var.CHANGE_LOG_RETENTION_MONTHS));
+            changeLog.startCompaction(Duration.ofMinutes(Var.CHANGE_LOG_COMPACTION_INTERVAL_MINUTES));
+        }
+        return changeLog;
+    }
+
+    /**
+     * Imports the changes of a serialized change list into a new journal, each as a change set of its own.
+     * The journal is written to a temporary file that replaces the journal only when complete, so an interrupted
+     * import is started over on the next start. The legacy file is left in place.
+     *
+     * @param legacyPath the path of the serialized change list.
+     * @param journalPath the path of the new journal.
+     * @throws IOException if the legacy changes cannot be read or the journal cannot be written.
+     */
+    static void importLegacyChanges(Path legacyPath, Path journalPath) throws IOException {
+        List<ChangeSet> legacyChangeSets = new ArrayList<>();
+        if (Files.size(legacyPath) > 0) {
+            try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacyPath)))) {
+                for (ChangeLog change : (List<ChangeLog>) ois.readObject()) {
+                    legacyChangeSets.add(ChangeSet.of(change));
+                }
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IOException("File '" + legacyPath + "' does not hold a list of changes.", e);
+            }
+        }
+
+        Path temporaryPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        Files.deleteIfExists(temporaryPath);
+        try (ChangeLogJournal temporaryJournal = ChangeLogJournal.open(temporaryPath, Var.CHANGE_LOG_SYNC_POLICY, Duration.ZERO)) {
+            temporaryJournal.appendAll(legacyChangeSets);
+        }
+        ChangeLogJournal.replace(temporaryPath, journalPath);
+        log.info("Imported {} changes from '{}' into change log journal '{}'.", legacyChangeSets.size(), legacyPath, journalPath);
+    }
 }
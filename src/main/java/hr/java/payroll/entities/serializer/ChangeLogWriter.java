@@ -0,0 +1,150 @@
+package hr.java.payroll.entities.serializer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records change sets in a {@link SegmentedChangeLog} on a background thread with group commit.
+ * Change sets submitted while the previous group is being written wait in a queue and are then appended together,
+ * so concurrent edits share one write and one force to disk instead of paying for one each.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ChangeLogWriter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogWriter.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final SegmentedChangeLog changeLog;
+    private final int maxGroupSize;
+    private final BlockingQueue<PendingChangeSet> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a writer and starts its background thread.
+     *
+     * @param changeLog the change log the change sets are appended to.
+     * @param maxGroupSize the maximum number of change sets appended with one write.
+     */
+    public ChangeLogWriter(SegmentedChangeLog changeLog, int maxGroupSize) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("Maximum group size must be at least 1.");
+        }
+        this.changeLog = changeLog;
+        this.maxGroupSize = maxGroupSize;
+        this.writerThread = new Thread(this::run, "change-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a change set to be recorded. Empty change sets are not recorded.
+     *
+     * @param changeSet the change set.
+     * @return a future completed with the recorded change set once it has been written according to the sync policy
+     *         of the change log, or completed exceptionally if it could not be written.
+     */
+    public CompletableFuture<ChangeSet> submit(ChangeSet changeSet) {
+        if (changeSet.isEmpty()) {
+            return CompletableFuture.completedFuture(changeSet);
+        }
+        PendingChangeSet pending = new PendingChangeSet(changeSet, new CompletableFuture<>());
+        synchronized (queue) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Change log writer is closed."));
+            }
+            queue.add(pending);
+        }
+        return pending.future();
+    }
+
+    /**
+     * Stops accepting change sets and waits until the queued ones have been written.
+     */
+    @Override
+    public void close() {
+        synchronized (queue) {
+            closed = true;
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the change log writer to finish.", e);
+        }
+    }
+
+    /**
+     * Takes the queued change sets in groups and appends each group to the change log, until the writer is closed
+     * and the queue is empty. While the queue is empty, the change log is forced to disk whenever its sync interval
+     * has elapsed, so that the last group before a pause does not wait for the next append to be forced.
+     */
+    private void run() {
+        List<PendingChangeSet> group = new ArrayList<>(maxGroupSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingChangeSet first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    syncIfDue();
+                    continue;
+                }
+                group.add(first);
+            } catch (InterruptedException e) {
+                log.warn("Change log writer was interrupted, writing the queued change sets before stopping.", e);
+                closed = true;
+            }
+            queue.drainTo(group, maxGroupSize - group.size());
+            commit(group);
+            group.clear();
+        }
+    }
+
+    /**
+     * Appends a group of change sets with one write and completes their futures.
+     *
+     * @param group the change sets to append.
+     */
+    private void commit(List<PendingChangeSet> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        try {
+            List<ChangeSet> recordedChangeSets = changeLog.appendAll(group.stream().map(PendingChangeSet::changeSet).toList());
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).future().complete(recordedChangeSets.get(i));
+            }
+            log.debug("Group committed {} change sets.", group.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Error occurred while writing {} change sets to the change log.", group.size(), e);
+            group.forEach(pending -> pending.future().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Forces the change log to disk if its sync interval has elapsed.
+     */
+    private void syncIfDue() {
+        try {
+            changeLog.syncIfDue();
+        } catch (IOException e) {
+            log.error("Error occurred while forcing the change log to disk.", e);
+        }
+    }
+
+    /**
+     * A change set waiting to be written, with the future completed when it is.
+     *
+     * @param changeSet the change set.
+     * @param future the future of the recorded change set.
+     */
+    private record PendingChangeSet(ChangeSet changeSet, CompletableFuture<ChangeSet> future) {}
+}
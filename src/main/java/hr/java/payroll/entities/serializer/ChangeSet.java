@@ -0,0 +1,223 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.ChangeEntityType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of field changes made by one logical edit, such as saving an employee form, to one record.
+ * A change set is recorded as a single journal record, so either all of its changes are kept or none.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public final class ChangeSet {
+    private final long id;
+    private final String role;
+    private final LocalDateTime changeDateTime;
+    private final String entityType;
+    private final long entityId;
+    private final List<ChangeLog> changes;
+
+    /**
+     * Creates a change set.
+     *
+     * @param id the ID of the change set, or 0 if it has not been recorded yet.
+     * @param role the role of the user who made the changes.
+     * @param changeDateTime the date and time the changes were made.
+     * @param entityType the kind of record that was changed, or {@code null} if it is not known.
+     * @param entityId the ID of the record that was changed, or 0 if it is not known.
+     * @param changes the changes, which all carry the role, date and time, record and ID of the change set.
+     */
+    ChangeSet(long id, String role, LocalDateTime changeDateTime, String entityType, long entityId, List<ChangeLog> changes) {
+        this.id = id;
+        this.role = role;
+        this.changeDateTime = changeDateTime;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Creates an unrecorded change set holding a single change, of the record the change was made to.
+     *
+     * @param change the change.
+     * @return the change set.
+     */
+    public static ChangeSet of(ChangeLog change) {
+        ChangeSetBuilder builder = new ChangeSetBuilder()
+                .setRole(change.getRole())
+                .setChangeDateTime(change.getChangeDateTime());
+        builder.entityType = change.getEntityType();
+        builder.entityId = change.getEntityId();
+        return builder.addChange(change.getFieldChanged(), change.getOldValue(), change.getNewValue())
+                .build();
+    }
+
+    /**
+     * Returns a copy of this change set with the ID it was recorded under.
+     *
+     * @param id the ID of the change set.
+     * @return the recorded change set.
+     */
+    ChangeSet withId(long id) {
+        List<ChangeLog> recordedChanges = new ArrayList<>(changes.size());
+        for (ChangeLog change : changes) {
+            recordedChanges.add(new ChangeLog(change.getFieldChanged(), change.getOldValue(), change.getNewValue(), role, changeDateTime, id, entityType, entityId));
+        }
+        return new ChangeSet(id, role, changeDateTime, entityType, entityId, recordedChanges);
+    }
+
+    /**
+     * Builder class for collecting the field changes of one edit into a {@link ChangeSet}.
+     */
+    public static class ChangeSetBuilder {
+        private String role;
+        private LocalDateTime changeDateTime = LocalDateTime.now();
+        private String entityType;
+        private long entityId;
+        private final List<ChangeLog> changes = new ArrayList<>();
+
+        /**
+         * Sets the role of the user making the changes.
+         *
+         * @param role the role of the user
+         * @return the builder object
+         */
+        public ChangeSetBuilder setRole(String role) {
+            this.role = role;
+            return this;
+        }
+
+        /**
+         * Sets the date and time of the changes. Defaults to the time the builder was created.
+         *
+         * @param changeDateTime the date and time of the changes
+         * @return the builder object
+         */
+        public ChangeSetBuilder setChangeDateTime(LocalDateTime changeDateTime) {
+            this.changeDateTime = changeDateTime;
+            return this;
+        }
+
+        /**
+         * Sets the record the changes are made to.
+         *
+         * @param entityType the kind of record
+         * @param entityId the ID of the record
+         * @return the builder object
+         */
+        public ChangeSetBuilder setEntity(ChangeEntityType entityType, Long entityId) {
+            this.entityType = entityType.name();
+            this.entityId = entityId;
+            return this;
+        }
+
+        /**
+         * Adds a field change.
+         *
+         * @param fieldChanged the name of the changed field
+         * @param oldValue the previous value of the field
+         * @param newValue the new value of the field
+         * @return the builder object
+         */
+        public ChangeSetBuilder addChange(String fieldChanged, String oldValue, String newValue) {
+            this.changes.add(new ChangeLog(fieldChanged, oldValue, newValue, null, null));
+            return this;
+        }
+
+        /**
+         * Adds a field change if both values are set and their string forms differ.
+         *
+         * @param fieldChanged the name of the field
+         * @param oldValue the previous value of the field
+         * @param newValue the new value of the field
+         * @return the builder object
+         */
+        public ChangeSetBuilder addIfEdited(String fieldChanged, Object oldValue, Object newValue) {
+            if (oldValue != null && newValue != null && !oldValue.toString().equals(newValue.toString())) {
+                addChange(fieldChanged, oldValue.toString(), newValue.toString());
+            }
+            return this;
+        }
+
+        /**
+         * Builds a {@link ChangeSet} holding the changes added so far.
+         *
+         * @return the created {@link ChangeSet} object
+         */
+        public ChangeSet build() {
+            List<ChangeLog> builtChanges = new ArrayList<>(changes.size());
+            for (ChangeLog change : changes) {
+                builtChanges.add(new ChangeLog(change.getFieldChanged(), change.getOldValue(), change.getNewValue(), role, changeDateTime, 0, entityType, entityId));
+            }
+            return new ChangeSet(0, role, changeDateTime, entityType, entityId, builtChanges);
+        }
+    }
+
+    /**
+     * Gets the ID of the change set.
+     *
+     * @return the ID, or 0 if the change set has not been recorded yet
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the role of the user who made the changes.
+     *
+     * @return the role
+     */
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * Gets the date and time the changes were made.
+     *
+     * @return the date and time
+     */
+    public LocalDateTime getChangeDateTime() {
+        return changeDateTime;
+    }
+
+    /**
+     * Gets the kind of record that was changed.
+     *
+     * @return the kind of record, or {@code null} if it is not known
+     */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Gets the ID of the record that was changed.
+     *
+     * @return the ID of the record, or 0 if it is not known
+     */
+    public long getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Gets the changes of the change set.
+     *
+     * @return the unmodifiable list of changes
+     */
+    public List<ChangeLog> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Checks whether the change set holds no changes.
+     *
+     * @return true if nothing was changed
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+}
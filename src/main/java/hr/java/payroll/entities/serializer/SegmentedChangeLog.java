@@ -0,0 +1,865 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A change log split into segments, each a {@link ChangeLogJournal} of its own, kept in one directory.
+ * Change sets are appended to the newest segment, which is sealed and replaced by a new one once it reaches the
+ * maximum segment size or a change set of a new month is appended. A manifest lists the segments with the range of
+ * change set IDs and the time range of each, so readers only open the segments that overlap the requested range.
+ * <p>
+ * A background compactor drops the change sets older than the retention period and merges runs of small sealed
+ * segments. The rewritten segment is written next to the old ones and takes their place in the manifest, which
+ * is replaced atomically; segment files missing from the manifest are left by an interrupted rotation or
+ * compaction and are deleted when the change log is opened. A retention period of zero keeps all change sets.
+ * <p>
+ * Readers track their position by change set ID, so they continue correctly while segments are compacted.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class SegmentedChangeLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedChangeLog.class);
+    private static final String MANIFEST_FILE_NAME = "changes.manifest";
+    private static final String MANIFEST_HEADER = "PBJM 1";
+    private static final String SEGMENT_FILE_PREFIX = "changes-";
+    private static final String SEGMENT_FILE_SUFFIX = ".journal";
+    private static final int SMALL_SEGMENT_DIVISOR = 4;
+
+    private final Path directory;
+    private final JournalSyncPolicy syncPolicy;
+    private final Duration syncInterval;
+    private final long maxSegmentSize;
+    private final Period retention;
+    private final List<ChangeLogSegment> segments;
+    private final Map<Long, ChangeLogJournal> sealedJournals = new HashMap<>();
+    private final Object compactionLock = new Object();
+    private ChangeLogJournal activeJournal;
+    private long nextSegmentNumber;
+    private ScheduledExecutorService compactor;
+    private boolean closed;
+
+    /**
+     * Creates a change log over the segments listed in a manifest.
+     *
+     * @param directory the directory of the segments.
+     * @param segments the segments, oldest first.
+     * @param syncPolicy when appended change sets are forced to disk.
+     * @param syncInterval the minimum time between two forces under {@link JournalSyncPolicy#INTERVAL}.
+     * @param maxSegmentSize the size in bytes after which the newest segment is sealed.
+     * @param retention how long change sets are kept.
+     */
+    private SegmentedChangeLog(Path directory, List<ChangeLogSegment> segments, JournalSyncPolicy syncPolicy,
+                               Duration syncInterval, long maxSegmentSize, Period retention) {
+        this.directory = directory;
+        this.segments = new ArrayList<>(segments);
+        this.syncPolicy = syncPolicy;
+        this.syncInterval = syncInterval;
+        this.maxSegmentSize = maxSegmentSize;
+        this.retention = retention;
+        this.nextSegmentNumber = segments.stream().mapToLong(ChangeLogSegment::number).max().orElse(0) + 1;
+    }
+
+    /**
+     * Opens the change log in a directory, creating it if it does not exist.
+     * A single journal kept by earlier versions becomes the first segment. If the manifest is missing,
+     * it is rebuilt from the segment files.
+     *
+     * @param directory the directory of the segments.
+     * @param legacyJournalPath the path of the single journal kept by earlier versions.
+     * @param syncPolicy when appended change sets are forced to disk.
+     * @param syncInterval the minimum time between two forces under {@link JournalSyncPolicy#INTERVAL}.
+     * @param maxSegmentSize the size in bytes after which the newest segment is sealed.
+     * @param retention how long change sets are kept, or zero to keep them all.
+     * @return the open change log.
+     * @throws IOException if the segments or the manifest cannot be read or written.
+     */
+    public static SegmentedChangeLog open(Path directory, Path legacyJournalPath, JournalSyncPolicy syncPolicy,
+                                          Duration syncInterval, long maxSegmentSize, Period retention) throws IOException {
+        Files.createDirectories(directory);
+        Path manifestPath = directory.resolve(MANIFEST_FILE_NAME);
+        List<ChangeLogSegment> segments;
+        if (Files.exists(manifestPath)) {
+            segments = readManifest(manifestPath);
+            deleteOrphanSegments(directory, segments);
+        } else {
+            if (segmentNumbers(directory).isEmpty() && Files.exists(legacyJournalPath)) {
+                ChangeLogJournal.replace(legacyJournalPath, segmentPath(directory, 1));
+                log.info("Moved change log journal '{}' into segmented change log '{}'.", legacyJournalPath, directory);
+            }
+            segments = rebuildManifest(directory);
+        }
+        SegmentedChangeLog changeLog = new SegmentedChangeLog(directory, segments, syncPolicy, syncInterval, maxSegmentSize, retention);
+        changeLog.openActiveSegment();
+        return changeLog;
+    }
+
+    /**
+     * Checks whether a directory holds a segmented change log.
+     *
+     * @param directory the directory.
+     * @return true if the directory has a manifest or segment files.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static boolean exists(Path directory) throws IOException {
+        return Files.exists(directory.resolve(MANIFEST_FILE_NAME)) || !segmentNumbers(directory).isEmpty();
+    }
+
+    /**
+     * Compacts the sealed segments every interval on a daemon thread, starting at once.
+     * Calling this method while compacting has no effect.
+     *
+     * @param interval the delay between two compactions.
+     */
+    public synchronized void startCompaction(Duration interval) {
+        if (compactor != null || closed) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                log.error("Error occurred while compacting the change log.", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends change sets to the newest segment, giving each the next change set ID, and seals the segment first
+     * if it is full or the change sets were made in a later month than its first one.
+     *
+     * @param changeSets the change sets to append.
+     * @return the change sets with the IDs they were recorded under, in the same order.
+     * @throws IOException if the change sets cannot be written or the segment cannot be rotated.
+     */
+    public synchronized List<ChangeSet> appendAll(Collection<ChangeSet> changeSets) throws IOException {
+        ensureOpen();
+        if (changeSets.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ChangeLogSegment active = segments.getLast();
+        if (!active.isEmpty() && (activeJournal.getSize() >= maxSegmentSize
+                || !YearMonth.from(changeSets.iterator().next().getChangeDateTime()).equals(active.month()))) {
+            rotate();
+        }
+        List<ChangeSet> recordedChangeSets = activeJournal.appendAll(changeSets);
+        ChangeLogSegment updated = segments.getLast();
+        for (ChangeSet changeSet : recordedChangeSets) {
+            updated = updated.with(changeSet, activeJournal.getSize());
+        }
+        segments.set(segments.size() - 1, updated);
+        return recordedChangeSets;
+    }
+
+    /**
+     * Forces the change sets appended to the newest segment to disk if the sync interval has elapsed since the last
+     * force under {@link JournalSyncPolicy#INTERVAL}. Does nothing once the change log is closed.
+     *
+     * @throws IOException if the change sets cannot be forced.
+     */
+    public synchronized void syncIfDue() throws IOException {
+        if (!closed) {
+            activeJournal.syncIfDue();
+        }
+    }
+
+    /**
+     * Opens a reader that reads the change sets made within a time range oldest first, opening only the segments
+     * that overlap the range.
+     *
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return the reader.
+     */
+    public Reader openReader(LocalDateTime from, LocalDateTime to) {
+        return new Reader(0, from, to);
+    }
+
+    /**
+     * Opens a reader that reads the change sets made within a time range oldest first, starting with the oldest
+     * change set whose ID is higher than the given one and skipping the segments and records before it.
+     *
+     * @param afterChangeSetId the ID to start after; 0 starts with the oldest change set.
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return the reader.
+     */
+    public Reader openReader(long afterChangeSetId, LocalDateTime from, LocalDateTime to) {
+        return new Reader(afterChangeSetId, from, to);
+    }
+
+    /**
+     * Opens a reader that reads the change sets made within a time range newest first, starting with the newest
+     * change set whose ID is lower than the given one and opening only the segments that overlap the range.
+     *
+     * @param beforeChangeSetId the ID to start before; {@link Long#MAX_VALUE} starts with the newest change set.
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return the reader.
+     */
+    public TailReader openTailReader(long beforeChangeSetId, LocalDateTime from, LocalDateTime to) {
+        return new TailReader(beforeChangeSetId, from, to, null);
+    }
+
+    /**
+     * Opens a reader that reads newest first the change sets made within the time range of a filter that contain
+     * all of its texts and were made to its entity, as found by the search indexes of the segments. The change sets
+     * read must still be checked against the filter.
+     *
+     * @param beforeChangeSetId the ID to start before; {@link Long#MAX_VALUE} starts with the newest change set.
+     * @param filter the search criteria.
+     * @return the reader.
+     * @see #openTailReader(long, LocalDateTime, LocalDateTime)
+     */
+    public TailReader openTailReader(long beforeChangeSetId, ChangeLogFilter filter) {
+        return new TailReader(beforeChangeSetId, filter.from(), filter.to(), filter);
+    }
+
+    /**
+     * Drops the change sets older than the retention period from the sealed segments, and merges runs of adjacent
+     * sealed segments smaller than a quarter of the maximum segment size. Appends and reads continue meanwhile.
+     * A segment larger than that is dropped once all of its change sets have expired.
+     *
+     * @throws IOException if a segment cannot be read or written.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<ChangeLogSegment> sealedSegments;
+            synchronized (this) {
+                ensureOpen();
+                sealedSegments = List.copyOf(segments.subList(0, segments.size() - 1));
+            }
+            LocalDateTime cutoff = retention.isZero() ? null : LocalDateTime.now().minus(retention);
+            for (List<ChangeLogSegment> group : planCompaction(sealedSegments, cutoff)) {
+                rewrite(group, cutoff);
+            }
+        }
+    }
+
+    /**
+     * Stops the compactor, writes the manifest and closes all segments.
+     *
+     * @throws IOException if a segment cannot be closed or the manifest cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService runningCompactor;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            runningCompactor = compactor;
+        }
+        if (runningCompactor != null) {
+            runningCompactor.shutdown();
+            try {
+                if (!runningCompactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Change log compactor did not finish in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                writeManifest();
+                activeJournal.close();
+            } finally {
+                for (ChangeLogJournal journal : sealedJournals.values()) {
+                    journal.close();
+                }
+                sealedJournals.clear();
+            }
+        }
+    }
+
+    /**
+     * Opens the newest segment for appending, creating the first segment of an empty change log,
+     * and updates its manifest entry from its records.
+     *
+     * @throws IOException if the segment cannot be opened or the manifest cannot be written.
+     */
+    private void openActiveSegment() throws IOException {
+        if (segments.isEmpty()) {
+            segments.add(ChangeLogSegment.empty(nextSegmentNumber++, 0));
+        }
+        ChangeLogSegment active = segments.getLast();
+        activeJournal = ChangeLogJournal.open(segmentPath(directory, active.number()), syncPolicy, syncInterval, active.lastChangeSetId());
+        try {
+            segments.set(segments.size() - 1, describe(active.number(), activeJournal));
+            writeManifest();
+        } catch (IOException | RuntimeException e) {
+            activeJournal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Seals the newest segment and starts a new one. The new segment is added to the manifest before the old one
+     * is closed, so a failed rotation leaves the old segment in use.
+     *
+     * @throws IOException if the new segment cannot be created.
+     */
+    private void rotate() throws IOException {
+        ChangeLogSegment sealed = segments.getLast();
+        ChangeLogSegment active = ChangeLogSegment.empty(nextSegmentNumber++, sealed.lastChangeSetId());
+        Path activePath = segmentPath(directory, active.number());
+        ChangeLogJournal journal = ChangeLogJournal.open(activePath, syncPolicy, syncInterval, sealed.lastChangeSetId());
+        segments.add(active);
+        try {
+            writeManifest();
+        } catch (IOException e) {
+            segments.removeLast();
+            journal.close();
+            ChangeLogJournal.delete(activePath);
+            throw e;
+        }
+        ChangeLogJournal sealedJournal = activeJournal;
+        activeJournal = journal;
+        sealedJournal.close();
+        log.info("Sealed change log segment {} with {} change sets.", sealed.number(), sealed.recordCount());
+    }
+
+    /**
+     * Groups the sealed segments to rewrite: each run of adjacent small segments that fits into one segment,
+     * dropping its expired change sets, and each other segment whose change sets have all expired. A large segment
+     * that has only partly expired is kept until all of it has, so it is not rewritten on every compaction.
+     *
+     * @param sealedSegments the sealed segments, oldest first.
+     * @param cutoff the time before which change sets are expired, or {@code null} if none are.
+     * @return the groups of segments, each to be replaced by one segment.
+     */
+    private List<List<ChangeLogSegment>> planCompaction(List<ChangeLogSegment> sealedSegments, LocalDateTime cutoff) {
+        List<List<ChangeLogSegment>> groups = new ArrayList<>();
+        List<ChangeLogSegment> run = new ArrayList<>();
+        long runSize = 0;
+        for (ChangeLogSegment segment : sealedSegments) {
+            boolean small = segment.size() < maxSegmentSize / SMALL_SEGMENT_DIVISOR;
+            if (small && runSize + segment.size() <= maxSegmentSize) {
+                run.add(segment);
+                runSize += segment.size();
+                continue;
+            }
+            addRun(groups, run, cutoff);
+            run = new ArrayList<>();
+            runSize = 0;
+            if (small) {
+                run.add(segment);
+                runSize = segment.size();
+            } else if (cutoff != null && segment.lastChangeDateTime().isBefore(cutoff)) {
+                groups.add(List.of(segment));
+            }
+        }
+        addRun(groups, run, cutoff);
+        return groups;
+    }
+
+    /**
+     * Adds a run of small segments to the groups to rewrite if merging or expiring makes rewriting it worthwhile.
+     *
+     * @param groups the groups of segments to rewrite.
+     * @param run the run of adjacent small segments.
+     * @param cutoff the time before which change sets are expired, or {@code null} if none are.
+     */
+    private static void addRun(List<List<ChangeLogSegment>> groups, List<ChangeLogSegment> run, LocalDateTime cutoff) {
+        if (run.size() > 1 || run.size() == 1 && isExpiring(run.getFirst(), cutoff)) {
+            groups.add(run);
+        }
+    }
+
+    /**
+     * Checks whether a segment holds change sets older than the cutoff.
+     *
+     * @param segment the segment.
+     * @param cutoff the time before which change sets are expired, or {@code null} if none are.
+     * @return true if the segment holds expired change sets.
+     */
+    private static boolean isExpiring(ChangeLogSegment segment, LocalDateTime cutoff) {
+        return cutoff != null && !segment.isEmpty() && segment.firstChangeDateTime().isBefore(cutoff);
+    }
+
+    /**
+     * Replaces a group of adjacent sealed segments with one segment holding their unexpired change sets,
+     * or removes them if none are left. The group is skipped if the change log has changed meanwhile.
+     *
+     * @param group the segments to replace, oldest first.
+     * @param cutoff the time before which change sets are expired, or {@code null} if none are.
+     * @throws IOException if a segment cannot be read or written.
+     */
+    private void rewrite(List<ChangeLogSegment> group, LocalDateTime cutoff) throws IOException {
+        List<ChangeSet> keptChangeSets = new ArrayList<>();
+        for (ChangeLogSegment segment : group) {
+            if (cutoff != null && segment.lastChangeDateTime().isBefore(cutoff)) {
+                continue;
+            }
+            ChangeLogJournal journal;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                journal = getJournal(segment);
+            }
+            for (ChangeSet changeSet : journal.readAll()) {
+                if (cutoff == null || !changeSet.getChangeDateTime().isBefore(cutoff)) {
+                    keptChangeSets.add(changeSet);
+                }
+            }
+        }
+
+        ChangeLogSegment replacement = null;
+        ChangeLogJournal replacementJournal = null;
+        if (!keptChangeSets.isEmpty()) {
+            long number;
+            synchronized (this) {
+                number = nextSegmentNumber++;
+            }
+            replacementJournal = ChangeLogJournal.open(segmentPath(directory, number), JournalSyncPolicy.NEVER, Duration.ZERO);
+            try {
+                replacementJournal.appendRecorded(keptChangeSets);
+                replacementJournal.sync();
+            } catch (IOException e) {
+                discard(replacementJournal, number);
+                throw e;
+            }
+            replacement = ChangeLogSegment.empty(number, 0);
+            for (ChangeSet changeSet : keptChangeSets) {
+                replacement = replacement.with(changeSet, replacementJournal.getSize());
+            }
+        }
+
+        synchronized (this) {
+            int start = segments.indexOf(group.getFirst());
+            if (closed || start < 0 || start + group.size() >= segments.size()
+                    || !segments.subList(start, start + group.size()).equals(group)) {
+                if (replacementJournal != null) {
+                    discard(replacementJournal, replacement.number());
+                }
+                return;
+            }
+            List<ChangeLogSegment> replaced = segments.subList(start, start + group.size());
+            replaced.clear();
+            if (replacement != null) {
+                replaced.add(replacement);
+            }
+            try {
+                writeManifest();
+            } catch (IOException e) {
+                replaced.clear();
+                replaced.addAll(group);
+                if (replacementJournal != null) {
+                    discard(replacementJournal, replacement.number());
+                }
+                throw e;
+            }
+            if (replacement != null) {
+                sealedJournals.put(replacement.number(), replacementJournal);
+            }
+            for (ChangeLogSegment segment : group) {
+                ChangeLogJournal journal = sealedJournals.remove(segment.number());
+                if (journal != null) {
+                    journal.close();
+                }
+                ChangeLogJournal.delete(segmentPath(directory, segment.number()));
+            }
+        }
+        long totalChangeSets = group.stream().mapToLong(ChangeLogSegment::recordCount).sum();
+        log.info("Compacted {} change log segments into {}, keeping {} of {} change sets.", group.size(),
+                replacement == null ? "none" : "segment " + replacement.number(), keptChangeSets.size(), totalChangeSets);
+    }
+
+    /**
+     * Closes and deletes a segment that was not added to the manifest.
+     *
+     * @param journal the journal of the segment.
+     * @param number the number of the segment.
+     * @throws IOException if the segment cannot be deleted.
+     */
+    private void discard(ChangeLogJournal journal, long number) throws IOException {
+        journal.close();
+        ChangeLogJournal.delete(segmentPath(directory, number));
+    }
+
+    /**
+     * Gets the journal of a segment, opening a sealed segment on first use.
+     * Must be called while holding the lock of the change log.
+     *
+     * @param segment the segment.
+     * @return the journal.
+     * @throws IOException if the segment cannot be opened.
+     */
+    private ChangeLogJournal getJournal(ChangeLogSegment segment) throws IOException {
+        if (segment.number() == segments.getLast().number()) {
+            return activeJournal;
+        }
+        ChangeLogJournal journal = sealedJournals.get(segment.number());
+        if (journal == null) {
+            journal = ChangeLogJournal.open(segmentPath(directory, segment.number()), JournalSyncPolicy.NEVER, Duration.ZERO);
+            sealedJournals.put(segment.number(), journal);
+        }
+        return journal;
+    }
+
+    /**
+     * Checks that the change log has not been closed.
+     *
+     * @throws IOException if the change log is closed.
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Change log '" + directory + "' is closed.");
+        }
+    }
+
+    /**
+     * Writes the manifest to a temporary file, forces it to disk and moves it in place of the manifest.
+     *
+     * @throws IOException if the manifest cannot be written.
+     */
+    private void writeManifest() throws IOException {
+        StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+        for (ChangeLogSegment segment : segments) {
+            manifest.append(segment.toManifestLine()).append('\n');
+        }
+        Path manifestPath = directory.resolve(MANIFEST_FILE_NAME);
+        Path temporaryPath = directory.resolve(MANIFEST_FILE_NAME + ".tmp");
+        Files.writeString(temporaryPath, manifest, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporaryPath, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the segments listed in a manifest.
+     *
+     * @param manifestPath the path of the manifest.
+     * @return the segments, oldest first.
+     * @throws IOException if the manifest cannot be read or is malformed.
+     */
+    private static List<ChangeLogSegment> readManifest(Path manifestPath) throws IOException {
+        List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.getFirst().equals(MANIFEST_HEADER)) {
+            throw new IOException("File '" + manifestPath + "' is not a change log manifest.");
+        }
+        List<ChangeLogSegment> segments = new ArrayList<>();
+        try {
+            for (String line : lines.subList(1, lines.size())) {
+                if (!line.isBlank()) {
+                    segments.add(ChangeLogSegment.fromManifestLine(line));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Change log manifest '" + manifestPath + "' is malformed.", e);
+        }
+        return segments;
+    }
+
+    /**
+     * Rebuilds the list of segments from the segment files in a directory, ordered by their change set IDs.
+     * Empty segments are deleted, and so is a segment whose change sets overlap those of an earlier segment,
+     * which is the unlisted output of an interrupted compaction.
+     *
+     * @param directory the directory of the segments.
+     * @return the segments, oldest first.
+     * @throws IOException if a segment cannot be read.
+     */
+    private static List<ChangeLogSegment> rebuildManifest(Path directory) throws IOException {
+        List<ChangeLogSegment> candidates = new ArrayList<>();
+        for (long number : segmentNumbers(directory)) {
+            try (ChangeLogJournal journal = ChangeLogJournal.open(segmentPath(directory, number), JournalSyncPolicy.NEVER, Duration.ZERO)) {
+                candidates.add(describe(number, journal));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(ChangeLogSegment::firstChangeSetId).thenComparingLong(ChangeLogSegment::number));
+        List<ChangeLogSegment> segments = new ArrayList<>();
+        long lastChangeSetId = 0;
+        for (ChangeLogSegment segment : candidates) {
+            if (segment.isEmpty() || segment.firstChangeSetId() <= lastChangeSetId) {
+                ChangeLogJournal.delete(segmentPath(directory, segment.number()));
+                continue;
+            }
+            segments.add(segment);
+            lastChangeSetId = segment.lastChangeSetId();
+        }
+        log.info("Rebuilt change log manifest of '{}' with {} segments.", directory, segments.size());
+        return segments;
+    }
+
+    /**
+     * Deletes the segment files that are not listed in the manifest.
+     *
+     * @param directory the directory of the segments.
+     * @param segments the segments listed in the manifest.
+     * @throws IOException if the directory cannot be listed or a file cannot be deleted.
+     */
+    private static void deleteOrphanSegments(Path directory, List<ChangeLogSegment> segments) throws IOException {
+        List<Long> listedNumbers = segments.stream().map(ChangeLogSegment::number).toList();
+        for (long number : segmentNumbers(directory)) {
+            if (!listedNumbers.contains(number)) {
+                log.warn("Deleting change log segment {} of '{}', which is not in the manifest.", number, directory);
+                ChangeLogJournal.delete(segmentPath(directory, number));
+            }
+        }
+    }
+
+    /**
+     * Describes a segment from its records.
+     *
+     * @param number the number of the segment.
+     * @param journal the open journal of the segment.
+     * @return the manifest entry of the segment.
+     * @throws IOException if the segment cannot be read.
+     */
+    private static ChangeLogSegment describe(long number, ChangeLogJournal journal) throws IOException {
+        ChangeLogSegment segment = ChangeLogSegment.empty(number, journal.getLastChangeSetId());
+        try (ChangeLogJournal.Reader reader = journal.openReader()) {
+            ChangeSet changeSet;
+            while ((changeSet = reader.next()) != null) {
+                segment = segment.with(changeSet, journal.getSize());
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Lists the numbers of the segment files in a directory.
+     *
+     * @param directory the directory of the segments.
+     * @return the segment numbers in increasing order.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private static List<Long> segmentNumbers(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX))
+                    .map(name -> name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Gets the path of a segment file.
+     *
+     * @param directory the directory of the segments.
+     * @param number the number of the segment.
+     * @return the path of the segment file.
+     */
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_FILE_PREFIX + String.format("%010d", number) + SEGMENT_FILE_SUFFIX);
+    }
+
+    /**
+     * Checks whether a change set was made within a time range.
+     *
+     * @param changeSet the change set.
+     * @param from the start of the range, or {@code null} for no start.
+     * @param to the end of the range, or {@code null} for no end.
+     * @return true if the change set is within the range.
+     */
+    private static boolean isWithin(ChangeSet changeSet, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !changeSet.getChangeDateTime().isBefore(from))
+                && (to == null || !changeSet.getChangeDateTime().isAfter(to));
+    }
+
+    /**
+     * Reads the change sets of a time range oldest first, one segment at a time. The next segment is looked up
+     * in the manifest when the previous one has been read, by the ID of the last change set read.
+     */
+    public final class Reader implements Closeable {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private long afterChangeSetId;
+        private ChangeLogJournal.Reader segmentReader;
+        private long segmentLastChangeSetId;
+
+        /**
+         * Creates a reader positioned after the given change set ID.
+         *
+         * @param afterChangeSetId the ID to start after.
+         * @param from the start of the range, or {@code null} for no start.
+         * @param to the end of the range, or {@code null} for no end.
+         */
+        private Reader(long afterChangeSetId, LocalDateTime from, LocalDateTime to) {
+            this.afterChangeSetId = afterChangeSetId;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Reads the next change set of the time range.
+         *
+         * @return the change set, or {@code null} if all change sets of the range have been read.
+         * @throws IOException if a segment cannot be opened or read.
+         */
+        public ChangeSet next() throws IOException {
+            while (true) {
+                if (segmentReader == null && (segmentReader = openNextSegment()) == null) {
+                    return null;
+                }
+                ChangeSet changeSet = segmentReader.next();
+                if (changeSet == null) {
+                    segmentReader.close();
+                    segmentReader = null;
+                    afterChangeSetId = Math.max(afterChangeSetId, segmentLastChangeSetId);
+                } else if (changeSet.getId() > afterChangeSetId) {
+                    afterChangeSetId = changeSet.getId();
+                    if (isWithin(changeSet, from, to)) {
+                        return changeSet;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Opens the oldest segment of the time range with change sets after the last one read, positioned after it.
+         *
+         * @return the reader of the segment, or {@code null} if there is none.
+         * @throws IOException if the segment cannot be opened.
+         */
+        private ChangeLogJournal.Reader openNextSegment() throws IOException {
+            synchronized (SegmentedChangeLog.this) {
+                ensureOpen();
+                for (ChangeLogSegment segment : segments) {
+                    if (segment.lastChangeSetId() > afterChangeSetId && segment.overlaps(from, to)) {
+                        segmentLastChangeSetId = segment.lastChangeSetId();
+                        return getJournal(segment).openReader(afterChangeSetId);
+                    }
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Closes the segment being read.
+         *
+         * @throws IOException if the segment cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (segmentReader != null) {
+                segmentReader.close();
+                segmentReader = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the change sets of a time range newest first, one memory-mapped segment at a time. The next segment is
+     * looked up in the manifest when the previous one has been read, by the ID of the last change set read.
+     */
+    public final class TailReader {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private long beforeChangeSetId;
+        private ChangeLogJournal.TailReader segmentReader;
+        private final ChangeLogFilter filter;
+        private long segmentFirstChangeSetId;
+
+        /**
+         * Creates a reader positioned after the given change set ID.
+         *
+         * @param beforeChangeSetId the ID to start before.
+         * @param from the start of the range, or {@code null} for no start.
+         * @param to the end of the range, or {@code null} for no end.
+         * @param filter the criteria whose texts the change sets must contain, or {@code null} to read all of them.
+         */
+        private TailReader(long beforeChangeSetId, LocalDateTime from, LocalDateTime to, ChangeLogFilter filter) {
+            this.beforeChangeSetId = beforeChangeSetId;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+        }
+
+        /**
+         * Reads the previous change set of the time range.
+         *
+         * @return the change set, or {@code null} if the oldest change set of the range has been read.
+         * @throws IOException if a segment cannot be mapped or read.
+         */
+        public ChangeSet previous() throws IOException {
+            while (beforeChangeSetId > 0) {
+                if (segmentReader == null && (segmentReader = openPreviousSegment()) == null) {
+                    beforeChangeSetId = 0;
+                    return null;
+                }
+                ChangeSet changeSet = segmentReader.previous();
+                if (changeSet == null) {
+                    segmentReader = null;
+                    beforeChangeSetId = Math.min(beforeChangeSetId, segmentFirstChangeSetId);
+                    continue;
+                }
+                beforeChangeSetId = changeSet.getId();
+                if (isWithin(changeSet, from, to)) {
+                    return changeSet;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the ID the next change set is read before.
+         *
+         * @return the ID, or 0 once the oldest change set of the range has been read.
+         */
+        public long getBeforeChangeSetId() {
+            return beforeChangeSetId;
+        }
+
+        /**
+         * Maps the newest segment of the time range with change sets before the current position.
+         *
+         * @return the reader of the segment, or {@code null} if there is none.
+         * @throws IOException if the segment cannot be mapped.
+         */
+        private ChangeLogJournal.TailReader openPreviousSegment() throws IOException {
+            synchronized (SegmentedChangeLog.this) {
+                ensureOpen();
+                for (ChangeLogSegment segment : segments.reversed()) {
+                    if (segment.firstChangeSetId() < beforeChangeSetId && segment.overlaps(from, to)) {
+                        segmentFirstChangeSetId = segment.firstChangeSetId();
+                        ChangeLogJournal journal = getJournal(segment);
+                        return filter == null ? journal.openTailReader(beforeChangeSetId) : journal.openTailReader(beforeChangeSetId, filter);
+                    }
+                }
+                return null;
+            }
+        }
+    }
+}
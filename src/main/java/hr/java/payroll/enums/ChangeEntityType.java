@@ -0,0 +1,11 @@
+package hr.java.payroll.enums;
+
+/**
+ * Represents the kinds of records whose edits are recorded in the change log.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public enum ChangeEntityType {
+    EMPLOYEE, FULL_TIME_CONTRACT, PART_TIME_CONTRACT
+}
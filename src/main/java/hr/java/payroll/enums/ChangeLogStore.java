@@ -0,0 +1,14 @@
+package hr.java.payroll.enums;
+
+/**
+ * Represents where the changes history is searched.
+ * Changes are always recorded in the change log journal. With {@link #JOURNAL} the history is searched by reading
+ * the journal; with {@link #DATABASE} the changes are also copied into the indexed {@code CHANGE_LOG} table and the
+ * history is searched by the database.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public enum ChangeLogStore {
+    JOURNAL, DATABASE
+}
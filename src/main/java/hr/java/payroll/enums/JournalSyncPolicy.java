@@ -0,0 +1,13 @@
+package hr.java.payroll.enums;
+
+/**
+ * Represents when an append-only journal forces its appended records to disk.
+ * {@link #ALWAYS} never loses an acknowledged record, {@link #INTERVAL} may lose the records of the last interval
+ * on a power failure, and {@link #NEVER} leaves flushing to the operating system until the journal is closed.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public enum JournalSyncPolicy {
+    ALWAYS, INTERVAL, NEVER
+}
@@ -0,0 +1,12 @@
+package hr.java.payroll.enums;
+
+/**
+ * Represents the delivery status of an email in the outbox.
+ * Emails that could not be delivered after the maximum number of attempts are {@link #DEAD}.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public enum OutboxStatus {
+    PENDING, SENT, DEAD
+}
@@ -0,0 +1,11 @@
+package hr.java.payroll.enums;
+
+/**
+ * Represents the status of a payroll run.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public enum PayrollRunStatus {
+    RUNNING, COMPLETED, FAILED
+}
@@ -4,7 +4,9 @@ import java.math.BigDecimal;
 
 /**
  * Represents an entity that can calculate salary details.
- * Implementing classes should provide logic to calculate gross and net salary.
+ * Implementing classes should provide logic to calculate gross and net salary,
+ * both as {@link BigDecimal} amounts and as {@code long} cents for bulk calculations that must not allocate.
+ * The cents results are rounded half-up to the nearest cent and the net salary is the gross salary minus the rounded tax.
  *
  * @author Lovro Bilanović
  * @version 1.0
@@ -23,4 +25,18 @@ public interface Payable {
      * @return the net salary as a {@link BigDecimal}
      */
     BigDecimal calculateNetSalary();
+
+    /**
+     * Calculates the gross salary in cents.
+     *
+     * @return the gross salary in cents
+     */
+    long calculateGrossSalaryCents();
+
+    /**
+     * Calculates the net salary in cents after deductions.
+     *
+     * @return the net salary in cents
+     */
+    long calculateNetSalaryCents();
 }
@@ -1,11 +1,24 @@
 package hr.java.payroll.main;
 import hr.java.payroll.controller.SceneController;
+import hr.java.payroll.database.DatabaseManager;
+import hr.java.payroll.database.SchemaMigrator;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.enums.ChangeLogStore;
+import hr.java.payroll.exception.DatabaseException;
+import hr.java.payroll.service.ChangeLogProjector;
+import hr.java.payroll.service.MailDispatcher;
+import hr.java.payroll.service.OutboxDispatcher;
+import hr.java.payroll.service.PayslipPipeline;
+import hr.java.payroll.service.TaxEngine;
+import hr.java.payroll.utils.Var;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -18,16 +31,42 @@ import java.util.Objects;
  * @version 1.0
  */
 public class PayrollApp extends Application {
+    private static final Logger log = LoggerFactory.getLogger(PayrollApp.class);
+    private final OutboxDispatcher outboxDispatcher = new OutboxDispatcher();
+    private final ChangeLogProjector changeLogProjector = new ChangeLogProjector();
 
     /**
-     * Starts the JavaFX application by setting up the primary stage.
-     * Loads the login screen, sets the window icon, and initializes the application window.
+     * Starts the JavaFX application by setting up the primary stage:
+     * <ol>
+     *     <li>loads the tax bracket file and starts watching it, so resumed payroll runs use its brackets,</li>
+     *     <li>migrates the database schema,</li>
+     *     <li>resumes interrupted payroll runs in the background,</li>
+     *     <li>starts delivering the email outbox,</li>
+     *     <li>starts copying the change log to the database if it is the change log store,</li>
+     *     <li>loads the login screen, sets the window icon and shows the application window.</li>
+     * </ol>
+     * The background services are skipped if the schema migration fails.
      *
      * @param stage the primary stage for the application
      * @throws IOException if loading the FXML file fails
      */
     @Override
     public void start(Stage stage) throws IOException {
+        TaxEngine.startWatching();
+        try {
+            new SchemaMigrator().migrate();
+            new PayslipPipeline().submitUnfinishedRuns()
+                    .exceptionally(e -> {
+                        log.error("Error occurred while resuming unfinished payroll runs.", e);
+                        return null;
+                    });
+            outboxDispatcher.start();
+            if (Var.CHANGE_LOG_STORE == ChangeLogStore.DATABASE) {
+                changeLogProjector.start();
+            }
+        } catch (DatabaseException e) {
+            log.error("Database schema migration failed.", e);
+        }
         try{
             SceneController.setStage(stage);
             Image icon = new Image(getClass().getResourceAsStream("/hr/java/payroll/photos/icon.png"));
@@ -43,6 +82,21 @@ public class PayrollApp extends Application {
         }
     }
 
+    /**
+     * Releases application resources when the JavaFX application exits.
+     * Stops watching the tax bracket file, delivering the email outbox and copying the change log, and closes the shared SMTP connections,
+     * the change log journal and the database connection pool.
+     */
+    @Override
+    public void stop() {
+        TaxEngine.stopWatching();
+        outboxDispatcher.close();
+        changeLogProjector.close();
+        MailDispatcher.shutdownShared();
+        ChangeLogSerializer.close();
+        DatabaseManager.shutdown();
+    }
+
     /**
      * Launches the JavaFX application.
      * This method is the entry point for the application and calls the {@link #start(Stage)} method.
@@ -0,0 +1,169 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.ChangeLogDatabaseManager;
+import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.entities.serializer.ChangeSet;
+import hr.java.payroll.enums.ChangeLogStore;
+import hr.java.payroll.utils.Var;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Copies the change sets recorded in the change log into the {@code CHANGE_LOG} table in the background,
+ * for the {@link ChangeLogStore#DATABASE} store.
+ * The change log stays the record of all changes and the table is a projection of it: the change log is polled
+ * on a daemon thread, and the change sets recorded after the last one copied are saved in batches, each in one
+ * transaction, so an interrupted copy continues from the last saved batch. Changes older than the retention period
+ * of the change log are not copied and are deleted from the table every compaction interval.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class ChangeLogProjector implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogProjector.class);
+
+    private final ChangeLogDatabaseManager changeLogDatabaseManager;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration pruneInterval;
+    private final Period retention;
+    private ScheduledExecutorService scheduler;
+    private long lastChangeSetId = -1;
+    private volatile boolean closed;
+
+    /**
+     * Creates a projector with the settings defined in {@link Var}.
+     */
+    public ChangeLogProjector() {
+        this(new ChangeLogDatabaseManager(), Var.CHANGE_LOG_PROJECTION_BATCH_SIZE,
+                Duration.ofMillis(Var.CHANGE_LOG_PROJECTION_INTERVAL_MILLIS),
+                Duration.ofMinutes(Var.CHANGE_LOG_COMPACTION_INTERVAL_MINUTES), Period.ofMonths(Var.CHANGE_LOG_RETENTION_MONTHS));
+    }
+
+    /**
+     * Creates a projector.
+     *
+     * @param changeLogDatabaseManager the manager saving the changes to the table.
+     * @param batchSize the maximum number of change sets saved in one transaction.
+     * @param pollInterval the delay between two polls of the change log.
+     * @param pruneInterval the delay between two deletions of expired changes.
+     * @param retention how long changes are kept, or zero to keep them all.
+     */
+    public ChangeLogProjector(ChangeLogDatabaseManager changeLogDatabaseManager, int batchSize, Duration pollInterval,
+                              Duration pruneInterval, Period retention) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.changeLogDatabaseManager = changeLogDatabaseManager;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.pruneInterval = pruneInterval;
+        this.retention = retention;
+    }
+
+    /**
+     * Starts polling the change log on a daemon thread. Calling this method while polling has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null || closed) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-projector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::project, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (!retention.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::prune, 0, pruneInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Copies the change sets recorded after the last copied one into the table, in batches.
+     * The position is read from the table on the first call and kept in memory afterwards, so expired change sets
+     * that are skipped are not read again. The projector polls on one thread, so this method is not meant to be
+     * called while it is polling. Any error is logged instead of thrown, so a failed poll does not cancel the polling
+     * of the change log; the next poll continues from the last saved batch.
+     *
+     * @return the number of change sets copied.
+     */
+    public int project() {
+        int projected = 0;
+        try {
+            if (lastChangeSetId < 0) {
+                lastChangeSetId = changeLogDatabaseManager.getLastChangeSetId();
+            }
+            LocalDateTime cutoff = retention.isZero() ? null : LocalDateTime.now().minus(retention);
+            try (Stream<ChangeSet> changeSets = ChangeLogSerializer.streamChangeSets(lastChangeSetId)) {
+                Iterator<ChangeSet> iterator = changeSets.iterator();
+                List<ChangeSet> batch = new ArrayList<>(batchSize);
+                long batchLastChangeSetId = lastChangeSetId;
+                while (!closed && iterator.hasNext()) {
+                    ChangeSet changeSet = iterator.next();
+                    batchLastChangeSetId = changeSet.getId();
+                    if (cutoff == null || !changeSet.getChangeDateTime().isBefore(cutoff)) {
+                        batch.add(changeSet);
+                    }
+                    if (batch.size() == batchSize || !iterator.hasNext()) {
+                        changeLogDatabaseManager.saveChangeSets(batch);
+                        projected += batch.size();
+                        lastChangeSetId = batchLastChangeSetId;
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error occurred while copying the change log to the database.", e);
+        }
+        if (projected > 0) {
+            log.info("Copied {} change sets to the change log table.", projected);
+        }
+        return projected;
+    }
+
+    /**
+     * Deletes the changes older than the retention period from the table.
+     * Any error is logged instead of thrown, so the deletion is tried again at the next interval.
+     *
+     * @return the number of deleted changes.
+     */
+    public int prune() {
+        try {
+            return changeLogDatabaseManager.deleteChangesBefore(LocalDateTime.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.error("Error occurred while deleting expired changes from the change log table.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Stops polling the change log and waits for the batch in progress to finish.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Change log projector did not finish its batch in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package hr.java.payroll.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends email over reusable SMTP connections.
+ * One {@link Session} is kept per SMTP server, and every server has a pool of idle connected {@link Transport}s,
+ * so many messages share a connection instead of opening, authenticating and closing one per message.
+ * A message that fails on a pooled connection is retried once on a new connection, since the server may have
+ * closed the pooled one in the meantime. A failure is only taken as a rejection of the message if the connection
+ * still works afterwards; a connection that broke while sending is closed instead of going back to the pool.
+ * <p>
+ * Every server has its own {@link SmtpHostLimits}: the number of messages sent to it at once is bounded by its
+ * connection limit, and a token bucket spreads its messages out to its message rate, so one slow or strict
+ * provider never holds back the others.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class MailDispatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+    private static MailDispatcher sharedDispatcher;
+
+    private final SmtpSettings settings;
+    private final Map<String, HostPool> hostPools = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param settings the SMTP settings.
+     */
+    public MailDispatcher(SmtpSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the dispatcher shared by the application, creating it from {@code email.properties} on first use.
+     *
+     * @return the shared dispatcher.
+     */
+    public static synchronized MailDispatcher getShared() {
+        if (sharedDispatcher == null) {
+            sharedDispatcher = new MailDispatcher(SmtpSettings.fromVar());
+        }
+        return sharedDispatcher;
+    }
+
+    /**
+     * Closes the shared dispatcher and all of its idle connections.
+     */
+    public static synchronized void shutdownShared() {
+        if (sharedDispatcher != null) {
+            sharedDispatcher.close();
+            sharedDispatcher = null;
+        }
+    }
+
+    /**
+     * Finds the SMTP server an email address is sent through.
+     *
+     * @param emailAddress the recipient's email address.
+     * @return the SMTP server, or {@code null} if the domain is not supported.
+     */
+    public String resolveHost(String emailAddress) {
+        return settings.resolveHost(emailAddress);
+    }
+
+    /**
+     * Gets the delivery limits of an SMTP server.
+     *
+     * @param host the SMTP server.
+     * @return the limits of the server.
+     */
+    public SmtpHostLimits getLimits(String host) {
+        return settings.limitsFor(host);
+    }
+
+    /**
+     * Sends a plain text email through the SMTP server of the recipient's domain,
+     * waiting for a free connection and for the rate limiter of the server.
+     *
+     * @param to The recipient's email address.
+     * @param subject The subject of the email.
+     * @param text The body of the email.
+     * @throws SendFailedException if the domain has no SMTP server or the server rejected the recipient;
+     *                             {@link SendFailedException#getInvalidAddresses()} lists the addresses that will never work.
+     * @throws MessagingException if the email could not be sent.
+     */
+    public void send(String to, String subject, String text) throws MessagingException {
+        if (closed) {
+            throw new MessagingException("Mail dispatcher is closed.");
+        }
+        InternetAddress recipient = new InternetAddress(to);
+        String host = settings.resolveHost(to);
+        if (host == null) {
+            throw new SendFailedException("No SMTP server found for: " + to, null, null, null, new InternetAddress[]{recipient});
+        }
+        HostPool pool = hostPools.computeIfAbsent(host, HostPool::new);
+
+        MimeMessage mail = new MimeMessage(pool.session);
+        mail.setFrom(new InternetAddress(settings.username()));
+        mail.setRecipient(Message.RecipientType.TO, recipient);
+        mail.setSubject(subject);
+        mail.setText(text);
+        mail.saveChanges();
+
+        try {
+            pool.connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for a connection to " + host + ".", e);
+        }
+        try {
+            pool.throttle();
+            pool.send(mail);
+            pool.recordSent();
+        } catch (SendFailedException e) {
+            if (e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0) {
+                pool.rejected.increment();
+            } else {
+                pool.failed.increment();
+            }
+            throw e;
+        } catch (MessagingException e) {
+            pool.failed.increment();
+            throw e;
+        } finally {
+            pool.connections.release();
+        }
+    }
+
+    /**
+     * Returns the delivery statistics of every SMTP server used so far.
+     *
+     * @return the statistics by SMTP server.
+     */
+    public Map<String, MailHostStatistics> getStatistics() {
+        Map<String, MailHostStatistics> statistics = new TreeMap<>();
+        hostPools.forEach((host, pool) -> statistics.put(host, pool.getStatistics()));
+        return statistics;
+    }
+
+    /**
+     * Closes all idle connections. Connections in use are closed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        hostPools.values().forEach(HostPool::closeIdle);
+    }
+
+    /**
+     * The session, idle connections, limits and statistics of one SMTP server.
+     */
+    private final class HostPool {
+        private final String host;
+        private final Session session;
+        private final SmtpHostLimits limits;
+        private final Semaphore connections;
+        private final TokenBucket rateLimiter;
+        private final Deque<Transport> idleTransports = new ArrayDeque<>();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder connectionsOpened = new LongAdder();
+        private final LongAdder throttledNanos = new LongAdder();
+        private final AtomicLong firstSentNanos = new AtomicLong();
+
+        /**
+         * Creates the session, connection limit and rate limiter of an SMTP server.
+         *
+         * @param host the SMTP server.
+         */
+        HostPool(String host) {
+            this.host = host;
+            this.session = Session.getInstance(settings.toSessionProperties(host));
+            this.limits = settings.limitsFor(host);
+            this.connections = new Semaphore(limits.maxConnections(), true);
+            this.rateLimiter = limits.messagesPerSecond() > 0
+                    ? new TokenBucket(limits.messagesPerSecond(), Math.max(1, (int) limits.messagesPerSecond()))
+                    : null;
+        }
+
+        /**
+         * Waits until the rate limiter of the server allows another message.
+         *
+         * @throws MessagingException if interrupted while waiting.
+         */
+        void throttle() throws MessagingException {
+            if (rateLimiter == null) {
+                return;
+            }
+            try {
+                throttledNanos.add(rateLimiter.acquire());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("Interrupted while waiting for the rate limit of " + host + ".", e);
+            }
+        }
+
+        /**
+         * Sends a message over a pooled connection, retrying once on a new connection if the pooled one failed.
+         *
+         * @param mail the message to send.
+         * @throws MessagingException if the message could not be sent.
+         */
+        void send(MimeMessage mail) throws MessagingException {
+            Transport transport = borrow();
+            if (transport != null) {
+                MessagingException failure = sendOn(transport, mail);
+                if (failure == null) {
+                    return;
+                }
+                log.debug("Pooled connection to '{}' failed, retrying on a new connection.", host, failure);
+            }
+            MessagingException failure = sendOn(connect(), mail);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Sends a message over a connection, giving the connection back to the pool unless it broke.
+         * JavaMail reports a connection closed while sending as a {@link SendFailedException} too,
+         * so a failure is only a rejection of the message if the connection still works afterwards.
+         *
+         * @param transport the connected transport.
+         * @param mail the message to send.
+         * @return the failure if the connection broke, or {@code null} if the message was sent.
+         * @throws MessagingException if the server rejected the message on a working connection.
+         */
+        MessagingException sendOn(Transport transport, MimeMessage mail) throws MessagingException {
+            try {
+                transport.sendMessage(mail, mail.getAllRecipients());
+            } catch (SendFailedException e) {
+                if (transport.isConnected()) {
+                    release(transport);
+                    throw e;
+                }
+                discard(transport);
+                return e;
+            } catch (MessagingException e) {
+                discard(transport);
+                return e;
+            }
+            release(transport);
+            return null;
+        }
+
+        /**
+         * Counts a message accepted by the server.
+         */
+        void recordSent() {
+            firstSentNanos.compareAndSet(0, System.nanoTime());
+            sent.increment();
+        }
+
+        /**
+         * Takes the most recently used idle connection that is still connected.
+         *
+         * @return a connected transport, or {@code null} if there is none.
+         */
+        Transport borrow() {
+            while (true) {
+                Transport transport;
+                synchronized (idleTransports) {
+                    transport = idleTransports.pollFirst();
+                }
+                if (transport == null) {
+                    return null;
+                }
+                if (transport.isConnected()) {
+                    return transport;
+                }
+                discard(transport);
+            }
+        }
+
+        /**
+         * Opens and authenticates a new connection.
+         *
+         * @return the connected transport.
+         * @throws MessagingException if the connection could not be opened.
+         */
+        Transport connect() throws MessagingException {
+            Transport transport = session.getTransport("smtp");
+            if (settings.auth()) {
+                transport.connect(host, settings.port(), settings.username(), settings.password());
+            } else {
+                transport.connect(host, settings.port(), null, null);
+            }
+            connectionsOpened.increment();
+            log.debug("Opened SMTP connection to '{}:{}'.", host, settings.port());
+            return transport;
+        }
+
+        /**
+         * Gives a connection back to the pool, or closes it if the pool is full or the dispatcher is closed.
+         *
+         * @param transport the transport to release.
+         */
+        void release(Transport transport) {
+            synchronized (idleTransports) {
+                if (!closed && idleTransports.size() < limits.maxConnections()) {
+                    idleTransports.addFirst(transport);
+                    return;
+                }
+            }
+            discard(transport);
+        }
+
+        /**
+         * Closes a connection without returning it to the pool.
+         *
+         * @param transport the transport to close.
+         */
+        void discard(Transport transport) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error occurred while closing SMTP connection to '{}'.", host, e);
+            }
+        }
+
+        /**
+         * Closes all idle connections.
+         */
+        void closeIdle() {
+            Transport transport;
+            while (true) {
+                synchronized (idleTransports) {
+                    transport = idleTransports.pollFirst();
+                }
+                if (transport == null) {
+                    return;
+                }
+                discard(transport);
+            }
+        }
+
+        /**
+         * Takes a snapshot of the statistics of the server.
+         *
+         * @return the statistics.
+         */
+        MailHostStatistics getStatistics() {
+            long sentCount = sent.sum();
+            long first = firstSentNanos.get();
+            double elapsedSeconds = first == 0 ? 0 : (System.nanoTime() - first) / (double) TimeUnit.SECONDS.toNanos(1);
+            return new MailHostStatistics(host, limits.maxConnections(), limits.messagesPerSecond(),
+                    limits.maxConnections() - connections.availablePermits(), sentCount, rejected.sum(), failed.sum(),
+                    connectionsOpened.sum(), TimeUnit.NANOSECONDS.toMillis(throttledNanos.sum()),
+                    elapsedSeconds > 0 ? sentCount / elapsedSeconds : 0);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package hr.java.payroll.service;
+
+/**
+ * Represents a point-in-time snapshot of the delivery statistics of one SMTP server.
+ *
+ * @param host The SMTP server.
+ * @param maxConnections The maximum number of connections open to the server at once.
+ * @param messagesPerSecondLimit The configured message rate limit, or 0 for no limit.
+ * @param activeConnections The number of connections currently sending a message.
+ * @param sent The number of messages accepted by the server.
+ * @param rejected The number of messages whose recipients the server rejected.
+ * @param failed The number of messages that failed for any other reason.
+ * @param connectionsOpened The number of connections opened to the server.
+ * @param throttledMillis The total time senders waited for the rate limiter.
+ * @param sentPerSecond The average number of messages accepted per second since the first message.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record MailHostStatistics(
+        String host,
+        int maxConnections,
+        double messagesPerSecondLimit,
+        int activeConnections,
+        long sent,
+        long rejected,
+        long failed,
+        long connectionsOpened,
+        long throttledMillis,
+        double sentPerSecond
+) {
+    /**
+     * Returns a short summary of the statistics.
+     *
+     * @return the statistics as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d sent, %d rejected, %d failed, %.1f msg/s, %d/%d connections active, %d opened, throttled %d ms",
+                host, sent, rejected, failed, sentPerSecond, activeConnections, maxConnections, connectionsOpened, throttledMillis);
+    }
+}
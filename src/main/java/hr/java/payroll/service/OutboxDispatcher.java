@@ -0,0 +1,260 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.OutboxDatabaseManager;
+import hr.java.payroll.entities.OutboxEmail;
+import hr.java.payroll.exception.DatabaseException;
+import hr.java.payroll.utils.Var;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the emails in the outbox in the background.
+ * The outbox is polled on a daemon thread and drained in batches of due emails. The emails of a batch are grouped
+ * by SMTP server, and every server gets as many concurrent senders as its connection limit allows, so all providers
+ * are served in parallel within their own limits. Senders are platform threads, because JavaMail blocks on sockets
+ * inside synchronized methods, which would pin the carriers of virtual threads.
+ * <p>
+ * A failed email is retried with exponential backoff until it reaches the maximum number of attempts, and is then
+ * marked as dead; an email to an invalid address is marked as dead at once.
+ * <p>
+ * Delivery is at least once: if the outcome of a batch cannot be recorded, its emails are sent again by a later poll.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class OutboxDispatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxDatabaseManager outboxDatabaseManager;
+    private final MailDispatcher mailDispatcher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration pollInterval;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final ExecutorService senderExecutor;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    /**
+     * Creates a dispatcher with the settings defined in {@link Var}, sending through the shared {@link MailDispatcher}.
+     */
+    public OutboxDispatcher() {
+        this(new OutboxDatabaseManager(), MailDispatcher.getShared(), Var.OUTBOX_BATCH_SIZE, Var.OUTBOX_MAX_ATTEMPTS,
+                Duration.ofSeconds(Var.OUTBOX_POLL_INTERVAL_SECONDS), Duration.ofSeconds(Var.OUTBOX_BASE_BACKOFF_SECONDS),
+                Duration.ofSeconds(Var.OUTBOX_MAX_BACKOFF_SECONDS));
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param outboxDatabaseManager the manager reading and updating the outbox.
+     * @param mailDispatcher the dispatcher sending the emails.
+     * @param batchSize the maximum number of emails read from the outbox at once.
+     * @param maxAttempts the number of failed attempts after which an email is marked as dead.
+     * @param pollInterval the delay between two polls of the outbox.
+     * @param baseBackoff the delay before the first retry, doubled for every further retry.
+     * @param maxBackoff the maximum delay between two retries.
+     */
+    public OutboxDispatcher(OutboxDatabaseManager outboxDatabaseManager, MailDispatcher mailDispatcher, int batchSize,
+                            int maxAttempts, Duration pollInterval, Duration baseBackoff, Duration maxBackoff) {
+        if (batchSize < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Batch size and maximum attempts must be at least 1.");
+        }
+        this.outboxDatabaseManager = outboxDatabaseManager;
+        this.mailDispatcher = mailDispatcher;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollInterval = pollInterval;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.senderExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts polling the outbox on a daemon thread. Calling this method while polling has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null || closed) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends due emails in batches until no full batch is left.
+     * Any error is logged instead of thrown, so a failed poll does not cancel the polling of the outbox.
+     *
+     * @return the number of emails sent.
+     */
+    public int drain() {
+        int sent = 0;
+        try {
+            while (!closed) {
+                List<OutboxEmail> batch = outboxDatabaseManager.getDueEmails(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sent += dispatchBatch(batch);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error occurred while draining the email outbox.", e);
+        }
+        if (sent > 0) {
+            log.info("Sent {} emails from the outbox.", sent);
+            mailDispatcher.getStatistics().values().forEach(statistics -> log.info("{}", statistics));
+        }
+        return sent;
+    }
+
+    /**
+     * Stops polling the outbox and waits for the batch in progress to finish.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Email outbox dispatcher did not finish its batch in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        senderExecutor.shutdown();
+    }
+
+    /**
+     * Sends a batch of emails concurrently, with up to the connection limit of each SMTP server sending to it at once,
+     * and records the outcome of each email.
+     *
+     * @param batch the emails to send.
+     * @return the number of emails sent.
+     * @throws DatabaseException if the outcome cannot be recorded.
+     * @throws RejectedExecutionException if the dispatcher has been closed.
+     */
+    private int dispatchBatch(List<OutboxEmail> batch) {
+        Map<String, Queue<OutboxEmail>> pendingByHost = new HashMap<>();
+        for (OutboxEmail email : batch) {
+            String host = Objects.requireNonNullElse(mailDispatcher.resolveHost(email.recipient()), "");
+            pendingByHost.computeIfAbsent(host, key -> new ConcurrentLinkedQueue<>()).add(email);
+        }
+        Queue<Long> sentIds = new ConcurrentLinkedQueue<>();
+        Queue<FailedDelivery> failures = new ConcurrentLinkedQueue<>();
+
+        List<Callable<Void>> senders = new ArrayList<>();
+        pendingByHost.forEach((host, pending) -> {
+            int senderCount = host.isEmpty() ? 1 : Math.min(mailDispatcher.getLimits(host).maxConnections(), pending.size());
+            for (int i = 0; i < senderCount; i++) {
+                senders.add(() -> {
+                    OutboxEmail email;
+                    while ((email = pending.poll()) != null) {
+                        try {
+                            mailDispatcher.send(email.recipient(), email.subject(), email.body());
+                            sentIds.add(email.id());
+                        } catch (MessagingException | RuntimeException e) {
+                            failures.add(new FailedDelivery(email, e));
+                        }
+                    }
+                    return null;
+                });
+            }
+        });
+        try {
+            senderExecutor.invokeAll(senders);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while sending emails from the outbox.", e);
+        }
+
+        outboxDatabaseManager.markSent(sentIds);
+        for (FailedDelivery failure : failures) {
+            recordFailure(failure.email(), failure.exception());
+        }
+        return sentIds.size();
+    }
+
+    /**
+     * Schedules a retry of a failed email, or marks it as dead if it was rejected or has no attempts left.
+     *
+     * @param email the failed email.
+     * @param exception the reason the delivery failed.
+     */
+    private void recordFailure(OutboxEmail email, Exception exception) {
+        int attempts = email.attempts() + 1;
+        String error = exception.getMessage();
+        if (isPermanent(exception) || attempts >= maxAttempts) {
+            outboxDatabaseManager.markDead(email.id(), attempts, error);
+            log.error("Email {} to {} is dead after {} attempts.", email.id(), email.recipient(), attempts, exception);
+        } else {
+            Duration backoff = backoff(attempts);
+            outboxDatabaseManager.scheduleRetry(email.id(), attempts, Instant.now().plus(backoff), error);
+            log.warn("Email {} to {} failed on attempt {}, retrying in {} s: {}", email.id(), email.recipient(), attempts,
+                    backoff.toSeconds(), error);
+        }
+    }
+
+    /**
+     * Checks whether a delivery failure will happen again on every retry, because the recipient address is invalid.
+     *
+     * @param exception the reason the delivery failed.
+     * @return true if the email should not be retried.
+     */
+    private static boolean isPermanent(Exception exception) {
+        return exception instanceof SendFailedException sendFailedException
+                && sendFailedException.getInvalidAddresses() != null
+                && sendFailedException.getInvalidAddresses().length > 0;
+    }
+
+    /**
+     * Calculates the delay before the next attempt, doubling the base delay with every failed attempt.
+     *
+     * @param attempts the number of failed attempts so far.
+     * @return the delay, at most the maximum backoff.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    /**
+     * An email that could not be sent, with the reason.
+     *
+     * @param email the email.
+     * @param exception the reason the delivery failed.
+     */
+    private record FailedDelivery(OutboxEmail email, Exception exception) {}
+}
@@ -0,0 +1,64 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.utils.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated payroll totals of a group of employees before and after a what-if simulation.
+ * All amounts are in cents; the tax is the gross salary minus the net salary.
+ *
+ * @param employeeCount The number of employees in the group.
+ * @param baselineGrossCents The total gross salary under the current parameters.
+ * @param simulatedGrossCents The total gross salary under the simulated parameters.
+ * @param baselineNetCents The total net salary under the current parameters.
+ * @param simulatedNetCents The total net salary under the simulated parameters.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PayrollDelta(
+        int employeeCount,
+        long baselineGrossCents,
+        long simulatedGrossCents,
+        long baselineNetCents,
+        long simulatedNetCents
+) {
+    /**
+     * Calculates the change of the total gross salary, which is the change of the payroll cost.
+     *
+     * @return the gross salary delta.
+     */
+    public BigDecimal grossDelta() {
+        return Money.fromCents(simulatedGrossCents - baselineGrossCents);
+    }
+
+    /**
+     * Calculates the change of the total net salary paid out to employees.
+     *
+     * @return the net salary delta.
+     */
+    public BigDecimal netDelta() {
+        return Money.fromCents(simulatedNetCents - baselineNetCents);
+    }
+
+    /**
+     * Calculates the change of the total tax withheld.
+     *
+     * @return the tax delta.
+     */
+    public BigDecimal taxDelta() {
+        return Money.fromCents((simulatedGrossCents - simulatedNetCents) - (baselineGrossCents - baselineNetCents));
+    }
+
+    /**
+     * Returns a short summary of the deltas.
+     *
+     * @return the deltas as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d employees: gross %s -> %s (%s), net %s, tax %s", employeeCount,
+                Money.fromCents(baselineGrossCents), Money.fromCents(simulatedGrossCents), grossDelta(), netDelta(), taxDelta());
+    }
+}
@@ -0,0 +1,122 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.entities.ContractFullTime;
+import hr.java.payroll.entities.ContractPartTime;
+import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.Payslip;
+import hr.java.payroll.utils.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the payslips of a payroll run.
+ * Employees are ordered by ID and computed in parallel on the common fork-join pool,
+ * so the same employees always produce the same payslips in the same order with the same IDs.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class PayrollEngine {
+    private static final Logger log = LoggerFactory.getLogger(PayrollEngine.class);
+    private static final BigDecimal FULL_TIME_HOURS_WORKED = new BigDecimal(140);
+
+    /**
+     * Computes the payroll run asynchronously.
+     *
+     * @param employees the employees to be paid.
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date printed on the payslips.
+     * @return a future completed with the result of the run.
+     */
+    public CompletableFuture<PayrollRunResult> submit(Collection<Employee> employees, YearMonth payrollPeriod, LocalDate paymentDate) {
+        return CompletableFuture.supplyAsync(() -> run(employees, payrollPeriod, paymentDate));
+    }
+
+    /**
+     * Computes the payroll run on the calling thread, using all available cores.
+     * The payslip IDs are the positions of the employees in ID order, starting from 1.
+     * Employees without a full-time or part-time contract are skipped.
+     *
+     * @param employees the employees to be paid.
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date printed on the payslips.
+     * @return the result of the run.
+     */
+    public PayrollRunResult run(Collection<Employee> employees, YearMonth payrollPeriod, LocalDate paymentDate) {
+        long start = System.nanoTime();
+        List<Employee> orderedEmployees = orderById(employees);
+        List<Payslip> payslips = computePayslips(orderedEmployees, 1L, payrollPeriod, paymentDate);
+
+        PayrollRunResult result = new PayrollRunResult(payrollPeriod, payslips, orderedEmployees.size(),
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("{}", result);
+        return result;
+    }
+
+    /**
+     * Computes the payslips of employees that are already ordered by ID, using all available cores.
+     * The payslip of the employee at position {@code i} gets the ID {@code firstPayslipId + i}.
+     * Employees without a full-time or part-time contract are skipped.
+     *
+     * @param orderedEmployees the employees to be paid, ordered by ID.
+     * @param firstPayslipId the ID of the first payslip.
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date printed on the payslips.
+     * @return the payslips, in the order of the employees.
+     */
+    public List<Payslip> computePayslips(List<Employee> orderedEmployees, long firstPayslipId, YearMonth payrollPeriod, LocalDate paymentDate) {
+        return IntStream.range(0, orderedEmployees.size())
+                .parallel()
+                .mapToObj(index -> computePayslip(firstPayslipId + index, orderedEmployees.get(index), payrollPeriod, paymentDate))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Orders employees by ID.
+     *
+     * @param employees the employees to order.
+     * @return an unmodifiable list of the employees ordered by ID.
+     */
+    public static List<Employee> orderById(Collection<Employee> employees) {
+        return employees.stream()
+                .sorted(Comparator.comparing(Employee::getId))
+                .toList();
+    }
+
+    /**
+     * Computes the payslip of a single employee based on the type of their contract.
+     * Salaries are calculated in cents, see {@link hr.java.payroll.interfaces.Payable}.
+     *
+     * @param payslipId the ID of the payslip.
+     * @param employee the employee to be paid.
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date.
+     * @return the payslip, or {@code null} if the employee has no full-time or part-time contract.
+     */
+    private Payslip computePayslip(Long payslipId, Employee employee, YearMonth payrollPeriod, LocalDate paymentDate) {
+        if (employee.getContract() instanceof ContractFullTime contractFullTime) {
+            return new Payslip(payslipId, employee.getId(), Money.fromCents(contractFullTime.calculateGrossSalaryCents()),
+                    Money.fromCents(contractFullTime.calculateNetSalaryCents()), contractFullTime.getBonus(),
+                    FULL_TIME_HOURS_WORKED, payrollPeriod, paymentDate);
+        }
+        if (employee.getContract() instanceof ContractPartTime contractPartTime) {
+            return new Payslip(payslipId, employee.getId(), Money.fromCents(contractPartTime.calculateGrossSalaryCents()),
+                    Money.fromCents(contractPartTime.calculateNetSalaryCents()), BigDecimal.ZERO,
+                    contractPartTime.getHoursWorked(), payrollPeriod, paymentDate);
+        }
+        log.warn("Employee with ID {} has no payable contract, skipping payslip.", employee.getId());
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.entities.Payslip;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * The outcome of a payroll run computed by the {@link PayrollEngine}.
+ *
+ * @param payrollPeriod The payroll period the run was computed for.
+ * @param payslips The computed payslips, ordered by employee ID.
+ * @param employeeCount The number of employees processed by the run.
+ * @param wallTime The time it took to compute the run.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PayrollRunResult(
+        YearMonth payrollPeriod,
+        List<Payslip> payslips,
+        int employeeCount,
+        Duration wallTime
+) {
+    /**
+     * Calculates the throughput of the run.
+     *
+     * @return the number of employees processed per second.
+     */
+    public double employeesPerSecond() {
+        long nanos = Math.max(1, wallTime.toNanos());
+        return employeeCount * 1_000_000_000d / nanos;
+    }
+
+    /**
+     * Returns a short summary of the run statistics.
+     *
+     * @return the run statistics as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Payroll run for %s: %d payslips for %d employees in %d ms (%.0f employees/s)",
+                payrollPeriod, payslips.size(), employeeCount, wallTime.toMillis(), employeesPerSecond());
+    }
+}
@@ -0,0 +1,235 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.EmployeeDatabaseManager;
+import hr.java.payroll.entities.Contract;
+import hr.java.payroll.entities.ContractFullTime;
+import hr.java.payroll.entities.ContractPartTime;
+import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.TaxBracketTable;
+import hr.java.payroll.entities.TaxCalculator;
+import hr.java.payroll.enums.Position;
+import hr.java.payroll.utils.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Answers what-if questions about the payroll without side effects.
+ * Every payslip is recomputed in memory, in cents and in parallel, under both the current parameters and the
+ * simulated ones, and only the aggregated totals are kept. Nothing is saved, emailed or changed on the contracts.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class PayrollSimulator {
+    private static final Logger log = LoggerFactory.getLogger(PayrollSimulator.class);
+    private static final int FULL_TIME = 0;
+    private static final int PART_TIME = 1;
+    private static final String[] CONTRACT_TYPES = {"Full Time", "Part Time"};
+
+    private final EmployeeDatabaseManager employeeDatabaseManager;
+
+    /**
+     * Constructor that initializes the employee database manager.
+     */
+    public PayrollSimulator() {
+        this.employeeDatabaseManager = new EmployeeDatabaseManager();
+    }
+
+    /**
+     * Simulates the payroll of all current employees.
+     *
+     * @param parameters the parameter overrides.
+     * @return the result of the simulation.
+     */
+    public SimulationResult simulateCurrent(SimulationParameters parameters) {
+        return simulate(employeeDatabaseManager.getAllEmployees(), parameters);
+    }
+
+    /**
+     * Simulates the payroll of the given employees.
+     * The baseline uses the tax bracket table held by the {@link TaxCalculator} when the simulation starts.
+     * Employees without a full-time or part-time contract are ignored.
+     *
+     * @param employees the employees to simulate.
+     * @param parameters the parameter overrides.
+     * @return the result of the simulation.
+     */
+    public SimulationResult simulate(Collection<Employee> employees, SimulationParameters parameters) {
+        long start = System.nanoTime();
+        TaxBracketTable baselineTable = TaxCalculator.getTable();
+
+        Totals totals = employees.parallelStream()
+                .collect(Collector.of(
+                        () -> new Totals(baselineTable, parameters),
+                        Totals::add,
+                        Totals::merge,
+                        Collector.Characteristics.UNORDERED));
+
+        SimulationResult result = totals.toResult(parameters, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Simulated payroll of {} employees with {} in {} ms: {}", result.total().employeeCount(), parameters,
+                result.wallTime().toMillis(), result.total());
+        return result;
+    }
+
+    /**
+     * Scales an amount in cents by a raise in basis points, rounding half-up to the nearest cent.
+     *
+     * @param cents the amount in cents.
+     * @param raiseBasisPoints the raise in basis points.
+     * @return the raised amount in cents.
+     */
+    private static long raise(long cents, long raiseBasisPoints) {
+        return raiseBasisPoints == 0 ? cents : Money.applyRate(cents, Money.BASIS_POINTS_PER_UNIT + raiseBasisPoints);
+    }
+
+    /**
+     * Mutable running totals of one parallel worker, indexed by position and by contract type.
+     * Each row holds the employee count, the baseline and simulated gross salary, and the baseline and simulated net salary.
+     */
+    private static final class Totals {
+        private static final int COUNT = 0;
+        private static final int BASELINE_GROSS = 1;
+        private static final int SIMULATED_GROSS = 2;
+        private static final int BASELINE_NET = 3;
+        private static final int SIMULATED_NET = 4;
+        private static final int COLUMNS = 5;
+
+        private final TaxBracketTable baselineTable;
+        private final SimulationParameters parameters;
+        private final long[][] byPosition = new long[Position.values().length][COLUMNS];
+        private final long[][] byContractType = new long[CONTRACT_TYPES.length][COLUMNS];
+
+        /**
+         * Creates empty totals.
+         *
+         * @param baselineTable the tax bracket table of the baseline.
+         * @param parameters the parameter overrides.
+         */
+        Totals(TaxBracketTable baselineTable, SimulationParameters parameters) {
+            this.baselineTable = baselineTable;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Adds the baseline and simulated salary of one employee.
+         *
+         * @param employee the employee.
+         */
+        void add(Employee employee) {
+            Contract contract = employee.getContract();
+            if (contract == null) {
+                return;
+            }
+            long raiseBasisPoints = parameters.getRaiseBasisPoints(contract.getPosition());
+            int contractType;
+            long baselineGross;
+            long simulatedGross;
+            if (contract instanceof ContractFullTime contractFullTime) {
+                contractType = FULL_TIME;
+                baselineGross = contractFullTime.calculateGrossSalaryCents();
+                simulatedGross = raise(contractFullTime.getBaseSalaryCents(), raiseBasisPoints) + contractFullTime.getBonusCents();
+            } else if (contract instanceof ContractPartTime contractPartTime) {
+                contractType = PART_TIME;
+                baselineGross = contractPartTime.calculateGrossSalaryCents();
+                simulatedGross = raise(baselineGross, raiseBasisPoints);
+            } else {
+                return;
+            }
+            long baselineNet = baselineGross - baselineTable.taxCents(baselineGross);
+            long simulatedNet = simulatedGross - parameters.getTaxBracketTable().taxCents(simulatedGross);
+
+            accumulate(byPosition[contract.getPosition().ordinal()], baselineGross, simulatedGross, baselineNet, simulatedNet);
+            accumulate(byContractType[contractType], baselineGross, simulatedGross, baselineNet, simulatedNet);
+        }
+
+        /**
+         * Adds the totals of another worker to this one.
+         *
+         * @param other the totals of the other worker.
+         * @return these totals.
+         */
+        Totals merge(Totals other) {
+            mergeRows(byPosition, other.byPosition);
+            mergeRows(byContractType, other.byContractType);
+            return this;
+        }
+
+        /**
+         * Converts the totals to a simulation result.
+         *
+         * @param parameters the parameter overrides.
+         * @param wallTime the time the simulation took.
+         * @return the simulation result.
+         */
+        SimulationResult toResult(SimulationParameters parameters, Duration wallTime) {
+            Map<Position, PayrollDelta> positionDeltas = new EnumMap<>(Position.class);
+            long[] total = new long[COLUMNS];
+            for (Position position : Position.values()) {
+                long[] row = byPosition[position.ordinal()];
+                if (row[COUNT] > 0) {
+                    positionDeltas.put(position, toDelta(row));
+                    for (int column = 0; column < COLUMNS; column++) {
+                        total[column] += row[column];
+                    }
+                }
+            }
+            Map<String, PayrollDelta> contractTypeDeltas = new LinkedHashMap<>();
+            for (int contractType = 0; contractType < CONTRACT_TYPES.length; contractType++) {
+                if (byContractType[contractType][COUNT] > 0) {
+                    contractTypeDeltas.put(CONTRACT_TYPES[contractType], toDelta(byContractType[contractType]));
+                }
+            }
+            return new SimulationResult(parameters, toDelta(total), Collections.unmodifiableMap(positionDeltas),
+                    Collections.unmodifiableMap(contractTypeDeltas), wallTime);
+        }
+
+        /**
+         * Adds the salaries of one employee to a row.
+         *
+         * @param row the row to add to.
+         * @param baselineGross the baseline gross salary in cents.
+         * @param simulatedGross the simulated gross salary in cents.
+         * @param baselineNet the baseline net salary in cents.
+         * @param simulatedNet the simulated net salary in cents.
+         */
+        private static void accumulate(long[] row, long baselineGross, long simulatedGross, long baselineNet, long simulatedNet) {
+            row[COUNT]++;
+            row[BASELINE_GROSS] += baselineGross;
+            row[SIMULATED_GROSS] += simulatedGross;
+            row[BASELINE_NET] += baselineNet;
+            row[SIMULATED_NET] += simulatedNet;
+        }
+
+        /**
+         * Adds every row of the source to the matching row of the target.
+         *
+         * @param target the rows to add to.
+         * @param source the rows to add.
+         */
+        private static void mergeRows(long[][] target, long[][] source) {
+            for (int row = 0; row < target.length; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    target[row][column] += source[row][column];
+                }
+            }
+        }
+
+        /**
+         * Converts a row to a payroll delta.
+         *
+         * @param row the row.
+         * @return the payroll delta.
+         */
+        private static PayrollDelta toDelta(long[] row) {
+            return new PayrollDelta((int) row[COUNT], row[BASELINE_GROSS], row[SIMULATED_GROSS], row[BASELINE_NET], row[SIMULATED_NET]);
+        }
+    }
+}
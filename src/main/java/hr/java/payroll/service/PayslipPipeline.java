@@ -0,0 +1,316 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.EmployeeDatabaseManager;
+import hr.java.payroll.database.PayrollDatabaseManager;
+import hr.java.payroll.database.PayrollRunDatabaseManager;
+import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.PayrollRun;
+import hr.java.payroll.entities.Payslip;
+import hr.java.payroll.entities.generics.Pair;
+import hr.java.payroll.enums.PayrollRunStatus;
+import hr.java.payroll.exception.DatabaseException;
+import hr.java.payroll.utils.Var;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Processes a payroll run as two stages connected by a bounded queue: computing payslips and saving them to
+ * the payroll history. Both stages run on virtual threads and payslips flow downstream as soon as they are produced;
+ * when saving falls behind, the queue fills up and blocks the computation instead of buffering every payslip in memory.
+ * <p>
+ * Every saved batch also queues an email with each payslip in the outbox, which the {@link OutboxDispatcher}
+ * delivers in the background, so the run never waits on SMTP.
+ * <p>
+ * Employees are read in keyset-ordered batches of employees who have not been paid for the period yet,
+ * and every saved batch moves the checkpoint of the {@link PayrollRun}. An interrupted run resumes after
+ * its checkpoint, and rerunning a period only pays the employees that were not paid before.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class PayslipPipeline {
+    private static final Logger log = LoggerFactory.getLogger(PayslipPipeline.class);
+
+    /**
+     * Marks the end of the stream in a stage queue.
+     */
+    private static final Pair<Employee, Payslip> END_OF_STREAM = new Pair<>(null, null);
+
+    /**
+     * Payroll periods with a run in progress in this application.
+     */
+    private static final Set<YearMonth> ACTIVE_PERIODS = ConcurrentHashMap.newKeySet();
+
+    private final PayrollEngine payrollEngine;
+    private final EmployeeDatabaseManager employeeDatabaseManager;
+    private final PayrollDatabaseManager payrollDatabaseManager;
+    private final PayrollRunDatabaseManager payrollRunDatabaseManager;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    /**
+     * Creates a pipeline with the batch size and queue capacity defined in {@link Var}.
+     */
+    public PayslipPipeline() {
+        this(new PayrollEngine(), new EmployeeDatabaseManager(), new PayrollDatabaseManager(), new PayrollRunDatabaseManager(),
+                Var.PAYROLL_BATCH_SIZE, Var.PAYSLIP_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param payrollEngine the engine computing the payslips.
+     * @param employeeDatabaseManager the manager reading the employees to be paid.
+     * @param payrollDatabaseManager the manager saving the payslips.
+     * @param payrollRunDatabaseManager the manager tracking the payroll runs.
+     * @param batchSize the number of employees read, computed and saved together.
+     * @param queueCapacity the capacity of the queue between the two stages.
+     */
+    public PayslipPipeline(PayrollEngine payrollEngine, EmployeeDatabaseManager employeeDatabaseManager,
+                           PayrollDatabaseManager payrollDatabaseManager, PayrollRunDatabaseManager payrollRunDatabaseManager,
+                           int batchSize, int queueCapacity) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be at least 1.");
+        }
+        this.payrollEngine = payrollEngine;
+        this.employeeDatabaseManager = employeeDatabaseManager;
+        this.payrollDatabaseManager = payrollDatabaseManager;
+        this.payrollRunDatabaseManager = payrollRunDatabaseManager;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Processes the payroll run of a period on a virtual thread.
+     *
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date printed on the payslips.
+     * @return a future completed with the result of the run.
+     */
+    public CompletableFuture<PayslipPipelineResult> submit(YearMonth payrollPeriod, LocalDate paymentDate) {
+        return submitAsync(() -> run(payrollPeriod, paymentDate));
+    }
+
+    /**
+     * Resumes every payroll run that was interrupted, for example by a crash, on a virtual thread.
+     * A run that fails is logged and reported as failed, and the remaining runs are still resumed.
+     *
+     * @return a future completed with the results of the resumed runs, in the order of their periods.
+     */
+    public CompletableFuture<List<PayslipPipelineResult>> submitUnfinishedRuns() {
+        return submitAsync(() -> {
+            List<PayslipPipelineResult> results = new ArrayList<>();
+            for (PayrollRun run : payrollRunDatabaseManager.getUnfinishedRuns()) {
+                long start = System.nanoTime();
+                try {
+                    results.add(run(run.payrollPeriod(), run.paymentDate()));
+                } catch (RuntimeException e) {
+                    log.error("Error occurred while resuming the payroll run for {}.", run.payrollPeriod(), e);
+                    results.add(PayslipPipelineResult.failed(run.id(), run.payrollPeriod(), Duration.ofNanos(System.nanoTime() - start)));
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Starts or resumes the payroll run of a period and waits until every stage has finished.
+     * If saving a batch fails, no further payslips are computed or saved and the run is marked as failed;
+     * the emails of payslips that were already saved stay in the outbox.
+     *
+     * @param payrollPeriod the payroll period.
+     * @param paymentDate the payment date printed on the payslips, unless an interrupted run is resumed.
+     * @return the result of the run.
+     * @throws IllegalStateException if a run for the period is already in progress.
+     * @throws DatabaseException if the payslips could not be saved.
+     */
+    public PayslipPipelineResult run(YearMonth payrollPeriod, LocalDate paymentDate) {
+        if (!ACTIVE_PERIODS.add(payrollPeriod)) {
+            throw new IllegalStateException("A payroll run for " + payrollPeriod + " is already in progress.");
+        }
+        try {
+            return process(payrollRunDatabaseManager.startRun(payrollPeriod, paymentDate));
+        } finally {
+            ACTIVE_PERIODS.remove(payrollPeriod);
+        }
+    }
+
+    /**
+     * Runs the stages of a started payroll run and records its final status.
+     *
+     * @param run the started run.
+     * @return the result of the run.
+     * @throws DatabaseException if the payslips could not be saved.
+     */
+    private PayslipPipelineResult process(PayrollRun run) {
+        long start = System.nanoTime();
+        BlockingQueue<Pair<Employee, Payslip>> computedQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger employees = new AtomicInteger();
+        AtomicInteger computed = new AtomicInteger();
+        AtomicInteger saved = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.execute(() -> compute(run, computedQueue, failure, employees, computed));
+            executor.execute(() -> persist(run, computedQueue, failure, saved));
+        }
+        payrollRunDatabaseManager.finishRun(run.id(), failure.get() == null ? PayrollRunStatus.COMPLETED : PayrollRunStatus.FAILED);
+
+        PayslipPipelineResult result = new PayslipPipelineResult(run.id(), run.payrollPeriod(), employees.get(), computed.get(),
+                saved.get(), Duration.ofNanos(System.nanoTime() - start), failure.get() == null ? PayrollRunStatus.COMPLETED : PayrollRunStatus.FAILED);
+        log.info("{}", result);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result;
+    }
+
+    /**
+     * Compute stage: reads the unpaid employees after the checkpoint of the run in keyset-ordered batches,
+     * computes their payslips and passes them downstream.
+     *
+     * @param run the payroll run.
+     * @param computedQueue the queue receiving the computed payslips.
+     * @param failure the failure of the run, which stops the computation.
+     * @param employees the counter of employees read.
+     * @param computed the counter of computed payslips.
+     */
+    private void compute(PayrollRun run, BlockingQueue<Pair<Employee, Payslip>> computedQueue,
+                         AtomicReference<RuntimeException> failure, AtomicInteger employees, AtomicInteger computed) {
+        try {
+            long afterId = run.lastEmployeeId();
+            long nextPayslipId = 1;
+            while (failure.get() == null) {
+                List<Employee> batch = employeeDatabaseManager.getUnpaidEmployeesAfter(afterId, batchSize, run.payrollPeriod());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                employees.addAndGet(batch.size());
+                Map<Long, Employee> employeesById = batch.stream().collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+                for (Payslip payslip : payrollEngine.computePayslips(batch, nextPayslipId, run.payrollPeriod(), run.paymentDate())) {
+                    computedQueue.put(new Pair<>(employeesById.get(payslip.employeeId()), payslip));
+                    computed.incrementAndGet();
+                }
+                nextPayslipId += batch.size();
+                afterId = batch.getLast().getId();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IllegalStateException("Payslip computation was interrupted.", e));
+            log.error("Payslip computation was interrupted.", e);
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            log.error("Error while generating payslips", e);
+        } finally {
+            endStream(computedQueue);
+        }
+    }
+
+    /**
+     * Persist stage: saves the computed payslips and their emails in batches.
+     * After a failed batch the stage keeps draining its queue so the compute stage is never left blocked.
+     *
+     * @param run the payroll run.
+     * @param computedQueue the queue of computed payslips.
+     * @param failure the failure of the run, set when a batch cannot be saved.
+     * @param saved the counter of saved payslips.
+     */
+    private void persist(PayrollRun run, BlockingQueue<Pair<Employee, Payslip>> computedQueue,
+                         AtomicReference<RuntimeException> failure, AtomicInteger saved) {
+        List<Pair<Employee, Payslip>> batch = new ArrayList<>(batchSize);
+        try {
+            Pair<Employee, Payslip> item;
+            while ((item = computedQueue.take()) != END_OF_STREAM) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                batch.add(item);
+                if (batch.size() == batchSize) {
+                    saveBatch(run, batch, failure, saved);
+                }
+            }
+            if (!batch.isEmpty() && failure.get() == null) {
+                saveBatch(run, batch, failure, saved);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IllegalStateException("Saving payslips was interrupted.", e));
+            log.error("Saving payslips was interrupted.", e);
+        }
+    }
+
+    /**
+     * Saves a batch of payslips together with their emails and the checkpoint of the run, and clears the batch.
+     *
+     * @param run the payroll run.
+     * @param batch the payslips to save.
+     * @param failure the failure of the run, set when the batch cannot be saved for any reason, so the persist stage
+     *                keeps draining its queue.
+     * @param saved the counter of saved payslips.
+     */
+    private void saveBatch(PayrollRun run, List<Pair<Employee, Payslip>> batch, AtomicReference<RuntimeException> failure,
+                           AtomicInteger saved) {
+        try {
+            Long lastEmployeeId = batch.getLast().getSecond().employeeId();
+            saved.addAndGet(payrollDatabaseManager.savePayrollRunChunk(batch, run.id(), lastEmployeeId).size());
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            log.error("Error occurred while saving payslips to database: ", e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Signals the end of the stream to the consumer of a queue.
+     *
+     * @param queue the queue to end.
+     */
+    private void endStream(BlockingQueue<Pair<Employee, Payslip>> queue) {
+        try {
+            queue.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while ending the payslip stream.", e);
+        }
+    }
+
+    /**
+     * Runs a task on a new virtual thread.
+     *
+     * @param task the task to run.
+     * @param <T> the result type.
+     * @return a future completed with the result of the task.
+     */
+    private <T> CompletableFuture<T> submitAsync(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Thread.ofVirtual().name("payslip-pipeline").start(() -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,53 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.enums.PayrollRunStatus;
+
+import java.time.Duration;
+import java.time.YearMonth;
+
+/**
+ * The outcome of a payroll run processed by the {@link PayslipPipeline}.
+ *
+ * @param payrollRunId The ID of the payroll run.
+ * @param payrollPeriod The payroll period of the run.
+ * @param employeeCount The number of unpaid employees processed by the run.
+ * @param computed The number of payslips computed.
+ * @param saved The number of payslips saved to the payroll history and queued in the email outbox.
+ * @param wallTime The time it took to process the run.
+ * @param status The final status of the run.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record PayslipPipelineResult(
+        Long payrollRunId,
+        YearMonth payrollPeriod,
+        int employeeCount,
+        int computed,
+        int saved,
+        Duration wallTime,
+        PayrollRunStatus status
+) {
+    /**
+     * Creates the result of a run that failed before its statistics were known.
+     *
+     * @param payrollRunId the ID of the payroll run.
+     * @param payrollPeriod the payroll period of the run.
+     * @param wallTime the time until the run failed.
+     * @return the failed result.
+     */
+    public static PayslipPipelineResult failed(Long payrollRunId, YearMonth payrollPeriod, Duration wallTime) {
+        return new PayslipPipelineResult(payrollRunId, payrollPeriod, 0, 0, 0, wallTime, PayrollRunStatus.FAILED);
+    }
+
+    /**
+     * Returns a short summary of the run statistics.
+     *
+     * @return the run statistics as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Payroll run %d for %s %s: %d employees, %d computed, %d saved in %d ms",
+                payrollRunId, payrollPeriod, status, employeeCount, computed, saved, wallTime.toMillis());
+    }
+}
@@ -0,0 +1,120 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.entities.TaxBracketTable;
+import hr.java.payroll.entities.TaxCalculator;
+import hr.java.payroll.enums.Position;
+import hr.java.payroll.utils.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Parameter overrides for a what-if payroll simulation.
+ * A raise scales the base salary of full-time contracts and the hourly rate of part-time contracts
+ * for one position; the tax bracket table replaces the table held by the {@link TaxCalculator}.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public final class SimulationParameters {
+    private final long[] raiseBasisPoints;
+    private final TaxBracketTable taxBracketTable;
+
+    /**
+     * Private constructor for {@link SimulationParameters} using the builder pattern.
+     *
+     * @param builder the builder used to create the parameters
+     */
+    private SimulationParameters(SimulationParametersBuilder builder) {
+        this.raiseBasisPoints = builder.raiseBasisPoints.clone();
+        this.taxBracketTable = builder.taxBracketTable;
+    }
+
+    /**
+     * Builder class for constructing a {@link SimulationParameters} object.
+     */
+    public static class SimulationParametersBuilder {
+        private final long[] raiseBasisPoints = new long[Position.values().length];
+        private TaxBracketTable taxBracketTable = TaxCalculator.getTable();
+
+        /**
+         * Sets the raise for a position.
+         *
+         * @param position the position receiving the raise
+         * @param raise the raise as a fraction, for example {@code 0.05} for 5%; negative values are pay cuts
+         * @return the builder object
+         */
+        public SimulationParametersBuilder setRaise(Position position, BigDecimal raise) {
+            this.raiseBasisPoints[position.ordinal()] = Money.toBasisPoints(raise);
+            return this;
+        }
+
+        /**
+         * Sets the tax bracket table used by the simulation.
+         *
+         * @param taxBracketTable the tax bracket table
+         * @return the builder object
+         */
+        public SimulationParametersBuilder setTaxBracketTable(TaxBracketTable taxBracketTable) {
+            this.taxBracketTable = taxBracketTable;
+            return this;
+        }
+
+        /**
+         * Replaces the marginal rate of one bracket of the tax bracket table set so far.
+         *
+         * @param bracket the zero-based index of the bracket
+         * @param rate the new marginal rate, for example {@code 0.22}
+         * @return the builder object
+         */
+        public SimulationParametersBuilder setBracketRate(int bracket, BigDecimal rate) {
+            this.taxBracketTable = taxBracketTable.withRate(bracket, Money.toBasisPoints(rate));
+            return this;
+        }
+
+        /**
+         * Builds a {@link SimulationParameters} object using the specified overrides.
+         *
+         * @return the created {@link SimulationParameters} object
+         */
+        public SimulationParameters build() {
+            return new SimulationParameters(this);
+        }
+    }
+
+    /**
+     * Gets the raise for a position.
+     *
+     * @param position the position
+     * @return the raise in basis points
+     */
+    public long getRaiseBasisPoints(Position position) {
+        return raiseBasisPoints[position.ordinal()];
+    }
+
+    /**
+     * Gets the tax bracket table used by the simulation.
+     *
+     * @return the tax bracket table
+     */
+    public TaxBracketTable getTaxBracketTable() {
+        return taxBracketTable;
+    }
+
+    /**
+     * Returns a description of the overrides.
+     *
+     * @return the overrides as a string
+     */
+    @Override
+    public String toString() {
+        StringBuilder raises = new StringBuilder();
+        for (Position position : Position.values()) {
+            long raise = raiseBasisPoints[position.ordinal()];
+            if (raise != 0) {
+                raises.append(raises.isEmpty() ? "" : ", ").append(position).append(' ')
+                        .append(BigDecimal.valueOf(raise, 2).stripTrailingZeros().toPlainString()).append('%');
+            }
+        }
+        return "raises=[" + raises + "], taxBrackets=[" + taxBracketTable + "]";
+    }
+}
@@ -0,0 +1,26 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.enums.Position;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The outcome of a what-if payroll simulation computed by the {@link PayrollSimulator}.
+ *
+ * @param parameters The parameter overrides of the simulation.
+ * @param total The deltas of all employees.
+ * @param byPosition The deltas per position, for positions with at least one employee.
+ * @param byContractType The deltas per contract type, keyed by {@link hr.java.payroll.interfaces.ContractType#getContractType()}.
+ * @param wallTime The time it took to compute the simulation.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record SimulationResult(
+        SimulationParameters parameters,
+        PayrollDelta total,
+        Map<Position, PayrollDelta> byPosition,
+        Map<String, PayrollDelta> byContractType,
+        Duration wallTime
+) {}
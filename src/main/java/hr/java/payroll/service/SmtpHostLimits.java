@@ -0,0 +1,26 @@
+package hr.java.payroll.service;
+
+/**
+ * Delivery limits of one SMTP server.
+ *
+ * @param maxConnections The maximum number of connections open to the server at once.
+ * @param messagesPerSecond The maximum average number of messages sent to the server per second, or 0 for no limit.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record SmtpHostLimits(
+        int maxConnections,
+        double messagesPerSecond
+) {
+    /**
+     * Validates the limits.
+     *
+     * @throws IllegalArgumentException if the number of connections is not positive or the rate is negative.
+     */
+    public SmtpHostLimits {
+        if (maxConnections < 1 || messagesPerSecond < 0) {
+            throw new IllegalArgumentException("An SMTP server needs at least one connection and a non-negative message rate.");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.utils.Var;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Connection settings for the SMTP servers used to send email.
+ * The server is chosen by the domain of the recipient, unless a host override is set,
+ * which sends all email through one server such as a local SMTP stand-in.
+ *
+ * @param smtpServers The SMTP server of each supported email domain.
+ * @param hostOverride The SMTP server used for every domain, or {@code null} to use {@code smtpServers}.
+ * @param port The SMTP port.
+ * @param auth Whether to authenticate with the username and password.
+ * @param startTls Whether to upgrade the connection with STARTTLS.
+ * @param username The username used to authenticate and as the sender address.
+ * @param password The password used to authenticate.
+ * @param defaultLimits The delivery limits of every SMTP server without limits of its own.
+ * @param hostLimits The delivery limits of individual SMTP servers.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public record SmtpSettings(
+        Map<String, String> smtpServers,
+        String hostOverride,
+        int port,
+        boolean auth,
+        boolean startTls,
+        String username,
+        String password,
+        SmtpHostLimits defaultLimits,
+        Map<String, SmtpHostLimits> hostLimits
+) {
+    /**
+     * Creates the settings configured in {@code email.properties}.
+     *
+     * @return the configured settings.
+     */
+    public static SmtpSettings fromVar() {
+        Map<String, SmtpHostLimits> hostLimits = new HashMap<>();
+        Set<String> hosts = new HashSet<>(Var.SMTP_MAX_CONNECTIONS_BY_HOST.keySet());
+        hosts.addAll(Var.SMTP_MESSAGES_PER_SECOND_BY_HOST.keySet());
+        for (String host : hosts) {
+            hostLimits.put(host, new SmtpHostLimits(
+                    Var.SMTP_MAX_CONNECTIONS_BY_HOST.getOrDefault(host, Var.SMTP_MAX_CONNECTIONS),
+                    Var.SMTP_MESSAGES_PER_SECOND_BY_HOST.getOrDefault(host, Var.SMTP_MESSAGES_PER_SECOND)));
+        }
+        return new SmtpSettings(Var.SMTPSERVERS, Var.SMTP_HOST_OVERRIDE, Var.SMTP_PORT, Var.SMTP_AUTH, Var.SMTP_STARTTLS,
+                Var.EMAIL_USERNAME, Var.EMAIL_THING, new SmtpHostLimits(Var.SMTP_MAX_CONNECTIONS, Var.SMTP_MESSAGES_PER_SECOND),
+                Map.copyOf(hostLimits));
+    }
+
+    /**
+     * Finds the delivery limits of an SMTP server.
+     *
+     * @param host the SMTP server.
+     * @return the limits of the server, or the default limits if it has none of its own.
+     */
+    public SmtpHostLimits limitsFor(String host) {
+        return hostLimits.getOrDefault(host, defaultLimits);
+    }
+
+    /**
+     * Finds the SMTP server for an email address.
+     *
+     * @param emailAddress the recipient's email address.
+     * @return the SMTP server, or {@code null} if the domain is not supported.
+     */
+    public String resolveHost(String emailAddress) {
+        if (hostOverride != null && !hostOverride.isBlank()) {
+            return hostOverride.trim();
+        }
+        int at = emailAddress.lastIndexOf('@');
+        return at < 0 ? null : smtpServers.get(emailAddress.substring(at + 1));
+    }
+
+    /**
+     * Builds the JavaMail session properties for an SMTP server.
+     *
+     * @param host the SMTP server.
+     * @return the session properties.
+     */
+    public Properties toSessionProperties(String host) {
+        Properties props = new Properties();
+        props.put("mail.smtp.auth", String.valueOf(auth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+        if (startTls) {
+            props.put("mail.smtp.ssl.protocols", "TLSv1.2");
+        }
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        return props;
+    }
+}
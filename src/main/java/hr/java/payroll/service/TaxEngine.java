@@ -0,0 +1,136 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.entities.TaxBracketTable;
+import hr.java.payroll.entities.TaxCalculator;
+import hr.java.payroll.utils.Var;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+
+/**
+ * Loads the tax bracket table used by every tax calculation from {@link Var#TAX_BRACKETS_FILE_PATH} and watches
+ * the file for changes. The table is loaded when watching starts, and while the file is watched every change to it
+ * is compiled into a new table that replaces the one held by the {@link TaxCalculator}. A missing file keeps the
+ * default table built from the tax constants in {@link Var}; a file that cannot be parsed is logged and the current
+ * table is kept.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class TaxEngine {
+    private static final Logger log = LoggerFactory.getLogger(TaxEngine.class);
+    private static final Path TAX_BRACKETS_FILE = Path.of(Var.TAX_BRACKETS_FILE_PATH).toAbsolutePath();
+
+    private static WatchService watchService;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TaxEngine() {}
+
+    /**
+     * Loads the tax bracket file if it exists and starts watching it for changes on a daemon thread.
+     * Calling this method while the file is already watched has no effect.
+     */
+    public static synchronized void startWatching() {
+        if (watchService != null) {
+            return;
+        }
+        if (Files.exists(TAX_BRACKETS_FILE)) {
+            reload();
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            TAX_BRACKETS_FILE.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.error("Error occurred while watching tax bracket file '{}'.", TAX_BRACKETS_FILE, e);
+            stopWatching();
+            return;
+        }
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watch(service), "tax-bracket-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the tax bracket file.
+     */
+    public static synchronized void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Error occurred while closing tax bracket file watcher.", e);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Reloads the table whenever the tax bracket file is created or modified, until the watch service is closed.
+     *
+     * @param service the watch service registered on the directory of the file.
+     */
+    private static void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path path && TAX_BRACKETS_FILE.getFileName().equals(path)) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Tax bracket file watcher stopped.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compiles the tax bracket file into a new table and swaps it in, keeping the current table on error.
+     */
+    private static void reload() {
+        try {
+            TaxBracketTable table = readTable();
+            TaxCalculator.setTable(table);
+            log.info("Tax bracket table replaced: {}", table);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error occurred while reloading tax bracket file '{}', keeping the current table.", TAX_BRACKETS_FILE, e);
+        }
+    }
+
+    /**
+     * Reads and compiles the tax bracket file.
+     *
+     * @return the compiled table.
+     * @throws IOException if the file cannot be read.
+     */
+    private static TaxBracketTable readTable() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(TAX_BRACKETS_FILE)) {
+            properties.load(reader);
+        }
+        return TaxBracketTable.fromProperties(properties);
+    }
+}
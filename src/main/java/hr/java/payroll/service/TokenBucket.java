@@ -0,0 +1,63 @@
+package hr.java.payroll.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket rate limiter.
+ * Tokens are added at a fixed rate up to the capacity of the bucket, and every permit takes one token.
+ * A caller that finds the bucket empty reserves the next token and sleeps until it is added,
+ * so waiting callers are served in order without holding a lock while they sleep.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param permitsPerSecond the rate at which tokens are added.
+     * @param capacity the maximum number of tokens, which is the largest burst allowed after an idle period.
+     * @throws IllegalArgumentException if the rate or capacity is not positive.
+     */
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket rate and capacity must be positive.");
+        }
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a permit, waiting until one is available.
+     *
+     * @return the time waited in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public long acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Takes a token, borrowing it from the future if the bucket is empty.
+     *
+     * @return the time until the borrowed token is added, or 0 if a token was available.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
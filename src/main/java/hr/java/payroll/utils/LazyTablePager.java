@@ -0,0 +1,169 @@
+package hr.java.payroll.utils;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Fills a table page by page as it is scrolled down. Every page is loaded on a background thread and appended to the
+ * table when it arrives; the next page is loaded once the vertical scroll bar nears the bottom of the table.
+ * Starting a new search discards the pages of the previous one that are still loading.
+ *
+ * @param <T> the type of the table rows.
+ * @param <C> the type of the cursor the next page is read after.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class LazyTablePager<T, C> {
+    private static final Logger log = LoggerFactory.getLogger(LazyTablePager.class);
+    private static final double SCROLL_LOAD_THRESHOLD = 0.1;
+
+    private final TableView<T> tableView;
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+    private final String threadName;
+    private final String errorMessage;
+    private PageLoader<T, C> pageLoader;
+    private C cursor;
+    private long searchGeneration;
+    private boolean pageLoading;
+    private boolean lastPageLoaded = true;
+
+    /**
+     * Creates a pager that shows its rows in a table and loads the next page as the table is scrolled down.
+     *
+     * @param tableView the table.
+     * @param threadName the name of the threads the pages are loaded on.
+     * @param errorMessage the message shown to the user if a page cannot be loaded.
+     */
+    public LazyTablePager(TableView<T> tableView, String threadName, String errorMessage) {
+        this.tableView = tableView;
+        this.threadName = threadName;
+        this.errorMessage = errorMessage;
+        tableView.setItems(rows);
+        tableView.skinProperty().addListener((observable, oldSkin, newSkin) -> loadPagesOnScroll());
+    }
+
+    /**
+     * Starts a new search: empties the table, scrolls it to the top and loads the first page.
+     *
+     * @param pageLoader reads the page after a cursor, or the first page for a {@code null} cursor.
+     */
+    public void load(PageLoader<T, C> pageLoader) {
+        clear();
+        this.pageLoader = pageLoader;
+        lastPageLoaded = false;
+        tableView.scrollTo(0);
+        loadNextPage();
+    }
+
+    /**
+     * Empties the table and discards the pages that are still loading.
+     */
+    public void clear() {
+        searchGeneration++;
+        pageLoader = null;
+        cursor = null;
+        pageLoading = false;
+        lastPageLoaded = true;
+        rows.clear();
+    }
+
+    /**
+     * Loads the next page of the current search on a background thread and appends it to the table.
+     * Does nothing while a page is loading or after the last page; a page of an outdated search is discarded.
+     */
+    private void loadNextPage() {
+        if (pageLoading || lastPageLoaded) {
+            return;
+        }
+        pageLoading = true;
+        long generation = searchGeneration;
+        PageLoader<T, C> loader = pageLoader;
+        C after = cursor;
+
+        Task<Page<T, C>> pageTask = new Task<>() {
+            @Override
+            protected Page<T, C> call() throws Exception {
+                return loader.load(after);
+            }
+        };
+        pageTask.setOnSucceeded(event -> {
+            if (generation != searchGeneration) {
+                return;
+            }
+            Page<T, C> page = pageTask.getValue();
+            rows.addAll(page.rows());
+            cursor = page.cursor();
+            lastPageLoaded = !page.hasMore();
+            pageLoading = false;
+        });
+        pageTask.setOnFailed(event -> {
+            if (generation != searchGeneration) {
+                return;
+            }
+            pageLoading = false;
+            log.error("Error occurred while loading a page on '{}'.", threadName, pageTask.getException());
+            Message.showAlert(Alert.AlertType.ERROR, Var.ERROR_TITLE, "", errorMessage);
+        });
+
+        Thread pageThread = new Thread(pageTask, threadName);
+        pageThread.setDaemon(true);
+        pageThread.start();
+    }
+
+    /**
+     * Listens to the vertical scroll bar of the table and loads the next page when it nears the bottom.
+     * The scroll bar only exists once the table has a skin.
+     */
+    private void loadPagesOnScroll() {
+        for (Node node : tableView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() - SCROLL_LOAD_THRESHOLD * (scrollBar.getMax() - scrollBar.getMin())) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads one page of a search. It is called on a background thread.
+     *
+     * @param <T> the type of the table rows.
+     * @param <C> the type of the cursor the next page is read after.
+     */
+    @FunctionalInterface
+    public interface PageLoader<T, C> {
+        /**
+         * Reads the page after a cursor.
+         *
+         * @param after the cursor of the previous page, or {@code null} for the first page.
+         * @return the page.
+         * @throws Exception if the page cannot be read.
+         */
+        Page<T, C> load(C after) throws Exception;
+    }
+
+    /**
+     * A page of rows.
+     *
+     * @param rows the rows of the page, in the order they are shown.
+     * @param cursor the cursor the next page is read after.
+     * @param hasMore whether another page can be read.
+     * @param <T> the type of the table rows.
+     * @param <C> the type of the cursor.
+     */
+    public record Page<T, C>(List<T> rows, C cursor, boolean hasMore) {}
+}
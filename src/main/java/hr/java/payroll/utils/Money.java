@@ -0,0 +1,69 @@
+package hr.java.payroll.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for fixed-point money arithmetic.
+ * Amounts are held as a {@code long} number of cents and rates as a {@code long} number of basis points
+ * (1 basis point = 0.01%), so salary and tax calculations on the hot path do not allocate.
+ * <p>
+ * Rounding rules: amounts and rates are rounded half-up to cents and basis points when converted from
+ * {@link BigDecimal}, and {@link #applyRate(long, long)} rounds its result half-up to the nearest cent.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+public class Money {
+    public static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Money() {}
+
+    /**
+     * Converts an amount to cents, rounding half-up.
+     *
+     * @param amount the amount, or {@code null} for zero.
+     * @return the amount in cents.
+     * @throws ArithmeticException if the amount does not fit in a {@code long}.
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to an amount with a scale of 2.
+     *
+     * @param cents the amount in cents.
+     * @return the amount.
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Converts a rate such as {@code 0.2} to basis points, rounding half-up.
+     *
+     * @param rate the rate as a fraction of one.
+     * @return the rate in basis points.
+     */
+    public static long toBasisPoints(BigDecimal rate) {
+        return rate.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Applies a rate to an amount, rounding the result half-up to the nearest cent.
+     *
+     * @param cents the non-negative amount in cents.
+     * @param basisPoints the non-negative rate in basis points.
+     * @return the share of the amount in cents.
+     */
+    public static long applyRate(long cents, long basisPoints) {
+        return (cents * basisPoints + BASIS_POINTS_PER_UNIT / 2) / BASIS_POINTS_PER_UNIT;
+    }
+}
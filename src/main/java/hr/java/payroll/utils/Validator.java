@@ -1,8 +1,9 @@
 package hr.java.payroll.utils;
 
 import hr.java.payroll.entities.Employee;
-import hr.java.payroll.entities.serializer.ChangeLog;
 import hr.java.payroll.entities.serializer.ChangeLogSerializer;
+import hr.java.payroll.entities.serializer.ChangeSet;
+import hr.java.payroll.enums.ChangeEntityType;
 import hr.java.payroll.exception.*;
 
 import java.math.BigDecimal;
@@ -240,14 +241,29 @@ public class Validator {
     /**
      * Serializes a change log entry if the data has been edited.
      *
+     * @param entityType the kind of record that was edited
+     * @param entityId the ID of the record that was edited
      * @param fieldChanged the name of the field that has changed
      * @param oldValue the previous value of the field
      * @param newValue the new value of the field
      */
-    public static void isDataEdited(String fieldChanged, Object oldValue, Object newValue){
-        if (oldValue != null && newValue != null && !oldValue.toString().equals(newValue.toString())) {
-            ChangeLogSerializer.serializeChange(new ChangeLog(fieldChanged, oldValue.toString(), newValue.toString(), EmployeeSession.getInstance().getLoggedInEmployee().getRole().name(), LocalDateTime.now()));
-        }
+    public static void isDataEdited(ChangeEntityType entityType, Long entityId, String fieldChanged, Object oldValue, Object newValue){
+        ChangeLogSerializer.serializeChangeSet(startChangeSet(entityType, entityId).addIfEdited(fieldChanged, oldValue, newValue).build());
+    }
+
+    /**
+     * Starts collecting the field changes of one edit made by the logged-in employee to a record.
+     * The built change set is recorded with {@link ChangeLogSerializer#serializeChangeSet}.
+     *
+     * @param entityType the kind of record being edited
+     * @param entityId the ID of the record being edited
+     * @return a change set builder with the edited record, the role of the logged-in employee and the current date and time
+     */
+    public static ChangeSet.ChangeSetBuilder startChangeSet(ChangeEntityType entityType, Long entityId) {
+        return new ChangeSet.ChangeSetBuilder()
+                .setEntity(entityType, entityId)
+                .setRole(EmployeeSession.getInstance().getLoggedInEmployee().getRole().name())
+                .setChangeDateTime(LocalDateTime.now());
     }
 
 }
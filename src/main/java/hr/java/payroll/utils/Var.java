@@ -1,6 +1,8 @@
 package hr.java.payroll.utils;
 
 import hr.java.payroll.entities.Employee;
+import hr.java.payroll.enums.ChangeLogStore;
+import hr.java.payroll.enums.JournalSyncPolicy;
 import hr.java.payroll.enums.Role;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,8 +11,10 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -30,6 +34,17 @@ public class Var {
     public static final BigDecimal HIGHER_TAX_RATE = BigDecimal.valueOf(0.3);
     public static final BigDecimal TAX_THRESHOLD = BigDecimal.valueOf(5000);
 
+    public static final int PAYROLL_BATCH_SIZE = 500;
+    public static final int PAYSLIP_QUEUE_CAPACITY = 1000;
+    public static final int LATEST_PAYSLIP_CACHE_SIZE = 1000;
+    public static final int PAYROLL_HISTORY_PAGE_SIZE = 100;
+    public static final int CHANGES_HISTORY_PAGE_SIZE = 100;
+    public static final int OUTBOX_BATCH_SIZE = 100;
+    public static final int OUTBOX_POLL_INTERVAL_SECONDS = 5;
+    public static final int OUTBOX_MAX_ATTEMPTS = 8;
+    public static final int OUTBOX_BASE_BACKOFF_SECONDS = 30;
+    public static final int OUTBOX_MAX_BACKOFF_SECONDS = 3600;
+
     public static final String INFO_TITLE = "System Notification";
     public static final String ERROR_TITLE = "System Error";
     public static final String WARNING_TITLE = "System Warning";
@@ -40,8 +55,21 @@ public class Var {
     public static final DateTimeFormatter SERIALIZABLE_DTF = DateTimeFormatter.ofPattern("dd. MM. yyyy HH:mm:ss");
     public static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("dd. MM. yyyy");
 
+    public static final String DATABASE_PROPERTIES_FILE_PATH = "database.properties";
+    public static final String TAX_BRACKETS_FILE_PATH = "tax-brackets.properties";
     public static final String EMPLOYEE_LOGIN_FILE_PATH = "dat/users.txt";
     public static final String BINARY_CHANGES_FILE_PATH = "dat/changes.dat";
+    public static final String CHANGE_LOG_JOURNAL_FILE_PATH = "dat/changes.journal";
+    public static final JournalSyncPolicy CHANGE_LOG_SYNC_POLICY = JournalSyncPolicy.ALWAYS;
+    public static final long CHANGE_LOG_SYNC_INTERVAL_MILLIS = 1000;
+    public static final int CHANGE_LOG_MAX_GROUP_SIZE = 256;
+    public static final String CHANGE_LOG_DIRECTORY_PATH = "dat/changes";
+    public static final long CHANGE_LOG_SEGMENT_MAX_BYTES = 4L * 1024 * 1024;
+    public static final int CHANGE_LOG_RETENTION_MONTHS = 120;
+    public static final long CHANGE_LOG_COMPACTION_INTERVAL_MINUTES = 60;
+    public static final ChangeLogStore CHANGE_LOG_STORE = ChangeLogStore.JOURNAL;
+    public static final long CHANGE_LOG_PROJECTION_INTERVAL_MILLIS = 1000;
+    public static final int CHANGE_LOG_PROJECTION_BATCH_SIZE = 1000;
 
     public static final String EMPLOYEE_ADMIN_USERNAME = "admin";
     public static final String EMPLOYEE_ADMIN_PASSWORD = "admin";
@@ -63,6 +91,14 @@ public class Var {
 
     public static final String EMAIL_USERNAME = properties.getProperty("username");
     public static final String EMAIL_THING = properties.getProperty("password");
+    public static final String SMTP_HOST_OVERRIDE = properties.getProperty("smtp.host");
+    public static final int SMTP_PORT = Integer.parseInt(properties.getProperty("smtp.port", "587").trim());
+    public static final boolean SMTP_AUTH = Boolean.parseBoolean(properties.getProperty("smtp.auth", "true").trim());
+    public static final boolean SMTP_STARTTLS = Boolean.parseBoolean(properties.getProperty("smtp.starttls", "true").trim());
+    public static final int SMTP_MAX_CONNECTIONS = Integer.parseInt(properties.getProperty("smtp.maxConnections", "4").trim());
+    public static final double SMTP_MESSAGES_PER_SECOND = Double.parseDouble(properties.getProperty("smtp.messagesPerSecond", "10").trim());
+    public static final Map<String, Integer> SMTP_MAX_CONNECTIONS_BY_HOST = hostOverrides("smtp.maxConnections.", Integer::parseInt);
+    public static final Map<String, Double> SMTP_MESSAGES_PER_SECOND_BY_HOST = hostOverrides("smtp.messagesPerSecond.", Double::parseDouble);
 
     public static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
     public static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
@@ -90,4 +126,23 @@ public class Var {
      * Private constructor to prevent instantiation of this utility class.
      */
     private Var() {}
+
+    /**
+     * Reads the email properties whose keys start with a prefix followed by an SMTP server,
+     * for example {@code smtp.maxConnections.smtp.gmail.com}.
+     *
+     * @param prefix the key prefix.
+     * @param parser the parser of the property values.
+     * @param <T> the type of the values.
+     * @return the parsed values by SMTP server.
+     */
+    private static <T> Map<String, T> hostOverrides(String prefix, Function<String, T> parser) {
+        Map<String, T> overrides = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                overrides.put(key.substring(prefix.length()), parser.apply(properties.getProperty(key).trim()));
+            }
+        }
+        return Map.copyOf(overrides);
+    }
 }
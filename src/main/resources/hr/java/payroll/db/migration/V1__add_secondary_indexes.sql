@@ -0,0 +1,5 @@
+-- Secondary indexes for the lookups done by the database managers.
+CREATE INDEX IF NOT EXISTS IDX_PAYROLL_HISTORY_EMPLOYEE_ID ON PAYROLL_HISTORY(EMPLOYEE_ID);
+CREATE INDEX IF NOT EXISTS IDX_PAYROLL_HISTORY_PAYMENT_DATE ON PAYROLL_HISTORY(PAYMENT_DATE);
+CREATE INDEX IF NOT EXISTS IDX_CONTRACT_END_DATE ON CONTRACT(END_DATE);
+CREATE INDEX IF NOT EXISTS IDX_EMPLOYEE_CONTRACT_ID ON EMPLOYEE(CONTRACT_ID);
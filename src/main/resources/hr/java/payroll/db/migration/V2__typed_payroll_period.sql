@@ -0,0 +1,13 @@
+-- Stores the payroll period as the first day of the month instead of a 'yyyy-MM' string,
+-- so periods sort and compare natively.
+-- H2 commits every DDL statement on its own, so each step can be run again after a failed attempt:
+-- the text column is added back if it was dropped, and the date is taken from the first seven characters
+-- of the period, which are 'yyyy-MM' both in the text column and in a date column renamed by an earlier attempt.
+ALTER TABLE PAYROLL_HISTORY ADD COLUMN IF NOT EXISTS PAYROLL_PERIOD VARCHAR;
+ALTER TABLE PAYROLL_HISTORY ADD COLUMN IF NOT EXISTS PAYROLL_PERIOD_START DATE;
+UPDATE PAYROLL_HISTORY SET PAYROLL_PERIOD_START = CAST(CONCAT(LEFT(CAST(PAYROLL_PERIOD AS VARCHAR), 7), '-01') AS DATE)
+    WHERE PAYROLL_PERIOD IS NOT NULL AND PAYROLL_PERIOD_START IS NULL;
+ALTER TABLE PAYROLL_HISTORY DROP COLUMN IF EXISTS PAYROLL_PERIOD;
+ALTER TABLE PAYROLL_HISTORY ALTER COLUMN IF EXISTS PAYROLL_PERIOD_START RENAME TO PAYROLL_PERIOD;
+ALTER TABLE PAYROLL_HISTORY ALTER COLUMN PAYROLL_PERIOD SET NOT NULL;
+CREATE INDEX IF NOT EXISTS IDX_PAYROLL_HISTORY_PAYROLL_PERIOD ON PAYROLL_HISTORY(PAYROLL_PERIOD);
@@ -0,0 +1,35 @@
+-- Tracks each payroll run per period with its status and the last employee whose payslip was saved,
+-- so an interrupted run can resume from its checkpoint.
+CREATE TABLE IF NOT EXISTS PAYROLL_RUN (
+    ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    PAYROLL_PERIOD DATE NOT NULL,
+    PAYMENT_DATE DATE NOT NULL,
+    STATUS VARCHAR NOT NULL,
+    LAST_EMPLOYEE_ID BIGINT DEFAULT 0 NOT NULL,
+    STARTED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    UPDATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT UQ_PAYROLL_RUN_PERIOD UNIQUE (PAYROLL_PERIOD)
+);
+-- An employee is paid at most once per period. The first payslip of any duplicates is kept; the others are
+-- moved into PAYROLL_HISTORY_DUPLICATE, so no payslip is lost and the duplicates can be reviewed.
+-- The copy and the delete are committed together, and a rerun only moves payslips that are not archived yet.
+CREATE TABLE IF NOT EXISTS PAYROLL_HISTORY_DUPLICATE (
+    ID BIGINT PRIMARY KEY,
+    EMPLOYEE_ID BIGINT NOT NULL,
+    GROSS_SALARY DECIMAL NOT NULL,
+    NET_SALARY DECIMAL NOT NULL,
+    BONUS DECIMAL,
+    HOURS_WORKED DECIMAL NOT NULL,
+    PAYROLL_PERIOD DATE NOT NULL,
+    PAYMENT_DATE DATE NOT NULL,
+    ARCHIVED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+INSERT INTO PAYROLL_HISTORY_DUPLICATE (ID, EMPLOYEE_ID, GROSS_SALARY, NET_SALARY, BONUS, HOURS_WORKED, PAYROLL_PERIOD, PAYMENT_DATE)
+SELECT PH.ID, PH.EMPLOYEE_ID, PH.GROSS_SALARY, PH.NET_SALARY, PH.BONUS, PH.HOURS_WORKED, PH.PAYROLL_PERIOD, PH.PAYMENT_DATE
+FROM PAYROLL_HISTORY PH
+WHERE EXISTS (
+    SELECT 1 FROM PAYROLL_HISTORY O
+    WHERE O.EMPLOYEE_ID = PH.EMPLOYEE_ID AND O.PAYROLL_PERIOD = PH.PAYROLL_PERIOD AND O.ID < PH.ID
+) AND NOT EXISTS (SELECT 1 FROM PAYROLL_HISTORY_DUPLICATE D WHERE D.ID = PH.ID);
+DELETE FROM PAYROLL_HISTORY PH WHERE EXISTS (SELECT 1 FROM PAYROLL_HISTORY_DUPLICATE D WHERE D.ID = PH.ID);
+ALTER TABLE PAYROLL_HISTORY ADD CONSTRAINT IF NOT EXISTS UQ_PAYROLL_HISTORY_EMPLOYEE_PERIOD UNIQUE (EMPLOYEE_ID, PAYROLL_PERIOD);
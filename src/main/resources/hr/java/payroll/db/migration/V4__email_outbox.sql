@@ -0,0 +1,16 @@
+-- Payslip emails waiting to be sent, written in the same transaction as the payslips they carry,
+-- so an email is never lost when SMTP is slow or down and re-delivery never recomputes a payslip.
+CREATE TABLE IF NOT EXISTS EMAIL_OUTBOX (
+    ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    PAYROLL_HISTORY_ID BIGINT REFERENCES PAYROLL_HISTORY(ID) ON DELETE CASCADE,
+    RECIPIENT VARCHAR NOT NULL,
+    SUBJECT VARCHAR NOT NULL,
+    BODY VARCHAR NOT NULL,
+    STATUS VARCHAR NOT NULL,
+    ATTEMPTS INT DEFAULT 0 NOT NULL,
+    NEXT_ATTEMPT_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    LAST_ERROR VARCHAR,
+    CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    SENT_AT TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_OUTBOX_STATUS_NEXT_ATTEMPT ON EMAIL_OUTBOX (STATUS, NEXT_ATTEMPT_AT);
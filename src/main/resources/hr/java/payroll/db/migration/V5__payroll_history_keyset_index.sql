@@ -0,0 +1,4 @@
+-- Serves the payroll history browser, which pages newest first by keyset on (PAYMENT_DATE, ID).
+-- The composite index replaces the single-column one, so a page reads only its own rows.
+CREATE INDEX IF NOT EXISTS IDX_PAYROLL_HISTORY_PAYMENT_DATE_ID ON PAYROLL_HISTORY(PAYMENT_DATE DESC, ID DESC);
+DROP INDEX IF EXISTS IDX_PAYROLL_HISTORY_PAYMENT_DATE;
@@ -0,0 +1,19 @@
+-- Field changes copied from the change log journal, so the changes history can be filtered and paged
+-- by the database. A change is identified by its change set and its position in it, which makes copying
+-- idempotent; rows are paged newest first by keyset on ID, which follows the order of the change sets.
+CREATE TABLE IF NOT EXISTS CHANGE_LOG (
+    ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    CHANGE_SET_ID BIGINT NOT NULL,
+    CHANGE_INDEX INT NOT NULL,
+    ENTITY_TYPE VARCHAR,
+    ENTITY_ID BIGINT,
+    FIELD_CHANGED VARCHAR NOT NULL,
+    OLD_VALUE VARCHAR,
+    NEW_VALUE VARCHAR,
+    ROLE VARCHAR,
+    CHANGED_AT TIMESTAMP NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS IDX_CHANGE_LOG_CHANGE_SET ON CHANGE_LOG (CHANGE_SET_ID, CHANGE_INDEX);
+CREATE INDEX IF NOT EXISTS IDX_CHANGE_LOG_CHANGED_AT ON CHANGE_LOG (CHANGED_AT);
+CREATE INDEX IF NOT EXISTS IDX_CHANGE_LOG_ROLE_ID ON CHANGE_LOG (ROLE, ID DESC);
+CREATE INDEX IF NOT EXISTS IDX_CHANGE_LOG_ENTITY_ID ON CHANGE_LOG (ENTITY_TYPE, ENTITY_ID, ID DESC);
@@ -0,0 +1,4 @@
+-- The changes history filters FIELD_CHANGED by a case-insensitive substring, which an index on the column cannot
+-- serve, so the index on (FIELD_CHANGED, ID) only slowed down copying the change log. V6 no longer creates it;
+-- this drops it from databases V6 already ran on.
+DROP INDEX IF EXISTS IDX_CHANGE_LOG_FIELD_ID;
@@ -0,0 +1,193 @@
+package hr.java.payroll.entities;
+
+import hr.java.payroll.enums.Position;
+import hr.java.payroll.utils.Money;
+import hr.java.payroll.utils.Var;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the cents path of the salary calculation gives the same results as the {@link BigDecimal} path,
+ * and as a {@link BigDecimal} calculation of the default tax brackets, for both contract types.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class ContractSalaryCentsTest {
+    private static final long SEED = 20241017L;
+    private static final int RANDOM_CONTRACTS = 100_000;
+
+    private TaxBracketTable previousTable;
+
+    @BeforeEach
+    void useDefaultTaxBrackets() {
+        previousTable = TaxCalculator.getTable();
+        TaxCalculator.setTable(TaxBracketTable.defaultTable());
+    }
+
+    @AfterEach
+    void restoreTaxBrackets() {
+        TaxCalculator.setTable(previousTable);
+    }
+
+    @Test
+    void fullTimeZeroSalary() {
+        ContractFullTime contract = fullTime("0.00", "0.00");
+        assertEquals(0, contract.calculateGrossSalaryCents());
+        assertEquals(0, contract.calculateNetSalaryCents());
+        assertEquivalent(contract);
+    }
+
+    @Test
+    void fullTimeMinimalSalaryBoundary() {
+        assertEquals(96_999, fullTime("969.99", "0.00").calculateNetSalaryCents());
+        assertEquals(97_000, fullTime("970.00", "0.00").calculateNetSalaryCents());
+        assertEquals(97_001, fullTime("970.01", "0.00").calculateNetSalaryCents());
+        assertEquivalent(fullTime("969.99", "0.00"));
+        assertEquivalent(fullTime("970.00", "0.00"));
+        assertEquivalent(fullTime("970.01", "0.00"));
+        assertEquivalent(fullTime("900.00", "70.00"));
+    }
+
+    @Test
+    void fullTimeTaxThreshold() {
+        assertEquals(500_000 - 80_600, fullTime("5000.00", "0.00").calculateNetSalaryCents());
+        assertEquivalent(fullTime("4999.99", "0.00"));
+        assertEquivalent(fullTime("5000.00", "0.00"));
+        assertEquivalent(fullTime("5000.01", "0.00"));
+        assertEquivalent(fullTime("4000.00", "1000.00"));
+        assertEquivalent(fullTime("4999.99", "0.01"));
+    }
+
+    @Test
+    void fullTimeHalfCentTaxIsRoundedUp() {
+        // 0.05 above the threshold is taxed 0.015 at the higher rate.
+        ContractFullTime contract = fullTime("5000.05", "0.00");
+        assertEquals(500_005 - 80_602, contract.calculateNetSalaryCents());
+        assertEquivalent(contract);
+        assertEquivalent(fullTime("5000.00", "0.15"));
+        assertEquivalent(fullTime("6543.25", "0.00"));
+    }
+
+    @Test
+    void fullTimeLargeSalary() {
+        assertEquivalent(fullTime("9999999.99", "99999.99"));
+        assertEquivalent(fullTime("123456789.01", "0.00"));
+    }
+
+    @Test
+    void partTimeZeroSalary() {
+        assertEquivalent(partTime("0", "25.00"));
+        assertEquivalent(partTime("160", "0.00"));
+    }
+
+    @Test
+    void partTimeHalfCentGrossIsRoundedUp() {
+        ContractPartTime contract = partTime("10.5", "3.01");
+        assertEquals(3_161, contract.calculateGrossSalaryCents());
+        assertEquivalent(contract);
+        assertEquivalent(partTime("1", "5000.005"));
+        assertEquivalent(partTime("0.5", "9700.01"));
+    }
+
+    @Test
+    void partTimeMinimalSalaryAndTaxThreshold() {
+        assertEquivalent(partTime("97", "10.00"));
+        assertEquivalent(partTime("97", "9.9999"));
+        assertEquivalent(partTime("160", "31.25"));
+        assertEquivalent(partTime("160", "31.250031"));
+        assertEquivalent(partTime("160", "31.249969"));
+    }
+
+    @Test
+    void partTimeLargeSalary() {
+        assertEquivalent(partTime("744", "13440.50"));
+        assertEquivalent(partTime("8760.25", "99999.999"));
+    }
+
+    @Test
+    void randomFullTimeContracts() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_CONTRACTS; i++) {
+            assertEquivalent(fullTime(BigDecimal.valueOf(random.nextLong(2_000_000), 2), BigDecimal.valueOf(random.nextLong(200_000), 2)));
+        }
+    }
+
+    @Test
+    void randomPartTimeContracts() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_CONTRACTS; i++) {
+            assertEquivalent(partTime(BigDecimal.valueOf(random.nextLong(3_000), 1), BigDecimal.valueOf(random.nextLong(200_000), 3)));
+        }
+    }
+
+    /**
+     * Checks the cents results of a contract against its {@link BigDecimal} results and the reference calculation.
+     *
+     * @param contract the contract.
+     */
+    private static void assertEquivalent(Contract contract) {
+        BigDecimal grossSalary = contract.calculateGrossSalary();
+        String description = contract.getName() + " with gross salary " + grossSalary;
+        assertEquals(Money.toCents(grossSalary), contract.calculateGrossSalaryCents(), description);
+        assertEquals(Money.toCents(contract.calculateNetSalary()), contract.calculateNetSalaryCents(), description);
+        assertEquals(Money.toCents(referenceNetSalary(grossSalary)), contract.calculateNetSalaryCents(), description);
+    }
+
+    /**
+     * Calculates the net salary with the default tax brackets in {@link BigDecimal}: income up to the minimal salary
+     * is not taxed, income up to the tax threshold is taxed at the lower rate and income above it at the higher rate,
+     * and the tax is rounded half-up to cents.
+     *
+     * @param grossSalary the gross salary.
+     * @return the net salary.
+     */
+    private static BigDecimal referenceNetSalary(BigDecimal grossSalary) {
+        BigDecimal gross = grossSalary.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal lowerBracket = gross.min(Var.TAX_THRESHOLD).subtract(Var.MINIMAL_SALARY).max(BigDecimal.ZERO);
+        BigDecimal higherBracket = gross.subtract(Var.TAX_THRESHOLD).max(BigDecimal.ZERO);
+        BigDecimal tax = lowerBracket.multiply(Var.LOWER_TAX_RATE).add(higherBracket.multiply(Var.HIGHER_TAX_RATE));
+        return gross.subtract(tax.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private static ContractFullTime fullTime(String baseSalary, String bonus) {
+        return fullTime(new BigDecimal(baseSalary), new BigDecimal(bonus));
+    }
+
+    private static ContractFullTime fullTime(BigDecimal baseSalary, BigDecimal bonus) {
+        return new ContractFullTime.ContractFullTimeBuilder()
+                .setId(1L)
+                .setName("Full time " + baseSalary + " + " + bonus)
+                .setPosition(Position.SOFTWARE_ENGINEER)
+                .setBaseSalary(baseSalary)
+                .setBonus(bonus)
+                .setStartDate(LocalDate.of(2024, 1, 1))
+                .setEndDate(LocalDate.of(2025, 1, 1))
+                .build();
+    }
+
+    private static ContractPartTime partTime(String hoursWorked, String hourlyRate) {
+        return partTime(new BigDecimal(hoursWorked), new BigDecimal(hourlyRate));
+    }
+
+    private static ContractPartTime partTime(BigDecimal hoursWorked, BigDecimal hourlyRate) {
+        return new ContractPartTime.ContractPartTimeBuilder()
+                .setId(2L)
+                .setName("Part time " + hoursWorked + " x " + hourlyRate)
+                .setPosition(Position.IT_SUPPORT_SPECIALIST)
+                .setBaseSalary(hoursWorked, hourlyRate)
+                .setHoursWorked(hoursWorked)
+                .setHourlyRate(hourlyRate)
+                .setStartDate(LocalDate.of(2024, 1, 1))
+                .setEndDate(LocalDate.of(2025, 1, 1))
+                .build();
+    }
+}
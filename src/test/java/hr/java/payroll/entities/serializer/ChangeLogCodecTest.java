@@ -0,0 +1,473 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.ChangeEntityType;
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the {@link ChangeLogCodec} decodes the payloads of every format version the change log journal has had,
+ * rejects malformed payloads, and that journals of earlier versions are upgraded to the current one.
+ * The payloads of earlier versions are written here the way those versions wrote them.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class ChangeLogCodecTest {
+    private static final int JOURNAL_MAGIC = 0x50424A4C;
+    private static final LocalDateTime CHANGE_DATE_TIME = LocalDateTime.of(2024, 2, 29, 23, 59, 58);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void currentVersionRoundTrips() throws IOException {
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("ADMIN")
+                .setChangeDateTime(CHANGE_DATE_TIME)
+                .setEntity(ChangeEntityType.FULL_TIME_CONTRACT, 4_000_000_000L)
+                .addChange("Employee First Name", "Ivan", "Ivo")
+                .addChange("Nickname", null, "Žarko Đurić")
+                .addChange("Full Time Contract Base Salary", "1500.00", null)
+                .addChange("Bilješka", "", "日本語 ✓")
+                .build()
+                .withId(300);
+
+        ChangeSet decoded = ChangeLogCodec.decode(ChangeLogCodec.encode(changeSet), ChangeLogCodec.ENTITY_VERSION, 1);
+
+        assertSameChangeSet(changeSet, decoded);
+        assertEquals("FULL_TIME_CONTRACT", decoded.getEntityType());
+        assertEquals(4_000_000_000L, decoded.getEntityId());
+        assertNull(decoded.getChanges().get(1).getOldValue());
+        assertEquals("", decoded.getChanges().get(3).getOldValue());
+    }
+
+    @Test
+    void currentVersionRoundTripsLiteralNamesAndMissingEntity() throws IOException {
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("AUDITOR")
+                .setChangeDateTime(LocalDateTime.of(1969, 12, 31, 23, 0))
+                .addChange("Radno mjesto", "Računovođa", "Voditelj računovodstva")
+                .build()
+                .withId(Long.MAX_VALUE);
+
+        ChangeSet decoded = ChangeLogCodec.decode(ChangeLogCodec.encode(changeSet), ChangeLogCodec.ENTITY_VERSION, 1);
+
+        assertSameChangeSet(changeSet, decoded);
+        assertNull(decoded.getEntityType());
+        assertEquals(0, decoded.getEntityId());
+    }
+
+    @Test
+    void currentVersionRoundTripsNullRole() throws IOException {
+        ChangeSet changeSet = new ChangeSet(12, null, CHANGE_DATE_TIME, "OTHER_ENTITY", 9,
+                List.of(new ChangeLog(null, null, null, null, CHANGE_DATE_TIME, 12, "OTHER_ENTITY", 9)));
+
+        assertSameChangeSet(changeSet, ChangeLogCodec.decode(ChangeLogCodec.encode(changeSet), ChangeLogCodec.ENTITY_VERSION, 1));
+    }
+
+    @Test
+    void compactVersionDecodes() throws IOException {
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("USER")
+                .setChangeDateTime(CHANGE_DATE_TIME)
+                .addChange("Employee Email", "ana@example.com", "ana.horvat@example.com")
+                .addChange("Omiljena boja", null, "Plava ☀")
+                .build()
+                .withId(77);
+
+        ChangeSet decoded = ChangeLogCodec.decode(encodeCompact(changeSet), ChangeLogCodec.COMPACT_VERSION, 1);
+
+        assertSameChangeSet(changeSet, decoded);
+        assertNull(decoded.getEntityType());
+    }
+
+    @Test
+    void changeSetVersionDecodes() throws IOException {
+        LocalDateTime changeDateTime = CHANGE_DATE_TIME.withNano(123_456_789);
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("ADMIN")
+                .setChangeDateTime(changeDateTime)
+                .addChange("Employee Last Name", "Kovač", "Kovačić")
+                .addChange("Napomena", null, "Prekovremeni sati – ožujak")
+                .build()
+                .withId(5);
+
+        ChangeSet decoded = ChangeLogCodec.decode(encodeChangeSet(changeSet), ChangeLogCodec.CHANGE_SET_VERSION, 1);
+
+        assertSameChangeSet(changeSet, decoded);
+        assertEquals(changeDateTime, decoded.getChangeDateTime());
+    }
+
+    @Test
+    void singleChangeVersionDecodesWithPositionAsId() throws IOException {
+        LocalDateTime changeDateTime = CHANGE_DATE_TIME.withNano(1);
+        ChangeLog change = new ChangeLog("Šifra odjela", null, "Računovodstvo €", "USER", changeDateTime);
+
+        ChangeSet decoded = ChangeLogCodec.decode(encodeSingleChange(change), ChangeLogCodec.SINGLE_CHANGE_VERSION, 42);
+
+        assertEquals(42, decoded.getId());
+        assertEquals("USER", decoded.getRole());
+        assertEquals(changeDateTime, decoded.getChangeDateTime());
+        assertEquals(1, decoded.getChanges().size());
+        assertSameChange(change, 42, decoded.getChanges().getFirst());
+    }
+
+    @Test
+    void unsupportedVersionIsRejected() {
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(new byte[]{0}, 0, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(new byte[]{0}, ChangeLogCodec.CURRENT_VERSION + 1, 1));
+    }
+
+    @Test
+    void truncatedPayloadsAreRejected() {
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("ADMIN")
+                .setChangeDateTime(CHANGE_DATE_TIME)
+                .setEntity(ChangeEntityType.EMPLOYEE, 1L)
+                .addChange("Employee First Name", "Ana", "Ana Marija")
+                .build()
+                .withId(1);
+        byte[][] payloads = {ChangeLogCodec.encode(changeSet), encodeCompact(changeSet), encodeChangeSet(changeSet),
+                encodeSingleChange(changeSet.getChanges().getFirst())};
+        int[] versions = {ChangeLogCodec.ENTITY_VERSION, ChangeLogCodec.COMPACT_VERSION, ChangeLogCodec.CHANGE_SET_VERSION,
+                ChangeLogCodec.SINGLE_CHANGE_VERSION};
+
+        for (int i = 0; i < payloads.length; i++) {
+            for (int length = 0; length < payloads[i].length; length++) {
+                byte[] truncated = Arrays.copyOf(payloads[i], length);
+                int version = versions[i];
+                assertThrows(IOException.class, () -> ChangeLogCodec.decode(truncated, version, 1),
+                        "version " + version + " truncated to " + length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void overlongVarIntIsRejected() {
+        byte[] payload = new byte[12];
+        Arrays.fill(payload, (byte) 0xFF);
+
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(payload, ChangeLogCodec.ENTITY_VERSION, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(payload, ChangeLogCodec.COMPACT_VERSION, 1));
+    }
+
+    @Test
+    void malformedCompactLengthsAreRejected() {
+        // ID 1, literal role with a string length past the end of the record.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, 0);
+            writeVarLong(out, 100);
+            out.write('A');
+        }));
+        // ID 1, literal role with a length that does not fit in a long once decoded.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, 0);
+            writeVarLong(out, -1L);
+        }));
+        // ID 1, role index past the dictionary.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, 3);
+        }));
+        // ID 1, role index that is negative as a long.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, Long.MIN_VALUE);
+        }));
+        // ID 1, role ADMIN, time, entity EMPLOYEE 1, and more changes than the record has bytes.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, 1);
+            writeVarLong(out, 0);
+            writeVarLong(out, 1);
+            writeVarLong(out, 1);
+            writeVarLong(out, 1_000_000);
+        }));
+        // The same with a change count that is negative as a long.
+        assertMalformed(compact(out -> {
+            writeVarLong(out, 1);
+            writeVarLong(out, 1);
+            writeVarLong(out, 0);
+            writeVarLong(out, 1);
+            writeVarLong(out, 1);
+            writeVarLong(out, -5L);
+        }));
+    }
+
+    @Test
+    void malformedFixedLengthsAreRejected() {
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(fixed(out -> out.writeInt(-2)), ChangeLogCodec.SINGLE_CHANGE_VERSION, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(fixed(out -> out.writeInt(Integer.MAX_VALUE)), ChangeLogCodec.SINGLE_CHANGE_VERSION, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(fixed(out -> {
+            out.writeLong(1);
+            out.writeInt(Integer.MIN_VALUE);
+        }), ChangeLogCodec.CHANGE_SET_VERSION, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(fixed(out -> {
+            out.writeLong(1);
+            out.writeInt(-1);
+            out.writeLong(0);
+            out.writeInt(0);
+            out.writeInt(Integer.MAX_VALUE);
+        }), ChangeLogCodec.CHANGE_SET_VERSION, 1));
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(fixed(out -> {
+            out.writeLong(1);
+            out.writeInt(-1);
+            out.writeLong(0);
+            out.writeInt(0);
+            out.writeInt(-3);
+        }), ChangeLogCodec.CHANGE_SET_VERSION, 1));
+    }
+
+    @Test
+    void singleChangeJournalIsUpgradedToCurrentVersion() throws IOException {
+        List<ChangeLog> changes = List.of(
+                new ChangeLog("Employee First Name", "Ivan", "Ivo", "ADMIN", CHANGE_DATE_TIME.withNano(5)),
+                new ChangeLog("Napomena", null, "Godišnji odmor", "USER", CHANGE_DATE_TIME.plusDays(1)),
+                new ChangeLog("Employee Email", "ivo@example.com", null, "ADMIN", CHANGE_DATE_TIME.plusDays(2)));
+        List<byte[]> payloads = new ArrayList<>();
+        changes.forEach(change -> payloads.add(encodeSingleChange(change)));
+        Path path = writeJournal(ChangeLogCodec.SINGLE_CHANGE_VERSION, payloads);
+
+        List<ChangeSet> changeSets;
+        try (ChangeLogJournal journal = ChangeLogJournal.open(path, JournalSyncPolicy.NEVER, Duration.ZERO)) {
+            changeSets = journal.readAll();
+            assertEquals(changes.size(), journal.getLastChangeSetId());
+        }
+
+        assertEquals(ChangeLogCodec.CURRENT_VERSION, journalVersion(path));
+        assertEquals(changes.size(), changeSets.size());
+        for (int i = 0; i < changes.size(); i++) {
+            ChangeSet changeSet = changeSets.get(i);
+            assertEquals(i + 1, changeSet.getId());
+            assertEquals(changes.get(i).getChangeDateTime().withNano(0), changeSet.getChangeDateTime());
+            assertSameChange(changes.get(i), i + 1, changeSet.getChanges().getFirst());
+        }
+        try (ChangeLogJournal journal = ChangeLogJournal.open(path, JournalSyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(4, journal.append(new ChangeSet.ChangeSetBuilder()
+                    .setRole("ADMIN")
+                    .setChangeDateTime(CHANGE_DATE_TIME.plusDays(3))
+                    .addChange("Employee Role", "USER", "ADMIN")
+                    .build()).getId());
+            assertEquals(4, journal.readAll().size());
+        }
+    }
+
+    @Test
+    void changeSetAndCompactJournalsAreUpgradedToCurrentVersion() throws IOException {
+        ChangeSet changeSet = new ChangeSet.ChangeSetBuilder()
+                .setRole("ADMIN")
+                .setChangeDateTime(CHANGE_DATE_TIME)
+                .addChange("Employee Last Name", "Horvat", "Horvat-Šimić")
+                .addChange("Napomena", null, "✓")
+                .build();
+        int[] versions = {ChangeLogCodec.CHANGE_SET_VERSION, ChangeLogCodec.COMPACT_VERSION};
+        for (int version : versions) {
+            List<byte[]> payloads = new ArrayList<>();
+            for (long id = 1; id <= 3; id++) {
+                ChangeSet recorded = changeSet.withId(id * 10);
+                payloads.add(version == ChangeLogCodec.CHANGE_SET_VERSION ? encodeChangeSet(recorded) : encodeCompact(recorded));
+            }
+            Path path = writeJournal(version, payloads);
+
+            try (ChangeLogJournal journal = ChangeLogJournal.open(path, JournalSyncPolicy.NEVER, Duration.ZERO)) {
+                List<ChangeSet> changeSets = journal.readAll();
+                assertEquals(List.of(10L, 20L, 30L), changeSets.stream().map(ChangeSet::getId).toList());
+                for (ChangeSet upgraded : changeSets) {
+                    assertSameChangeSet(changeSet.withId(upgraded.getId()), upgraded);
+                }
+            }
+            assertEquals(ChangeLogCodec.CURRENT_VERSION, journalVersion(path));
+            ChangeLogJournal.delete(path);
+        }
+    }
+
+    private static void assertMalformed(byte[] payload) {
+        assertThrows(IOException.class, () -> ChangeLogCodec.decode(payload, ChangeLogCodec.ENTITY_VERSION, 1));
+    }
+
+    private static void assertSameChangeSet(ChangeSet expected, ChangeSet actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getRole(), actual.getRole());
+        assertEquals(expected.getChangeDateTime(), actual.getChangeDateTime());
+        assertEquals(expected.getChanges().size(), actual.getChanges().size());
+        for (int i = 0; i < expected.getChanges().size(); i++) {
+            assertSameChange(expected.getChanges().get(i), expected.getId(), actual.getChanges().get(i));
+            assertEquals(expected.getEntityType(), actual.getChanges().get(i).getEntityType());
+            assertEquals(expected.getEntityId(), actual.getChanges().get(i).getEntityId());
+        }
+    }
+
+    private static void assertSameChange(ChangeLog expected, long changeSetId, ChangeLog actual) {
+        assertEquals(expected.getFieldChanged(), actual.getFieldChanged());
+        assertEquals(expected.getOldValue(), actual.getOldValue());
+        assertEquals(expected.getNewValue(), actual.getNewValue());
+        assertEquals(expected.getRole(), actual.getRole());
+        assertEquals(changeSetId, actual.getChangeSetId());
+    }
+
+    private Path writeJournal(int version, List<byte[]> payloads) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(JOURNAL_MAGIC);
+        output.writeInt(version);
+        for (byte[] payload : payloads) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            output.writeInt(payload.length);
+            output.writeInt((int) crc.getValue());
+            output.write(payload);
+        }
+        Path path = directory.resolve("changes-v" + version + ".journal");
+        Files.write(path, bytes.toByteArray());
+        return path;
+    }
+
+    private static int journalVersion(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path)).getInt(Integer.BYTES);
+    }
+
+    /**
+     * Encodes a change set as version 3 did: the current format without the changed record.
+     */
+    private static byte[] encodeCompact(ChangeSet changeSet) {
+        return compact(out -> {
+            writeVarLong(out, changeSet.getId());
+            writeDictionaryString(out, changeSet.getRole(), List.of("ADMIN", "USER"));
+            long seconds = changeSet.getChangeDateTime().toEpochSecond(ZoneOffset.UTC);
+            writeVarLong(out, (seconds << 1) ^ (seconds >> 63));
+            writeVarLong(out, changeSet.getChanges().size());
+            for (ChangeLog change : changeSet.getChanges()) {
+                writeDictionaryString(out, change.getFieldChanged(), List.of(
+                        "Employee First Name", "Employee Last Name", "Employee Email"));
+                writeString(out, change.getOldValue());
+                writeString(out, change.getNewValue());
+            }
+        });
+    }
+
+    /**
+     * Encodes a change set as version 2 did, with fixed-width numbers and lengths.
+     */
+    private static byte[] encodeChangeSet(ChangeSet changeSet) {
+        return fixed(out -> {
+            out.writeLong(changeSet.getId());
+            writeFixedString(out, changeSet.getRole());
+            out.writeLong(changeSet.getChangeDateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(changeSet.getChangeDateTime().getNano());
+            out.writeInt(changeSet.getChanges().size());
+            for (ChangeLog change : changeSet.getChanges()) {
+                writeFixedString(out, change.getFieldChanged());
+                writeFixedString(out, change.getOldValue());
+                writeFixedString(out, change.getNewValue());
+            }
+        });
+    }
+
+    /**
+     * Encodes a change as version 1 did, one change per record without an ID.
+     */
+    private static byte[] encodeSingleChange(ChangeLog change) {
+        return fixed(out -> {
+            writeFixedString(out, change.getFieldChanged());
+            writeFixedString(out, change.getOldValue());
+            writeFixedString(out, change.getNewValue());
+            writeFixedString(out, change.getRole());
+            out.writeLong(change.getChangeDateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(change.getChangeDateTime().getNano());
+        });
+    }
+
+    private static byte[] compact(CompactWriter writer) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(output);
+        return output.toByteArray();
+    }
+
+    private static byte[] fixed(FixedWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream output, String value) {
+        if (value == null) {
+            writeVarLong(output, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length + 1L);
+        output.writeBytes(bytes);
+    }
+
+    private static void writeDictionaryString(ByteArrayOutputStream output, String value, List<String> dictionary) {
+        int index = dictionary.indexOf(value);
+        if (value == null || index < 0) {
+            writeVarLong(output, 0);
+            writeString(output, value);
+        } else {
+            writeVarLong(output, index + 1L);
+        }
+    }
+
+    private static void writeFixedString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes the fields of a payload of the compact format.
+     */
+    @FunctionalInterface
+    private interface CompactWriter {
+        void write(ByteArrayOutputStream output);
+    }
+
+    /**
+     * Writes the fields of a payload of a fixed-width format.
+     */
+    @FunctionalInterface
+    private interface FixedWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
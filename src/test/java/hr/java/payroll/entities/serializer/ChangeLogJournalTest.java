@@ -0,0 +1,175 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.ChangeEntityType;
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a {@link ChangeLogJournal} cuts off a torn or corrupt tail when it is opened again, keeps the records
+ * before it and continues appending after them.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class ChangeLogJournalTest {
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversAllRecordsOfCleanJournal() throws IOException {
+        Path path = writeJournal(3);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(1L, 2L, 3L), ids(journal.readAll()));
+            assertEquals(3, journal.getLastChangeSetId());
+        }
+    }
+
+    @Test
+    void tornRecordIsCutOff() throws IOException {
+        Path path = writeJournal(3);
+        long size = Files.size(path);
+        truncate(path, size - 3);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(1L, 2L), ids(journal.readAll()));
+            assertEquals(2, journal.getLastChangeSetId());
+            assertEquals(recordOffset(path, 2), Files.size(path));
+        }
+    }
+
+    @Test
+    void tornRecordHeaderIsCutOff() throws IOException {
+        Path path = writeJournal(2);
+        long size = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(1L, 2L), ids(journal.readAll()));
+            assertEquals(size, Files.size(path));
+        }
+    }
+
+    @Test
+    void recordWithImpossibleLengthIsCutOff() throws IOException {
+        Path path = writeJournal(2);
+        long size = Files.size(path);
+        Files.write(path, ByteBuffer.allocate(RECORD_HEADER_SIZE + 4).putInt(Integer.MAX_VALUE).array(), StandardOpenOption.APPEND);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(1L, 2L), ids(journal.readAll()));
+            assertEquals(size, Files.size(path));
+        }
+    }
+
+    @Test
+    void corruptChecksumCutsOffRecordAndEverythingAfterIt() throws IOException {
+        Path path = writeJournal(3);
+        long corruptRecordOffset = recordOffset(path, 1);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[(int) corruptRecordOffset + RECORD_HEADER_SIZE + 2] ^= 0x5A;
+        Files.write(path, bytes);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(1L), ids(journal.readAll()));
+            assertEquals(1, journal.getLastChangeSetId());
+            assertEquals(corruptRecordOffset, Files.size(path));
+        }
+    }
+
+    @Test
+    void appendsContinueAfterRecoveredRecords() throws IOException {
+        Path path = writeJournal(3);
+        truncate(path, Files.size(path) - 1);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(3, journal.append(changeSet("Salary", 3)).getId());
+        }
+        try (ChangeLogJournal journal = open(path)) {
+            List<ChangeSet> changeSets = journal.readAll();
+            assertEquals(List.of(1L, 2L, 3L), ids(changeSets));
+            assertEquals("Salary", changeSets.getLast().getChanges().getFirst().getFieldChanged());
+            assertEquals(List.of(3L, 2L, 1L), ids(readNewestFirst(journal)));
+        }
+    }
+
+    @Test
+    void journalWithOnlyTornRecordIsEmpty() throws IOException {
+        Path path = writeJournal(1);
+        truncate(path, HEADER_SIZE + RECORD_HEADER_SIZE + 1);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertEquals(List.of(), journal.readAll());
+            assertEquals(0, journal.getLastChangeSetId());
+            assertEquals(HEADER_SIZE, Files.size(path));
+        }
+    }
+
+    private Path writeJournal(int changeSetCount) throws IOException {
+        Path path = directory.resolve("changes.journal");
+        try (ChangeLogJournal journal = open(path)) {
+            for (int i = 0; i < changeSetCount; i++) {
+                journal.append(changeSet("Name", i));
+            }
+        }
+        return path;
+    }
+
+    private static ChangeLogJournal open(Path path) throws IOException {
+        return ChangeLogJournal.open(path, JournalSyncPolicy.NEVER, Duration.ZERO);
+    }
+
+    private static ChangeSet changeSet(String fieldChanged, int number) {
+        return new ChangeSet.ChangeSetBuilder()
+                .setRole("ADMIN")
+                .setChangeDateTime(LocalDateTime.of(2024, 5, 1, 12, 0).plusMinutes(number))
+                .setEntity(ChangeEntityType.EMPLOYEE, (long) number + 1)
+                .addChange(fieldChanged, "Old " + number, "New " + number)
+                .build();
+    }
+
+    private static long recordOffset(Path path, int record) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < record; i++) {
+            offset += RECORD_HEADER_SIZE + bytes.getInt((int) offset);
+        }
+        return offset;
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static List<ChangeSet> readNewestFirst(ChangeLogJournal journal) throws IOException {
+        ChangeLogJournal.TailReader reader = journal.openTailReader(Long.MAX_VALUE);
+        List<ChangeSet> changeSets = new ArrayList<>();
+        for (ChangeSet changeSet = reader.previous(); changeSet != null; changeSet = reader.previous()) {
+            changeSets.add(changeSet);
+        }
+        return changeSets;
+    }
+
+    private static List<Long> ids(List<ChangeSet> changeSets) {
+        return changeSets.stream().map(ChangeSet::getId).toList();
+    }
+}
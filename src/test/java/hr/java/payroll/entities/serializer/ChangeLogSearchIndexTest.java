@@ -0,0 +1,283 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.ChangeEntityType;
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the pages of changes read through the {@link ChangeLogSearchIndex} equal the pages of a full scan,
+ * including when the saved index misses the records appended after it was saved.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class ChangeLogSearchIndexTest {
+    private static final int PAGE_SIZE = 25;
+    private static final String[] FIELDS = {"Name", "Surname", "Salary", "Hourly rate", "Working hours", "Bonus"};
+    private static final String[] WORDS = {"Ana", "Ivan", "Horvat", "Kovačić", "Šimić", "Marija", "1500.00", "2200.50", "Zagreb", "Đurđa"};
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 8, 0);
+    private static final List<ChangeLogFilter> FILTERS = List.of(
+            ChangeLogFilter.none(),
+            filter("name", null, null, null, null),
+            filter(null, null, "kovačić", null, null),
+            filter(null, "ana", null, null, null),
+            filter("salary", "1500", null, null, null),
+            filter(null, null, "iv", null, null),
+            filter(null, null, "no such value", null, null),
+            filter(null, null, null, ChangeEntityType.EMPLOYEE.name(), 7L),
+            filter("surname", null, null, ChangeEntityType.EMPLOYEE.name(), 3L),
+            filter(null, null, null, ChangeEntityType.PART_TIME_CONTRACT.name(), 1L));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pagesEqualFullScan() throws IOException {
+        Path path = directory.resolve("changes.journal");
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, new Random(1), 0, 1500);
+            assertPagesEqualFullScan(journal);
+        }
+    }
+
+    @Test
+    void pagesEqualFullScanAfterRestartAndAppends() throws IOException {
+        Path path = directory.resolve("changes.journal");
+        Random random = new Random(2);
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 0, 800);
+            assertPagesEqualFullScan(journal);
+        }
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 800, 300);
+            assertPagesEqualFullScan(journal);
+        }
+        assertEquals(1100, savedRecordCount(path));
+    }
+
+    @Test
+    void staleIndexIsBroughtUpToDate() throws IOException {
+        Path path = directory.resolve("changes.journal");
+        Path searchIndexPath = directory.resolve("changes.journal.sidx");
+        Path staleSearchIndexPath = directory.resolve("stale.sidx");
+        Random random = new Random(3);
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 0, 600);
+            assertPagesEqualFullScan(journal);
+        }
+        Files.copy(searchIndexPath, staleSearchIndexPath);
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 600, 250);
+            assertPagesEqualFullScan(journal);
+        }
+        Files.copy(staleSearchIndexPath, searchIndexPath, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(600, savedRecordCount(path));
+
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 850, 50);
+            assertPagesEqualFullScan(journal);
+            assertEquals(900, savedRecordCount(path));
+        }
+    }
+
+    @Test
+    void indexAheadOfJournalIsRebuilt() throws IOException {
+        Path path = directory.resolve("changes.journal");
+        Path searchIndexPath = directory.resolve("changes.journal.sidx");
+        Path aheadSearchIndexPath = directory.resolve("ahead.sidx");
+        Path journalCopyPath = directory.resolve("changes.copy");
+        Random random = new Random(4);
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 0, 300);
+        }
+        Files.copy(path, journalCopyPath);
+        try (ChangeLogJournal journal = open(path)) {
+            append(journal, random, 300, 100);
+            assertPagesEqualFullScan(journal);
+        }
+        Files.copy(searchIndexPath, aheadSearchIndexPath);
+        ChangeLogJournal.delete(path);
+        Files.copy(journalCopyPath, path);
+        Files.copy(aheadSearchIndexPath, searchIndexPath);
+
+        try (ChangeLogJournal journal = open(path)) {
+            assertPagesEqualFullScan(journal);
+            assertEquals(300, savedRecordCount(path));
+        }
+    }
+
+    @Test
+    void indexIsSavedWhileRecordsAreAppended() throws IOException {
+        Path path = directory.resolve("changes.journal");
+        try (ChangeLogJournal journal = open(path)) {
+            assertPagesEqualFullScan(journal);
+            append(journal, new Random(5), 0, 5000);
+            assertTrue(savedRecordCount(path) >= 4096);
+        }
+        assertEquals(5000, savedRecordCount(path));
+    }
+
+    @Test
+    void segmentedPagesEqualFullScanAfterRestartAndAppends() throws IOException {
+        Path logDirectory = directory.resolve("changes");
+        Path legacyPath = directory.resolve("changes.journal");
+        Random random = new Random(6);
+        try (SegmentedChangeLog changeLog = openSegmented(logDirectory, legacyPath)) {
+            appendSegmented(changeLog, random, 0, 1200);
+            assertSegmentedPagesEqualFullScan(changeLog);
+        }
+        try (SegmentedChangeLog changeLog = openSegmented(logDirectory, legacyPath)) {
+            appendSegmented(changeLog, random, 1200, 400);
+            assertSegmentedPagesEqualFullScan(changeLog);
+        }
+        try (var segmentFiles = Files.list(logDirectory)) {
+            assertTrue(segmentFiles.filter(file -> file.toString().endsWith(".sidx")).count() > 1);
+        }
+    }
+
+    private void assertPagesEqualFullScan(ChangeLogJournal journal) throws IOException {
+        List<ChangeSet> changeSets = journal.readAll();
+        for (ChangeLogFilter filter : FILTERS) {
+            List<List<String>> expectedPages = fullScanPages(changeSets, filter);
+            List<List<String>> pages = new ArrayList<>();
+            long before = Long.MAX_VALUE;
+            while (true) {
+                ChangeLogJournal.TailReader reader = journal.openTailReader(before, filter);
+                List<String> page = new ArrayList<>();
+                ChangeSet changeSet;
+                while (page.size() < PAGE_SIZE && (changeSet = reader.previous()) != null) {
+                    addMatches(page, changeSet, filter);
+                    before = changeSet.getId();
+                }
+                if (page.isEmpty()) {
+                    break;
+                }
+                pages.add(page);
+            }
+            assertEquals(expectedPages, pages, filter.toString());
+        }
+    }
+
+    private static void assertSegmentedPagesEqualFullScan(SegmentedChangeLog changeLog) throws IOException {
+        List<ChangeSet> changeSets = new ArrayList<>();
+        try (SegmentedChangeLog.Reader reader = changeLog.openReader(null, null)) {
+            ChangeSet changeSet;
+            while ((changeSet = reader.next()) != null) {
+                changeSets.add(changeSet);
+            }
+        }
+        for (ChangeLogFilter filter : FILTERS) {
+            List<List<String>> expectedPages = fullScanPages(changeSets, filter);
+            List<List<String>> pages = new ArrayList<>();
+            long before = Long.MAX_VALUE;
+            while (true) {
+                SegmentedChangeLog.TailReader reader = changeLog.openTailReader(before, filter);
+                List<String> page = new ArrayList<>();
+                ChangeSet changeSet;
+                while (page.size() < PAGE_SIZE && (changeSet = reader.previous()) != null) {
+                    addMatches(page, changeSet, filter);
+                }
+                if (page.isEmpty()) {
+                    break;
+                }
+                pages.add(page);
+                before = reader.getBeforeChangeSetId();
+            }
+            assertEquals(expectedPages, pages, filter.toString());
+        }
+    }
+
+    /**
+     * Pages the matching changes of all change sets newest first, filling each page the way the history screen does.
+     */
+    private static List<List<String>> fullScanPages(List<ChangeSet> changeSets, ChangeLogFilter filter) {
+        List<List<String>> pages = new ArrayList<>();
+        List<String> page = new ArrayList<>();
+        for (ChangeSet changeSet : changeSets.reversed()) {
+            addMatches(page, changeSet, filter);
+            if (page.size() >= PAGE_SIZE) {
+                pages.add(page);
+                page = new ArrayList<>();
+            }
+        }
+        if (!page.isEmpty()) {
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    private static void addMatches(List<String> page, ChangeSet changeSet, ChangeLogFilter filter) {
+        for (ChangeLog change : changeSet.getChanges().reversed()) {
+            if (filter.matches(change)) {
+                page.add(change.getChangeSetId() + ":" + change.getFieldChanged() + ":" + change.getOldValue() + ":" + change.getNewValue());
+            }
+        }
+    }
+
+    private static void append(ChangeLogJournal journal, Random random, int first, int count) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            journal.append(changeSet(random, i));
+        }
+    }
+
+    private static void appendSegmented(SegmentedChangeLog changeLog, Random random, int first, int count) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            changeLog.appendAll(List.of(changeSet(random, i)));
+        }
+    }
+
+    private static ChangeSet changeSet(Random random, int number) {
+        ChangeSet.ChangeSetBuilder builder = new ChangeSet.ChangeSetBuilder()
+                .setRole(random.nextBoolean() ? "ADMIN" : "USER")
+                .setChangeDateTime(START.plusMinutes(number));
+        if (random.nextInt(5) > 0) {
+            ChangeEntityType[] entityTypes = ChangeEntityType.values();
+            builder.setEntity(entityTypes[random.nextInt(entityTypes.length)], (long) random.nextInt(10) + 1);
+        }
+        int changeCount = random.nextInt(3) + 1;
+        for (int i = 0; i < changeCount; i++) {
+            builder.addChange(FIELDS[random.nextInt(FIELDS.length)], random.nextInt(6) == 0 ? null : text(random), text(random));
+        }
+        return builder.build();
+    }
+
+    private static String text(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static ChangeLogFilter filter(String fieldChanged, String oldValue, String newValue, String entityType, Long entityId) {
+        return new ChangeLogFilter(fieldChanged, null, oldValue, newValue, entityType, entityId, null, null);
+    }
+
+    private static int savedRecordCount(Path path) {
+        ChangeLogSearchIndex savedIndex = ChangeLogSearchIndex.read(path.resolveSibling(path.getFileName() + ".sidx"), Long.MAX_VALUE);
+        assertNotNull(savedIndex);
+        assertFalse(savedIndex.isDirty());
+        return savedIndex.getRecordCount();
+    }
+
+    private static ChangeLogJournal open(Path path) throws IOException {
+        return ChangeLogJournal.open(path, JournalSyncPolicy.NEVER, Duration.ZERO);
+    }
+
+    private static SegmentedChangeLog openSegmented(Path logDirectory, Path legacyPath) throws IOException {
+        return SegmentedChangeLog.open(logDirectory, legacyPath, JournalSyncPolicy.NEVER, Duration.ZERO, 16 * 1024, Period.ofYears(100));
+    }
+}
@@ -0,0 +1,113 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the import of the serialized change list kept in {@code changes.dat} by earlier versions into a change log
+ * journal.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class ChangeLogSerializerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void legacyChangesAreImportedAsOneChangeSetEach() throws IOException {
+        LocalDateTime changeDateTime = LocalDateTime.of(2023, 3, 14, 9, 30);
+        List<ChangeLog> legacyChanges = new ArrayList<>();
+        legacyChanges.add(new ChangeLog("Name", "Ana", "Ana Marija", "ADMIN", changeDateTime));
+        legacyChanges.add(new ChangeLog("Salary", null, "1500.00", "ADMIN", changeDateTime.plusMinutes(1)));
+        legacyChanges.add(new ChangeLog("Surname", "Horvat", "Kovačić", "USER", changeDateTime.plusDays(2)));
+        Path legacyPath = writeLegacyChanges(legacyChanges);
+        Path journalPath = directory.resolve("changes.journal");
+
+        ChangeLogSerializer.importLegacyChanges(legacyPath, journalPath);
+
+        List<ChangeSet> changeSets = readJournal(journalPath);
+        assertEquals(legacyChanges.size(), changeSets.size());
+        for (int i = 0; i < legacyChanges.size(); i++) {
+            ChangeLog legacyChange = legacyChanges.get(i);
+            ChangeSet changeSet = changeSets.get(i);
+            assertEquals(i + 1, changeSet.getId());
+            assertEquals(legacyChange.getRole(), changeSet.getRole());
+            assertEquals(legacyChange.getChangeDateTime(), changeSet.getChangeDateTime());
+            assertEquals(1, changeSet.getChanges().size());
+            ChangeLog change = changeSet.getChanges().getFirst();
+            assertEquals(legacyChange.getFieldChanged(), change.getFieldChanged());
+            assertEquals(legacyChange.getOldValue(), change.getOldValue());
+            assertEquals(legacyChange.getNewValue(), change.getNewValue());
+            assertEquals(changeSet.getId(), change.getChangeSetId());
+        }
+        assertNull(changeSets.get(1).getChanges().getFirst().getOldValue());
+        assertTrue(Files.exists(legacyPath));
+        assertFalse(Files.exists(directory.resolve("changes.journal.tmp")));
+    }
+
+    @Test
+    void emptyLegacyFileIsImportedAsEmptyJournal() throws IOException {
+        Path legacyPath = Files.createFile(directory.resolve("changes.dat"));
+        Path journalPath = directory.resolve("changes.journal");
+
+        ChangeLogSerializer.importLegacyChanges(legacyPath, journalPath);
+
+        assertEquals(List.of(), readJournal(journalPath));
+    }
+
+    @Test
+    void legacyFileWithoutChangeListIsRejected() throws IOException {
+        Path legacyPath = directory.resolve("changes.dat");
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(legacyPath))) {
+            oos.writeObject("not a change list");
+        }
+        Path journalPath = directory.resolve("changes.journal");
+
+        assertThrows(IOException.class, () -> ChangeLogSerializer.importLegacyChanges(legacyPath, journalPath));
+        assertFalse(Files.exists(journalPath));
+    }
+
+    @Test
+    void interruptedImportIsStartedOver() throws IOException {
+        Path legacyPath = writeLegacyChanges(List.of(new ChangeLog("Name", "Ivo", "Ivan", "ADMIN", LocalDateTime.of(2023, 1, 2, 8, 0))));
+        Path journalPath = directory.resolve("changes.journal");
+        Files.write(directory.resolve("changes.journal.tmp"), new byte[]{1, 2, 3});
+
+        ChangeLogSerializer.importLegacyChanges(legacyPath, journalPath);
+
+        List<ChangeSet> changeSets = readJournal(journalPath);
+        assertEquals(1, changeSets.size());
+        assertEquals("Ivan", changeSets.getFirst().getChanges().getFirst().getNewValue());
+    }
+
+    private Path writeLegacyChanges(List<ChangeLog> changes) throws IOException {
+        Path legacyPath = directory.resolve("changes.dat");
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(legacyPath))) {
+            oos.writeObject(new ArrayList<>(changes));
+        }
+        return legacyPath;
+    }
+
+    private static List<ChangeSet> readJournal(Path journalPath) throws IOException {
+        try (ChangeLogJournal journal = ChangeLogJournal.open(journalPath, JournalSyncPolicy.NEVER, Duration.ZERO)) {
+            return journal.readAll();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package hr.java.payroll.entities.serializer;
+
+import hr.java.payroll.enums.ChangeEntityType;
+import hr.java.payroll.enums.JournalSyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that compacting a {@link SegmentedChangeLog} drops expired change sets and merges small segments without
+ * changing change set IDs, and that opening it rebuilds a lost manifest and deletes the segments left by an
+ * interrupted rotation or compaction.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class SegmentedChangeLogTest {
+    private static final long MAX_SEGMENT_SIZE = 1024;
+    private static final Period RETENTION = Period.ofMonths(12);
+    private static final String MANIFEST_FILE_NAME = "changes.manifest";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void expiredChangeSetsAreDroppedWhenSmallSegmentsAreMerged() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        try (SegmentedChangeLog changeLog = open(RETENTION)) {
+            append(changeLog, monthStart(36), 2, Duration.ofMinutes(1));
+            append(changeLog, monthStart(30), 2, Duration.ofMinutes(1));
+            append(changeLog, monthStart(2), 2, Duration.ofMinutes(1));
+            append(changeLog, now, 1, Duration.ZERO);
+            assertEquals(4, segmentNumbers().size());
+
+            changeLog.compact();
+
+            assertEquals(List.of(5L, 6L, 7L), ids(readAll(changeLog)));
+            assertEquals(2, segmentNumbers().size());
+        }
+        try (SegmentedChangeLog changeLog = open(RETENTION)) {
+            assertEquals(List.of(5L, 6L, 7L), ids(readAll(changeLog)));
+            assertEquals(8, append(changeLog, LocalDateTime.now(), 1, Duration.ZERO).getFirst().getId());
+        }
+    }
+
+    @Test
+    void largeSegmentIsDroppedOnlyOnceAllOfItHasExpired() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        try (SegmentedChangeLog changeLog = open(RETENTION)) {
+            append(changeLog, monthStart(36), 20, Duration.ofMinutes(1));
+            append(changeLog, now.minusMonths(14), 20, Duration.ofDays(6));
+            append(changeLog, now, 1, Duration.ZERO);
+            List<Long> numbers = segmentNumbers();
+            assertEquals(3, numbers.size());
+            for (long number : numbers.subList(0, 2)) {
+                assertTrue(Files.size(segmentPath(number)) >= MAX_SEGMENT_SIZE / 4, "segment " + number + " is not large");
+            }
+
+            changeLog.compact();
+
+            assertEquals(numbers.subList(1, 3), segmentNumbers());
+            assertEquals(LongStream.rangeClosed(21, 41).boxed().toList(), ids(readAll(changeLog)));
+
+            changeLog.compact();
+
+            assertEquals(numbers.subList(1, 3), segmentNumbers());
+            assertEquals(LongStream.rangeClosed(21, 41).boxed().toList(), ids(readAll(changeLog)));
+        }
+    }
+
+    @Test
+    void mergingSmallSegmentsKeepsIdsAndCursors() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            for (int month = 4; month > 0; month--) {
+                append(changeLog, monthStart(month), 2, Duration.ofMinutes(1));
+            }
+            append(changeLog, now, 1, Duration.ZERO);
+            assertEquals(5, segmentNumbers().size());
+
+            SegmentedChangeLog.Reader reader = changeLog.openReader(null, null);
+            List<Long> readIds = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readIds.add(reader.next().getId());
+            }
+            SegmentedChangeLog.TailReader tailReader = changeLog.openTailReader(Long.MAX_VALUE, null, null);
+            List<Long> tailIds = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                tailIds.add(tailReader.previous().getId());
+            }
+            long afterCursor = readIds.getLast();
+            long beforeCursor = tailReader.getBeforeChangeSetId();
+
+            changeLog.compact();
+
+            assertEquals(2, segmentNumbers().size());
+            assertEquals(LongStream.rangeClosed(1, 9).boxed().toList(), ids(readAll(changeLog)));
+            for (ChangeSet changeSet = reader.next(); changeSet != null; changeSet = reader.next()) {
+                readIds.add(changeSet.getId());
+            }
+            reader.close();
+            assertEquals(LongStream.rangeClosed(1, 9).boxed().toList(), readIds);
+            for (ChangeSet changeSet = tailReader.previous(); changeSet != null; changeSet = tailReader.previous()) {
+                tailIds.add(changeSet.getId());
+            }
+            assertEquals(LongStream.rangeClosed(1, 9).map(id -> 10 - id).boxed().toList(), tailIds);
+
+            assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L), ids(readAll(changeLog.openReader(afterCursor, null, null))));
+            assertEquals(List.of(7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(readNewestFirst(changeLog.openTailReader(beforeCursor, null, null))));
+            assertEquals(10, append(changeLog, now, 1, Duration.ZERO).getFirst().getId());
+        }
+    }
+
+    @Test
+    void lostManifestIsRebuiltFromSegments() throws IOException {
+        writeChangeLog();
+        Files.delete(changeLogDirectory().resolve(MANIFEST_FILE_NAME));
+
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(), ids(readAll(changeLog)));
+            assertEquals(8, append(changeLog, LocalDateTime.now(), 1, Duration.ZERO).getFirst().getId());
+        }
+        assertTrue(Files.exists(changeLogDirectory().resolve(MANIFEST_FILE_NAME)));
+    }
+
+    @Test
+    void overlappingOutputOfInterruptedCompactionIsDeletedWhenManifestIsRebuilt() throws IOException {
+        List<Long> numbers = writeChangeLog();
+        List<ChangeSet> firstTwoSegments;
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            firstTwoSegments = readAll(changeLog.openReader(0, null, null)).subList(0, 4);
+        }
+        long mergedNumber = numbers.getLast() + 1;
+        try (ChangeLogJournal merged = ChangeLogJournal.open(segmentPath(mergedNumber), JournalSyncPolicy.NEVER, Duration.ZERO)) {
+            merged.appendRecorded(firstTwoSegments);
+        }
+        Files.delete(changeLogDirectory().resolve(MANIFEST_FILE_NAME));
+
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(), ids(readAll(changeLog)));
+            assertEquals(LongStream.rangeClosed(1, 7).map(id -> 8 - id).boxed().toList(),
+                    ids(readNewestFirst(changeLog.openTailReader(Long.MAX_VALUE, null, null))));
+        }
+        assertEquals(numbers, segmentNumbers());
+    }
+
+    @Test
+    void duplicateSegmentIsDeletedWhenManifestIsRebuilt() throws IOException {
+        List<Long> numbers = writeChangeLog();
+        Files.copy(segmentPath(numbers.get(1)), segmentPath(numbers.getLast() + 1));
+        Files.delete(changeLogDirectory().resolve(MANIFEST_FILE_NAME));
+
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(), ids(readAll(changeLog)));
+        }
+        assertEquals(numbers, segmentNumbers());
+    }
+
+    @Test
+    void segmentsMissingFromManifestAreDeletedOnOpen() throws IOException {
+        List<Long> numbers = writeChangeLog();
+        long orphanNumber = numbers.getLast() + 1;
+        Files.copy(segmentPath(numbers.getFirst()), segmentPath(orphanNumber));
+        ChangeLogJournal.open(segmentPath(orphanNumber + 1), JournalSyncPolicy.NEVER, Duration.ZERO).close();
+        Path otherFile = Files.writeString(changeLogDirectory().resolve("changes-notes.txt"), "kept");
+
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            assertEquals(numbers, segmentNumbers());
+            assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(), ids(readAll(changeLog)));
+        }
+        assertTrue(Files.exists(otherFile));
+        try (Stream<Path> files = Files.list(changeLogDirectory())) {
+            assertEquals(List.of(), files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(segmentPath(orphanNumber).getFileName().toString())
+                            || name.startsWith(segmentPath(orphanNumber + 1).getFileName().toString()))
+                    .toList());
+        }
+    }
+
+    /**
+     * Writes a closed change log of three sealed segments with two change sets each and an active segment with one.
+     *
+     * @return the numbers of the segments.
+     */
+    private List<Long> writeChangeLog() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        try (SegmentedChangeLog changeLog = open(Period.ZERO)) {
+            for (int month = 3; month > 0; month--) {
+                append(changeLog, monthStart(month), 2, Duration.ofMinutes(1));
+            }
+            append(changeLog, now, 1, Duration.ZERO);
+        }
+        List<Long> numbers = segmentNumbers();
+        assertEquals(4, numbers.size());
+        return numbers;
+    }
+
+    /**
+     * Gets noon of the first day of a past month, so the change sets appended from it stay within that month.
+     */
+    private static LocalDateTime monthStart(int monthsAgo) {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(monthsAgo).atTime(12, 0);
+    }
+
+    private SegmentedChangeLog open(Period retention) throws IOException {
+        return SegmentedChangeLog.open(changeLogDirectory(), directory.resolve("changes.journal"), JournalSyncPolicy.NEVER,
+                Duration.ZERO, MAX_SEGMENT_SIZE, retention);
+    }
+
+    private Path changeLogDirectory() {
+        return directory.resolve("changes");
+    }
+
+    private Path segmentPath(long number) {
+        return changeLogDirectory().resolve(String.format("changes-%010d.journal", number));
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(changeLogDirectory())) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.matches("changes-\\d{10}\\.journal"))
+                    .map(name -> Long.parseLong(name.substring("changes-".length(), name.length() - ".journal".length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static List<ChangeSet> append(SegmentedChangeLog changeLog, LocalDateTime first, int count, Duration step) throws IOException {
+        List<ChangeSet> changeSets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            changeSets.add(new ChangeSet.ChangeSetBuilder()
+                    .setRole("ADMIN")
+                    .setChangeDateTime(first.plus(step.multipliedBy(i)))
+                    .setEntity(ChangeEntityType.EMPLOYEE, (long) i + 1)
+                    .addChange("Salary", "Old " + i, "New " + i)
+                    .build());
+        }
+        return changeLog.appendAll(changeSets);
+    }
+
+    private static List<ChangeSet> readAll(SegmentedChangeLog changeLog) throws IOException {
+        try (SegmentedChangeLog.Reader reader = changeLog.openReader(null, null)) {
+            return readAll(reader);
+        }
+    }
+
+    private static List<ChangeSet> readAll(SegmentedChangeLog.Reader reader) throws IOException {
+        List<ChangeSet> changeSets = new ArrayList<>();
+        for (ChangeSet changeSet = reader.next(); changeSet != null; changeSet = reader.next()) {
+            changeSets.add(changeSet);
+        }
+        reader.close();
+        return changeSets;
+    }
+
+    private static List<ChangeSet> readNewestFirst(SegmentedChangeLog.TailReader reader) throws IOException {
+        List<ChangeSet> changeSets = new ArrayList<>();
+        for (ChangeSet changeSet = reader.previous(); changeSet != null; changeSet = reader.previous()) {
+            changeSets.add(changeSet);
+        }
+        return changeSets;
+    }
+
+    private static List<Long> ids(List<ChangeSet> changeSets) {
+        return changeSets.stream().map(ChangeSet::getId).toList();
+    }
+}
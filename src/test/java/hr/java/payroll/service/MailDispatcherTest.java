@@ -0,0 +1,120 @@
+package hr.java.payroll.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.SendFailedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link MailDispatcher} against an in-process {@link SmtpStandIn} set as the host override.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class MailDispatcherTest {
+    private static final String HOST = "127.0.0.1";
+
+    private SmtpStandIn server;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new SmtpStandIn();
+        dispatcher = new MailDispatcher(new SmtpSettings(Map.of(), HOST, server.getPort(), false, false,
+                "payroll@example.com", "", new SmtpHostLimits(2, 0), Map.of()));
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        dispatcher.close();
+        server.close();
+    }
+
+    @Test
+    void oneConnectionServesManyMessages() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            dispatcher.send("employee" + i + "@example.com", "Payslip " + i, "Payslip body " + i);
+        }
+
+        assertEquals(25, server.getMessages().size());
+        assertTrue(server.getMessages().get(24).contains("Payslip body 24"));
+        assertEquals(1, server.getConnectionsAccepted());
+        MailHostStatistics statistics = dispatcher.getStatistics().get(HOST);
+        assertEquals(25, statistics.sent());
+        assertEquals(1, statistics.connectionsOpened());
+        assertEquals(0, statistics.failed());
+    }
+
+    @Test
+    void concurrentSendersShareAtMostTheConnectionLimit() throws Exception {
+        List<Future<?>> sends = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 40; i++) {
+                int message = i;
+                sends.add(executor.submit(() -> {
+                    dispatcher.send("employee" + message + "@example.com", "Payslip", "Body");
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> send : sends) {
+            send.get();
+        }
+
+        assertEquals(40, server.getMessages().size());
+        assertTrue(server.getConnectionsAccepted() <= 2, "opened " + server.getConnectionsAccepted() + " connections");
+        assertEquals(40, dispatcher.getStatistics().get(HOST).sent());
+    }
+
+    @Test
+    void droppedIdleConnectionIsReconnected() throws Exception {
+        dispatcher.send("first@example.com", "Payslip", "Before the drop");
+        server.dropConnections();
+        dispatcher.send("second@example.com", "Payslip", "After the drop");
+        dispatcher.send("third@example.com", "Payslip", "On the new connection");
+
+        assertEquals(3, server.getMessages().size());
+        assertEquals(2, server.getConnectionsAccepted());
+        MailHostStatistics statistics = dispatcher.getStatistics().get(HOST);
+        assertEquals(3, statistics.sent());
+        assertEquals(2, statistics.connectionsOpened());
+        assertEquals(0, statistics.failed());
+    }
+
+    @Test
+    void connectionDroppedWhileSendingIsRetriedOnNewConnection() throws Exception {
+        dispatcher.send("first@example.com", "Payslip", "Before the drop");
+        server.dropOnNextMail();
+        dispatcher.send("second@example.com", "Payslip", "Retried");
+
+        assertEquals(2, server.getMessages().size());
+        assertTrue(server.getMessages().get(1).contains("Retried"));
+        assertEquals(2, server.getConnectionsAccepted());
+        assertEquals(0, dispatcher.getStatistics().get(HOST).failed());
+    }
+
+    @Test
+    void rejectedRecipientKeepsTheConnection() throws Exception {
+        SendFailedException exception = assertThrows(SendFailedException.class,
+                () -> dispatcher.send("nobody@" + SmtpStandIn.UNKNOWN_DOMAIN, "Payslip", "Rejected"));
+        dispatcher.send("employee@example.com", "Payslip", "Accepted");
+
+        assertEquals(1, exception.getInvalidAddresses().length);
+        assertEquals(1, server.getMessages().size());
+        assertEquals(1, server.getConnectionsAccepted());
+        MailHostStatistics statistics = dispatcher.getStatistics().get(HOST);
+        assertEquals(1, statistics.rejected());
+        assertEquals(1, statistics.sent());
+    }
+}
@@ -0,0 +1,242 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.OutboxDatabaseManager;
+import hr.java.payroll.entities.OutboxEmail;
+import hr.java.payroll.enums.OutboxStatus;
+import hr.java.payroll.utils.Var;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the retry schedule and the dead-letter transition of the {@link OutboxDispatcher}, with an in-memory outbox
+ * and a mail dispatcher that fails on demand.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class OutboxDispatcherTest {
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(Var.OUTBOX_BASE_BACKOFF_SECONDS);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(Var.OUTBOX_MAX_BACKOFF_SECONDS);
+
+    private InMemoryOutbox outbox;
+    private FailingMailDispatcher mailDispatcher;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void createDispatcher() {
+        outbox = new InMemoryOutbox();
+        mailDispatcher = new FailingMailDispatcher();
+        dispatcher = new OutboxDispatcher(outbox, mailDispatcher, 10, Var.OUTBOX_MAX_ATTEMPTS, Duration.ofSeconds(1),
+                BASE_BACKOFF, MAX_BACKOFF);
+    }
+
+    @AfterEach
+    void closeDispatcher() {
+        dispatcher.close();
+    }
+
+    @Test
+    void backoffDoublesWithEveryAttempt() {
+        for (int attempts = 1; attempts <= 7; attempts++) {
+            assertEquals(BASE_BACKOFF.multipliedBy(1L << (attempts - 1)), dispatcher.backoff(attempts), "attempt " + attempts);
+        }
+    }
+
+    @Test
+    void backoffIsCappedAtMaximum() {
+        assertEquals(Duration.ofSeconds(1920), dispatcher.backoff(7));
+        assertEquals(MAX_BACKOFF, dispatcher.backoff(8));
+        assertEquals(MAX_BACKOFF, dispatcher.backoff(31));
+        assertEquals(MAX_BACKOFF, dispatcher.backoff(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void sentEmailIsMarkedSent() {
+        outbox.add(email(1L, "employee@example.com", 0));
+
+        assertEquals(1, dispatcher.drain());
+        assertEquals(List.of(1L), outbox.sent);
+        assertTrue(outbox.retries.isEmpty());
+        assertTrue(outbox.dead.isEmpty());
+    }
+
+    @Test
+    void failedEmailIsRetriedAfterBackoff() {
+        outbox.add(email(1L, "employee@example.com", 0));
+        mailDispatcher.failures.put("employee@example.com", new MessagingException("Connection refused"));
+
+        Instant before = Instant.now();
+        assertEquals(0, dispatcher.drain());
+        Retry retry = outbox.retries.get(1L);
+        assertEquals(1, retry.attempts());
+        assertTrue(!retry.nextAttemptAt().isBefore(before.plus(BASE_BACKOFF)));
+        assertTrue(!retry.nextAttemptAt().isAfter(Instant.now().plus(BASE_BACKOFF)));
+        assertEquals("Connection refused", retry.error());
+        assertTrue(outbox.dead.isEmpty());
+    }
+
+    @Test
+    void attemptsAreCountedFromPreviousFailures() {
+        outbox.add(email(1L, "employee@example.com", 5));
+        mailDispatcher.failures.put("employee@example.com", new MessagingException("Timed out"));
+
+        Instant before = Instant.now();
+        dispatcher.drain();
+        Retry retry = outbox.retries.get(1L);
+        assertEquals(6, retry.attempts());
+        assertTrue(!retry.nextAttemptAt().isBefore(before.plus(BASE_BACKOFF.multipliedBy(32))));
+    }
+
+    @Test
+    void emailIsDeadAfterMaximumAttempts() {
+        outbox.add(email(1L, "employee@example.com", Var.OUTBOX_MAX_ATTEMPTS - 2));
+        outbox.add(email(2L, "manager@example.com", Var.OUTBOX_MAX_ATTEMPTS - 1));
+        mailDispatcher.failures.put("employee@example.com", new MessagingException("Timed out"));
+        mailDispatcher.failures.put("manager@example.com", new MessagingException("Timed out"));
+
+        dispatcher.drain();
+        assertEquals(Var.OUTBOX_MAX_ATTEMPTS - 1, outbox.retries.get(1L).attempts());
+        assertEquals(Map.of(2L, Var.OUTBOX_MAX_ATTEMPTS), outbox.dead);
+    }
+
+    @Test
+    void invalidAddressIsDeadAtOnce() throws Exception {
+        outbox.add(email(1L, "nobody@example.com", 0));
+        mailDispatcher.failures.put("nobody@example.com", new SendFailedException("No such user", null, null, null,
+                new InternetAddress[]{new InternetAddress("nobody@example.com")}));
+
+        dispatcher.drain();
+        assertEquals(Map.of(1L, 1), outbox.dead);
+        assertTrue(outbox.retries.isEmpty());
+    }
+
+    @Test
+    void sendFailureWithoutInvalidAddressIsRetried() {
+        outbox.add(email(1L, "employee@example.com", 0));
+        mailDispatcher.failures.put("employee@example.com", new SendFailedException("[EOF]"));
+
+        dispatcher.drain();
+        assertEquals(1, outbox.retries.get(1L).attempts());
+        assertTrue(outbox.dead.isEmpty());
+    }
+
+    private static OutboxEmail email(Long id, String recipient, int attempts) {
+        return new OutboxEmail(id, null, recipient, "Payslip", "Body", OutboxStatus.PENDING, attempts);
+    }
+
+    /**
+     * A scheduled retry recorded by the in-memory outbox.
+     *
+     * @param attempts the number of failed attempts.
+     * @param nextAttemptAt the time of the next attempt.
+     * @param error the last error.
+     */
+    private record Retry(int attempts, Instant nextAttemptAt, String error) {}
+
+    @Test
+    void pollingSurvivesUnexpectedFailure() throws InterruptedException {
+        OutboxDispatcher pollingDispatcher = new OutboxDispatcher(outbox, mailDispatcher, 10, Var.OUTBOX_MAX_ATTEMPTS,
+                Duration.ofMillis(10), BASE_BACKOFF, MAX_BACKOFF);
+        outbox.failNextPoll(new IllegalStateException("Outbox row cannot be mapped."));
+        outbox.add(email(1L, "employee@example.com", 0));
+
+        try {
+            pollingDispatcher.start();
+            assertTrue(outbox.firstSent.await(10, TimeUnit.SECONDS), "email not sent after a failed poll");
+        } finally {
+            pollingDispatcher.close();
+        }
+        assertEquals(List.of(1L), outbox.sent);
+        assertFalse(outbox.failsNextPoll());
+    }
+
+    /**
+     * An outbox that hands out its due emails once and records their outcome. The next poll can be made to fail.
+     */
+    private static final class InMemoryOutbox extends OutboxDatabaseManager {
+        private final List<OutboxEmail> due = new ArrayList<>();
+        private final List<Long> sent = new ArrayList<>();
+        private final Map<Long, Retry> retries = new HashMap<>();
+        private final Map<Long, Integer> dead = new HashMap<>();
+        private final CountDownLatch firstSent = new CountDownLatch(1);
+        private RuntimeException pollFailure;
+
+        synchronized void add(OutboxEmail email) {
+            due.add(email);
+        }
+
+        synchronized void failNextPoll(RuntimeException failure) {
+            pollFailure = failure;
+        }
+
+        synchronized boolean failsNextPoll() {
+            return pollFailure != null;
+        }
+
+        @Override
+        public synchronized List<OutboxEmail> getDueEmails(int limit) {
+            if (pollFailure != null) {
+                RuntimeException failure = pollFailure;
+                pollFailure = null;
+                throw failure;
+            }
+            List<OutboxEmail> batch = List.copyOf(due.subList(0, Math.min(limit, due.size())));
+            due.removeAll(batch);
+            return batch;
+        }
+
+        @Override
+        public synchronized void markSent(Collection<Long> ids) {
+            sent.addAll(ids);
+            firstSent.countDown();
+        }
+
+        @Override
+        public void scheduleRetry(Long id, int attempts, Instant nextAttemptAt, String error) {
+            retries.put(id, new Retry(attempts, nextAttemptAt, error));
+        }
+
+        @Override
+        public void markDead(Long id, int attempts, String error) {
+            dead.put(id, attempts);
+        }
+    }
+
+    /**
+     * A mail dispatcher that sends nothing and fails for the recipients it is given a failure for.
+     */
+    private static final class FailingMailDispatcher extends MailDispatcher {
+        private final Map<String, MessagingException> failures = new HashMap<>();
+
+        FailingMailDispatcher() {
+            super(new SmtpSettings(Map.of(), "localhost", 25, false, false, "payroll@example.com", "",
+                    new SmtpHostLimits(1, 0), Map.of()));
+        }
+
+        @Override
+        public void send(String to, String subject, String text) throws MessagingException {
+            MessagingException failure = failures.get(to);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package hr.java.payroll.service;
+
+import hr.java.payroll.database.EmployeeDatabaseManager;
+import hr.java.payroll.database.PayrollDatabaseManager;
+import hr.java.payroll.database.PayrollRunDatabaseManager;
+import hr.java.payroll.entities.Employee;
+import hr.java.payroll.entities.PayrollRun;
+import hr.java.payroll.entities.Payslip;
+import hr.java.payroll.entities.generics.Pair;
+import hr.java.payroll.enums.PayrollRunStatus;
+import hr.java.payroll.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests that a {@link PayslipPipeline} run whose persist stage fails ends as failed instead of leaving the compute
+ * stage blocked on a full queue.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+class PayslipPipelineTest {
+    private static final int EMPLOYEE_COUNT = 2000;
+    private static final int BATCH_SIZE = 10;
+    private static final int QUEUE_CAPACITY = 5;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void allPayslipsAreSaved() {
+        RecordingPayrollRuns payrollRuns = new RecordingPayrollRuns();
+        FailingPayrolls payrolls = new FailingPayrolls(null, Integer.MAX_VALUE);
+
+        PayslipPipelineResult result = assertTimeoutPreemptively(TIMEOUT,
+                () -> pipeline(payrolls, payrollRuns).run(YearMonth.of(2025, 1), LocalDate.of(2025, 2, 10)));
+
+        assertEquals(EMPLOYEE_COUNT, result.saved());
+        assertEquals(List.of(PayrollRunStatus.COMPLETED), payrollRuns.finishedStatuses);
+    }
+
+    @Test
+    void unexpectedSaveFailureFailsRunWithoutBlocking() {
+        NullPointerException saveFailure = new NullPointerException("Payslip email cannot be built.");
+        RecordingPayrollRuns payrollRuns = new RecordingPayrollRuns();
+        FailingPayrolls payrolls = new FailingPayrolls(saveFailure, 3);
+
+        RuntimeException failure = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(RuntimeException.class,
+                () -> pipeline(payrolls, payrollRuns).run(YearMonth.of(2025, 2), LocalDate.of(2025, 3, 10))));
+
+        assertSame(saveFailure, failure);
+        assertEquals(List.of(PayrollRunStatus.FAILED), payrollRuns.finishedStatuses);
+        assertEquals(3, payrolls.calls);
+    }
+
+    @Test
+    void databaseSaveFailureFailsRunWithoutBlocking() {
+        DatabaseException saveFailure = new DatabaseException("Connection lost.", new RuntimeException());
+        RecordingPayrollRuns payrollRuns = new RecordingPayrollRuns();
+
+        RuntimeException failure = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(RuntimeException.class,
+                () -> pipeline(new FailingPayrolls(saveFailure, 1), payrollRuns).run(YearMonth.of(2025, 3), LocalDate.of(2025, 4, 10))));
+
+        assertSame(saveFailure, failure);
+        assertEquals(List.of(PayrollRunStatus.FAILED), payrollRuns.finishedStatuses);
+    }
+
+    private static PayslipPipeline pipeline(PayrollDatabaseManager payrolls, PayrollRunDatabaseManager payrollRuns) {
+        return new PayslipPipeline(new FixedPayrollEngine(), new InMemoryEmployees(), payrolls, payrollRuns, BATCH_SIZE, QUEUE_CAPACITY);
+    }
+
+    /**
+     * Employees with IDs from 1 to {@value #EMPLOYEE_COUNT}, none of them paid yet.
+     */
+    private static final class InMemoryEmployees extends EmployeeDatabaseManager {
+        @Override
+        public List<Employee> getUnpaidEmployeesAfter(long afterId, int limit, YearMonth payrollPeriod) {
+            return LongStream.rangeClosed(afterId + 1, Math.min(afterId + limit, EMPLOYEE_COUNT))
+                    .mapToObj(id -> new Employee.EmployeeBuilder().setId(id).build())
+                    .toList();
+        }
+    }
+
+    /**
+     * Computes the same payslip for every employee.
+     */
+    private static final class FixedPayrollEngine extends PayrollEngine {
+        @Override
+        public List<Payslip> computePayslips(List<Employee> orderedEmployees, long firstPayslipId, YearMonth payrollPeriod, LocalDate paymentDate) {
+            List<Payslip> payslips = new ArrayList<>(orderedEmployees.size());
+            for (Employee employee : orderedEmployees) {
+                payslips.add(new Payslip(firstPayslipId++, employee.getId(), BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ZERO,
+                        BigDecimal.ONE, payrollPeriod, paymentDate));
+            }
+            return payslips;
+        }
+    }
+
+    /**
+     * Saves nothing and throws a failure from the given call on.
+     */
+    private static final class FailingPayrolls extends PayrollDatabaseManager {
+        private final RuntimeException failure;
+        private final int failingCall;
+        private int calls;
+
+        FailingPayrolls(RuntimeException failure, int failingCall) {
+            this.failure = failure;
+            this.failingCall = failingCall;
+        }
+
+        @Override
+        public List<Long> savePayrollRunChunk(List<Pair<Employee, Payslip>> payslips, Long runId, Long lastEmployeeId) {
+            if (++calls >= failingCall) {
+                throw failure;
+            }
+            return payslips.stream().map(pair -> pair.getSecond().id()).toList();
+        }
+    }
+
+    /**
+     * Starts every run from the beginning and records the statuses the runs finish with.
+     */
+    private static final class RecordingPayrollRuns extends PayrollRunDatabaseManager {
+        private final List<PayrollRunStatus> finishedStatuses = new ArrayList<>();
+
+        @Override
+        public PayrollRun startRun(YearMonth payrollPeriod, LocalDate paymentDate) {
+            return new PayrollRun(1L, payrollPeriod, paymentDate, PayrollRunStatus.RUNNING, 0L);
+        }
+
+        @Override
+        public void finishRun(Long runId, PayrollRunStatus status) {
+            finishedStatuses.add(status);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package hr.java.payroll.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal in-process SMTP server for tests. It accepts every sender and every recipient except those at
+ * {@value #UNKNOWN_DOMAIN}, keeps the received messages in memory, and can drop its open connections to simulate a server closing idle or broken connections.
+ *
+ * @author Lovro Bilanović
+ * @version 1.0
+ */
+final class SmtpStandIn implements AutoCloseable {
+    static final String UNKNOWN_DOMAIN = "unknown.example.com";
+
+    private final ServerSocket serverSocket;
+    private final List<Socket> openSockets = new CopyOnWriteArrayList<>();
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connectionsAccepted = new AtomicInteger();
+    private final AtomicBoolean dropOnNextMail = new AtomicBoolean();
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @throws IOException if the port cannot be opened.
+     */
+    SmtpStandIn() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("smtp-stand-in").start(this::accept);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnectionsAccepted() {
+        return connectionsAccepted.get();
+    }
+
+    List<String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Closes every open connection from the server side.
+     *
+     * @throws IOException if a connection cannot be closed.
+     */
+    void dropConnections() throws IOException {
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Makes the server close the connection on which the next message is started, after the connection has
+     * been checked, so the sender only notices the drop while sending.
+     */
+    void dropOnNextMail() {
+        dropOnNextMail.set(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionsAccepted.incrementAndGet();
+                openSockets.add(socket);
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            reply(out, "220 localhost SMTP stand-in");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        if (dropOnNextMail.compareAndSet(true, false)) {
+                            return;
+                        }
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> reply(out, line.contains("@" + UNKNOWN_DOMAIN) ? "550 No such user" : "250 OK");
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder message = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            message.append(line).append('\n');
+                        }
+                        messages.add(message.toString());
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (SocketException e) {
+            // The connection was dropped by dropConnections() or by the client.
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private static void reply(PrintWriter out, String response) {
+        out.print(response + "\r\n");
+        out.flush();
+    }
+}